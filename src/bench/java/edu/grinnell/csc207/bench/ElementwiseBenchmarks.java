@@ -0,0 +1,240 @@
+package edu.grinnell.csc207.bench;
+
+import edu.grinnell.csc207.util.ArraySizeException;
+import edu.grinnell.csc207.util.DoubleMatrix;
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixV0;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for element-wise arithmetic. Compares the kernels
+ * behind {@link DoubleMatrix} to the same loops over a boxed
+ * {@code MatrixV0<Double>}, and the reductions of both.
+ *
+ * <p>The benchmarks fork with the {@code jdk.incubator.vector} module,
+ * so DoubleMatrix uses the Vector API. To measure the scalar fallback
+ * instead, add
+ * {@code -jvmArgsAppend -Dedu.grinnell.csc207.util.scalar=true}
+ * to the JMH arguments.</p>
+ *
+ * @author Andrew N. Fargo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class ElementwiseBenchmarks {
+  // +--------+------------------------------------------------------
+  // | States |
+  // +--------+
+
+  /**
+   * Two square matrices of random doubles, in both representations.
+   */
+  @State(Scope.Thread)
+  public static class Operands {
+    /** The number of rows and columns in each matrix. */
+    @Param({"64", "512"})
+    public int size;
+
+    /** The left-hand primitive matrix. */
+    DoubleMatrix a;
+
+    /** The right-hand primitive matrix. */
+    DoubleMatrix b;
+
+    /** The left-hand boxed matrix. */
+    Matrix<Double> boxedA;
+
+    /** The right-hand boxed matrix. */
+    Matrix<Double> boxedB;
+
+    /**
+     * Build the matrices.
+     */
+    @Setup(Level.Trial)
+    public void buildMatrices() {
+      Random random = new Random(MatrixBenchmarks.SEED);
+      this.a = new DoubleMatrix(this.size, this.size);
+      this.b = new DoubleMatrix(this.size, this.size);
+      this.boxedA = new MatrixV0<Double>(this.size, this.size, 0.0);
+      this.boxedB = new MatrixV0<Double>(this.size, this.size, 0.0);
+      for (int row = 0; row < this.size; row++) {
+        for (int col = 0; col < this.size; col++) {
+          double x = random.nextDouble();
+          double y = random.nextDouble();
+          this.a.setDouble(row, col, x);
+          this.b.setDouble(row, col, y);
+          this.boxedA.set(row, col, x);
+          this.boxedB.set(row, col, y);
+        } // for col
+      } // for row
+    } // buildMatrices()
+  } // class Operands
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Add two primitive matrices.
+   *
+   * @param operands
+   *   The matrices.
+   *
+   * @return the sum.
+   *
+   * @throws ArraySizeException
+   *   Never; the matrices have the same shape.
+   */
+  @Benchmark
+  public DoubleMatrix addPrimitive(Operands operands) throws ArraySizeException {
+    return operands.a.plus(operands.b);
+  } // addPrimitive(Operands)
+
+  /**
+   * Add two boxed matrices.
+   *
+   * @param operands
+   *   The matrices.
+   *
+   * @return the sum.
+   */
+  @Benchmark
+  public Matrix<Double> addBoxed(Operands operands) {
+    Matrix<Double> a = operands.boxedA;
+    Matrix<Double> b = operands.boxedB;
+    Matrix<Double> c = new MatrixV0<Double>(a.width(), a.height());
+    for (int row = 0; row < a.height(); row++) {
+      for (int col = 0; col < a.width(); col++) {
+        c.set(row, col, a.get(row, col) + b.get(row, col));
+      } // for col
+    } // for row
+    return c;
+  } // addBoxed(Operands)
+
+  /**
+   * Compute a * b + a for primitive matrices.
+   *
+   * @param operands
+   *   The matrices.
+   *
+   * @return the result.
+   *
+   * @throws ArraySizeException
+   *   Never; the matrices have the same shape.
+   */
+  @Benchmark
+  public DoubleMatrix fmaPrimitive(Operands operands) throws ArraySizeException {
+    return operands.a.fma(operands.b, operands.a);
+  } // fmaPrimitive(Operands)
+
+  /**
+   * Compute a * b + a for boxed matrices.
+   *
+   * @param operands
+   *   The matrices.
+   *
+   * @return the result.
+   */
+  @Benchmark
+  public Matrix<Double> fmaBoxed(Operands operands) {
+    Matrix<Double> a = operands.boxedA;
+    Matrix<Double> b = operands.boxedB;
+    Matrix<Double> c = new MatrixV0<Double>(a.width(), a.height());
+    for (int row = 0; row < a.height(); row++) {
+      for (int col = 0; col < a.width(); col++) {
+        c.set(row, col, Math.fma(a.get(row, col), b.get(row, col), a.get(row, col)));
+      } // for col
+    } // for row
+    return c;
+  } // fmaBoxed(Operands)
+
+  /**
+   * Add up a primitive matrix.
+   *
+   * @param operands
+   *   The matrices.
+   *
+   * @return the sum.
+   */
+  @Benchmark
+  public double sumPrimitive(Operands operands) {
+    return operands.a.sum();
+  } // sumPrimitive(Operands)
+
+  /**
+   * Add up a boxed matrix.
+   *
+   * @param operands
+   *   The matrices.
+   *
+   * @return the sum.
+   */
+  @Benchmark
+  public double sumBoxed(Operands operands) {
+    Matrix<Double> a = operands.boxedA;
+    double sum = 0;
+    for (int row = 0; row < a.height(); row++) {
+      for (int col = 0; col < a.width(); col++) {
+        sum += a.get(row, col);
+      } // for col
+    } // for row
+    return sum;
+  } // sumBoxed(Operands)
+
+  /**
+   * Add up a boxed matrix with its reduce method.
+   *
+   * @param operands
+   *   The matrices.
+   *
+   * @return the sum.
+   */
+  @Benchmark
+  public double sumReduce(Operands operands) {
+    return operands.boxedA.reduce(0.0, Double::sum);
+  } // sumReduce(Operands)
+
+  /**
+   * Add up the columns of a primitive matrix.
+   *
+   * @param operands
+   *   The matrices.
+   *
+   * @return the column sums.
+   */
+  @Benchmark
+  public double[] colSumsPrimitive(Operands operands) {
+    return operands.a.colSums();
+  } // colSumsPrimitive(Operands)
+
+  /**
+   * Add up the columns of a boxed matrix with its reduceCols method.
+   *
+   * @param operands
+   *   The matrices.
+   *
+   * @return the column sums.
+   */
+  @Benchmark
+  public Double[] colSumsBoxed(Operands operands) {
+    return operands.boxedA.reduceCols(0.0, Double::sum, Double[]::new);
+  } // colSumsBoxed(Operands)
+} // class ElementwiseBenchmarks
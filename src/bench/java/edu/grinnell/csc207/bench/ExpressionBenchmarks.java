@@ -0,0 +1,145 @@
+package edu.grinnell.csc207.bench;
+
+import edu.grinnell.csc207.util.ArraySizeException;
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixExpr;
+import edu.grinnell.csc207.util.MatrixV0;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for element-wise chains. Compares a chain of three
+ * steps, each materialized into its own matrix, to the same chain as
+ * one fused {@link MatrixExpr}, sequential and parallel.
+ *
+ * @author Andrew N. Fargo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmarks {
+  // +--------+------------------------------------------------------
+  // | States |
+  // +--------+
+
+  /**
+   * Two square matrices of random doubles.
+   */
+  @State(Scope.Thread)
+  public static class Operands {
+    /** The number of rows and columns in each matrix. */
+    @Param({"64", "512"})
+    public int size;
+
+    /** The left-hand matrix. */
+    Matrix<Double> a;
+
+    /** The right-hand matrix. */
+    Matrix<Double> b;
+
+    /**
+     * Build the matrices.
+     */
+    @Setup(Level.Trial)
+    public void buildMatrices() {
+      Random random = new Random(MatrixBenchmarks.SEED);
+      this.a = new MatrixV0<Double>(this.size, this.size, 0.0);
+      this.b = new MatrixV0<Double>(this.size, this.size, 0.0);
+      for (int row = 0; row < this.size; row++) {
+        for (int col = 0; col < this.size; col++) {
+          this.a.set(row, col, random.nextDouble());
+          this.b.set(row, col, random.nextDouble());
+        } // for col
+      } // for row
+    } // buildMatrices()
+  } // class Operands
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Compute 2a, then 2a + b, then (2a + b)^2, materializing each step.
+   *
+   * @param operands
+   *   The matrices.
+   *
+   * @return the result.
+   *
+   * @throws ArraySizeException
+   *   Never; the matrices have the same shape.
+   */
+  @Benchmark
+  public Matrix<Double> eager(Operands operands) throws ArraySizeException {
+    Matrix<Double> doubled = MatrixExpr.of(operands.a).map((x) -> 2 * x).materialize();
+    Matrix<Double> summed = MatrixExpr.of(doubled).zip(operands.b, Double::sum).materialize();
+    return MatrixExpr.of(summed).map((x) -> x * x).materialize();
+  } // eager(Operands)
+
+  /**
+   * Compute (2a + b)^2 as one fused expression.
+   *
+   * @param operands
+   *   The matrices.
+   *
+   * @return the result.
+   *
+   * @throws ArraySizeException
+   *   Never; the matrices have the same shape.
+   */
+  @Benchmark
+  public Matrix<Double> fused(Operands operands) throws ArraySizeException {
+    return MatrixExpr.of(operands.a).map((x) -> 2 * x).zip(operands.b, Double::sum)
+        .map((x) -> x * x).materialize();
+  } // fused(Operands)
+
+  /**
+   * Compute (2a + b)^2 as one fused expression, in parallel.
+   *
+   * @param operands
+   *   The matrices.
+   *
+   * @return the result.
+   *
+   * @throws ArraySizeException
+   *   Never; the matrices have the same shape.
+   */
+  @Benchmark
+  public Matrix<Double> fusedParallel(Operands operands) throws ArraySizeException {
+    return MatrixExpr.of(operands.a).parallel().map((x) -> 2 * x)
+        .zip(operands.b, Double::sum).map((x) -> x * x).materialize();
+  } // fusedParallel(Operands)
+
+  /**
+   * Sum (2a + b)^2 without materializing anything.
+   *
+   * @param operands
+   *   The matrices.
+   *
+   * @return the sum.
+   *
+   * @throws ArraySizeException
+   *   Never; the matrices have the same shape.
+   */
+  @Benchmark
+  public Double fusedSum(Operands operands) throws ArraySizeException {
+    return MatrixExpr.of(operands.a).map((x) -> 2 * x).zip(operands.b, Double::sum)
+        .map((x) -> x * x).reduce(0.0, Double::sum);
+  } // fusedSum(Operands)
+} // class ExpressionBenchmarks
@@ -0,0 +1,448 @@
+package edu.grinnell.csc207.bench;
+
+import edu.grinnell.csc207.util.ArrayPool;
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixV0;
+import edu.grinnell.csc207.util.MetricsMatrix;
+import edu.grinnell.csc207.util.TombstoneMatrix;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * JMH benchmarks for every operation in the {@link Matrix} interface.
+ *
+ * <p>Each benchmark is parameterized over the size, shape, element type
+ * and implementation of the matrix. Run them with
+ * {@code mvn -Pbench test-compile exec:exec@bench}, which enables the
+ * GC profiler so that allocation regressions are visible alongside the
+ * timings.</p>
+ *
+ * <p>Structural benchmarks insert a row or column and delete it again in
+ * the same invocation, so that the matrix keeps the same shape from one
+ * invocation to the next without an invocation-level fixture, whose
+ * overhead would swamp operations this short. Each score is the cost of
+ * the pair.</p>
+ *
+ * @author Andrew N. Fargo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatrixBenchmarks {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The number of precomputed random cells used by get and set. */
+  static final int CELLS = 1024;
+
+  /** The seed for all random data, so runs are comparable. */
+  static final long SEED = 207;
+
+  // +--------+------------------------------------------------------
+  // | States |
+  // +--------+
+
+  /**
+   * A matrix built from the benchmark parameters.
+   */
+  @State(Scope.Thread)
+  public static class MatrixState {
+    /** The number of cells along the shorter side (for square matrices,
+        along both sides). */
+    @Param({"16", "256", "1024"})
+    public int size;
+
+    /** The shape of the matrix: square, wide (4:1) or tall (1:4). */
+    @Param({"square", "wide", "tall"})
+    public String shape;
+
+    /** The type of element stored in the matrix. */
+    @Param({"Integer", "String"})
+    public String element;
+
+    /** The implementation under test. */
+    @Param({"MatrixV0", "PooledMatrixV0", "MetricsMatrix", "TombstoneMatrix"})
+    public String impl;
+
+    /** The matrix under test. */
+    Matrix<Object> matrix;
+
+    /** An equal copy of the matrix, for equals. */
+    Matrix<Object> copy;
+
+    /** A value to store. */
+    Object val;
+
+    /** A different value to store. */
+    Object otherVal;
+
+    /** Random rows for get and set. */
+    int[] rows;
+
+    /** Random columns for get and set. */
+    int[] cols;
+
+    /** The next random cell to use. */
+    int next;
+
+    /**
+     * Build the matrix and the random cells.
+     */
+    @Setup(Level.Trial)
+    public void buildMatrix() {
+      int width = width(this.size, this.shape);
+      int height = height(this.size, this.shape);
+      Random random = new Random(SEED);
+      this.matrix = makeMatrix(this.impl, width, height, element(this.element, 0));
+      for (int row = 0; row < height; row++) {
+        for (int col = 0; col < width; col++) {
+          this.matrix.set(row, col, element(this.element, random.nextInt(64)));
+        } // for col
+      } // for row
+      this.copy = this.matrix.clone();
+      this.val = element(this.element, 1);
+      this.otherVal = element(this.element, 2);
+
+      this.rows = new int[CELLS];
+      this.cols = new int[CELLS];
+      for (int i = 0; i < CELLS; i++) {
+        this.rows[i] = random.nextInt(height);
+        this.cols[i] = random.nextInt(width);
+      } // for
+    } // buildMatrix()
+
+    /**
+     * Pick the next random cell.
+     *
+     * @return the index of the cell in rows and cols.
+     */
+    int nextCell() {
+      this.next = (this.next + 1) & (CELLS - 1);
+      return this.next;
+    } // nextCell()
+  } // class MatrixState
+
+  /**
+   * A matrix that is edited at the head, middle or tail.
+   */
+  public static class StructuralState extends MatrixState {
+    /** Where structural edits happen: head, middle or tail. */
+    @Param({"head", "middle", "tail"})
+    public String position;
+
+    /** The row at which rows are inserted and deleted. */
+    int row;
+
+    /** The column at which columns are inserted and deleted. */
+    int col;
+
+    /**
+     * Determine where the edits happen. Rows and columns are deleted
+     * from the same place that they are inserted, so that each
+     * invocation leaves the matrix as it found it.
+     */
+    @Setup(Level.Trial)
+    public void findPosition() {
+      this.row = index(this.position, height(this.size, this.shape) + 1);
+      this.col = index(this.position, width(this.size, this.shape) + 1);
+    } // findPosition()
+  } // class StructuralState
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Determine the width of a matrix of the given size and shape.
+   *
+   * @param size
+   *   The length of the shorter side.
+   * @param shape
+   *   The name of the shape.
+   *
+   * @return the width.
+   */
+  static int width(int size, String shape) {
+    return "wide".equals(shape) ? size * 4 : size;
+  } // width(int, String)
+
+  /**
+   * Determine the height of a matrix of the given size and shape.
+   *
+   * @param size
+   *   The length of the shorter side.
+   * @param shape
+   *   The name of the shape.
+   *
+   * @return the height.
+   */
+  static int height(int size, String shape) {
+    return "tall".equals(shape) ? size * 4 : size;
+  } // height(int, String)
+
+  /**
+   * Build a matrix of the named implementation.
+   *
+   * @param impl
+   *   The name of the implementation.
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value.
+   *
+   * @return the new matrix.
+   */
+  static Matrix<Object> makeMatrix(String impl, int width, int height, Object def) {
+    switch (impl) {
+      case "MatrixV0":
+        return new MatrixV0<Object>(width, height, def);
+      case "PooledMatrixV0":
+        MatrixV0<Object> pooled = new MatrixV0<Object>(width, height, def);
+        pooled.setPool(new ArrayPool());
+        return pooled;
+      case "MetricsMatrix":
+        return new MetricsMatrix<Object>(new MatrixV0<Object>(width, height, def));
+      case "TombstoneMatrix":
+        return new TombstoneMatrix<Object>(width, height, def);
+      default:
+        throw new IllegalArgumentException("Unknown implementation: " + impl);
+    } // switch
+  } // makeMatrix(String, int, int, Object)
+
+  /**
+   * Build an element of the named type.
+   *
+   * @param type
+   *   The name of the element type.
+   * @param i
+   *   A number identifying the element.
+   *
+   * @return the element.
+   */
+  static Object element(String type, int i) {
+    switch (type) {
+      case "Integer":
+        return Integer.valueOf(i);
+      case "String":
+        return "s" + i;
+      default:
+        throw new IllegalArgumentException("Unknown element type: " + type);
+    } // switch
+  } // element(String, int)
+
+  /**
+   * Convert a position name into an index in [0, bound).
+   *
+   * @param position
+   *   The name of the position.
+   * @param bound
+   *   One more than the largest valid index.
+   *
+   * @return the index.
+   */
+  static int index(String position, int bound) {
+    switch (position) {
+      case "head":
+        return 0;
+      case "middle":
+        return bound / 2;
+      case "tail":
+        return bound - 1;
+      default:
+        throw new IllegalArgumentException("Unknown position: " + position);
+    } // switch
+  } // index(String, int)
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Get a random cell.
+   *
+   * @param state
+   *   The matrix.
+   *
+   * @return the value of the cell.
+   */
+  @Benchmark
+  public Object get(MatrixState state) {
+    int i = state.nextCell();
+    return state.matrix.get(state.rows[i], state.cols[i]);
+  } // get(MatrixState)
+
+  /**
+   * Set a random cell.
+   *
+   * @param state
+   *   The matrix.
+   */
+  @Benchmark
+  public void set(MatrixState state) {
+    int i = state.nextCell();
+    state.matrix.set(state.rows[i], state.cols[i], state.val);
+  } // set(MatrixState)
+
+  /**
+   * Insert a row of default values and delete it again.
+   *
+   * @param state
+   *   The matrix.
+   */
+  @Benchmark
+  public void insertDeleteRow(StructuralState state) {
+    state.matrix.insertRow(state.row);
+    state.matrix.deleteRow(state.row);
+  } // insertDeleteRow(StructuralState)
+
+  /**
+   * Insert a column of default values and delete it again.
+   *
+   * @param state
+   *   The matrix.
+   */
+  @Benchmark
+  public void insertDeleteCol(StructuralState state) {
+    state.matrix.insertCol(state.col);
+    state.matrix.deleteCol(state.col);
+  } // insertDeleteCol(StructuralState)
+
+  /**
+   * Fill the whole matrix, alternating between two values so that
+   * every invocation writes.
+   *
+   * @param state
+   *   The matrix.
+   */
+  @Benchmark
+  public void fillRegion(MatrixState state) {
+    Object tmp = state.val;
+    state.val = state.otherVal;
+    state.otherVal = tmp;
+    state.matrix.fillRegion(0, 0, state.matrix.height(), state.matrix.width(), tmp);
+  } // fillRegion(MatrixState)
+
+  /**
+   * Fill the main diagonal.
+   *
+   * @param state
+   *   The matrix.
+   */
+  @Benchmark
+  public void fillLine(MatrixState state) {
+    state.matrix.fillLine(0, 0, 1, 1, state.matrix.height(), state.matrix.width(),
+        state.val);
+  } // fillLine(MatrixState)
+
+  /**
+   * Fill the first row, a line that stays within one row.
+   *
+   * @param state
+   *   The matrix.
+   */
+  @Benchmark
+  public void fillLineRow(MatrixState state) {
+    state.matrix.fillLine(0, 0, 0, 1, 1, state.matrix.width(), state.val);
+  } // fillLineRow(MatrixState)
+
+  /**
+   * Clone the matrix.
+   *
+   * @param state
+   *   The matrix.
+   *
+   * @return the clone.
+   */
+  @Benchmark
+  public Matrix<Object> cloneMatrix(MatrixState state) {
+    return state.matrix.clone();
+  } // cloneMatrix(MatrixState)
+
+  /**
+   * Transpose the matrix into a new one.
+   *
+   * @param state
+   *   The matrix.
+   *
+   * @return the transpose.
+   */
+  @Benchmark
+  public Matrix<Object> transpose(MatrixState state) {
+    return state.matrix.transpose();
+  } // transpose(MatrixState)
+
+  /**
+   * Transpose the matrix in place. Wide and tall matrices alternate
+   * between the two shapes from one invocation to the next.
+   *
+   * @param state
+   *   The matrix.
+   */
+  @Benchmark
+  public void transposeInPlace(MatrixState state) {
+    state.matrix.transposeInPlace();
+  } // transposeInPlace(MatrixState)
+
+  /**
+   * Compare the matrix to an equal copy (the worst case for equals).
+   *
+   * @param state
+   *   The matrix.
+   *
+   * @return true, if all goes well.
+   */
+  @Benchmark
+  public boolean equalsCopy(MatrixState state) {
+    return state.matrix.equals(state.copy);
+  } // equalsCopy(MatrixState)
+
+  /**
+   * Hash the matrix.
+   *
+   * @param state
+   *   The matrix.
+   *
+   * @return the hash code.
+   */
+  @Benchmark
+  public int hashCode(MatrixState state) {
+    return state.matrix.hashCode();
+  } // hashCode(MatrixState)
+
+  /**
+   * Print the matrix, with labels, to a writer that discards its input.
+   *
+   * @param state
+   *   The matrix.
+   * @param hole
+   *   Consumes the pen so that printing is not optimized away.
+   */
+  @Benchmark
+  public void print(MatrixState state, Blackhole hole) {
+    PrintWriter pen = new PrintWriter(Writer.nullWriter());
+    Matrix.print(pen, state.matrix, true);
+    hole.consume(pen);
+  } // print(MatrixState, Blackhole)
+} // class MatrixBenchmarks
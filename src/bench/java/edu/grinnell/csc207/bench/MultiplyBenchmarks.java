@@ -0,0 +1,198 @@
+package edu.grinnell.csc207.bench;
+
+import edu.grinnell.csc207.util.ArraySizeException;
+import edu.grinnell.csc207.util.Matrix;
+import edu.grinnell.csc207.util.MatrixMath;
+import edu.grinnell.csc207.util.MatrixV0;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for matrix multiplication. Compares the blocked kernel
+ * in {@link MatrixMath} to a naive triple loop over {@code get}, and
+ * the parallel fork/join product (with and without Strassen's
+ * algorithm) to the sequential one. Run the parallel benchmarks with
+ * {@code -p threads=...} to measure scaling.
+ *
+ * <p>To convert a score to a FLOP rate, divide 2 * size^3 by the time
+ * per operation.</p>
+ *
+ * @author Andrew N. Fargo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class MultiplyBenchmarks {
+  // +--------+------------------------------------------------------
+  // | States |
+  // +--------+
+
+  /**
+   * Two square matrices of random doubles.
+   */
+  @State(Scope.Thread)
+  public static class Operands {
+    /** The number of rows and columns in each matrix. */
+    @Param({"256", "1024", "2048"})
+    public int size;
+
+    /** The block size used by the blocked kernel. */
+    @Param({"64"})
+    public int blockSize;
+
+    /** The left-hand matrix. */
+    Matrix<Double> a;
+
+    /** The right-hand matrix. */
+    Matrix<Double> b;
+
+    /**
+     * Build the matrices.
+     */
+    @Setup(Level.Trial)
+    public void buildMatrices() {
+      Random random = new Random(MatrixBenchmarks.SEED);
+      this.a = new MatrixV0<Double>(this.size, this.size, 0.0);
+      this.b = new MatrixV0<Double>(this.size, this.size, 0.0);
+      for (int row = 0; row < this.size; row++) {
+        for (int col = 0; col < this.size; col++) {
+          this.a.set(row, col, random.nextDouble());
+          this.b.set(row, col, random.nextDouble());
+        } // for col
+      } // for row
+    } // buildMatrices()
+  } // class Operands
+
+  /**
+   * A fork/join pool of a chosen size.
+   */
+  @State(Scope.Benchmark)
+  public static class Pool {
+    /** The number of worker threads. */
+    @Param({"1", "4", "32"})
+    public int threads;
+
+    /** The size at which parallel multiplication stops splitting. */
+    @Param({"128"})
+    public int cutoff;
+
+    /** The pool. */
+    ForkJoinPool pool;
+
+    /**
+     * Start the pool.
+     */
+    @Setup(Level.Trial)
+    public void start() {
+      this.pool = new ForkJoinPool(this.threads);
+    } // start()
+
+    /**
+     * Stop the pool.
+     */
+    @TearDown(Level.Trial)
+    public void stop() {
+      this.pool.shutdown();
+    } // stop()
+  } // class Pool
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Multiply with the blocked kernel.
+   *
+   * @param operands
+   *   The matrices to multiply.
+   *
+   * @return the product.
+   *
+   * @throws ArraySizeException
+   *   Never; the matrices are square.
+   */
+  @Benchmark
+  public Matrix<Double> blocked(Operands operands) throws ArraySizeException {
+    return MatrixMath.multiply(operands.a, operands.b, operands.blockSize);
+  } // blocked(Operands)
+
+  /**
+   * Multiply with a naive triple loop over get.
+   *
+   * @param operands
+   *   The matrices to multiply.
+   *
+   * @return the product.
+   */
+  @Benchmark
+  public Matrix<Double> naive(Operands operands) {
+    Matrix<Double> a = operands.a;
+    Matrix<Double> b = operands.b;
+    Matrix<Double> c = new MatrixV0<Double>(b.width(), a.height(), 0.0);
+    for (int i = 0; i < a.height(); i++) {
+      for (int j = 0; j < b.width(); j++) {
+        double sum = 0;
+        for (int k = 0; k < a.width(); k++) {
+          sum += a.get(i, k) * b.get(k, j);
+        } // for k
+        c.set(i, j, sum);
+      } // for j
+    } // for i
+    return c;
+  } // naive(Operands)
+
+  /**
+   * Multiply in parallel by recursive decomposition.
+   *
+   * @param operands
+   *   The matrices to multiply.
+   * @param pool
+   *   The pool in which to run.
+   *
+   * @return the product.
+   *
+   * @throws ArraySizeException
+   *   Never; the matrices are square.
+   */
+  @Benchmark
+  public Matrix<Double> parallel(Operands operands, Pool pool) throws ArraySizeException {
+    return MatrixMath.parallelMultiply(operands.a, operands.b, pool.pool, pool.cutoff,
+        MatrixMath.NO_STRASSEN);
+  } // parallel(Operands, Pool)
+
+  /**
+   * Multiply in parallel, using Strassen's algorithm above 512.
+   *
+   * @param operands
+   *   The matrices to multiply.
+   * @param pool
+   *   The pool in which to run.
+   *
+   * @return the product.
+   *
+   * @throws ArraySizeException
+   *   Never; the matrices are square.
+   */
+  @Benchmark
+  public Matrix<Double> strassen(Operands operands, Pool pool) throws ArraySizeException {
+    return MatrixMath.parallelMultiply(operands.a, operands.b, pool.pool, pool.cutoff, 512);
+  } // strassen(Operands, Pool)
+} // class MultiplyBenchmarks
@@ -0,0 +1,159 @@
+package edu.grinnell.csc207.bench;
+
+import edu.grinnell.csc207.util.DoubleMatrix;
+import edu.grinnell.csc207.util.SegmentTree2D;
+import edu.grinnell.csc207.util.SummedAreaTable;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks for rectangle sums over a {@link DoubleMatrix}: a scan
+ * of the rectangle, a {@link SummedAreaTable} and a {@link SegmentTree2D}
+ * under workloads with no, a few and many point updates per query.
+ *
+ * @author Andrew N. Fargo
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RangeQueryBenchmarks {
+  // +--------+------------------------------------------------------
+  // | States |
+  // +--------+
+
+  /**
+   * A square matrix of random doubles, with indexes over it.
+   */
+  @State(Scope.Thread)
+  public static class Grid {
+    /** The number of rows and columns. */
+    @Param({"256", "1024"})
+    public int size;
+
+    /** The number of point updates before each query. */
+    @Param({"0", "1", "16"})
+    public int updates;
+
+    /** The matrix. */
+    DoubleMatrix matrix;
+
+    /** The summed-area table over the matrix. */
+    SummedAreaTable table;
+
+    /** The segment tree of sums over the matrix. */
+    SegmentTree2D tree;
+
+    /** Where to update and query. */
+    Random random;
+
+    /**
+     * Build the matrix and the indexes.
+     */
+    @Setup(Level.Trial)
+    public void build() {
+      this.random = new Random(MatrixBenchmarks.SEED);
+      this.matrix = new DoubleMatrix(this.size, this.size);
+      for (int row = 0; row < this.size; row++) {
+        for (int col = 0; col < this.size; col++) {
+          this.matrix.setDouble(row, col, this.random.nextDouble());
+        } // for col
+      } // for row
+      this.table = new SummedAreaTable(this.matrix);
+      this.tree = new SegmentTree2D(this.matrix, SegmentTree2D.Aggregate.SUM);
+    } // build()
+
+    /**
+     * Release the indexes.
+     */
+    @TearDown(Level.Trial)
+    public void release() {
+      this.table.detach();
+      this.tree.detach();
+    } // release()
+
+    /**
+     * Apply the point updates for one query.
+     */
+    void update() {
+      for (int i = 0; i < this.updates; i++) {
+        this.matrix.setDouble(this.random.nextInt(this.size), this.random.nextInt(this.size),
+            this.random.nextDouble());
+      } // for
+    } // update()
+  } // class Grid
+
+  // +------------+--------------------------------------------------
+  // | Benchmarks |
+  // +------------+
+
+  /**
+   * Update, then sum the middle quarter by scanning it.
+   *
+   * @param grid
+   *   The matrix.
+   *
+   * @return the sum.
+   */
+  @Benchmark
+  public double scan(Grid grid) {
+    grid.update();
+    int lo = grid.size / 4;
+    int hi = lo + grid.size / 2;
+    double sum = 0;
+    for (int row = lo; row < hi; row++) {
+      for (int col = lo; col < hi; col++) {
+        sum += grid.matrix.getDouble(row, col);
+      } // for col
+    } // for row
+    return sum;
+  } // scan(Grid)
+
+  /**
+   * Update, then sum the middle quarter with the summed-area table.
+   *
+   * @param grid
+   *   The matrix.
+   *
+   * @return the sum.
+   */
+  @Benchmark
+  public double summedAreaTable(Grid grid) {
+    grid.update();
+    int lo = grid.size / 4;
+    int hi = lo + grid.size / 2;
+    return grid.table.sum(lo, lo, hi, hi);
+  } // summedAreaTable(Grid)
+
+  /**
+   * Update, then sum the middle quarter with the segment tree.
+   *
+   * @param grid
+   *   The matrix.
+   *
+   * @return the sum.
+   */
+  @Benchmark
+  public double segmentTree(Grid grid) {
+    grid.update();
+    int lo = grid.size / 4;
+    int hi = lo + grid.size / 2;
+    return grid.tree.query(lo, lo, hi, hi);
+  } // segmentTree(Grid)
+} // class RangeQueryBenchmarks
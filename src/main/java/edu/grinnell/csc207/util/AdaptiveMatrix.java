@@ -0,0 +1,591 @@
+package edu.grinnell.csc207.util;
+
+import java.util.function.BinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * A matrix that stores its values row by row (as a {@link MatrixV0}) or
+ * column by column (as a {@link ColumnMajorMatrix}), and switches
+ * between the two as its use changes.
+ *
+ * <p>Every operation adds its estimated cost in each layout to a pair of
+ * running totals. Consecutive accesses to neighbouring cells of a row
+ * count as a row scan, which is cheap row by row and costs a cache miss
+ * per cell column by column, and vice versa. Inserting or deleting a row
+ * moves one reference per row in the row-major layout but copies every
+ * cell in the column-major layout, and vice versa for columns. Row and
+ * column reductions and horizontal and vertical line fills are charged
+ * similarly. Whenever the other layout would have saved more than twice
+ * the cost of copying the matrix, the matrix is copied into it. The
+ * totals are halved at regular intervals, so old habits are
+ * forgotten.</p>
+ *
+ * @author Andrew N. Fargo
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class AdaptiveMatrix<T> implements Matrix<T> {
+  // +-------+-------------------------------------------------------
+  // | Types |
+  // +-------+
+
+  /**
+   * The ways of storing the values.
+   */
+  public enum Layout {
+    /** An array of rows, as in MatrixV0. */
+    ROW_MAJOR,
+    /** An array of columns, as in ColumnMajorMatrix. */
+    COLUMN_MAJOR
+  } // enum Layout
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The relative cost of reading a cell away from the last one read,
+      which usually misses the cache. */
+  private static final int MISS = 8;
+
+  /** The relative cost of reading a cell in a block of strided
+      segments, as reductions across the layout do. */
+  private static final int STRIDED = 2;
+
+  /** The number of cell accesses between decays of the totals. */
+  private static final int PERIOD = 1 << 12;
+
+  /** How many times the cost of copying the matrix the other layout
+      must save before the matrix is copied. */
+  private static final int MARGIN = 2;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The matrix that holds the values. */
+  private Matrix<T> delegate;
+
+  /** The current layout. */
+  private Layout layout;
+
+  /** Default value for insertions. */
+  private final T defaultValue;
+
+  /** The estimated cost of recent operations in the row-major layout. */
+  private long rowMajorCost;
+
+  /** The estimated cost of recent operations in the column-major
+      layout. */
+  private long columnMajorCost;
+
+  /** The number of cell accesses since the totals were last decayed. */
+  private int accesses;
+
+  /** The row of the last cell accessed. */
+  private int lastRow = -1;
+
+  /** The column of the last cell accessed. */
+  private int lastCol = -1;
+
+  /** The number of times the matrix has changed layout. */
+  private int relayouts;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default, stored row by row at first.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public AdaptiveMatrix(int width, int height, T def) {
+    this.delegate = new MatrixV0<T>(width, height, def);
+    this.layout = Layout.ROW_MAJOR;
+    this.defaultValue = def;
+  } // AdaptiveMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with null as
+   * the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public AdaptiveMatrix(int width, int height) {
+    this(width, height, null);
+  } // AdaptiveMatrix(int, int)
+
+  // +--------+------------------------------------------------------
+  // | Layout |
+  // +--------+
+
+  /**
+   * Determine how the values are stored now.
+   *
+   * @return the layout.
+   */
+  public Layout layout() {
+    return this.layout;
+  } // layout()
+
+  /**
+   * Count the changes of layout so far.
+   *
+   * @return the number of times the matrix has been copied into the
+   *   other layout.
+   */
+  public int relayouts() {
+    return this.relayouts;
+  } // relayouts()
+
+  /**
+   * Store the values in the given layout, copying them if needed. The
+   * layout may change again as the matrix is used.
+   *
+   * @param target
+   *   The layout.
+   */
+  @SuppressWarnings({"unchecked"})
+  public void setLayout(Layout target) {
+    if (target == this.layout) {
+      return;
+    } // if
+    if (target == Layout.COLUMN_MAJOR) {
+      MatrixV0<T> rowMajor = (MatrixV0<T>) this.delegate;
+      T[][] cols = (T[][]) new Object[rowMajor.width()][rowMajor.height()];
+      MatrixV0.transposeInto(rowMajor.values, cols, 0, rowMajor.height(), 0,
+          rowMajor.width());
+      this.delegate = new ColumnMajorMatrix<T>(cols, rowMajor.height(), this.defaultValue);
+    } else {
+      ColumnMajorMatrix<T> colMajor = (ColumnMajorMatrix<T>) this.delegate;
+      this.delegate =
+          new MatrixV0<T>(colMajor.rowValues(), colMajor.width(), this.defaultValue);
+    } // if/else
+    this.layout = target;
+    this.relayouts++;
+    this.rowMajorCost = 0;
+    this.columnMajorCost = 0;
+  } // setLayout(Layout)
+
+  // +-----------------+---------------------------------------------
+  // | Private methods |
+  // +-----------------+
+
+  /**
+   * Record the estimated cost of an operation in each layout, and
+   * change layout if the other one has become cheaper by enough.
+   *
+   * @param rowMajor
+   *   The cost in the row-major layout.
+   * @param columnMajor
+   *   The cost in the column-major layout.
+   */
+  private void charge(long rowMajor, long columnMajor) {
+    this.rowMajorCost += rowMajor;
+    this.columnMajorCost += columnMajor;
+    long copy = MARGIN * ((long) this.delegate.width() * this.delegate.height() + 1);
+    if (this.layout == Layout.ROW_MAJOR) {
+      if (this.rowMajorCost - this.columnMajorCost > copy) {
+        this.setLayout(Layout.COLUMN_MAJOR);
+      } // if
+    } else if (this.columnMajorCost - this.rowMajorCost > copy) {
+      this.setLayout(Layout.ROW_MAJOR);
+    } // if/else
+  } // charge(long, long)
+
+  /**
+   * Note an access to a cell, charging it as part of a row or column
+   * scan if it neighbours the last cell accessed.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   */
+  private void touch(int row, int col) {
+    if (row == this.lastRow && Math.abs(col - this.lastCol) == 1) {
+      this.charge(1, MISS);
+    } else if (col == this.lastCol && Math.abs(row - this.lastRow) == 1) {
+      this.charge(MISS, 1);
+    } // if/else
+    this.lastRow = row;
+    this.lastCol = col;
+    if (++this.accesses >= PERIOD) {
+      this.accesses = 0;
+      this.rowMajorCost >>= 1;
+      this.columnMajorCost >>= 1;
+    } // if
+  } // touch(int, int)
+
+  /**
+   * Charge a scan over cells that is sequential in one layout and costs
+   * a penalty per cell in the other.
+   *
+   * @param cells
+   *   The number of cells scanned.
+   * @param alongRows
+   *   True if the scan is sequential in the row-major layout.
+   * @param penalty
+   *   The cost of each cell in the other layout.
+   */
+  private void chargeScan(long cells, boolean alongRows, long penalty) {
+    if (alongRows) {
+      this.charge(cells, cells * penalty);
+    } else {
+      this.charge(cells * penalty, cells);
+    } // if/else
+  } // chargeScan(long, boolean, long)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    T result = this.delegate.get(row, col);
+    this.touch(row, col);
+    return result;
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    this.delegate.set(row, col, val);
+    this.touch(row, col);
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.delegate.height();
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.delegate.width();
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    this.delegate.insertRow(row);
+    this.charge(this.height(), (long) this.width() * this.height());
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    this.delegate.insertRow(row, vals);
+    this.charge(this.height(), (long) this.width() * this.height());
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    this.delegate.insertCol(col);
+    this.charge((long) this.height() * this.width(), this.width());
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    this.delegate.insertCol(col, vals);
+    this.charge((long) this.height() * this.width(), this.width());
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    this.delegate.deleteRow(row);
+    this.charge(this.height() + 1, (long) this.width() * (this.height() + 1));
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    this.delegate.deleteCol(col);
+    this.charge((long) (this.width() + 1) * this.height(), this.width() + 1);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    this.delegate.fillRegion(startRow, startCol, endRow, endCol, val);
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal). Horizontal and
+   * vertical lines are charged as row and column scans.
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    this.delegate.fillLine(startRow, startCol, deltaRow, deltaCol, endRow, endCol, val);
+    if (deltaRow == 0 && deltaCol > 0) {
+      this.chargeScan((endCol - startCol) / deltaCol, true, MISS);
+    } else if (deltaCol == 0 && deltaRow > 0) {
+      this.chargeScan((endRow - startRow) / deltaRow, false, MISS);
+    } // if/else
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a new matrix that is the transpose of this one, in the same
+   * layout.
+   *
+   * @return the transpose.
+   */
+  public AdaptiveMatrix<T> transpose() {
+    AdaptiveMatrix<T> result = new AdaptiveMatrix<T>(0, 0, this.defaultValue);
+    result.delegate = this.delegate.transpose();
+    result.layout = this.layout;
+    return result;
+  } // transpose()
+
+  /**
+   * Transpose this matrix in place.
+   */
+  public void transposeInPlace() {
+    this.delegate.transposeInPlace();
+    long cost = this.rowMajorCost;
+    this.rowMajorCost = this.columnMajorCost;
+    this.columnMajorCost = cost;
+  } // transposeInPlace()
+
+  /**
+   * Combine all the elements, row by row, with an operation.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   *
+   * @return identity combined with every element.
+   */
+  public T reduce(T identity, BinaryOperator<T> op) {
+    return this.delegate.reduce(identity, op);
+  } // reduce(T, BinaryOperator<T>)
+
+  /**
+   * Count the elements that satisfy a predicate.
+   *
+   * @param predicate
+   *   The predicate.
+   *
+   * @return the number of elements for which predicate is true.
+   */
+  public long count(Predicate<? super T> predicate) {
+    return this.delegate.count(predicate);
+  } // count(Predicate)
+
+  /**
+   * Combine the elements of each row, left to right, charged as a scan
+   * along every row.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   * @param generator
+   *   Makes an array of the given length, such as Integer[]::new.
+   *
+   * @return an array with one combined value per row.
+   */
+  public T[] reduceRows(T identity, BinaryOperator<T> op, IntFunction<T[]> generator) {
+    this.chargeScan((long) this.height() * this.width(), true, STRIDED);
+    return this.delegate.reduceRows(identity, op, generator);
+  } // reduceRows(T, BinaryOperator<T>, IntFunction<T[]>)
+
+  /**
+   * Combine the elements of each column, top to bottom, charged as a
+   * scan along every column.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   * @param generator
+   *   Makes an array of the given length, such as Integer[]::new.
+   *
+   * @return an array with one combined value per column.
+   */
+  public T[] reduceCols(T identity, BinaryOperator<T> op, IntFunction<T[]> generator) {
+    this.chargeScan((long) this.height() * this.width(), false, STRIDED);
+    return this.delegate.reduceCols(identity, op, generator);
+  } // reduceCols(T, BinaryOperator<T>, IntFunction<T[]>)
+
+  /**
+   * Make a copy of the matrix in the same layout, with no history of
+   * use.
+   *
+   * @return a copy of the matrix.
+   */
+  public AdaptiveMatrix<T> clone() {
+    AdaptiveMatrix<T> copy = new AdaptiveMatrix<T>(0, 0, this.defaultValue);
+    copy.layout = this.layout;
+    copy.delegate = this.delegate.clone();
+    return copy;
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    return this.delegate.equals(other);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    return this.delegate.hashCode();
+  } // hashCode()
+
+  /**
+   * Estimate the heap this matrix keeps alive, not counting its elements:
+   * the footprint of the current layout, plus this matrix as index.
+   *
+   * @return the estimate.
+   */
+  public MemoryFootprint footprint() {
+    return this.delegate.footprint()
+        .plusIndex(MemoryFootprint.object(3, 2 * Long.BYTES + 4 * Integer.BYTES));
+  } // footprint()
+} // class AdaptiveMatrix<T>
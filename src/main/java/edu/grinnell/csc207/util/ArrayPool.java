@@ -0,0 +1,222 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+
+/**
+ * A pool of object arrays, bucketed by exact length, for matrices that
+ * would otherwise allocate a fresh row for every structural edit and drop
+ * the old one. The rows of a matrix all have the same length, so the
+ * arrays freed by one edit are the right size for the next, and a pool
+ * needs only a few buckets, which it searches in order.
+ *
+ * Returned arrays are cleared, so the pool never keeps elements alive.
+ * The pool keeps at most a fixed number of cells and MAX_BUCKETS
+ * lengths; other arrays are left to the garbage collector, and a new
+ * length evicts the oldest one. Only arrays whose runtime type is
+ * Object[] are kept, so that any matrix may store any element in them.
+ * A pool is not thread-safe: share one only among matrices used by a
+ * single thread.
+ *
+ * @author Andrew N. Fargo
+ */
+public final class ArrayPool {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The default number of cells a pool keeps. */
+  public static final long DEFAULT_MAX_CELLS = 1 << 20;
+
+  /**
+   * The most lengths kept at once. A matrix that keeps growing would
+   * otherwise leave a bucket behind for every width it passed through.
+   */
+  static final int MAX_BUCKETS = 8;
+
+  // +----------------+----------------------------------------------
+  // | Nested classes |
+  // +----------------+
+
+  /**
+   * The free arrays of one length.
+   */
+  private static final class Bucket {
+    /** The length of the arrays. */
+    final int length;
+
+    /** A stack of free arrays. */
+    Object[][] free = new Object[4][];
+
+    /** The number of free arrays. */
+    int size;
+
+    /**
+     * Create an empty bucket.
+     *
+     * @param n
+     *   The length of the arrays.
+     */
+    Bucket(int n) {
+      this.length = n;
+    } // Bucket(int)
+  } // class Bucket
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The buckets, oldest first. */
+  private Bucket[] buckets = new Bucket[0];
+
+  /** The most cells to keep. */
+  private final long maxCells;
+
+  /** The number of cells in the free arrays. */
+  private long retained;
+
+  /** The number of requests met from the pool. */
+  private long hits;
+
+  /** The number of requests that allocated. */
+  private long misses;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a pool that keeps at most the given number of cells.
+   *
+   * @param max
+   *   The most cells to keep.
+   *
+   * @throws IllegalArgumentException
+   *   If max is negative.
+   */
+  public ArrayPool(long max) {
+    if (max < 0) {
+      throw new IllegalArgumentException("A pool cannot keep a negative number of cells");
+    } // if
+    this.maxCells = max;
+  } // ArrayPool(long)
+
+  /**
+   * Create a pool that keeps at most DEFAULT_MAX_CELLS cells.
+   */
+  public ArrayPool() {
+    this(DEFAULT_MAX_CELLS);
+  } // ArrayPool()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Find the bucket for a length.
+   *
+   * @param length
+   *   The length of the arrays.
+   *
+   * @return the bucket, or null if there is none.
+   */
+  private Bucket bucket(int length) {
+    for (Bucket b : this.buckets) {
+      if (b.length == length) {
+        return b;
+      } // if
+    } // for
+    return null;
+  } // bucket(int)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Get an array of nulls of the given length, reusing a free one if
+   * there is one.
+   *
+   * @param length
+   *   The length of the array.
+   *
+   * @return the array.
+   */
+  public Object[] take(int length) {
+    Bucket b = this.bucket(length);
+    if (b == null || b.size == 0) {
+      this.misses++;
+      return new Object[length];
+    } // if
+    this.hits++;
+    this.retained -= length;
+    Object[] array = b.free[--b.size];
+    b.free[b.size] = null;
+    return array;
+  } // take(int)
+
+  /**
+   * Return an array that is no longer used. It is cleared and kept if
+   * there is room and it is a plain Object[].
+   *
+   * @param array
+   *   The array, which the caller must not use again.
+   */
+  public void give(Object[] array) {
+    if (array.length == 0 || array.getClass() != Object[].class
+        || this.retained + array.length > this.maxCells) {
+      return;
+    } // if
+    Bucket b = this.bucket(array.length);
+    if (b == null) {
+      b = new Bucket(array.length);
+      if (this.buckets.length < MAX_BUCKETS) {
+        this.buckets = Arrays.copyOf(this.buckets, this.buckets.length + 1);
+      } else {
+        this.retained -= (long) this.buckets[0].length * this.buckets[0].size;
+        System.arraycopy(this.buckets, 1, this.buckets, 0, MAX_BUCKETS - 1);
+      } // if/else
+      this.buckets[this.buckets.length - 1] = b;
+    } // if
+    if (b.size == b.free.length) {
+      b.free = Arrays.copyOf(b.free, b.size * 2);
+    } // if
+    Arrays.fill(array, null);
+    b.free[b.size++] = array;
+    this.retained += array.length;
+  } // give(Object[])
+
+  /**
+   * Drop every free array.
+   */
+  public void clear() {
+    this.buckets = new Bucket[0];
+    this.retained = 0;
+  } // clear()
+
+  /**
+   * Determine how many cells the free arrays hold.
+   *
+   * @return the number of cells.
+   */
+  public long retainedCells() {
+    return this.retained;
+  } // retainedCells()
+
+  /**
+   * Determine how many arrays were reused.
+   *
+   * @return the number of requests met from the pool.
+   */
+  public long hits() {
+    return this.hits;
+  } // hits()
+
+  /**
+   * Determine how many arrays were allocated.
+   *
+   * @return the number of requests that allocated.
+   */
+  public long misses() {
+    return this.misses;
+  } // misses()
+} // class ArrayPool
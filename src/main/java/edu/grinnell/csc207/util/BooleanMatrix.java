@@ -0,0 +1,857 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * A matrix of booleans, stored one bit per cell in an array of longs.
+ *
+ * <p>Each row starts a new word, so rows are inserted and deleted by
+ * copying whole words, and fills, counts and the bitwise operations
+ * ({@link #and}, {@link #or}, {@link #xor}, {@link #not}) handle 64
+ * cells at a time. The bits past the last column of each row are always
+ * zero.</p>
+ *
+ * <p>A BooleanMatrix may not contain null; attempting to store null
+ * throws a NullPointerException and leaves the matrix unchanged.</p>
+ *
+ * @author Andrew N. Fargo
+ */
+public class BooleanMatrix implements Matrix<Boolean> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The cells, row by row, with each row taking stride words. */
+  private long[] words;
+
+  /** The number of words in each row. */
+  private int stride;
+
+  /** The number of columns. */
+  private int cols;
+
+  /** The number of rows. */
+  private int rows;
+
+  /** Default value for insertions. */
+  private final boolean defaultValue;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public BooleanMatrix(int width, int height, boolean def) {
+    if (width < 0 || height < 0) {
+      throw new NegativeArraySizeException();
+    } // if
+    this.cols = width;
+    this.rows = height;
+    this.defaultValue = def;
+    this.stride = wordsFor(width);
+    this.words = new long[Math.multiplyExact(this.stride, height)];
+    if (def) {
+      this.fillRegion(0, 0, height, width, true);
+    } // if
+  } // BooleanMatrix(int, int, boolean)
+
+  /**
+   * Create a new matrix of the specified width and height with false as
+   * the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public BooleanMatrix(int width, int height) {
+    this(width, height, false);
+  } // BooleanMatrix(int, int)
+
+  /**
+   * Create a new matrix that uses an existing array as its cells.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value.
+   * @param cells
+   *   The cells, row by row, with each row starting a new word and
+   *   zeros past the last column. It is not copied.
+   */
+  private BooleanMatrix(int width, int height, boolean def, long[] cells) {
+    this.cols = width;
+    this.rows = height;
+    this.defaultValue = def;
+    this.stride = wordsFor(width);
+    this.words = cells;
+  } // BooleanMatrix(int, int, boolean, long[])
+
+  /**
+   * Pack an array of booleans into a new matrix.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param mask
+   *   The cells, row by row. Must be exactly width * height long.
+   *
+   * @return the matrix, whose default value is false.
+   */
+  static BooleanMatrix fromMask(int width, int height, boolean[] mask) {
+    BooleanMatrix result = new BooleanMatrix(width, height);
+    for (int row = 0; row < height; row++) {
+      int base = row * result.stride;
+      for (int col = 0; col < width; col++) {
+        if (mask[row * width + col]) {
+          result.words[base + (col >>> 6)] |= 1L << col;
+        } // if
+      } // for col
+    } // for row
+    return result;
+  } // fromMask(int, int, boolean[])
+
+  // +-----------------+---------------------------------------------
+  // | Private Methods |
+  // +-----------------+
+
+  /**
+   * Determine the number of words needed for a number of bits.
+   *
+   * @param bits
+   *   The number of bits.
+   *
+   * @return the number of words.
+   */
+  private static int wordsFor(int bits) {
+    return (bits + Long.SIZE - 1) >>> 6;
+  } // wordsFor(int)
+
+  /**
+   * Make a mask of the bits of a word from one bit to another.
+   *
+   * @param from
+   *   The lowest bit (inclusive), from 0 to 63.
+   * @param to
+   *   The highest bit (exclusive), from 1 to 64.
+   *
+   * @return the mask.
+   */
+  private static long mask(int from, int to) {
+    return (-1L >>> (Long.SIZE - to)) & (-1L << from);
+  } // mask(int, int)
+
+  /**
+   * Determine if a cell is out of bounds.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return true if the cell is not in the matrix.
+   */
+  private boolean outOfBounds(int row, int col) {
+    return row < 0 || row >= this.rows || col < 0 || col >= this.cols;
+  } // outOfBounds(int, int)
+
+  /**
+   * Make sure that another matrix has the same shape as this one.
+   *
+   * @param other
+   *   The other matrix.
+   *
+   * @throws ArraySizeException
+   *   If the shapes differ.
+   */
+  private void checkSameShape(BooleanMatrix other) throws ArraySizeException {
+    if (this.cols != other.cols || this.rows != other.rows) {
+      throw new ArraySizeException("Matrices must have the same shape: " + this.cols + "x"
+          + this.rows + " vs " + other.cols + "x" + other.rows);
+    } // if
+  } // checkSameShape(BooleanMatrix)
+
+  /**
+   * Set or clear a run of bits within one row.
+   *
+   * @param base
+   *   The index of the first word of the row.
+   * @param from
+   *   The first column (inclusive).
+   * @param to
+   *   The last column (exclusive).
+   * @param val
+   *   Whether to set the bits.
+   */
+  private void fillBits(int base, int from, int to, boolean val) {
+    int first = from >>> 6;
+    int last = (to - 1) >>> 6;
+    for (int w = first; w <= last; w++) {
+      long m = mask((w == first) ? from & 63 : 0, (w == last) ? ((to - 1) & 63) + 1 : 64);
+      if (val) {
+        this.words[base + w] |= m;
+      } else {
+        this.words[base + w] &= ~m;
+      } // if/else
+    } // for
+  } // fillBits(int, int, int, boolean)
+
+  /**
+   * Clear the bits past the last column of each row.
+   */
+  private void clearPadding() {
+    if ((this.cols & 63) == 0) {
+      return;
+    } // if
+    long m = mask(0, this.cols & 63);
+    for (int row = 0; row < this.rows; row++) {
+      this.words[row * this.stride + this.stride - 1] &= m;
+    } // for
+  } // clearPadding()
+
+  /**
+   * Insert a row of bits, given as words.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param line
+   *   The words of the row, stride long, with zeros past the last
+   *   column.
+   */
+  private void insertRow(int row, long[] line) {
+    if (row < 0 || row > this.rows) {
+      throw new IndexOutOfBoundsException("Provided row exceeds height of BooleanMatrix");
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    long[] newWords = new long[this.words.length + this.stride];
+    int split = row * this.stride;
+    System.arraycopy(this.words, 0, newWords, 0, split);
+    System.arraycopy(line, 0, newWords, split, this.stride);
+    System.arraycopy(this.words, split, newWords, split + this.stride,
+        this.words.length - split);
+    this.words = newWords;
+    this.rows++;
+    event.finish(MatrixOperation.INSERT_ROW, this, row, (long) this.rows * this.cols);
+  } // insertRow(int, long[])
+
+  /**
+   * Insert a column of bits.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param line
+   *   The bits, one per row.
+   */
+  private void insertCol(int col, boolean[] line) {
+    if (col < 0 || col > this.cols) {
+      throw new IndexOutOfBoundsException("Provided col exceeds width of BooleanMatrix");
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    int newStride = wordsFor(this.cols + 1);
+    long[] newWords = (newStride == this.stride) ? this.words
+        : new long[newStride * this.rows];
+    int w = col >>> 6;
+    long low = ((col & 63) == 0) ? 0 : mask(0, col & 63);
+    for (int row = 0; row < this.rows; row++) {
+      int base = row * newStride;
+      if (newWords != this.words) {
+        System.arraycopy(this.words, row * this.stride, newWords, base, this.stride);
+      } // if
+      for (int i = newStride - 1; i > w; i--) {
+        newWords[base + i] = (newWords[base + i] << 1) | (newWords[base + i - 1] >>> 63);
+      } // for
+      long word = newWords[base + w];
+      newWords[base + w] = (word & low) | ((word & ~low) << 1)
+          | (line[row] ? 1L << col : 0);
+    } // for
+    this.words = newWords;
+    this.stride = newStride;
+    this.cols++;
+    event.finish(MatrixOperation.INSERT_COL, this, col, (long) this.rows * this.cols);
+  } // insertCol(int, boolean[])
+
+  /**
+   * Combine this matrix with another, word by word.
+   *
+   * @param other
+   *   The other matrix.
+   * @param op
+   *   0 for and, 1 for or, 2 for xor.
+   *
+   * @return a new matrix.
+   *
+   * @throws ArraySizeException
+   *   If the matrices have different shapes.
+   */
+  private BooleanMatrix combine(BooleanMatrix other, int op) throws ArraySizeException {
+    this.checkSameShape(other);
+    long[] result = new long[this.words.length];
+    for (int i = 0; i < result.length; i++) {
+      long a = this.words[i];
+      long b = other.words[i];
+      result[i] = (op == 0) ? a & b : (op == 1) ? a | b : a ^ b;
+    } // for
+    return new BooleanMatrix(this.cols, this.rows, this.defaultValue, result);
+  } // combine(BooleanMatrix, int)
+
+  // +-------------------+-------------------------------------------
+  // | Primitive methods |
+  // +-------------------+
+
+  /**
+   * Get the element at the given row and column, without boxing.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public boolean getBoolean(int row, int col) {
+    if (this.outOfBounds(row, col)) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    return (this.words[row * this.stride + (col >>> 6)] & (1L << col)) != 0;
+  } // getBoolean(int, int)
+
+  /**
+   * Set the element at the given row and column, without boxing.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void setBoolean(int row, int col, boolean val) {
+    if (this.outOfBounds(row, col)) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    int i = row * this.stride + (col >>> 6);
+    if (val) {
+      this.words[i] |= 1L << col;
+    } else {
+      this.words[i] &= ~(1L << col);
+    } // if/else
+  } // setBoolean(int, int, boolean)
+
+  /**
+   * Count the true elements.
+   *
+   * @return the number of true elements.
+   */
+  public long countTrue() {
+    long result = 0;
+    for (long word : this.words) {
+      result += Long.bitCount(word);
+    } // for
+    return result;
+  } // countTrue()
+
+  /**
+   * Find where both this matrix and another are true.
+   *
+   * @param other
+   *   The other matrix.
+   *
+   * @return a new matrix.
+   *
+   * @throws ArraySizeException
+   *   If the matrices have different shapes.
+   */
+  public BooleanMatrix and(BooleanMatrix other) throws ArraySizeException {
+    return this.combine(other, 0);
+  } // and(BooleanMatrix)
+
+  /**
+   * Find where either this matrix or another is true.
+   *
+   * @param other
+   *   The other matrix.
+   *
+   * @return a new matrix.
+   *
+   * @throws ArraySizeException
+   *   If the matrices have different shapes.
+   */
+  public BooleanMatrix or(BooleanMatrix other) throws ArraySizeException {
+    return this.combine(other, 1);
+  } // or(BooleanMatrix)
+
+  /**
+   * Find where exactly one of this matrix and another is true.
+   *
+   * @param other
+   *   The other matrix.
+   *
+   * @return a new matrix.
+   *
+   * @throws ArraySizeException
+   *   If the matrices have different shapes.
+   */
+  public BooleanMatrix xor(BooleanMatrix other) throws ArraySizeException {
+    return this.combine(other, 2);
+  } // xor(BooleanMatrix)
+
+  /**
+   * Find where this matrix is false.
+   *
+   * @return a new matrix.
+   */
+  public BooleanMatrix not() {
+    long[] result = new long[this.words.length];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = ~this.words[i];
+    } // for
+    BooleanMatrix negation = new BooleanMatrix(this.cols, this.rows, this.defaultValue, result);
+    negation.clearPadding();
+    return negation;
+  } // not()
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public Boolean get(int row, int col) {
+    return this.getBoolean(row, col);
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   * @throws NullPointerException
+   *   If the value is null.
+   */
+  public void set(int row, int col, Boolean val) {
+    this.setBoolean(row, col, val);
+  } // set(int, int, Boolean)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.rows;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.cols;
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    long[] line = new long[this.stride];
+    if (this.defaultValue && this.cols > 0) {
+      Arrays.fill(line, -1L);
+      line[this.stride - 1] = mask(0, ((this.cols - 1) & 63) + 1);
+    } // if
+    this.insertRow(row, line);
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   * @throws NullPointerException
+   *   If any of the values is null.
+   */
+  public void insertRow(int row, Boolean[] vals) throws ArraySizeException {
+    if (row < 0 || row > this.rows) {
+      throw new IndexOutOfBoundsException("Provided row exceeds height of BooleanMatrix");
+    } // if
+    if (vals.length != this.cols) {
+      throw new ArraySizeException("Inserted row has invalid width");
+    } // if
+    long[] line = new long[this.stride];
+    for (int col = 0; col < vals.length; col++) {
+      if (vals[col]) {
+        line[col >>> 6] |= 1L << col;
+      } // if
+    } // for
+    this.insertRow(row, line);
+  } // insertRow(int, Boolean[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    boolean[] line = new boolean[this.rows];
+    Arrays.fill(line, this.defaultValue);
+    this.insertCol(col, line);
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   * @throws NullPointerException
+   *   If any of the values is null.
+   */
+  public void insertCol(int col, Boolean[] vals) throws ArraySizeException {
+    if (col < 0 || col > this.cols) {
+      throw new IndexOutOfBoundsException("Provided col exceeds width of BooleanMatrix");
+    } // if
+    if (vals.length != this.rows) {
+      throw new ArraySizeException("Inserted col has invalid height");
+    } // if
+    boolean[] line = new boolean[vals.length];
+    for (int row = 0; row < vals.length; row++) {
+      line[row] = vals[row];
+    } // for
+    this.insertCol(col, line);
+  } // insertCol(int, Boolean[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    if (row < 0 || row >= this.rows) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    long[] newWords = new long[this.words.length - this.stride];
+    int split = row * this.stride;
+    System.arraycopy(this.words, 0, newWords, 0, split);
+    System.arraycopy(this.words, split + this.stride, newWords, split,
+        newWords.length - split);
+    this.words = newWords;
+    this.rows--;
+    event.finish(MatrixOperation.DELETE_ROW, this, row, (long) this.rows * this.cols);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column, shifting the bits after it down by one word at a
+   * time.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    if (col < 0 || col >= this.cols) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    int w = col >>> 6;
+    long low = ((col & 63) == 0) ? 0 : mask(0, col & 63);
+    for (int row = 0; row < this.rows; row++) {
+      int base = row * this.stride;
+      long word = this.words[base + w];
+      long carry = (w + 1 < this.stride) ? this.words[base + w + 1] << 63 : 0;
+      this.words[base + w] = (word & low) | ((word >>> 1) & ~low) | carry;
+      for (int i = w + 1; i < this.stride; i++) {
+        carry = (i + 1 < this.stride) ? this.words[base + i + 1] << 63 : 0;
+        this.words[base + i] = (this.words[base + i] >>> 1) | carry;
+      } // for
+    } // for
+    int newStride = wordsFor(this.cols - 1);
+    if (newStride != this.stride) {
+      long[] newWords = new long[newStride * this.rows];
+      for (int row = 0; row < this.rows; row++) {
+        System.arraycopy(this.words, row * this.stride, newWords, row * newStride, newStride);
+      } // for
+      this.words = newWords;
+      this.stride = newStride;
+    } // if
+    this.cols--;
+    event.finish(MatrixOperation.DELETE_COL, this, col, (long) this.rows * this.cols);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix, a word at a time.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      Boolean val) {
+    if (startRow >= endRow || startCol >= endCol) {
+      return;
+    } else if (this.outOfBounds(startRow, startCol)
+        || this.outOfBounds(endRow - 1, endCol - 1)) {
+      throw new IndexOutOfBoundsException();
+    } // if/else
+    boolean unboxed = val;
+    MatrixFillEvent event = MatrixFillEvent.start();
+    for (int row = startRow; row < endRow; row++) {
+      this.fillBits(row * this.stride, startCol, endCol, unboxed);
+    } // for
+    event.finish(MatrixOperation.FILL_REGION, this,
+        (long) (endRow - startRow) * (endCol - startCol));
+  } // fillRegion(int, int, int, int, Boolean)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal). Horizontal lines are
+   * filled a word at a time.
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, Boolean val) {
+    if (this.outOfBounds(startRow, startCol) || this.outOfBounds(endRow - 1, endCol - 1)) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    boolean unboxed = val;
+    MatrixFillEvent event = MatrixFillEvent.start();
+    long cells = 0;
+    if (deltaRow == 0 && deltaCol == 1 && startRow < endRow && startCol < endCol) {
+      this.fillBits(startRow * this.stride, startCol, endCol, unboxed);
+      cells = endCol - startCol;
+    } else {
+      for (int row = startRow, col = startCol;
+           row < endRow && col < endCol;
+           row += deltaRow, col += deltaCol) {
+        this.setBoolean(row, col, unboxed);
+        cells++;
+      } // for
+    } // if/else
+    event.finish(MatrixOperation.FILL_LINE, this, cells);
+  } // fillLine(int, int, int, int, int, int, Boolean)
+
+  /**
+   * Count the elements that satisfy a predicate, testing it only on
+   * true and false.
+   *
+   * @param predicate
+   *   The predicate.
+   *
+   * @return the number of elements for which predicate is true.
+   */
+  public long count(Predicate<? super Boolean> predicate) {
+    long trues = this.countTrue();
+    return (predicate.test(true) ? trues : 0)
+        + (predicate.test(false) ? (long) this.rows * this.cols - trues : 0);
+  } // count(Predicate)
+
+  /**
+   * Make a new matrix that is the transpose of this one, visiting only
+   * the true elements.
+   *
+   * @return the transpose.
+   */
+  public BooleanMatrix transpose() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    BooleanMatrix result = new BooleanMatrix(this.rows, this.cols, this.defaultValue,
+        new long[wordsFor(this.rows) * this.cols]);
+    for (int row = 0; row < this.rows; row++) {
+      for (int w = 0; w < this.stride; w++) {
+        long word = this.words[row * this.stride + w];
+        while (word != 0) {
+          int col = (w << 6) + Long.numberOfTrailingZeros(word);
+          result.words[col * result.stride + (row >>> 6)] |= 1L << row;
+          word &= word - 1;
+        } // while
+      } // for w
+    } // for row
+    event.finish(MatrixOperation.TRANSPOSE, result, -1, (long) this.rows * this.cols);
+    return result;
+  } // transpose()
+
+  /**
+   * Transpose this matrix, exchanging its width and height.
+   */
+  public void transposeInPlace() {
+    BooleanMatrix result = this.transpose();
+    this.words = result.words;
+    this.stride = result.stride;
+    this.cols = result.cols;
+    this.rows = result.rows;
+  } // transposeInPlace()
+
+  /**
+   * Make a copy of the matrix.
+   *
+   * @return a copy of the matrix.
+   */
+  public BooleanMatrix clone() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    BooleanMatrix copy = new BooleanMatrix(this.cols, this.rows, this.defaultValue,
+        this.words.clone());
+    event.finish(MatrixOperation.CLONE, this, -1, (long) this.rows * this.cols);
+    return copy;
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object. Another
+   * BooleanMatrix is compared a word at a time.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    if (other instanceof BooleanMatrix) {
+      BooleanMatrix that = (BooleanMatrix) other;
+      return this.cols == that.cols && this.rows == that.rows
+          && Arrays.equals(this.words, that.words);
+    } else if (!(other instanceof Matrix)) {
+      return false;
+    } // if/else
+    Matrix<?> that = (Matrix<?>) other;
+    if (that.width() != this.cols || that.height() != this.rows) {
+      return false;
+    } // if
+    for (int row = 0; row < this.rows; row++) {
+      for (int col = 0; col < this.cols; col++) {
+        if (!Boolean.valueOf(this.getBoolean(row, col)).equals(that.get(row, col))) {
+          return false;
+        } // if
+      } // for col
+    } // for row
+    return true;
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix. Equal to the hash code of a
+   * MatrixV0 with the same elements.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    int multiplier = 7;
+    int code = this.cols + multiplier * this.rows;
+    for (int row = 0; row < this.rows; row++) {
+      for (int col = 0; col < this.cols; col++) {
+        code = code * multiplier + Boolean.hashCode(this.getBoolean(row, col));
+      } // for col
+    } // for row
+    return code;
+  } // hashCode()
+
+  /**
+   * Estimate the heap this matrix keeps alive: the words are cell
+   * storage, except for the bits past the last column of each row,
+   * which are slack.
+   *
+   * @return the estimate.
+   */
+  public MemoryFootprint footprint() {
+    long padding = ((long) this.words.length * Long.SIZE - (long) this.rows * this.cols)
+        / Byte.SIZE;
+    return new MemoryFootprint(MemoryFootprint.primitiveArray(this.words.length, Long.BYTES)
+        - padding, padding, MemoryFootprint.object(1, 3 * Integer.BYTES + 1), 0);
+  } // footprint()
+} // class BooleanMatrix
@@ -0,0 +1,642 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * A matrix stored as an array of columns, the mirror image of
+ * {@link MatrixV0}. Inserting or deleting a column moves only references
+ * to columns, and each column is contiguous, so column scans and
+ * {@link #reduceCols} read memory in order. Rows are the expensive
+ * direction: inserting or deleting a row touches every column.
+ *
+ * @author Andrew N. Fargo
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class ColumnMajorMatrix<T> implements Matrix<T> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The columns. Each is exactly rows long. */
+  T[][] columns;
+
+  /** The number of rows, which is needed when there are no columns. */
+  private int rows;
+
+  /** Default value for insertions. */
+  private final T defaultValue;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  @SuppressWarnings({"unchecked"})
+  public ColumnMajorMatrix(int width, int height, T def) {
+    if (width < 0 || height < 0) {
+      throw new NegativeArraySizeException();
+    } // if
+    this.defaultValue = def;
+    this.rows = height;
+    this.columns = (T[][]) new Object[width][];
+    for (int col = 0; col < width; col++) {
+      this.columns[col] = this.repeat(def, height);
+    } // for
+  } // ColumnMajorMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with null as
+   * the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public ColumnMajorMatrix(int width, int height) {
+    this(width, height, null);
+  } // ColumnMajorMatrix(int, int)
+
+  /**
+   * Create a new matrix that uses existing arrays as its columns.
+   *
+   * @param cols
+   *   The columns, each exactly height long. They are not copied.
+   * @param height
+   *   The height of the matrix, which is needed when there are no
+   *   columns.
+   * @param def
+   *   The default value.
+   */
+  ColumnMajorMatrix(T[][] cols, int height, T def) {
+    this.columns = cols;
+    this.rows = height;
+    this.defaultValue = def;
+  } // ColumnMajorMatrix(T[][], int, T)
+
+  // +-----------------+---------------------------------------------
+  // | Private Methods |
+  // +-----------------+
+
+  /**
+   * Repeat a value into a new array.
+   *
+   * @param val
+   *   The value to repeat.
+   * @param len
+   *   The length of the array.
+   *
+   * @return [val, val, ... val] (len times).
+   */
+  @SuppressWarnings({"unchecked"})
+  private T[] repeat(T val, int len) {
+    T[] result = (T[]) new Object[len];
+    if (val != null) {
+      Arrays.fill(result, val);
+    } // if
+    return result;
+  } // repeat(T, int)
+
+  /**
+   * Determine if a cell is out of bounds.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return true if the cell is not in the matrix.
+   */
+  private boolean outOfBounds(int row, int col) {
+    return row < 0 || row >= this.rows || col < 0 || col >= this.columns.length;
+  } // outOfBounds(int, int)
+
+  /**
+   * Build the transpose of the columns in new arrays, which are the
+   * rows of this matrix.
+   *
+   * @return the rows.
+   */
+  @SuppressWarnings({"unchecked"})
+  T[][] rowValues() {
+    T[][] result = (T[][]) new Object[this.rows][this.columns.length];
+    MatrixV0.transposeInto(this.columns, result, 0, this.columns.length, 0, this.rows);
+    return result;
+  } // rowValues()
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    if (this.outOfBounds(row, col)) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    return this.columns[col][row];
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    if (this.outOfBounds(row, col)) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    this.columns[col][row] = val;
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.rows;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.columns.length;
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    try {
+      this.insertRow(row, this.repeat(this.defaultValue, this.columns.length));
+    } catch (ArraySizeException e) {
+      // The row was made the right size.
+      throw new RuntimeException(e.getMessage());
+    } // try/catch
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values. Every column is
+   * reallocated.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  @SuppressWarnings({"unchecked"})
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    if (row < 0 || row > this.rows) {
+      throw new IndexOutOfBoundsException("Provided row exceeds height of ColumnMajorMatrix");
+    } // if
+    if (vals.length != this.columns.length) {
+      throw new ArraySizeException("Inserted row has invalid width");
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    for (int col = 0; col < this.columns.length; col++) {
+      T[] old = this.columns[col];
+      T[] column = (T[]) new Object[this.rows + 1];
+      System.arraycopy(old, 0, column, 0, row);
+      column[row] = vals[col];
+      System.arraycopy(old, row, column, row + 1, this.rows - row);
+      this.columns[col] = column;
+    } // for
+    this.rows++;
+    event.finish(MatrixOperation.INSERT_ROW, this, row,
+        (long) this.rows * this.columns.length);
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    try {
+      this.insertCol(col, this.repeat(this.defaultValue, this.rows));
+    } catch (ArraySizeException e) {
+      // The column was made the right size.
+      throw new RuntimeException(e.getMessage());
+    } // try/catch
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values. Only references
+   * to columns move; the values are not copied.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert. The array becomes the column.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  @SuppressWarnings({"unchecked"})
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    if (col < 0 || col > this.columns.length) {
+      throw new IndexOutOfBoundsException("Provided col exceeds width of ColumnMajorMatrix");
+    } // if
+    if (vals.length != this.rows) {
+      throw new ArraySizeException("Inserted col has invalid height");
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    T[][] cols = (T[][]) new Object[this.columns.length + 1][];
+    System.arraycopy(this.columns, 0, cols, 0, col);
+    cols[col] = vals;
+    System.arraycopy(this.columns, col, cols, col + 1, this.columns.length - col);
+    this.columns = cols;
+    event.finish(MatrixOperation.INSERT_COL, this, col,
+        (long) this.rows * this.columns.length);
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row. Every column is reallocated.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  @SuppressWarnings({"unchecked"})
+  public void deleteRow(int row) {
+    if (row < 0 || row >= this.rows) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    long cells = (long) this.rows * this.columns.length;
+    for (int col = 0; col < this.columns.length; col++) {
+      T[] old = this.columns[col];
+      T[] column = (T[]) new Object[this.rows - 1];
+      System.arraycopy(old, 0, column, 0, row);
+      System.arraycopy(old, row + 1, column, row, this.rows - row - 1);
+      this.columns[col] = column;
+    } // for
+    this.rows--;
+    event.finish(MatrixOperation.DELETE_ROW, this, row, cells);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column. Only references to columns move.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  @SuppressWarnings({"unchecked"})
+  public void deleteCol(int col) {
+    if (col < 0 || col >= this.columns.length) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    long cells = (long) this.rows * this.columns.length;
+    T[][] cols = (T[][]) new Object[this.columns.length - 1][];
+    System.arraycopy(this.columns, 0, cols, 0, col);
+    System.arraycopy(this.columns, col + 1, cols, col, cols.length - col);
+    this.columns = cols;
+    event.finish(MatrixOperation.DELETE_COL, this, col, cells);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix, a column at a time.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    if (startRow >= endRow || startCol >= endCol) {
+      return;
+    } else if (outOfBounds(startRow, startCol) || outOfBounds(endRow - 1, endCol - 1)) {
+      throw new IndexOutOfBoundsException();
+    } // if/else
+    MatrixFillEvent event = MatrixFillEvent.start();
+    for (int col = startCol; col < endCol; col++) {
+      Arrays.fill(this.columns[col], startRow, endRow, val);
+    } // for
+    event.finish(MatrixOperation.FILL_REGION, this,
+        (long) (endRow - startRow) * (endCol - startCol));
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    if (outOfBounds(startRow, startCol) || outOfBounds(endRow - 1, endCol - 1)) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    MatrixFillEvent event = MatrixFillEvent.start();
+    long cells = 0;
+    for (int row = startRow, col = startCol;
+         row < endRow && col < endCol;
+         row += deltaRow, col += deltaCol) {
+      this.columns[col][row] = val;
+      cells++;
+    } // for
+    event.finish(MatrixOperation.FILL_LINE, this, cells);
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a new matrix that is the transpose of this one, using the same
+   * cache-oblivious traversal as MatrixV0.
+   *
+   * @return the transpose.
+   */
+  public ColumnMajorMatrix<T> transpose() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    ColumnMajorMatrix<T> result =
+        new ColumnMajorMatrix<T>(this.rowValues(), this.columns.length, this.defaultValue);
+    event.finish(MatrixOperation.TRANSPOSE, result, -1,
+        (long) this.rows * this.columns.length);
+    return result;
+  } // transpose()
+
+  /**
+   * Transpose this matrix in place. Square matrices swap elements
+   * across the diagonal; other matrices get new columns.
+   */
+  public void transposeInPlace() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    if (this.rows == this.columns.length) {
+      MatrixV0.transposeDiagonal(this.columns, 0, this.rows);
+    } else {
+      int width = this.columns.length;
+      this.columns = this.rowValues();
+      this.rows = width;
+    } // if/else
+    event.finish(MatrixOperation.TRANSPOSE, this, -1,
+        (long) this.rows * this.columns.length);
+  } // transposeInPlace()
+
+  /**
+   * Combine all the elements, row by row, with an operation. Each row
+   * is combined as by reduceRows, and then the rows are combined in
+   * order.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   *
+   * @return identity combined with every element.
+   */
+  public T reduce(T identity, BinaryOperator<T> op) {
+    T[] rowResults = this.reduceRows(identity, op, (n) -> this.repeat(null, n));
+    T result = identity;
+    for (T val : rowResults) {
+      result = op.apply(result, val);
+    } // for
+    return result;
+  } // reduce(T, BinaryOperator<T>)
+
+  /**
+   * Count the elements that satisfy a predicate. Large matrices are
+   * split into blocks of columns that are counted in parallel.
+   *
+   * @param predicate
+   *   The predicate.
+   *
+   * @return the number of elements for which predicate is true.
+   */
+  public long count(Predicate<? super T> predicate) {
+    return ParallelRanges.reduce(this.columns.length, this.rows, (lo, hi) -> {
+      long count = 0;
+      for (int col = lo; col < hi; col++) {
+        for (T val : this.columns[col]) {
+          if (predicate.test(val)) {
+            count++;
+          } // if
+        } // for
+      } // for
+      return count;
+    }, Long::sum);
+  } // count(Predicate)
+
+  /**
+   * Combine the elements of each row, left to right. Large matrices are
+   * split into blocks of rows that are processed in parallel; each
+   * block is read a column segment at a time.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   * @param generator
+   *   Makes an array of the given length, such as Integer[]::new.
+   *
+   * @return an array with one combined value per row.
+   */
+  public T[] reduceRows(T identity, BinaryOperator<T> op, IntFunction<T[]> generator) {
+    T[] result = generator.apply(this.rows);
+    ParallelRanges.forEach(this.rows, this.columns.length, (lo, hi) -> {
+      Arrays.fill(result, lo, hi, identity);
+      for (T[] colVals : this.columns) {
+        for (int row = lo; row < hi; row++) {
+          result[row] = op.apply(result[row], colVals[row]);
+        } // for row
+      } // for
+    });
+    return result;
+  } // reduceRows(T, BinaryOperator<T>, IntFunction<T[]>)
+
+  /**
+   * Combine the elements of each column, top to bottom. Large matrices
+   * are split into blocks of columns that are processed in parallel.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   * @param generator
+   *   Makes an array of the given length, such as Integer[]::new.
+   *
+   * @return an array with one combined value per column.
+   */
+  public T[] reduceCols(T identity, BinaryOperator<T> op, IntFunction<T[]> generator) {
+    T[] result = generator.apply(this.columns.length);
+    ParallelRanges.forEach(this.columns.length, this.rows, (lo, hi) -> {
+      for (int col = lo; col < hi; col++) {
+        T acc = identity;
+        for (T val : this.columns[col]) {
+          acc = op.apply(acc, val);
+        } // for
+        result[col] = acc;
+      } // for
+    });
+    return result;
+  } // reduceCols(T, BinaryOperator<T>, IntFunction<T[]>)
+
+  /**
+   * Make a copy of the matrix, sharing the elements but not the
+   * columns.
+   *
+   * @return a copy of the matrix.
+   */
+  @SuppressWarnings({"unchecked"})
+  public ColumnMajorMatrix<T> clone() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    T[][] cols = (T[][]) new Object[this.columns.length][];
+    for (int col = 0; col < cols.length; col++) {
+      cols[col] = this.columns[col].clone();
+    } // for
+    ColumnMajorMatrix<T> copy = new ColumnMajorMatrix<T>(cols, this.rows, this.defaultValue);
+    event.finish(MatrixOperation.CLONE, this, -1, (long) this.rows * this.columns.length);
+    return copy;
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object. Elements are
+   * compared as by Objects.equals.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    if (!(other instanceof Matrix)) {
+      return false;
+    } // if
+    Matrix<?> that = (Matrix<?>) other;
+    if (that.width() != this.columns.length || that.height() != this.rows) {
+      return false;
+    } // if
+    for (int row = 0; row < this.rows; row++) {
+      for (int col = 0; col < this.columns.length; col++) {
+        if (!Objects.equals(this.columns[col][row], that.get(row, col))) {
+          return false;
+        } // if
+      } // for col
+    } // for row
+    return true;
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix. Equal to the hash code of a
+   * MatrixV0 with the same elements.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    int multiplier = 7;
+    int code = this.columns.length + multiplier * this.rows;
+    for (int row = 0; row < this.rows; row++) {
+      for (int col = 0; col < this.columns.length; col++) {
+        T val = this.columns[col][row];
+        if (val != null) {
+          code = code * multiplier + val.hashCode();
+        } // if
+      } // for col
+    } // for row
+    return code;
+  } // hashCode()
+
+  /**
+   * Estimate the heap this matrix keeps alive, not counting its elements:
+   * the columns are cell storage, and the matrix and its array of
+   * columns are index.
+   *
+   * @return the estimate.
+   */
+  public MemoryFootprint footprint() {
+    return new MemoryFootprint(this.columns.length * MemoryFootprint.referenceArray(this.rows), 0,
+        MemoryFootprint.object(2, Integer.BYTES)
+            + MemoryFootprint.referenceArray(this.columns.length), 0);
+  } // footprint()
+} // class ColumnMajorMatrix<T>
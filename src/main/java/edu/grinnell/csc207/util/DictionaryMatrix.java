@@ -0,0 +1,954 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * A matrix that stores each distinct value once, in a dictionary, and
+ * each cell as a small code into that dictionary. Suits matrices that
+ * hold a handful of distinct values across many cells, such as a board
+ * of "X"s and "O"s.
+ *
+ * <p>Codes are stored row by row in a byte array while there are at
+ * most 256 distinct values, and are widened to a short array and then
+ * to an int array as more appear. The dictionary counts the cells that
+ * use each code, so a value that no cell holds any more gives up its
+ * code. That count also makes {@link #count(Predicate)} test each
+ * distinct value once, and lets {@link #replaceAll} rewrite one
+ * dictionary entry instead of every cell. Comparisons and hash codes
+ * work on codes rather than values.</p>
+ *
+ * @author Andrew N. Fargo
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class DictionaryMatrix<T> implements Matrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The initial number of dictionary entries. */
+  private static final int INITIAL_ENTRIES = 16;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The codes of the cells, row by row: a byte[], short[] or int[]
+      of exactly width * height elements. */
+  private Object codes;
+
+  /** The number of bits in each code: 8, 16 or 32. */
+  private int bits;
+
+  /** The value of each code. Entries for unused codes are null. */
+  private Object[] dictionary;
+
+  /** The number of cells that use each code. 0 for unused codes. */
+  private int[] uses;
+
+  /** The code of each value in use. */
+  private Map<T, Integer> codeOf;
+
+  /** Unused codes below nextCode, to be given out first. */
+  private int[] freeCodes;
+
+  /** The number of entries in freeCodes. */
+  private int freeCount;
+
+  /** The lowest code never given out. */
+  private int nextCode;
+
+  /** The number of columns. */
+  private int cols;
+
+  /** The number of rows. */
+  private int rows;
+
+  /** Default value for insertions. */
+  private final T defaultValue;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public DictionaryMatrix(int width, int height, T def) {
+    if (width < 0 || height < 0) {
+      throw new NegativeArraySizeException();
+    } // if
+    this.cols = width;
+    this.rows = height;
+    this.defaultValue = def;
+    this.bits = Byte.SIZE;
+    this.codes = new byte[Math.multiplyExact(width, height)];
+    this.dictionary = new Object[INITIAL_ENTRIES];
+    this.uses = new int[INITIAL_ENTRIES];
+    this.codeOf = new HashMap<T, Integer>();
+    this.freeCodes = new int[INITIAL_ENTRIES];
+    if (width * height > 0) {
+      this.uses[this.encode(def)] = width * height;
+    } // if
+  } // DictionaryMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with null as
+   * the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public DictionaryMatrix(int width, int height) {
+    this(width, height, null);
+  } // DictionaryMatrix(int, int)
+
+  /**
+   * Copy any matrix into a new DictionaryMatrix.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param matrix
+   *   The matrix to copy.
+   * @param def
+   *   The default value for insertions into the copy.
+   *
+   * @return the copy.
+   */
+  public static <T> DictionaryMatrix<T> copyOf(Matrix<T> matrix, T def) {
+    DictionaryMatrix<T> result =
+        new DictionaryMatrix<T>(matrix.width(), matrix.height(), def);
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < matrix.width(); col++) {
+        result.set(row, col, matrix.get(row, col));
+      } // for col
+    } // for row
+    return result;
+  } // copyOf(Matrix<T>, T)
+
+  // +------------+--------------------------------------------------
+  // | Dictionary |
+  // +------------+
+
+  /**
+   * Count the distinct values in the matrix.
+   *
+   * @return the number of values that at least one cell holds.
+   */
+  public int cardinality() {
+    return this.codeOf.size();
+  } // cardinality()
+
+  /**
+   * Determine the size of each code.
+   *
+   * @return the number of bits in each code: 8, 16 or 32.
+   */
+  public int bitsPerCode() {
+    return this.bits;
+  } // bitsPerCode()
+
+  /**
+   * Replace every occurrence of one value with another. Takes constant
+   * time unless the matrix already holds the new value, in which case
+   * every cell is visited once.
+   *
+   * @param target
+   *   The value to replace.
+   * @param replacement
+   *   The value to store in its place.
+   *
+   * @return the number of cells replaced.
+   */
+  public int replaceAll(T target, T replacement) {
+    Integer from = this.codeOf.get(target);
+    if (from == null || Objects.equals(target, replacement)) {
+      return 0;
+    } // if
+    int replaced = this.uses[from];
+    Integer to = this.codeOf.get(replacement);
+    if (to == null) {
+      this.codeOf.remove(target);
+      this.codeOf.put(replacement, from);
+      this.dictionary[from] = replacement;
+    } else {
+      for (int i = 0; i < this.rows * this.cols; i++) {
+        if (this.read(this.codes, i) == from) {
+          this.write(this.codes, i, to);
+        } // if
+      } // for
+      this.uses[to] += replaced;
+      this.uses[from] = 0;
+      this.release(from);
+    } // if/else
+    return replaced;
+  } // replaceAll(T, T)
+
+  // +-----------------+---------------------------------------------
+  // | Private Methods |
+  // +-----------------+
+
+  /**
+   * Check that a cell is in the matrix.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return the index of the cell in the codes.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of bounds.
+   */
+  private int index(int row, int col) {
+    if (row < 0 || row >= this.rows || col < 0 || col >= this.cols) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    return row * this.cols + col;
+  } // index(int, int)
+
+  /**
+   * Read a code from an array of codes of the current size.
+   *
+   * @param array
+   *   The array.
+   * @param i
+   *   The index of the code.
+   *
+   * @return the code.
+   */
+  private int read(Object array, int i) {
+    switch (this.bits) {
+      case Byte.SIZE:
+        return ((byte[]) array)[i] & 0xFF;
+      case Short.SIZE:
+        return ((short[]) array)[i] & 0xFFFF;
+      default:
+        return ((int[]) array)[i];
+    } // switch
+  } // read(Object, int)
+
+  /**
+   * Write a code to an array of codes of the current size.
+   *
+   * @param array
+   *   The array.
+   * @param i
+   *   The index of the code.
+   * @param code
+   *   The code.
+   */
+  private void write(Object array, int i, int code) {
+    switch (this.bits) {
+      case Byte.SIZE:
+        ((byte[]) array)[i] = (byte) code;
+        break;
+      case Short.SIZE:
+        ((short[]) array)[i] = (short) code;
+        break;
+      default:
+        ((int[]) array)[i] = code;
+        break;
+    } // switch
+  } // write(Object, int, int)
+
+  /**
+   * Make an array for codes of the current size.
+   *
+   * @param length
+   *   The number of codes.
+   *
+   * @return the array.
+   */
+  private Object newCodes(int length) {
+    switch (this.bits) {
+      case Byte.SIZE:
+        return new byte[length];
+      case Short.SIZE:
+        return new short[length];
+      default:
+        return new int[length];
+    } // switch
+  } // newCodes(int)
+
+  /**
+   * Find the code of a value, giving it an unused code (with no uses)
+   * if it has none. Widens the codes if there is no unused code of the
+   * current size.
+   *
+   * @param val
+   *   The value.
+   *
+   * @return its code.
+   */
+  private int encode(T val) {
+    Integer known = this.codeOf.get(val);
+    if (known != null) {
+      return known;
+    } // if
+    int code;
+    if (this.freeCount > 0) {
+      code = this.freeCodes[--this.freeCount];
+    } else {
+      code = this.nextCode++;
+      if (code == this.dictionary.length) {
+        this.dictionary = Arrays.copyOf(this.dictionary, code * 2);
+        this.uses = Arrays.copyOf(this.uses, code * 2);
+      } // if
+      if (this.bits < Integer.SIZE && code == 1 << this.bits) {
+        this.widen();
+      } // if
+    } // if/else
+    this.dictionary[code] = val;
+    this.codeOf.put(val, code);
+    return code;
+  } // encode(T)
+
+  /**
+   * Give up a code that no cell uses.
+   *
+   * @param code
+   *   The code.
+   */
+  @SuppressWarnings("unchecked")
+  private void release(int code) {
+    this.codeOf.remove((T) this.dictionary[code]);
+    this.dictionary[code] = null;
+    if (this.freeCount == this.freeCodes.length) {
+      this.freeCodes = Arrays.copyOf(this.freeCodes, this.freeCount * 2);
+    } // if
+    this.freeCodes[this.freeCount++] = code;
+  } // release(int)
+
+  /**
+   * Release a code if it was given out but no cell ended up using it.
+   *
+   * @param code
+   *   The code.
+   */
+  private void releaseIfUnused(int code) {
+    if (this.uses[code] == 0) {
+      this.release(code);
+    } // if
+  } // releaseIfUnused(int)
+
+  /**
+   * Store a code in a cell, updating the counts of uses.
+   *
+   * @param i
+   *   The index of the cell.
+   * @param code
+   *   The code.
+   */
+  private void put(int i, int code) {
+    int old = this.read(this.codes, i);
+    if (old != code) {
+      this.write(this.codes, i, code);
+      this.uses[code]++;
+      if (--this.uses[old] == 0) {
+        this.release(old);
+      } // if
+    } // if
+  } // put(int, int)
+
+  /**
+   * Move the codes to an array of the next larger size.
+   */
+  private void widen() {
+    Object old = this.codes;
+    int length = this.rows * this.cols;
+    int oldBits = this.bits;
+    this.bits *= 2;
+    this.codes = this.newCodes(length);
+    for (int i = 0; i < length; i++) {
+      int code = (oldBits == Byte.SIZE) ? ((byte[]) old)[i] & 0xFF
+          : ((short[]) old)[i] & 0xFFFF;
+      this.write(this.codes, i, code);
+    } // for
+  } // widen()
+
+  /**
+   * Encode a line of values to be inserted. Must be done before any
+   * codes are copied, since it may widen them.
+   *
+   * @param vals
+   *   The values.
+   *
+   * @return their codes, each already counted as used once.
+   */
+  private int[] encodeAll(T[] vals) {
+    int[] result = new int[vals.length];
+    for (int i = 0; i < vals.length; i++) {
+      result[i] = this.encode(vals[i]);
+      this.uses[result[i]]++;
+    } // for
+    return result;
+  } // encodeAll(T[])
+
+  /**
+   * Encode a line of default values to be inserted.
+   *
+   * @param length
+   *   The length of the line.
+   *
+   * @return their codes, each already counted as used once.
+   */
+  private int[] encodeDefaults(int length) {
+    int[] result = new int[length];
+    if (length > 0) {
+      int code = this.encode(this.defaultValue);
+      this.uses[code] += length;
+      Arrays.fill(result, code);
+    } // if
+    return result;
+  } // encodeDefaults(int)
+
+  /**
+   * Forget the uses of the cells from start, stepping by step, count
+   * times.
+   *
+   * @param start
+   *   The index of the first cell.
+   * @param step
+   *   The distance between cells.
+   * @param count
+   *   The number of cells.
+   */
+  private void unuse(int start, int step, int count) {
+    for (int i = 0, cell = start; i < count; i++, cell += step) {
+      int code = this.read(this.codes, cell);
+      if (--this.uses[code] == 0) {
+        this.release(code);
+      } // if
+    } // for
+  } // unuse(int, int, int)
+
+  /**
+   * Insert a row of codes that have already been counted.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param line
+   *   The codes.
+   */
+  private void insertRowCodes(int row, int[] line) {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    int length = this.rows * this.cols;
+    Object newValues = this.newCodes(length + this.cols);
+    int split = row * this.cols;
+    System.arraycopy(this.codes, 0, newValues, 0, split);
+    for (int col = 0; col < this.cols; col++) {
+      this.write(newValues, split + col, line[col]);
+    } // for
+    System.arraycopy(this.codes, split, newValues, split + this.cols, length - split);
+    this.codes = newValues;
+    this.rows++;
+    event.finish(MatrixOperation.INSERT_ROW, this, row, length + this.cols);
+  } // insertRowCodes(int, int[])
+
+  /**
+   * Insert a column of codes that have already been counted.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param line
+   *   The codes.
+   */
+  private void insertColCodes(int col, int[] line) {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    int newCols = this.cols + 1;
+    Object newValues = this.newCodes(this.rows * newCols);
+    for (int row = 0; row < this.rows; row++) {
+      int from = row * this.cols;
+      int to = row * newCols;
+      System.arraycopy(this.codes, from, newValues, to, col);
+      this.write(newValues, to + col, line[row]);
+      System.arraycopy(this.codes, from + col, newValues, to + col + 1, this.cols - col);
+    } // for
+    this.codes = newValues;
+    this.cols = newCols;
+    event.finish(MatrixOperation.INSERT_COL, this, col, (long) this.rows * newCols);
+  } // insertColCodes(int, int[])
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @SuppressWarnings("unchecked")
+  public T get(int row, int col) {
+    return (T) this.dictionary[this.read(this.codes, this.index(row, col))];
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    int i = this.index(row, col);
+    this.put(i, this.encode(val));
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.rows;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.cols;
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    if (row < 0 || row > this.rows) {
+      throw new IndexOutOfBoundsException("Provided row exceeds height of DictionaryMatrix");
+    } // if
+    this.insertRowCodes(row, this.encodeDefaults(this.cols));
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    if (row < 0 || row > this.rows) {
+      throw new IndexOutOfBoundsException("Provided row exceeds height of DictionaryMatrix");
+    } // if
+    if (vals.length != this.cols) {
+      throw new ArraySizeException("Inserted row has invalid width");
+    } // if
+    this.insertRowCodes(row, this.encodeAll(vals));
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    if (col < 0 || col > this.cols) {
+      throw new IndexOutOfBoundsException("Provided col exceeds width of DictionaryMatrix");
+    } // if
+    this.insertColCodes(col, this.encodeDefaults(this.rows));
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    if (col < 0 || col > this.cols) {
+      throw new IndexOutOfBoundsException("Provided col exceeds width of DictionaryMatrix");
+    } // if
+    if (vals.length != this.rows) {
+      throw new ArraySizeException("Inserted col has invalid height");
+    } // if
+    this.insertColCodes(col, this.encodeAll(vals));
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    if (row < 0 || row >= this.rows) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    int split = row * this.cols;
+    this.unuse(split, 1, this.cols);
+    int length = (this.rows - 1) * this.cols;
+    Object newValues = this.newCodes(length);
+    System.arraycopy(this.codes, 0, newValues, 0, split);
+    System.arraycopy(this.codes, split + this.cols, newValues, split, length - split);
+    this.codes = newValues;
+    this.rows--;
+    event.finish(MatrixOperation.DELETE_ROW, this, row, length);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    if (col < 0 || col >= this.cols) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    this.unuse(col, this.cols, this.rows);
+    int newCols = this.cols - 1;
+    Object newValues = this.newCodes(this.rows * newCols);
+    for (int row = 0; row < this.rows; row++) {
+      int from = row * this.cols;
+      int to = row * newCols;
+      System.arraycopy(this.codes, from, newValues, to, col);
+      System.arraycopy(this.codes, from + col + 1, newValues, to + col, newCols - col);
+    } // for
+    this.codes = newValues;
+    this.cols = newCols;
+    event.finish(MatrixOperation.DELETE_COL, this, col, (long) this.rows * newCols);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    if (endRow - startRow == 0 || endCol - startCol == 0) {
+      return;
+    } // if
+    this.index(startRow, startCol);
+    this.index(endRow - 1, endCol - 1);
+    MatrixFillEvent event = MatrixFillEvent.start();
+    int code = this.encode(val);
+    this.uses[code]++;
+    for (int row = startRow; row < endRow; row++) {
+      for (int col = startCol; col < endCol; col++) {
+        this.put(row * this.cols + col, code);
+      } // for col
+    } // for row
+    this.uses[code]--;
+    this.releaseIfUnused(code);
+    event.finish(MatrixOperation.FILL_REGION, this,
+        (long) (endRow - startRow) * (endCol - startCol));
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    this.index(startRow, startCol);
+    this.index(endRow - 1, endCol - 1);
+    MatrixFillEvent event = MatrixFillEvent.start();
+    int code = this.encode(val);
+    this.uses[code]++;
+    long cells = 0;
+    try {
+      for (int row = startRow, col = startCol;
+           row < endRow && col < endCol;
+           row += deltaRow, col += deltaCol) {
+        this.put(this.index(row, col), code);
+        cells++;
+      } // for
+    } finally {
+      this.uses[code]--;
+      this.releaseIfUnused(code);
+    } // try/finally
+    event.finish(MatrixOperation.FILL_LINE, this, cells);
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Count the elements that satisfy a predicate, testing each distinct
+   * value once.
+   *
+   * @param predicate
+   *   The predicate.
+   *
+   * @return the number of elements for which predicate is true.
+   */
+  @SuppressWarnings("unchecked")
+  public long count(Predicate<? super T> predicate) {
+    long result = 0;
+    for (int code = 0; code < this.nextCode; code++) {
+      if (this.uses[code] > 0 && predicate.test((T) this.dictionary[code])) {
+        result += this.uses[code];
+      } // if
+    } // for
+    return result;
+  } // count(Predicate)
+
+  /**
+   * Make a new matrix that is the transpose of this one.
+   *
+   * @return the transpose.
+   */
+  public DictionaryMatrix<T> transpose() {
+    DictionaryMatrix<T> result = this.clone();
+    result.transposeInPlace();
+    return result;
+  } // transpose()
+
+  /**
+   * Transpose this matrix, exchanging its width and height. Only the
+   * codes move; the dictionary is unchanged.
+   */
+  public void transposeInPlace() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    Object transposed = this.newCodes(this.rows * this.cols);
+    for (int row = 0; row < this.rows; row++) {
+      for (int col = 0; col < this.cols; col++) {
+        this.write(transposed, col * this.rows + row,
+            this.read(this.codes, row * this.cols + col));
+      } // for col
+    } // for row
+    this.codes = transposed;
+    int height = this.rows;
+    this.rows = this.cols;
+    this.cols = height;
+    event.finish(MatrixOperation.TRANSPOSE, this, -1, (long) this.rows * this.cols);
+  } // transposeInPlace()
+
+  /**
+   * Make a copy of the matrix, sharing its values but not its codes or
+   * dictionary.
+   *
+   * @return a copy of the matrix.
+   */
+  @SuppressWarnings("unchecked")
+  public DictionaryMatrix<T> clone() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    DictionaryMatrix<T> copy;
+    try {
+      copy = (DictionaryMatrix<T>) super.clone();
+    } catch (CloneNotSupportedException e) {
+      throw new AssertionError(e);
+    } // try/catch
+    switch (this.bits) {
+      case Byte.SIZE:
+        copy.codes = ((byte[]) this.codes).clone();
+        break;
+      case Short.SIZE:
+        copy.codes = ((short[]) this.codes).clone();
+        break;
+      default:
+        copy.codes = ((int[]) this.codes).clone();
+        break;
+    } // switch
+    copy.dictionary = this.dictionary.clone();
+    copy.uses = this.uses.clone();
+    copy.codeOf = new HashMap<T, Integer>(this.codeOf);
+    copy.freeCodes = this.freeCodes.clone();
+    event.finish(MatrixOperation.CLONE, this, -1, (long) this.rows * this.cols);
+    return copy;
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object. Elements are
+   * compared as by Objects.equals. Another DictionaryMatrix is compared
+   * code by code, after translating each of the codes in this dictionary
+   * to the code of the same value in the other.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  @SuppressWarnings("unchecked")
+  public boolean equals(Object other) {
+    if (!(other instanceof Matrix)) {
+      return false;
+    } // if
+    Matrix<?> that = (Matrix<?>) other;
+    if (that.width() != this.cols || that.height() != this.rows) {
+      return false;
+    } // if
+    int length = this.rows * this.cols;
+    if (other instanceof DictionaryMatrix) {
+      DictionaryMatrix<T> dict = (DictionaryMatrix<T>) other;
+      int[] translated = new int[this.nextCode];
+      for (int code = 0; code < this.nextCode; code++) {
+        Integer theirs = (this.uses[code] == 0) ? null
+            : dict.codeOf.get((T) this.dictionary[code]);
+        translated[code] = (theirs == null) ? -1 : theirs;
+      } // for
+      for (int i = 0; i < length; i++) {
+        if (translated[this.read(this.codes, i)] != dict.read(dict.codes, i)) {
+          return false;
+        } // if
+      } // for
+      return true;
+    } // if
+    for (int row = 0; row < this.rows; row++) {
+      for (int col = 0; col < this.cols; col++) {
+        if (!Objects.equals(this.get(row, col), that.get(row, col))) {
+          return false;
+        } // if
+      } // for col
+    } // for row
+    return true;
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix, hashing each distinct value
+   * once. Equal to the hash code of a MatrixV0 with the same elements.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    int[] hashes = new int[this.nextCode];
+    int nullCode = -1;
+    for (int code = 0; code < this.nextCode; code++) {
+      if (this.uses[code] > 0) {
+        if (this.dictionary[code] == null) {
+          nullCode = code;
+        } else {
+          hashes[code] = this.dictionary[code].hashCode();
+        } // if/else
+      } // if
+    } // for
+    int multiplier = 7;
+    int code = this.cols + multiplier * this.rows;
+    int length = this.rows * this.cols;
+    for (int i = 0; i < length; i++) {
+      int cell = this.read(this.codes, i);
+      if (cell != nullCode) {
+        code = code * multiplier + hashes[cell];
+      } // if
+    } // for
+    return code;
+  } // hashCode()
+
+  /**
+   * Estimate the heap this matrix keeps alive, not counting its elements:
+   * the codes are cell storage, dictionary entries and free-code slots
+   * that are not in use are slack, and the matrix, the rest of the
+   * dictionary, and the map from values to codes are index.
+   *
+   * @return the estimate.
+   */
+  public MemoryFootprint footprint() {
+    int live = this.codeOf.size();
+    long slack = (this.dictionary.length - live) * (MemoryFootprint.REFERENCE + Integer.BYTES)
+        + (long) (this.freeCodes.length - this.freeCount) * Integer.BYTES;
+    long index = MemoryFootprint.object(6, 5 * Integer.BYTES)
+        + MemoryFootprint.referenceArray(this.dictionary.length)
+        + MemoryFootprint.primitiveArray(this.uses.length, Integer.BYTES)
+        + MemoryFootprint.primitiveArray(this.freeCodes.length, Integer.BYTES)
+        + MemoryFootprint.hashMap(live) - slack;
+    for (Integer code : this.codeOf.values()) {
+      if (code > Byte.MAX_VALUE) {
+        // Only small codes are boxed to shared, cached Integers.
+        index += MemoryFootprint.object(0, Integer.BYTES);
+      } // if
+    } // for
+    return new MemoryFootprint(
+        MemoryFootprint.primitiveArray((long) this.rows * this.cols, this.bits / Byte.SIZE),
+        slack, index, 0);
+  } // footprint()
+} // class DictionaryMatrix<T>
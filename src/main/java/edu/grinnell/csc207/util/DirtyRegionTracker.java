@@ -0,0 +1,466 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Keeps track of the parts of a matrix that have changed, as a short
+ * list of rectangles, so that a view or replica may process only those
+ * parts. Register it as a listener with an {@link ObservableMatrix} or
+ * a {@link DoubleMatrix}.
+ *
+ * <p>Each change is coalesced with the rectangles already recorded: a
+ * change inside a recorded rectangle costs nothing, and rectangles are
+ * merged whenever they overlap or their bounding box covers no unchanged
+ * cells. If more than the given number of rectangles remain, the two
+ * whose bounding box adds the fewest unchanged cells are merged, along
+ * with any others that the result overlaps. Insertions and deletions
+ * mark everything from the row or column onward, and transpositions
+ * mark the whole matrix.</p>
+ *
+ * @author Andrew N. Fargo
+ */
+public final class DirtyRegionTracker implements MatrixListener<Object> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The default number of rectangles to keep. */
+  public static final int DEFAULT_MAX_REGIONS = 16;
+
+  /** An end past any row or column. */
+  private static final int FAR = Integer.MAX_VALUE;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The matrix, for clipping rectangles to its current shape. */
+  private final Matrix<?> matrix;
+
+  /** The largest number of rectangles to keep. */
+  private final int maxRegions;
+
+  /** The changed rectangles, which may extend past the matrix. */
+  private final List<Region> regions = new ArrayList<Region>();
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a tracker for a matrix. The tracker must still be registered
+   * as a listener.
+   *
+   * @param source
+   *   The matrix.
+   * @param max
+   *   The largest number of rectangles to keep.
+   *
+   * @throws IllegalArgumentException
+   *   If max is not positive.
+   */
+  public DirtyRegionTracker(Matrix<?> source, int max) {
+    if (max <= 0) {
+      throw new IllegalArgumentException("Must keep at least one region: " + max);
+    } // if
+    this.matrix = source;
+    this.maxRegions = max;
+  } // DirtyRegionTracker(Matrix<?>, int)
+
+  /**
+   * Create a tracker for a matrix that keeps the default number of
+   * rectangles.
+   *
+   * @param source
+   *   The matrix.
+   */
+  public DirtyRegionTracker(Matrix<?> source) {
+    this(source, DEFAULT_MAX_REGIONS);
+  } // DirtyRegionTracker(Matrix<?>)
+
+  // +----------------+----------------------------------------------
+  // | Public methods |
+  // +----------------+
+
+  /**
+   * Determine if nothing has changed since the last drain or clear.
+   *
+   * @return true if no rectangles are recorded.
+   */
+  public boolean isClean() {
+    return this.regions.isEmpty();
+  } // isClean()
+
+  /**
+   * Get the changed rectangles, clipped to the current shape of the
+   * matrix. The rectangles do not overlap after merging, but may if the
+   * matrix has been reshaped.
+   *
+   * @return the rectangles.
+   */
+  public List<Region> regions() {
+    int height = this.matrix.height();
+    int width = this.matrix.width();
+    List<Region> result = new ArrayList<Region>(this.regions.size());
+    for (Region region : this.regions) {
+      if (region.startRow < height && region.startCol < width) {
+        result.add((region.endRow <= height && region.endCol <= width) ? region
+            : new Region(region.startRow, region.startCol, Math.min(region.endRow, height),
+                Math.min(region.endCol, width)));
+      } // if
+    } // for
+    return result;
+  } // regions()
+
+  /**
+   * Get the changed rectangles and forget them.
+   *
+   * @return the rectangles, as given by regions().
+   */
+  public List<Region> drain() {
+    List<Region> result = this.regions();
+    this.regions.clear();
+    return result;
+  } // drain()
+
+  /**
+   * Forget every change.
+   */
+  public void clear() {
+    this.regions.clear();
+  } // clear()
+
+  // +-----------+---------------------------------------------------
+  // | Listening |
+  // +-----------+
+
+  /**
+   * Mark a changed cell.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   * @param oldVal
+   *   The value the cell had (ignored).
+   * @param newVal
+   *   The value the cell has now (ignored).
+   */
+  @Override
+  public void cellChanged(int row, int col, Object oldVal, Object newVal) {
+    this.mark(row, col, row + 1, col + 1);
+  } // cellChanged(int, int, Object, Object)
+
+  /**
+   * Mark a filled region.
+   *
+   * @param startRow
+   *   The top row of the region (inclusive).
+   * @param startCol
+   *   The left column of the region (inclusive).
+   * @param endRow
+   *   The bottom row of the region (exclusive).
+   * @param endCol
+   *   The right column of the region (exclusive).
+   */
+  @Override
+  public void regionChanged(int startRow, int startCol, int endRow, int endCol) {
+    this.mark(startRow, startCol, endRow, endCol);
+  } // regionChanged(int, int, int, int)
+
+  /**
+   * Mark everything from an inserted or deleted row or column onward, or
+   * everything after a transposition.
+   *
+   * @param op
+   *   The operation that changed the shape of the matrix.
+   * @param index
+   *   The row or column inserted or deleted, or -1.
+   */
+  @Override
+  public void structureChanged(MatrixOperation op, int index) {
+    switch (op) {
+      case INSERT_ROW:
+      case DELETE_ROW:
+        this.mark(index, 0, FAR, FAR);
+        break;
+      case INSERT_COL:
+      case DELETE_COL:
+        this.mark(0, index, FAR, FAR);
+        break;
+      default:
+        this.mark(0, 0, FAR, FAR);
+        break;
+    } // switch
+  } // structureChanged(MatrixOperation, int)
+
+  // +-----------------+---------------------------------------------
+  // | Private methods |
+  // +-----------------+
+
+  /**
+   * Record a changed rectangle, coalescing it with those recorded.
+   *
+   * @param startRow
+   *   The top row (inclusive).
+   * @param startCol
+   *   The left column (inclusive).
+   * @param endRow
+   *   The bottom row (exclusive).
+   * @param endCol
+   *   The right column (exclusive).
+   */
+  private void mark(int startRow, int startCol, int endRow, int endCol) {
+    if (startRow >= endRow || startCol >= endCol) {
+      return;
+    } // if
+    for (Region region : this.regions) {
+      if (region.contains(startRow, startCol, endRow, endCol)) {
+        return;
+      } // if
+    } // for
+    this.regions.add(new Region(startRow, startCol, endRow, endCol));
+    this.absorb(this.regions.size() - 1);
+    while (this.regions.size() > this.maxRegions) {
+      this.mergeCheapest();
+    } // while
+  } // mark(int, int, int, int)
+
+  /**
+   * Merge the two rectangles whose bounding box covers the fewest
+   * unchanged cells.
+   */
+  private void mergeCheapest() {
+    int best1 = 0;
+    int best2 = 1;
+    long bestWaste = Long.MAX_VALUE;
+    for (int i = 0; i < this.regions.size(); i++) {
+      for (int j = i + 1; j < this.regions.size(); j++) {
+        long waste = this.regions.get(i).waste(this.regions.get(j));
+        if (waste < bestWaste) {
+          bestWaste = waste;
+          best1 = i;
+          best2 = j;
+        } // if
+      } // for j
+    } // for i
+    Region second = this.regions.remove(best2);
+    this.regions.set(best1, this.regions.get(best1).union(second));
+    this.absorb(best1);
+  } // mergeCheapest()
+
+  /**
+   * Merge into a rectangle every other rectangle that it overlaps or
+   * that it can be merged with for free, until there are none.
+   *
+   * @param index
+   *   The position of the rectangle in the list.
+   */
+  private void absorb(int index) {
+    Region merged = this.regions.get(index);
+    boolean changed = true;
+    while (changed) {
+      changed = false;
+      for (int i = 0; i < this.regions.size(); i++) {
+        Region other = this.regions.get(i);
+        if (i != index && (merged.overlaps(other) || merged.waste(other) <= 0)) {
+          merged = merged.union(other);
+          this.regions.remove(i);
+          if (i < index) {
+            index--;
+          } // if
+          changed = true;
+          break;
+        } // if
+      } // for
+    } // while
+    this.regions.set(index, merged);
+  } // absorb(int)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * A rectangle of cells.
+   */
+  public static final class Region {
+    /** The top row (inclusive). */
+    private final int startRow;
+
+    /** The left column (inclusive). */
+    private final int startCol;
+
+    /** The bottom row (exclusive). */
+    private final int endRow;
+
+    /** The right column (exclusive). */
+    private final int endCol;
+
+    /**
+     * Create a rectangle.
+     *
+     * @param top
+     *   The top row (inclusive).
+     * @param left
+     *   The left column (inclusive).
+     * @param bottom
+     *   The bottom row (exclusive).
+     * @param right
+     *   The right column (exclusive).
+     */
+    public Region(int top, int left, int bottom, int right) {
+      this.startRow = top;
+      this.startCol = left;
+      this.endRow = bottom;
+      this.endCol = right;
+    } // Region(int, int, int, int)
+
+    /**
+     * Get the top row.
+     *
+     * @return the row (inclusive).
+     */
+    public int startRow() {
+      return this.startRow;
+    } // startRow()
+
+    /**
+     * Get the left column.
+     *
+     * @return the column (inclusive).
+     */
+    public int startCol() {
+      return this.startCol;
+    } // startCol()
+
+    /**
+     * Get the bottom row.
+     *
+     * @return the row (exclusive).
+     */
+    public int endRow() {
+      return this.endRow;
+    } // endRow()
+
+    /**
+     * Get the right column.
+     *
+     * @return the column (exclusive).
+     */
+    public int endCol() {
+      return this.endCol;
+    } // endCol()
+
+    /**
+     * Count the cells in this rectangle.
+     *
+     * @return the number of cells.
+     */
+    public long area() {
+      return (long) (this.endRow - this.startRow) * (this.endCol - this.startCol);
+    } // area()
+
+    /**
+     * Determine if this rectangle contains another.
+     *
+     * @param top
+     *   The top row of the other (inclusive).
+     * @param left
+     *   The left column of the other (inclusive).
+     * @param bottom
+     *   The bottom row of the other (exclusive).
+     * @param right
+     *   The right column of the other (exclusive).
+     *
+     * @return true if every cell of the other is in this one.
+     */
+    boolean contains(int top, int left, int bottom, int right) {
+      return this.startRow <= top && this.startCol <= left && bottom <= this.endRow
+          && right <= this.endCol;
+    } // contains(int, int, int, int)
+
+    /**
+     * Determine if this rectangle shares any cell with another.
+     *
+     * @param other
+     *   The other rectangle.
+     *
+     * @return true if some cell is in both.
+     */
+    boolean overlaps(Region other) {
+      return this.startRow < other.endRow && other.startRow < this.endRow
+          && this.startCol < other.endCol && other.startCol < this.endCol;
+    } // overlaps(Region)
+
+    /**
+     * Find the bounding box of this rectangle and another.
+     *
+     * @param other
+     *   The other rectangle.
+     *
+     * @return the bounding box.
+     */
+    Region union(Region other) {
+      return new Region(Math.min(this.startRow, other.startRow),
+          Math.min(this.startCol, other.startCol), Math.max(this.endRow, other.endRow),
+          Math.max(this.endCol, other.endCol));
+    } // union(Region)
+
+    /**
+     * Count the cells in the bounding box of this rectangle and another
+     * that are in neither.
+     *
+     * @param other
+     *   The other rectangle.
+     *
+     * @return the number of cells, which is 0 if the two rectangles may
+     *   be merged for free.
+     */
+    long waste(Region other) {
+      long rows = Math.min(this.endRow, other.endRow)
+          - (long) Math.max(this.startRow, other.startRow);
+      long cols = Math.min(this.endCol, other.endCol)
+          - (long) Math.max(this.startCol, other.startCol);
+      long overlap = (rows > 0 && cols > 0) ? rows * cols : 0;
+      return this.union(other).area() - this.area() - other.area() + overlap;
+    } // waste(Region)
+
+    /**
+     * Determine if this rectangle is the same as another object.
+     *
+     * @param other
+     *   The object to compare.
+     *
+     * @return true if other is a region with the same corners.
+     */
+    public boolean equals(Object other) {
+      if (!(other instanceof Region)) {
+        return false;
+      } // if
+      Region region = (Region) other;
+      return this.startRow == region.startRow && this.startCol == region.startCol
+          && this.endRow == region.endRow && this.endCol == region.endCol;
+    } // equals(Object)
+
+    /**
+     * Compute a hash code for this rectangle.
+     *
+     * @return the hash code.
+     */
+    public int hashCode() {
+      return ((this.startRow * 31 + this.startCol) * 31 + this.endRow) * 31 + this.endCol;
+    } // hashCode()
+
+    /**
+     * Describe this rectangle.
+     *
+     * @return a string such as "[0, 1, 3, 4)".
+     */
+    public String toString() {
+      return "[" + this.startRow + ", " + this.startCol + ", " + this.endRow + ", "
+          + this.endCol + ")";
+    } // toString()
+  } // class Region
+} // class DirtyRegionTracker
@@ -0,0 +1,219 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * Element-wise operations on arrays of doubles, used by
+ * {@link DoubleMatrix}. Every operation works on the first n elements of
+ * its arrays. Output arrays may be the same as input arrays.
+ *
+ * <p>Two implementations exist: one that uses the (incubating) Java
+ * Vector API, and a scalar one. {@link #INSTANCE} is the vector
+ * implementation when the {@code jdk.incubator.vector} module is
+ * available (e.g., when running with
+ * {@code --add-modules jdk.incubator.vector}) and the scalar one
+ * otherwise. Setting the system property {@value #SCALAR_PROPERTY} to
+ * true forces the scalar implementation.</p>
+ *
+ * @author Andrew N. Fargo
+ */
+interface DoubleKernels {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The system property that forces the scalar kernels. */
+  String SCALAR_PROPERTY = "edu.grinnell.csc207.util.scalar";
+
+  /** The kernels to use. */
+  DoubleKernels INSTANCE = select();
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Pick the best available kernels.
+   *
+   * @return the vector kernels, if they can be loaded and are not
+   *   disabled, and the scalar kernels otherwise.
+   */
+  static DoubleKernels select() {
+    if (!Boolean.getBoolean(SCALAR_PROPERTY)) {
+      try {
+        return (DoubleKernels) Class.forName(DoubleKernels.class.getPackageName()
+            + ".VectorDoubleKernels").getDeclaredConstructor().newInstance();
+      } catch (ReflectiveOperationException | LinkageError e) {
+        // The vector module is missing; fall through to the scalar kernels.
+      } // try/catch
+    } // if
+    return new ScalarDoubleKernels();
+  } // select()
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Name the kernels, for diagnostics.
+   *
+   * @return the name.
+   */
+  String name();
+
+  /**
+   * Compute out[i] = a[i] + b[i].
+   *
+   * @param a
+   *   The first operand.
+   * @param b
+   *   The second operand.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  void add(double[] a, double[] b, double[] out, int n);
+
+  /**
+   * Compute out[i] = a[i] - b[i].
+   *
+   * @param a
+   *   The first operand.
+   * @param b
+   *   The second operand.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  void sub(double[] a, double[] b, double[] out, int n);
+
+  /**
+   * Compute out[i] = a[i] * b[i].
+   *
+   * @param a
+   *   The first operand.
+   * @param b
+   *   The second operand.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  void mul(double[] a, double[] b, double[] out, int n);
+
+  /**
+   * Compute out[i] = a[i] * factor.
+   *
+   * @param a
+   *   The operand.
+   * @param factor
+   *   The scale factor.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  void scale(double[] a, double factor, double[] out, int n);
+
+  /**
+   * Compute out[i] = a[i] * b[i] + c[i] with a single rounding.
+   *
+   * @param a
+   *   The first factor.
+   * @param b
+   *   The second factor.
+   * @param c
+   *   The addend.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  void fma(double[] a, double[] b, double[] c, double[] out, int n);
+
+  /**
+   * Compute out[i] = a[i] &lt; b[i].
+   *
+   * @param a
+   *   The first operand.
+   * @param b
+   *   The second operand.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  void lessThan(double[] a, double[] b, boolean[] out, int n);
+
+  /**
+   * Compute out[i] = a[i] == b[i].
+   *
+   * @param a
+   *   The first operand.
+   * @param b
+   *   The second operand.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  void equalTo(double[] a, double[] b, boolean[] out, int n);
+
+  /**
+   * Add up elements. The order of the additions is unspecified, so
+   * results may differ in the last bits between implementations.
+   *
+   * @param a
+   *   The elements.
+   * @param from
+   *   The index of the first element (inclusive).
+   * @param to
+   *   The index of the last element (exclusive).
+   *
+   * @return the sum.
+   */
+  double sum(double[] a, int from, int to);
+
+  /**
+   * Find the smallest element, as by Math.min.
+   *
+   * @param a
+   *   The elements.
+   * @param from
+   *   The index of the first element (inclusive).
+   * @param to
+   *   The index of the last element (exclusive).
+   *
+   * @return the smallest, or positive infinity if the range is empty.
+   */
+  double min(double[] a, int from, int to);
+
+  /**
+   * Find the largest element, as by Math.max.
+   *
+   * @param a
+   *   The elements.
+   * @param from
+   *   The index of the first element (inclusive).
+   * @param to
+   *   The index of the last element (exclusive).
+   *
+   * @return the largest, or negative infinity if the range is empty.
+   */
+  double max(double[] a, int from, int to);
+
+  /**
+   * Compute the dot product of a and b. The order of the additions is
+   * unspecified.
+   *
+   * @param a
+   *   The first operand.
+   * @param b
+   *   The second operand.
+   * @param n
+   *   The number of elements.
+   *
+   * @return the sum of a[i] * b[i].
+   */
+  double dot(double[] a, double[] b, int n);
+} // interface DoubleKernels
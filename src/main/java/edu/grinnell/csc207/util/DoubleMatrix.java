@@ -0,0 +1,1338 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.BinaryOperator;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoublePredicate;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * A matrix of doubles, stored unboxed in a single row-major array.
+ *
+ * <p>In addition to the {@link Matrix} operations (which box and unbox
+ * values as needed), this class provides primitive accessors and
+ * element-wise arithmetic, comparisons and reductions. Those run over
+ * the backing array with the Java Vector API when it is available and
+ * with plain loops otherwise (see {@link DoubleKernels}).</p>
+ *
+ * <p>A DoubleMatrix may not contain null; attempting to store null
+ * throws a NullPointerException and leaves the matrix unchanged.</p>
+ *
+ * @author Andrew N. Fargo
+ */
+public class DoubleMatrix implements Matrix<Double> {
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The cells, row by row. Always exactly width * height long. */
+  double[] values;
+
+  /** The number of columns. */
+  private int cols;
+
+  /** The number of rows. */
+  private int rows;
+
+  /** Default value for insertions. */
+  private final double defaultValue;
+
+  /** The side of the blocks at which transposition stops recursing. */
+  private static final int TRANSPOSE_BLOCK = 32;
+
+  /** An empty set of indexes, shared by all matrices without any. */
+  private static final DoubleMatrixIndex[] NO_INDEXES = {};
+
+  /** The indexes to tell about changes. Usually empty. */
+  private DoubleMatrixIndex[] indexes = NO_INDEXES;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public DoubleMatrix(int width, int height, double def) {
+    if (width < 0 || height < 0) {
+      throw new NegativeArraySizeException();
+    } // if
+    this.cols = width;
+    this.rows = height;
+    this.defaultValue = def;
+    this.values = new double[Math.multiplyExact(width, height)];
+    if (def != 0) {
+      Arrays.fill(this.values, def);
+    } // if
+  } // DoubleMatrix(int, int, double)
+
+  /**
+   * Create a new matrix of the specified width and height with zero as
+   * the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public DoubleMatrix(int width, int height) {
+    this(width, height, 0.0);
+  } // DoubleMatrix(int, int)
+
+  /**
+   * Create a new matrix that uses an existing array as its cells.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value.
+   * @param cells
+   *   The cells, row by row. Must be exactly width * height long; it
+   *   is not copied.
+   */
+  DoubleMatrix(int width, int height, double def, double[] cells) {
+    this.cols = width;
+    this.rows = height;
+    this.defaultValue = def;
+    this.values = cells;
+  } // DoubleMatrix(int, int, double, double[])
+
+  /**
+   * Copy any matrix of doubles into a new DoubleMatrix.
+   *
+   * @param matrix
+   *   The matrix to copy.
+   *
+   * @return the copy.
+   *
+   * @throws NullPointerException
+   *   If the matrix contains null.
+   */
+  public static DoubleMatrix copyOf(Matrix<Double> matrix) {
+    if (matrix instanceof DoubleMatrix) {
+      return ((DoubleMatrix) matrix).clone();
+    } // if
+    int width = matrix.width();
+    int height = matrix.height();
+    double[] cells = new double[width * height];
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        cells[row * width + col] = matrix.get(row, col);
+      } // for col
+    } // for row
+    return new DoubleMatrix(width, height, 0.0, cells);
+  } // copyOf(Matrix<Double>)
+
+  // +---------+-----------------------------------------------------
+  // | Indexes |
+  // +---------+
+
+  /**
+   * Start telling an index about changes to this matrix.
+   *
+   * @param index
+   *   The index.
+   */
+  void addIndex(DoubleMatrixIndex index) {
+    this.indexes = Arrays.copyOf(this.indexes, this.indexes.length + 1);
+    this.indexes[this.indexes.length - 1] = index;
+  } // addIndex(DoubleMatrixIndex)
+
+  /**
+   * Stop telling an index about changes to this matrix.
+   *
+   * @param index
+   *   The index.
+   */
+  void removeIndex(DoubleMatrixIndex index) {
+    for (int i = 0; i < this.indexes.length; i++) {
+      if (this.indexes[i] == index) {
+        DoubleMatrixIndex[] remaining = new DoubleMatrixIndex[this.indexes.length - 1];
+        System.arraycopy(this.indexes, 0, remaining, 0, i);
+        System.arraycopy(this.indexes, i + 1, remaining, i, remaining.length - i);
+        this.indexes = (remaining.length == 0) ? NO_INDEXES : remaining;
+        return;
+      } // if
+    } // for
+  } // removeIndex(DoubleMatrixIndex)
+
+  // +-----------+---------------------------------------------------
+  // | Listeners |
+  // +-----------+
+
+  /**
+   * Start telling a listener about changes to this matrix. Listeners
+   * receive boxed values, so each change allocates while any listener
+   * is registered; a matrix without listeners or indexes never does.
+   *
+   * @param listener
+   *   The listener.
+   */
+  public void addListener(MatrixListener<? super Double> listener) {
+    this.addIndex(new Boxing(listener));
+  } // addListener(MatrixListener)
+
+  /**
+   * Stop telling a listener about changes to this matrix.
+   *
+   * @param listener
+   *   The listener.
+   */
+  public void removeListener(MatrixListener<? super Double> listener) {
+    for (DoubleMatrixIndex index : this.indexes) {
+      if (index instanceof Boxing && ((Boxing) index).listener == listener) {
+        this.removeIndex(index);
+        return;
+      } // if
+    } // for
+  } // removeListener(MatrixListener)
+
+  // +-----------------+---------------------------------------------
+  // | Private Methods |
+  // +-----------------+
+
+  /**
+   * Checks if the cell (row, col) is within bounds of the matrix.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The col of the cell.
+   *
+   * @return true if the cell is outside the matrix.
+   */
+  private boolean outOfBounds(int row, int col) {
+    return row < 0 || row >= this.rows || col < 0 || col >= this.cols;
+  } // outOfBounds(int, int)
+
+  /**
+   * Make sure that another matrix has the same shape as this one.
+   *
+   * @param other
+   *   The other matrix.
+   *
+   * @throws ArraySizeException
+   *   If the shapes differ.
+   */
+  private void checkSameShape(DoubleMatrix other) throws ArraySizeException {
+    if (other.cols != this.cols || other.rows != this.rows) {
+      throw new ArraySizeException("Matrices have different shapes");
+    } // if
+  } // checkSameShape(DoubleMatrix)
+
+  /**
+   * Unbox an array of values.
+   *
+   * @param vals
+   *   The values.
+   *
+   * @return the unboxed values.
+   *
+   * @throws NullPointerException
+   *   If any value is null.
+   */
+  private static double[] unbox(Double[] vals) {
+    double[] result = new double[vals.length];
+    for (int i = 0; i < vals.length; i++) {
+      result[i] = vals[i];
+    } // for
+    return result;
+  } // unbox(Double[])
+
+  /**
+   * Tell the indexes about a change to one cell.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   * @param oldVal
+   *   The value the cell had.
+   * @param newVal
+   *   The value the cell has now.
+   */
+  private void cellChanged(int row, int col, double oldVal, double newVal) {
+    for (DoubleMatrixIndex index : this.indexes) {
+      index.cellChanged(row, col, oldVal, newVal);
+    } // for
+  } // cellChanged(int, int, double, double)
+
+  /**
+   * Tell the indexes about a change to the shape of the matrix.
+   *
+   * @param op
+   *   The operation that changed it.
+   * @param where
+   *   The row or column inserted or deleted, or -1.
+   */
+  private void structureChanged(MatrixOperation op, int where) {
+    for (DoubleMatrixIndex index : this.indexes) {
+      index.structureChanged(op, where);
+    } // for
+  } // structureChanged(MatrixOperation, int)
+
+  /**
+   * Box an array of values.
+   *
+   * @param vals
+   *   The values.
+   * @param generator
+   *   Makes an array of the given length.
+   *
+   * @return the boxed values.
+   */
+  private static Double[] box(double[] vals, IntFunction<Double[]> generator) {
+    Double[] result = generator.apply(vals.length);
+    for (int i = 0; i < vals.length; i++) {
+      result[i] = vals[i];
+    } // for
+    return result;
+  } // box(double[], IntFunction<Double[]>)
+
+  /**
+   * Build a matrix of booleans from a row-major array of them.
+   *
+   * @param mask
+   *   The booleans.
+   *
+   * @return the matrix, packed one bit per cell.
+   */
+  private BooleanMatrix booleans(boolean[] mask) {
+    return BooleanMatrix.fromMask(this.cols, this.rows, mask);
+  } // booleans(boolean[])
+
+  /**
+   * Transpose part of this matrix into another array, recursively
+   * halving the longer side of the part until it is small enough to
+   * stay in cache.
+   *
+   * @param dst
+   *   Where to put the transpose, row by row.
+   * @param r0
+   *   The first row (inclusive).
+   * @param r1
+   *   The last row (exclusive).
+   * @param c0
+   *   The first column (inclusive).
+   * @param c1
+   *   The last column (exclusive).
+   */
+  private void transposeInto(double[] dst, int r0, int r1, int c0, int c1) {
+    if (r1 - r0 <= TRANSPOSE_BLOCK && c1 - c0 <= TRANSPOSE_BLOCK) {
+      for (int row = r0; row < r1; row++) {
+        for (int col = c0; col < c1; col++) {
+          dst[col * this.rows + row] = this.values[row * this.cols + col];
+        } // for col
+      } // for row
+    } else if (r1 - r0 >= c1 - c0) {
+      int mid = (r0 + r1) >>> 1;
+      this.transposeInto(dst, r0, mid, c0, c1);
+      this.transposeInto(dst, mid, r1, c0, c1);
+    } else {
+      int mid = (c0 + c1) >>> 1;
+      this.transposeInto(dst, r0, r1, c0, mid);
+      this.transposeInto(dst, r0, r1, mid, c1);
+    } // if/else
+  } // transposeInto(double[], int, int, int, int)
+
+  /**
+   * Swap each cell of a square matrix in a block with its mirror image
+   * across the diagonal. Blocks that straddle the diagonal are split so
+   * that each pair is swapped once.
+   *
+   * @param r0
+   *   The first row (inclusive).
+   * @param r1
+   *   The last row (exclusive).
+   * @param c0
+   *   The first column (inclusive).
+   * @param c1
+   *   The last column (exclusive).
+   */
+  private void swapMirrored(int r0, int r1, int c0, int c1) {
+    if (r1 - r0 <= TRANSPOSE_BLOCK && c1 - c0 <= TRANSPOSE_BLOCK) {
+      for (int row = r0; row < r1; row++) {
+        for (int col = Math.max(c0, row + 1); col < c1; col++) {
+          int here = row * this.cols + col;
+          int there = col * this.cols + row;
+          double tmp = this.values[here];
+          this.values[here] = this.values[there];
+          this.values[there] = tmp;
+        } // for col
+      } // for row
+    } else if (r1 - r0 >= c1 - c0) {
+      int mid = (r0 + r1) >>> 1;
+      this.swapMirrored(r0, mid, c0, c1);
+      if (c1 > mid) {
+        this.swapMirrored(mid, r1, Math.max(c0, mid), c1);
+      } // if
+    } else {
+      int mid = (c0 + c1) >>> 1;
+      if (mid > r0) {
+        this.swapMirrored(r0, r1, c0, mid);
+      } // if
+      this.swapMirrored(r0, r1, mid, c1);
+    } // if/else
+  } // swapMirrored(int, int, int, int)
+
+  /**
+   * Transpose a non-square matrix within its own array by following the
+   * cycles of the permutation that takes each cell to its new place. The
+   * cell at index i moves to index (i * rows) mod (size - 1). One bit per
+   * cell records which cells have been moved.
+   */
+  private void transposeCycles() {
+    int size = this.values.length;
+    if (size < 3) {
+      return;
+    } // if
+    long modulus = size - 1;
+    BitSet moved = new BitSet(size);
+    for (int start = 1; start < size - 1; start++) {
+      if (moved.get(start)) {
+        continue;
+      } // if
+      double carry = this.values[start];
+      int i = start;
+      do {
+        int next = (int) (i * (long) this.rows % modulus);
+        double tmp = this.values[next];
+        this.values[next] = carry;
+        carry = tmp;
+        moved.set(next);
+        i = next;
+      } while (i != start);
+    } // for
+  } // transposeCycles()
+
+  // +-------------------+-------------------------------------------
+  // | Primitive methods |
+  // +-------------------+
+
+  /**
+   * Get the element at the given row and column, without boxing it.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public double getDouble(int row, int col) {
+    if (this.outOfBounds(row, col)) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    return this.values[row * this.cols + col];
+  } // getDouble(int, int)
+
+  /**
+   * Set the element at the given row and column, without boxing it.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void setDouble(int row, int col, double val) {
+    if (this.outOfBounds(row, col)) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    int i = row * this.cols + col;
+    double old = this.values[i];
+    this.values[i] = val;
+    if (this.indexes.length != 0) {
+      this.cellChanged(row, col, old, val);
+    } // if
+  } // setDouble(int, int, double)
+
+  /**
+   * Add another matrix to this one, element by element.
+   *
+   * @param other
+   *   The matrix to add.
+   *
+   * @return a new matrix of the sums.
+   *
+   * @throws ArraySizeException
+   *   If the matrices have different shapes.
+   */
+  public DoubleMatrix plus(DoubleMatrix other) throws ArraySizeException {
+    this.checkSameShape(other);
+    double[] out = new double[this.values.length];
+    DoubleKernels.INSTANCE.add(this.values, other.values, out, out.length);
+    return new DoubleMatrix(this.cols, this.rows, this.defaultValue, out);
+  } // plus(DoubleMatrix)
+
+  /**
+   * Subtract another matrix from this one, element by element.
+   *
+   * @param other
+   *   The matrix to subtract.
+   *
+   * @return a new matrix of the differences.
+   *
+   * @throws ArraySizeException
+   *   If the matrices have different shapes.
+   */
+  public DoubleMatrix minus(DoubleMatrix other) throws ArraySizeException {
+    this.checkSameShape(other);
+    double[] out = new double[this.values.length];
+    DoubleKernels.INSTANCE.sub(this.values, other.values, out, out.length);
+    return new DoubleMatrix(this.cols, this.rows, this.defaultValue, out);
+  } // minus(DoubleMatrix)
+
+  /**
+   * Multiply this matrix by another, element by element. (For the
+   * matrix product, see {@link MatrixMath#multiply(Matrix, Matrix)}.)
+   *
+   * @param other
+   *   The matrix to multiply by.
+   *
+   * @return a new matrix of the products.
+   *
+   * @throws ArraySizeException
+   *   If the matrices have different shapes.
+   */
+  public DoubleMatrix times(DoubleMatrix other) throws ArraySizeException {
+    this.checkSameShape(other);
+    double[] out = new double[this.values.length];
+    DoubleKernels.INSTANCE.mul(this.values, other.values, out, out.length);
+    return new DoubleMatrix(this.cols, this.rows, this.defaultValue, out);
+  } // times(DoubleMatrix)
+
+  /**
+   * Multiply every element by a constant.
+   *
+   * @param factor
+   *   The constant.
+   *
+   * @return a new, scaled, matrix.
+   */
+  public DoubleMatrix scale(double factor) {
+    double[] out = new double[this.values.length];
+    DoubleKernels.INSTANCE.scale(this.values, factor, out, out.length);
+    return new DoubleMatrix(this.cols, this.rows, this.defaultValue, out);
+  } // scale(double)
+
+  /**
+   * Compute this * factor + addend, element by element, with a single
+   * rounding per element.
+   *
+   * @param factor
+   *   The matrix to multiply by.
+   * @param addend
+   *   The matrix to add.
+   *
+   * @return a new matrix of the results.
+   *
+   * @throws ArraySizeException
+   *   If the matrices have different shapes.
+   */
+  public DoubleMatrix fma(DoubleMatrix factor, DoubleMatrix addend)
+      throws ArraySizeException {
+    this.checkSameShape(factor);
+    this.checkSameShape(addend);
+    double[] out = new double[this.values.length];
+    DoubleKernels.INSTANCE.fma(this.values, factor.values, addend.values, out, out.length);
+    return new DoubleMatrix(this.cols, this.rows, this.defaultValue, out);
+  } // fma(DoubleMatrix, DoubleMatrix)
+
+  /**
+   * Determine where elements of this matrix are less than those of
+   * another.
+   *
+   * @param other
+   *   The matrix to compare to.
+   *
+   * @return a new matrix that is true where this matrix is smaller.
+   *
+   * @throws ArraySizeException
+   *   If the matrices have different shapes.
+   */
+  public BooleanMatrix lessThan(DoubleMatrix other) throws ArraySizeException {
+    this.checkSameShape(other);
+    boolean[] mask = new boolean[this.values.length];
+    DoubleKernels.INSTANCE.lessThan(this.values, other.values, mask, mask.length);
+    return this.booleans(mask);
+  } // lessThan(DoubleMatrix)
+
+  /**
+   * Determine where elements of this matrix are greater than those of
+   * another.
+   *
+   * @param other
+   *   The matrix to compare to.
+   *
+   * @return a new matrix that is true where this matrix is larger.
+   *
+   * @throws ArraySizeException
+   *   If the matrices have different shapes.
+   */
+  public BooleanMatrix greaterThan(DoubleMatrix other) throws ArraySizeException {
+    return other.lessThan(this);
+  } // greaterThan(DoubleMatrix)
+
+  /**
+   * Determine where elements of this matrix are numerically equal to
+   * those of another (so 0.0 equals -0.0 and NaN equals nothing).
+   *
+   * @param other
+   *   The matrix to compare to.
+   *
+   * @return a new matrix that is true where the elements are equal.
+   *
+   * @throws ArraySizeException
+   *   If the matrices have different shapes.
+   */
+  public BooleanMatrix equalTo(DoubleMatrix other) throws ArraySizeException {
+    this.checkSameShape(other);
+    boolean[] mask = new boolean[this.values.length];
+    DoubleKernels.INSTANCE.equalTo(this.values, other.values, mask, mask.length);
+    return this.booleans(mask);
+  } // equalTo(DoubleMatrix)
+
+  /**
+   * Add up all of the elements.
+   *
+   * @return the sum.
+   */
+  public double sum() {
+    return ParallelRanges.reduce(this.values.length, 1,
+        (lo, hi) -> DoubleKernels.INSTANCE.sum(this.values, lo, hi), Double::sum);
+  } // sum()
+
+  /**
+   * Find the smallest element.
+   *
+   * @return the smallest element, or positive infinity if the matrix is
+   *   empty.
+   */
+  public double min() {
+    return ParallelRanges.reduce(this.values.length, 1,
+        (lo, hi) -> DoubleKernels.INSTANCE.min(this.values, lo, hi), Math::min);
+  } // min()
+
+  /**
+   * Find the largest element.
+   *
+   * @return the largest element, or negative infinity if the matrix is
+   *   empty.
+   */
+  public double max() {
+    return ParallelRanges.reduce(this.values.length, 1,
+        (lo, hi) -> DoubleKernels.INSTANCE.max(this.values, lo, hi), Math::max);
+  } // max()
+
+  /**
+   * Compute the sum of the element-wise products of this matrix and
+   * another (the Frobenius inner product).
+   *
+   * @param other
+   *   The other matrix.
+   *
+   * @return the sum of the products.
+   *
+   * @throws ArraySizeException
+   *   If the matrices have different shapes.
+   */
+  public double dot(DoubleMatrix other) throws ArraySizeException {
+    this.checkSameShape(other);
+    return DoubleKernels.INSTANCE.dot(this.values, other.values, this.values.length);
+  } // dot(DoubleMatrix)
+
+  /**
+   * Combine all the elements, row by row, with an operation. Large
+   * matrices are split into blocks that are combined in parallel.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   *
+   * @return identity combined with every element.
+   */
+  public double reduceDoubles(double identity, DoubleBinaryOperator op) {
+    return ParallelRanges.reduce(this.values.length, 1, (lo, hi) -> {
+      double result = identity;
+      for (int i = lo; i < hi; i++) {
+        result = op.applyAsDouble(result, this.values[i]);
+      } // for
+      return result;
+    }, op::applyAsDouble);
+  } // reduceDoubles(double, DoubleBinaryOperator)
+
+  /**
+   * Count the elements that satisfy a predicate.
+   *
+   * @param predicate
+   *   The predicate.
+   *
+   * @return the number of elements for which predicate is true.
+   */
+  public long countDoubles(DoublePredicate predicate) {
+    return ParallelRanges.reduce(this.values.length, 1, (lo, hi) -> {
+      long count = 0;
+      for (int i = lo; i < hi; i++) {
+        if (predicate.test(this.values[i])) {
+          count++;
+        } // if
+      } // for
+      return count;
+    }, Long::sum);
+  } // countDoubles(DoublePredicate)
+
+  /**
+   * Combine the elements of each row, left to right.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   *
+   * @return an array with one combined value per row.
+   */
+  public double[] reduceRowDoubles(double identity, DoubleBinaryOperator op) {
+    double[] result = new double[this.rows];
+    ParallelRanges.forEach(this.rows, this.cols, (lo, hi) -> {
+      for (int row = lo; row < hi; row++) {
+        double acc = identity;
+        for (int i = row * this.cols, end = i + this.cols; i < end; i++) {
+          acc = op.applyAsDouble(acc, this.values[i]);
+        } // for
+        result[row] = acc;
+      } // for
+    });
+    return result;
+  } // reduceRowDoubles(double, DoubleBinaryOperator)
+
+  /**
+   * Combine the elements of each column, top to bottom.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   *
+   * @return an array with one combined value per column.
+   */
+  public double[] reduceColDoubles(double identity, DoubleBinaryOperator op) {
+    double[] result = new double[this.cols];
+    ParallelRanges.forEach(this.cols, this.rows, (lo, hi) -> {
+      Arrays.fill(result, lo, hi, identity);
+      for (int row = 0; row < this.rows; row++) {
+        int base = row * this.cols;
+        for (int col = lo; col < hi; col++) {
+          result[col] = op.applyAsDouble(result[col], this.values[base + col]);
+        } // for col
+      } // for row
+    });
+    return result;
+  } // reduceColDoubles(double, DoubleBinaryOperator)
+
+  /**
+   * Add up each row.
+   *
+   * @return an array with the sum of each row.
+   */
+  public double[] rowSums() {
+    double[] result = new double[this.rows];
+    ParallelRanges.forEach(this.rows, this.cols, (lo, hi) -> {
+      for (int row = lo; row < hi; row++) {
+        result[row] = DoubleKernels.INSTANCE.sum(this.values, row * this.cols,
+            (row + 1) * this.cols);
+      } // for
+    });
+    return result;
+  } // rowSums()
+
+  /**
+   * Add up each column. Each block of columns is summed a row segment
+   * at a time, so the additions run along the backing array.
+   *
+   * @return an array with the sum of each column.
+   */
+  public double[] colSums() {
+    double[] result = new double[this.cols];
+    ParallelRanges.forEach(this.cols, this.rows, (lo, hi) -> {
+      for (int row = 0; row < this.rows; row++) {
+        int base = row * this.cols;
+        for (int col = lo; col < hi; col++) {
+          result[col] += this.values[base + col];
+        } // for col
+      } // for row
+    });
+    return result;
+  } // colSums()
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public Double get(int row, int col) {
+    return this.getDouble(row, col);
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   * @throws NullPointerException
+   *   If the value is null.
+   */
+  public void set(int row, int col, Double val) {
+    this.setDouble(row, col, val);
+  } // set(int, int, Double)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.rows;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.cols;
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    double[] vals = new double[this.cols];
+    Arrays.fill(vals, this.defaultValue);
+    this.insertRow(row, vals);
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   * @throws NullPointerException
+   *   If any of the values is null.
+   */
+  public void insertRow(int row, Double[] vals) throws ArraySizeException {
+    if (row < 0 || row > this.rows) {
+      throw new IndexOutOfBoundsException("Provided row exceeds height of DoubleMatrix");
+    } // if
+    if (vals.length != this.cols) {
+      throw new ArraySizeException("Inserted row has invalid width");
+    } // if
+    this.insertRow(row, unbox(vals));
+  } // insertRow(int, Double[])
+
+  /**
+   * Insert a row of unboxed values, which have already been checked.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   */
+  private void insertRow(int row, double[] vals) {
+    if (row < 0 || row > this.rows) {
+      throw new IndexOutOfBoundsException("Provided row exceeds height of DoubleMatrix");
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    double[] newValues = new double[this.values.length + this.cols];
+    int split = row * this.cols;
+    System.arraycopy(this.values, 0, newValues, 0, split);
+    System.arraycopy(vals, 0, newValues, split, this.cols);
+    System.arraycopy(this.values, split, newValues, split + this.cols,
+        this.values.length - split);
+    this.values = newValues;
+    this.rows++;
+    this.structureChanged(MatrixOperation.INSERT_ROW, row);
+    event.finish(MatrixOperation.INSERT_ROW, this, row, this.values.length);
+  } // insertRow(int, double[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    double[] vals = new double[this.rows];
+    Arrays.fill(vals, this.defaultValue);
+    this.insertCol(col, vals);
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   * @throws NullPointerException
+   *   If any of the values is null.
+   */
+  public void insertCol(int col, Double[] vals) throws ArraySizeException {
+    if (col < 0 || col > this.cols) {
+      throw new IndexOutOfBoundsException("Provided col exceeds width of DoubleMatrix");
+    } // if
+    if (vals.length != this.rows) {
+      throw new ArraySizeException("Inserted col has invalid height");
+    } // if
+    this.insertCol(col, unbox(vals));
+  } // insertCol(int, Double[])
+
+  /**
+   * Insert a column of unboxed values, which have already been checked.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   */
+  private void insertCol(int col, double[] vals) {
+    if (col < 0 || col > this.cols) {
+      throw new IndexOutOfBoundsException("Provided col exceeds width of DoubleMatrix");
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    int newCols = this.cols + 1;
+    double[] newValues = new double[this.rows * newCols];
+    for (int row = 0; row < this.rows; row++) {
+      int from = row * this.cols;
+      int to = row * newCols;
+      System.arraycopy(this.values, from, newValues, to, col);
+      newValues[to + col] = vals[row];
+      System.arraycopy(this.values, from + col, newValues, to + col + 1, this.cols - col);
+    } // for
+    this.values = newValues;
+    this.cols = newCols;
+    this.structureChanged(MatrixOperation.INSERT_COL, col);
+    event.finish(MatrixOperation.INSERT_COL, this, col, this.values.length);
+  } // insertCol(int, double[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    if (row < 0 || row >= this.rows) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    double[] newValues = new double[this.values.length - this.cols];
+    int split = row * this.cols;
+    System.arraycopy(this.values, 0, newValues, 0, split);
+    System.arraycopy(this.values, split + this.cols, newValues, split,
+        newValues.length - split);
+    this.values = newValues;
+    this.rows--;
+    this.structureChanged(MatrixOperation.DELETE_ROW, row);
+    event.finish(MatrixOperation.DELETE_ROW, this, row, this.values.length);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    if (col < 0 || col >= this.cols) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    int newCols = this.cols - 1;
+    double[] newValues = new double[this.rows * newCols];
+    for (int row = 0; row < this.rows; row++) {
+      int from = row * this.cols;
+      int to = row * newCols;
+      System.arraycopy(this.values, from, newValues, to, col);
+      System.arraycopy(this.values, from + col + 1, newValues, to + col, newCols - col);
+    } // for
+    this.values = newValues;
+    this.cols = newCols;
+    this.structureChanged(MatrixOperation.DELETE_COL, col);
+    event.finish(MatrixOperation.DELETE_COL, this, col, this.values.length);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      Double val) {
+    if (startRow >= endRow || startCol >= endCol) {
+      return;
+    } else if (outOfBounds(startRow, startCol) || outOfBounds(endRow - 1, endCol - 1)) {
+      throw new IndexOutOfBoundsException();
+    } // if/else
+    double unboxed = val;
+    MatrixFillEvent event = MatrixFillEvent.start();
+    for (int row = startRow; row < endRow; row++) {
+      Arrays.fill(this.values, row * this.cols + startCol, row * this.cols + endCol,
+          unboxed);
+    } // for
+    for (DoubleMatrixIndex index : this.indexes) {
+      index.regionChanged(startRow, startCol, endRow, endCol);
+    } // for
+    event.finish(MatrixOperation.FILL_REGION, this,
+        (long) (endRow - startRow) * (endCol - startCol));
+  } // fillRegion(int, int, int, int, Double)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, Double val) {
+    if (outOfBounds(startRow, startCol) || outOfBounds(endRow - 1, endCol - 1)) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    double unboxed = val;
+    MatrixFillEvent event = MatrixFillEvent.start();
+    long cells = 0;
+    for (int row = startRow, col = startCol;
+         row < endRow && col < endCol;
+         row += deltaRow, col += deltaCol) {
+      if (this.outOfBounds(row, col)) {
+        throw new IndexOutOfBoundsException();
+      } // if
+      int i = row * this.cols + col;
+      double old = this.values[i];
+      this.values[i] = unboxed;
+      if (this.indexes.length != 0) {
+        this.cellChanged(row, col, old, unboxed);
+      } // if
+      cells++;
+    } // for
+    event.finish(MatrixOperation.FILL_LINE, this, cells);
+  } // fillLine(int, int, int, int, int, int, Double)
+
+  /**
+   * Combine all the elements, row by row, with an operation on boxed
+   * values. Prefer {@link #reduceDoubles}, which does not box.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   *
+   * @return identity combined with every element.
+   */
+  public Double reduce(Double identity, BinaryOperator<Double> op) {
+    return this.reduceDoubles(identity, op::apply);
+  } // reduce(Double, BinaryOperator<Double>)
+
+  /**
+   * Count the elements that satisfy a predicate on boxed values. Prefer
+   * {@link #countDoubles}, which does not box.
+   *
+   * @param predicate
+   *   The predicate.
+   *
+   * @return the number of elements for which predicate is true.
+   */
+  public long count(Predicate<? super Double> predicate) {
+    return this.countDoubles(predicate::test);
+  } // count(Predicate)
+
+  /**
+   * Combine the elements of each row with an operation on boxed values.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   * @param generator
+   *   Makes an array of the given length.
+   *
+   * @return an array with one combined value per row.
+   */
+  public Double[] reduceRows(Double identity, BinaryOperator<Double> op,
+      IntFunction<Double[]> generator) {
+    return box(this.reduceRowDoubles(identity, op::apply), generator);
+  } // reduceRows(Double, BinaryOperator<Double>, IntFunction<Double[]>)
+
+  /**
+   * Combine the elements of each column with an operation on boxed
+   * values.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   * @param generator
+   *   Makes an array of the given length.
+   *
+   * @return an array with one combined value per column.
+   */
+  public Double[] reduceCols(Double identity, BinaryOperator<Double> op,
+      IntFunction<Double[]> generator) {
+    return box(this.reduceColDoubles(identity, op::apply), generator);
+  } // reduceCols(Double, BinaryOperator<Double>, IntFunction<Double[]>)
+
+  /**
+   * Make a new matrix that is the transpose of this one, using a
+   * recursive, cache-oblivious traversal.
+   *
+   * @return the transpose.
+   */
+  public DoubleMatrix transpose() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    double[] cells = new double[this.values.length];
+    this.transposeInto(cells, 0, this.rows, 0, this.cols);
+    DoubleMatrix result = new DoubleMatrix(this.rows, this.cols, this.defaultValue, cells);
+    event.finish(MatrixOperation.TRANSPOSE, result, -1, cells.length);
+    return result;
+  } // transpose()
+
+  /**
+   * Transpose this matrix within its own array. Square matrices swap
+   * cells across the diagonal block by block; other matrices follow the
+   * cycles of the transposition, which needs one extra bit per cell.
+   */
+  public void transposeInPlace() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    if (this.rows == this.cols) {
+      this.swapMirrored(0, this.rows, 0, this.cols);
+    } else {
+      this.transposeCycles();
+      int height = this.rows;
+      this.rows = this.cols;
+      this.cols = height;
+    } // if/else
+    this.structureChanged(MatrixOperation.TRANSPOSE, -1);
+    event.finish(MatrixOperation.TRANSPOSE, this, -1, this.values.length);
+  } // transposeInPlace()
+
+  /**
+   * Make a copy of the matrix.
+   *
+   * @return a copy of the matrix.
+   */
+  public DoubleMatrix clone() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    DoubleMatrix copy = new DoubleMatrix(this.cols, this.rows, this.defaultValue,
+        this.values.clone());
+    event.finish(MatrixOperation.CLONE, this, -1, this.values.length);
+    return copy;
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object. Elements are
+   * compared as by Double.equals.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    if (other instanceof DoubleMatrix) {
+      DoubleMatrix that = (DoubleMatrix) other;
+      return this.cols == that.cols && this.rows == that.rows
+          && Arrays.equals(this.values, that.values);
+    } else if (!(other instanceof Matrix)) {
+      return false;
+    } // if/else
+    Matrix<?> that = (Matrix<?>) other;
+    if (that.width() != this.cols || that.height() != this.rows) {
+      return false;
+    } // if
+    for (int row = 0; row < this.rows; row++) {
+      for (int col = 0; col < this.cols; col++) {
+        if (!Double.valueOf(this.values[row * this.cols + col]).equals(that.get(row, col))) {
+          return false;
+        } // if
+      } // for col
+    } // for row
+    return true;
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix. Equal to the hash code of a
+   * MatrixV0 with the same elements.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    int multiplier = 7;
+    int code = this.cols + multiplier * this.rows;
+    for (double val : this.values) {
+      code = code * multiplier + Double.hashCode(val);
+    } // for
+    return code;
+  } // hashCode()
+
+  /**
+   * Estimate the heap this matrix keeps alive: the values are cell
+   * storage, and the matrix and the indexes that follow it, such as
+   * summed-area tables and segment trees, are index.
+   *
+   * @return the estimate.
+   */
+  public MemoryFootprint footprint() {
+    long index = MemoryFootprint.object(2, 2 * Integer.BYTES + Double.BYTES);
+    if (this.indexes != NO_INDEXES) {
+      index += MemoryFootprint.referenceArray(this.indexes.length);
+    } // if
+    for (DoubleMatrixIndex follower : this.indexes) {
+      index += follower.estimatedBytes();
+    } // for
+    return new MemoryFootprint(MemoryFootprint.primitiveArray(this.values.length, Double.BYTES),
+        0, index, 0);
+  } // footprint()
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * Passes changes on to a listener, boxing the values.
+   */
+  private static final class Boxing implements DoubleMatrixIndex {
+    /** The listener. */
+    private final MatrixListener<? super Double> listener;
+
+    /**
+     * Wrap a listener.
+     *
+     * @param wrapped
+     *   The listener.
+     */
+    Boxing(MatrixListener<? super Double> wrapped) {
+      this.listener = wrapped;
+    } // Boxing(MatrixListener)
+
+    @Override
+    public void cellChanged(int row, int col, double oldVal, double newVal) {
+      this.listener.cellChanged(row, col, oldVal, newVal);
+    } // cellChanged(int, int, double, double)
+
+    @Override
+    public void regionChanged(int startRow, int startCol, int endRow, int endCol) {
+      this.listener.regionChanged(startRow, startCol, endRow, endCol);
+    } // regionChanged(int, int, int, int)
+
+    @Override
+    public void structureChanged(MatrixOperation op, int index) {
+      this.listener.structureChanged(op, index);
+    } // structureChanged(MatrixOperation, int)
+
+    @Override
+    public long estimatedBytes() {
+      return MemoryFootprint.object(1, 0);
+    } // estimatedBytes()
+  } // class Boxing
+} // class DoubleMatrix
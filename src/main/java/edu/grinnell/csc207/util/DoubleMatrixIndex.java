@@ -0,0 +1,58 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * An auxiliary structure (such as a table of prefix sums) that a
+ * {@link DoubleMatrix} keeps up to date by reporting each change to it.
+ * Each method is called after the change has been made.
+ *
+ * @author Andrew N. Fargo
+ */
+interface DoubleMatrixIndex {
+  /**
+   * Note that one cell has changed.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   * @param oldVal
+   *   The value the cell had.
+   * @param newVal
+   *   The value the cell has now.
+   */
+  void cellChanged(int row, int col, double oldVal, double newVal);
+
+  /**
+   * Note that some or all of the cells in a region have changed.
+   *
+   * @param startRow
+   *   The top row of the region (inclusive).
+   * @param startCol
+   *   The left column of the region (inclusive).
+   * @param endRow
+   *   The bottom row of the region (exclusive).
+   * @param endCol
+   *   The right column of the region (exclusive).
+   */
+  void regionChanged(int startRow, int startCol, int endRow, int endCol);
+
+  /**
+   * Note that the shape of the matrix has changed.
+   *
+   * @param op
+   *   The operation that changed it: a row or column insertion or
+   *   deletion, or a transposition.
+   * @param index
+   *   The row or column inserted or deleted, or -1.
+   */
+  void structureChanged(MatrixOperation op, int index);
+
+  /**
+   * Estimate the bytes this index keeps alive, not counting the matrix.
+   *
+   * @return the estimate.
+   */
+  default long estimatedBytes() {
+    return MemoryFootprint.object(0, 0);
+  } // estimatedBytes()
+} // interface DoubleMatrixIndex
@@ -0,0 +1,872 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.BinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * A matrix that can undo and redo changes. Wraps any other matrix and
+ * keeps a journal of the inverse of each change: the old value for a
+ * set, only the overwritten cells for a fill, the removed values for a
+ * deletion, and just the position for an insertion. Undoing or redoing
+ * a change therefore takes time proportional to the size of the change,
+ * not of the matrix.
+ *
+ * <p>The journal holds at most a given number of cells (each change
+ * counts at least one). When it fills, the oldest changes are forgotten,
+ * and a change larger than the whole journal empties it. Making a change
+ * after undoing forgets the changes that could have been redone.</p>
+ *
+ * @author Andrew N. Fargo
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class JournaledMatrix<T> implements Matrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The default number of cells the journal may hold. */
+  public static final long DEFAULT_CAPACITY = 1 << 20;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The matrix that does the real work. */
+  private final Matrix<T> delegate;
+
+  /** The largest number of cells the journal may hold. */
+  private final long capacity;
+
+  /** The changes that may be undone, oldest first. */
+  private final Deque<Edit<T>> undos = new ArrayDeque<Edit<T>>();
+
+  /** The changes that may be redone, most recently undone last. */
+  private final Deque<Edit<T>> redos = new ArrayDeque<Edit<T>>();
+
+  /** The number of cells held by both lists of changes. */
+  private long held;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix that journals changes to another matrix.
+   *
+   * @param matrix
+   *   The matrix to wrap. Changes made directly to it are not journaled
+   *   and make the journal meaningless.
+   * @param cells
+   *   The largest number of cells the journal may hold.
+   *
+   * @throws IllegalArgumentException
+   *   If cells is not positive.
+   */
+  public JournaledMatrix(Matrix<T> matrix, long cells) {
+    if (cells <= 0) {
+      throw new IllegalArgumentException("Capacity must be positive: " + cells);
+    } // if
+    this.delegate = matrix;
+    this.capacity = cells;
+  } // JournaledMatrix(Matrix<T>, long)
+
+  /**
+   * Create a new matrix that journals changes to another matrix, with
+   * the default capacity.
+   *
+   * @param matrix
+   *   The matrix to wrap.
+   */
+  public JournaledMatrix(Matrix<T> matrix) {
+    this(matrix, DEFAULT_CAPACITY);
+  } // JournaledMatrix(Matrix<T>)
+
+  // +---------+-----------------------------------------------------
+  // | Journal |
+  // +---------+
+
+  /**
+   * Get the matrix that this matrix wraps.
+   *
+   * @return the wrapped matrix.
+   */
+  public Matrix<T> delegate() {
+    return this.delegate;
+  } // delegate()
+
+  /**
+   * Determine if there is a change to undo.
+   *
+   * @return true if undo() would change the matrix.
+   */
+  public boolean canUndo() {
+    return !this.undos.isEmpty();
+  } // canUndo()
+
+  /**
+   * Determine if there is a change to redo.
+   *
+   * @return true if redo() would change the matrix.
+   */
+  public boolean canRedo() {
+    return !this.redos.isEmpty();
+  } // canRedo()
+
+  /**
+   * Undo the most recent change that has not been undone.
+   *
+   * @return true if a change was undone, false if there was none.
+   */
+  public boolean undo() {
+    Edit<T> edit = this.undos.pollLast();
+    if (edit == null) {
+      return false;
+    } // if
+    edit.undo(this.delegate);
+    this.redos.addLast(edit);
+    return true;
+  } // undo()
+
+  /**
+   * Redo the most recently undone change.
+   *
+   * @return true if a change was redone, false if there was none.
+   */
+  public boolean redo() {
+    Edit<T> edit = this.redos.pollLast();
+    if (edit == null) {
+      return false;
+    } // if
+    edit.redo(this.delegate);
+    this.undos.addLast(edit);
+    return true;
+  } // redo()
+
+  /**
+   * Forget every change, so that nothing may be undone or redone.
+   */
+  public void clearJournal() {
+    this.undos.clear();
+    this.redos.clear();
+    this.held = 0;
+  } // clearJournal()
+
+  /**
+   * Determine how many cells the journal holds.
+   *
+   * @return the number of cells, counting each change as at least one.
+   */
+  public long journalSize() {
+    return this.held;
+  } // journalSize()
+
+  // +-----------------+---------------------------------------------
+  // | Private methods |
+  // +-----------------+
+
+  /**
+   * Add a change that has just been made to the journal, forgetting
+   * whatever could have been redone and, if need be, the oldest changes.
+   *
+   * @param edit
+   *   The change.
+   */
+  private void record(Edit<T> edit) {
+    for (Edit<T> old : this.redos) {
+      this.held -= old.size();
+    } // for
+    this.redos.clear();
+    if (edit.size() > this.capacity) {
+      this.clearJournal();
+      return;
+    } // if
+    this.undos.addLast(edit);
+    this.held += edit.size();
+    while (this.held > this.capacity) {
+      this.held -= this.undos.removeFirst().size();
+    } // while
+  } // record(Edit<T>)
+
+  /**
+   * Copy the values of a row.
+   *
+   * @param row
+   *   The row.
+   *
+   * @return the values, left to right.
+   */
+  private Object[] copyRow(int row) {
+    Object[] vals = new Object[this.delegate.width()];
+    for (int col = 0; col < vals.length; col++) {
+      vals[col] = this.delegate.get(row, col);
+    } // for
+    return vals;
+  } // copyRow(int)
+
+  /**
+   * Copy the values of a column.
+   *
+   * @param col
+   *   The column.
+   *
+   * @return the values, top to bottom.
+   */
+  private Object[] copyCol(int col) {
+    Object[] vals = new Object[this.delegate.height()];
+    for (int row = 0; row < vals.length; row++) {
+      vals[row] = this.delegate.get(row, col);
+    } // for
+    return vals;
+  } // copyCol(int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    return this.delegate.get(row, col);
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    T old = this.delegate.get(row, col);
+    this.delegate.set(row, col, val);
+    this.record(new SetEdit<T>(row, col, old, val));
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.delegate.height();
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.delegate.width();
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    this.delegate.insertRow(row);
+    this.record(new LineEdit<T>(MatrixOperation.INSERT_ROW, row, null));
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    this.delegate.insertRow(row, vals);
+    this.record(new LineEdit<T>(MatrixOperation.INSERT_ROW, row, vals.clone()));
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    this.delegate.insertCol(col);
+    this.record(new LineEdit<T>(MatrixOperation.INSERT_COL, col, null));
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    this.delegate.insertCol(col, vals);
+    this.record(new LineEdit<T>(MatrixOperation.INSERT_COL, col, vals.clone()));
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    Object[] removed = this.copyRow(row);
+    this.delegate.deleteRow(row);
+    this.record(new LineEdit<T>(MatrixOperation.DELETE_ROW, row, removed));
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    Object[] removed = this.copyCol(col);
+    this.delegate.deleteCol(col);
+    this.record(new LineEdit<T>(MatrixOperation.DELETE_COL, col, removed));
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    if (startRow >= endRow || startCol >= endCol) {
+      this.delegate.fillRegion(startRow, startCol, endRow, endCol, val);
+      return;
+    } // if
+    Object[] old = new Object[Math.multiplyExact(endRow - startRow, endCol - startCol)];
+    int i = 0;
+    for (int row = startRow; row < endRow; row++) {
+      for (int col = startCol; col < endCol; col++) {
+        old[i++] = this.delegate.get(row, col);
+      } // for col
+    } // for row
+    this.delegate.fillRegion(startRow, startCol, endRow, endCol, val);
+    this.record(new FillEdit<T>(new int[] {startRow, startCol, 0, 0, endRow, endCol},
+        old, val));
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    long length = MetricsMatrix.lineLength(startRow, startCol, deltaRow, deltaCol,
+        endRow, endCol);
+    Object[] old = new Object[Math.toIntExact(length)];
+    for (int i = 0; i < old.length; i++) {
+      old[i] = this.delegate.get(startRow + i * deltaRow, startCol + i * deltaCol);
+    } // for
+    this.delegate.fillLine(startRow, startCol, deltaRow, deltaCol, endRow, endCol, val);
+    if (old.length == 0) {
+      return;
+    } // if
+    this.record(new FillEdit<T>(
+        new int[] {startRow, startCol, deltaRow, deltaCol, endRow, endCol}, old, val));
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a new matrix that is the transpose of this one. The transpose
+   * has an empty journal of its own.
+   *
+   * @return the transpose.
+   */
+  public Matrix<T> transpose() {
+    return new JournaledMatrix<T>(this.delegate.transpose(), this.capacity);
+  } // transpose()
+
+  /**
+   * Transpose this matrix in place. Undoing this transposes it back.
+   */
+  public void transposeInPlace() {
+    this.delegate.transposeInPlace();
+    this.record(new TransposeEdit<T>());
+  } // transposeInPlace()
+
+  /**
+   * Combine all the elements with an operation, as the wrapped matrix
+   * does.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   *
+   * @return identity combined with every element.
+   */
+  public T reduce(T identity, BinaryOperator<T> op) {
+    return this.delegate.reduce(identity, op);
+  } // reduce(T, BinaryOperator<T>)
+
+  /**
+   * Count the elements that satisfy a predicate, as the wrapped matrix
+   * does.
+   *
+   * @param predicate
+   *   The predicate.
+   *
+   * @return the number of elements for which predicate is true.
+   */
+  public long count(Predicate<? super T> predicate) {
+    return this.delegate.count(predicate);
+  } // count(Predicate)
+
+  /**
+   * Combine the elements of each row, as the wrapped matrix does.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   * @param generator
+   *   Makes an array of the given length.
+   *
+   * @return an array with one combined value per row.
+   */
+  public T[] reduceRows(T identity, BinaryOperator<T> op, IntFunction<T[]> generator) {
+    return this.delegate.reduceRows(identity, op, generator);
+  } // reduceRows(T, BinaryOperator<T>, IntFunction<T[]>)
+
+  /**
+   * Combine the elements of each column, as the wrapped matrix does.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   * @param generator
+   *   Makes an array of the given length.
+   *
+   * @return an array with one combined value per column.
+   */
+  public T[] reduceCols(T identity, BinaryOperator<T> op, IntFunction<T[]> generator) {
+    return this.delegate.reduceCols(identity, op, generator);
+  } // reduceCols(T, BinaryOperator<T>, IntFunction<T[]>)
+
+  /**
+   * Make a copy of the matrix. The copy has an empty journal of its own.
+   *
+   * @return a copy of the matrix.
+   */
+  public Matrix<T> clone() {
+    return new JournaledMatrix<T>(this.delegate.clone(), this.capacity);
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    return this.delegate.equals(other);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix, which is the same as the hash
+   * code of the wrapped matrix.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    return this.delegate.hashCode();
+  } // hashCode()
+
+  /**
+   * Estimate the heap this matrix keeps alive, not counting elements:
+   * the wrapped matrix, plus the journal as overlay. Each change is
+   * counted as a small object and a reference for each cell it holds.
+   *
+   * @return the estimate.
+   */
+  public MemoryFootprint footprint() {
+    int edits = this.undos.size() + this.redos.size();
+    long journal = 2 * MemoryFootprint.object(1, 2 * Integer.BYTES)
+        + MemoryFootprint.referenceArray(this.undos.size() + 1)
+        + MemoryFootprint.referenceArray(this.redos.size() + 1)
+        + edits * MemoryFootprint.object(2, 2 * Integer.BYTES)
+        + this.held * MemoryFootprint.REFERENCE;
+    return this.delegate.footprint().plusIndex(MemoryFootprint.object(3, 2 * Long.BYTES))
+        .plusOverlay(journal);
+  } // footprint()
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * A change in the journal.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   */
+  private abstract static class Edit<T> {
+    /**
+     * Determine how many cells this change holds.
+     *
+     * @return the number of cells, at least 1.
+     */
+    abstract long size();
+
+    /**
+     * Reverse the change.
+     *
+     * @param matrix
+     *   The matrix, as it was just after the change.
+     */
+    abstract void undo(Matrix<T> matrix);
+
+    /**
+     * Make the change again.
+     *
+     * @param matrix
+     *   The matrix, as it was just before the change.
+     */
+    abstract void redo(Matrix<T> matrix);
+  } // class Edit<T>
+
+  /**
+   * A change to one cell.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   */
+  private static final class SetEdit<T> extends Edit<T> {
+    /** The row of the cell. */
+    private final int row;
+
+    /** The column of the cell. */
+    private final int col;
+
+    /** The value before the change. */
+    private final T before;
+
+    /** The value after the change. */
+    private final T after;
+
+    /**
+     * Describe a change to one cell.
+     *
+     * @param r
+     *   The row of the cell.
+     * @param c
+     *   The column of the cell.
+     * @param oldVal
+     *   The value before the change.
+     * @param newVal
+     *   The value after the change.
+     */
+    SetEdit(int r, int c, T oldVal, T newVal) {
+      this.row = r;
+      this.col = c;
+      this.before = oldVal;
+      this.after = newVal;
+    } // SetEdit(int, int, T, T)
+
+    @Override
+    long size() {
+      return 1;
+    } // size()
+
+    @Override
+    void undo(Matrix<T> matrix) {
+      matrix.set(this.row, this.col, this.before);
+    } // undo(Matrix<T>)
+
+    @Override
+    void redo(Matrix<T> matrix) {
+      matrix.set(this.row, this.col, this.after);
+    } // redo(Matrix<T>)
+  } // class SetEdit<T>
+
+  /**
+   * A fill of a region or a line, which remembers only the cells it
+   * overwrote.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   */
+  private static final class FillEdit<T> extends Edit<T> {
+    /** The start row, start column, row step, column step, end row and
+        end column; both steps are 0 for a region. */
+    private final int[] shape;
+
+    /** The overwritten values, in the order filled. */
+    private final Object[] before;
+
+    /** The value stored. */
+    private final T val;
+
+    /**
+     * Describe a fill.
+     *
+     * @param where
+     *   The start row, start column, row step, column step, end row and
+     *   end column; both steps 0 for a region.
+     * @param old
+     *   The overwritten values, in the order filled.
+     * @param fill
+     *   The value stored.
+     */
+    FillEdit(int[] where, Object[] old, T fill) {
+      this.shape = where;
+      this.before = old;
+      this.val = fill;
+    } // FillEdit(int[], Object[], T)
+
+    /**
+     * Determine if this is a fill of a region.
+     *
+     * @return true for a region, false for a line.
+     */
+    private boolean isRegion() {
+      return this.shape[2] == 0 && this.shape[3] == 0;
+    } // isRegion()
+
+    @Override
+    long size() {
+      return Math.max(1, this.before.length);
+    } // size()
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void undo(Matrix<T> matrix) {
+      int[] s = this.shape;
+      int i = 0;
+      if (this.isRegion()) {
+        for (int row = s[0]; row < s[4]; row++) {
+          for (int col = s[1]; col < s[5]; col++) {
+            matrix.set(row, col, (T) this.before[i++]);
+          } // for col
+        } // for row
+      } else {
+        for (i = 0; i < this.before.length; i++) {
+          matrix.set(s[0] + i * s[2], s[1] + i * s[3], (T) this.before[i]);
+        } // for
+      } // if/else
+    } // undo(Matrix<T>)
+
+    @Override
+    void redo(Matrix<T> matrix) {
+      int[] s = this.shape;
+      if (this.isRegion()) {
+        matrix.fillRegion(s[0], s[1], s[4], s[5], this.val);
+      } else {
+        matrix.fillLine(s[0], s[1], s[2], s[3], s[4], s[5], this.val);
+      } // if/else
+    } // redo(Matrix<T>)
+  } // class FillEdit<T>
+
+  /**
+   * An insertion or deletion of a row or column. Insertions remember
+   * only the values given, if any; deletions remember the values
+   * removed.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   */
+  private static final class LineEdit<T> extends Edit<T> {
+    /** INSERT_ROW, INSERT_COL, DELETE_ROW or DELETE_COL. */
+    private final MatrixOperation op;
+
+    /** The row or column. */
+    private final int index;
+
+    /** The values of the row or column, or null for default values. */
+    private final Object[] vals;
+
+    /**
+     * Describe an insertion or deletion.
+     *
+     * @param operation
+     *   INSERT_ROW, INSERT_COL, DELETE_ROW or DELETE_COL.
+     * @param where
+     *   The row or column.
+     * @param line
+     *   The values of the row or column, or null for default values.
+     */
+    LineEdit(MatrixOperation operation, int where, Object[] line) {
+      this.op = operation;
+      this.index = where;
+      this.vals = line;
+    } // LineEdit(MatrixOperation, int, Object[])
+
+    @Override
+    long size() {
+      return (this.vals == null) ? 1 : Math.max(1, this.vals.length);
+    } // size()
+
+    @Override
+    void undo(Matrix<T> matrix) {
+      switch (this.op) {
+        case INSERT_ROW:
+          matrix.deleteRow(this.index);
+          break;
+        case INSERT_COL:
+          matrix.deleteCol(this.index);
+          break;
+        case DELETE_ROW:
+          this.insert(matrix, true);
+          break;
+        default:
+          this.insert(matrix, false);
+          break;
+      } // switch
+    } // undo(Matrix<T>)
+
+    @Override
+    void redo(Matrix<T> matrix) {
+      switch (this.op) {
+        case INSERT_ROW:
+          this.insert(matrix, true);
+          break;
+        case INSERT_COL:
+          this.insert(matrix, false);
+          break;
+        case DELETE_ROW:
+          matrix.deleteRow(this.index);
+          break;
+        default:
+          matrix.deleteCol(this.index);
+          break;
+      } // switch
+    } // redo(Matrix<T>)
+
+    /**
+     * Insert the row or column, with its values if we have them. The
+     * values are set one at a time, since their array has lost its
+     * element type.
+     *
+     * @param matrix
+     *   The matrix.
+     * @param isRow
+     *   Whether to insert a row rather than a column.
+     */
+    @SuppressWarnings("unchecked")
+    private void insert(Matrix<T> matrix, boolean isRow) {
+      if (isRow) {
+        matrix.insertRow(this.index);
+      } else {
+        matrix.insertCol(this.index);
+      } // if/else
+      if (this.vals != null) {
+        for (int i = 0; i < this.vals.length; i++) {
+          if (isRow) {
+            matrix.set(this.index, i, (T) this.vals[i]);
+          } else {
+            matrix.set(i, this.index, (T) this.vals[i]);
+          } // if/else
+        } // for
+      } // if
+    } // insert(Matrix<T>, boolean)
+  } // class LineEdit<T>
+
+  /**
+   * A transposition in place, which is its own inverse.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   */
+  private static final class TransposeEdit<T> extends Edit<T> {
+    @Override
+    long size() {
+      return 1;
+    } // size()
+
+    @Override
+    void undo(Matrix<T> matrix) {
+      matrix.transposeInPlace();
+    } // undo(Matrix<T>)
+
+    @Override
+    void redo(Matrix<T> matrix) {
+      matrix.transposeInPlace();
+    } // redo(Matrix<T>)
+  } // class TransposeEdit<T>
+} // class JournaledMatrix<T>
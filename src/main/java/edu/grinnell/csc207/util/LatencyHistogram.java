@@ -0,0 +1,193 @@
+package edu.grinnell.csc207.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe histogram of latencies, in nanoseconds, in the style of
+ * HdrHistogram. Values are grouped into buckets whose width doubles with
+ * every power of two, and each power of two is split into a fixed number
+ * of sub-buckets, so every recorded value is reported with a relative
+ * error of at most 1 / SUB_BUCKETS.
+ *
+ * @author Andrew N. Fargo
+ */
+public class LatencyHistogram {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** log2 of the number of sub-buckets per power of two. */
+  static final int SUB_BITS = 3;
+
+  /** The number of sub-buckets per power of two. */
+  static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+  /** The number of buckets needed to cover every non-negative long. */
+  static final int BUCKETS = (Long.SIZE - SUB_BITS) * SUB_BUCKETS;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The number of values recorded in each bucket. */
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+  /** The number of values recorded. */
+  private final LongAdder count = new LongAdder();
+
+  /** The sum of all values recorded. */
+  private final LongAdder total = new LongAdder();
+
+  /** The largest value recorded. */
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  // +-----------------+---------------------------------------------
+  // | Private Methods |
+  // +-----------------+
+
+  /**
+   * Find the bucket for a value.
+   *
+   * @param nanos
+   *   A non-negative value.
+   *
+   * @return the index of the bucket.
+   */
+  static int bucketOf(long nanos) {
+    if (nanos < SUB_BUCKETS) {
+      return (int) nanos;
+    } // if
+    int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+    int sub = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+  } // bucketOf(long)
+
+  /**
+   * Find the largest value that falls in a bucket.
+   *
+   * @param bucket
+   *   The index of the bucket.
+   *
+   * @return the largest value in the bucket.
+   */
+  static long highestIn(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    } // if
+    int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+    long sub = bucket % SUB_BUCKETS;
+    long lowest = (SUB_BUCKETS + sub) << (exponent - SUB_BITS);
+    return lowest + (1L << (exponent - SUB_BITS)) - 1;
+  } // highestIn(int)
+
+  /**
+   * Estimate the heap a histogram keeps alive: the histogram, its
+   * array of buckets, and its adders, as when there is no contention.
+   *
+   * @return the estimate, in bytes.
+   */
+  static long estimatedBytes() {
+    return MemoryFootprint.object(4, 0) + MemoryFootprint.object(1, 0)
+        + MemoryFootprint.primitiveArray(BUCKETS, Long.BYTES)
+        + 2 * MemoryFootprint.object(1, Long.BYTES + Integer.BYTES)
+        + MemoryFootprint.object(2, 2 * Long.BYTES + Integer.BYTES);
+  } // estimatedBytes()
+
+  // +----------------+----------------------------------------------
+  // | Public Methods |
+  // +----------------+
+
+  /**
+   * Record a value.
+   *
+   * @param nanos
+   *   The value to record. Negative values (which may come from a
+   *   misbehaving clock) are recorded as zero.
+   */
+  public void record(long nanos) {
+    long val = Math.max(0, nanos);
+    this.buckets.incrementAndGet(bucketOf(val));
+    this.count.increment();
+    this.total.add(val);
+    this.max.accumulate(val);
+  } // record(long)
+
+  /**
+   * Determine the number of values recorded.
+   *
+   * @return the number of values.
+   */
+  public long count() {
+    return this.count.sum();
+  } // count()
+
+  /**
+   * Determine the largest value recorded.
+   *
+   * @return the largest value, or 0 if nothing was recorded.
+   */
+  public long max() {
+    return this.max.get();
+  } // max()
+
+  /**
+   * Determine the mean of the values recorded.
+   *
+   * @return the mean, or 0 if nothing was recorded.
+   */
+  public double mean() {
+    long n = this.count.sum();
+    return (n == 0) ? 0 : (double) this.total.sum() / n;
+  } // mean()
+
+  /**
+   * Estimate a percentile of the values recorded.
+   *
+   * @param percentile
+   *   The percentile, between 0 and 100.
+   *
+   * @return an upper bound on the value at that percentile, accurate to
+   *   within one sub-bucket, or 0 if nothing was recorded.
+   *
+   * @throws IllegalArgumentException
+   *   If the percentile is not between 0 and 100.
+   */
+  public long percentile(double percentile) {
+    if (percentile < 0 || percentile > 100) {
+      throw new IllegalArgumentException("Percentile must be between 0 and 100");
+    } // if
+    long[] counts = new long[BUCKETS];
+    long n = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = this.buckets.get(i);
+      n += counts[i];
+    } // for
+    if (n == 0) {
+      return 0;
+    } // if
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+      if (seen >= rank) {
+        return Math.min(highestIn(i), this.max());
+      } // if
+    } // for
+    return this.max();
+  } // percentile(double)
+
+  /**
+   * Forget all recorded values. Values recorded concurrently with a
+   * reset may or may not be forgotten.
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      this.buckets.set(i, 0);
+    } // for
+    this.count.reset();
+    this.total.reset();
+    this.max.reset();
+  } // reset()
+} // class LatencyHistogram
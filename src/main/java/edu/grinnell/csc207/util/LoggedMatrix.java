@@ -0,0 +1,1299 @@
+package edu.grinnell.csc207.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A matrix whose changes survive crashes. Wraps an in-memory matrix and
+ * appends each change (set, fills, insertions, deletions and transposes
+ * in place) to a log file in a directory, alongside a snapshot of the
+ * whole matrix.
+ *
+ * <p>Log records are buffered and written through a {@link FileChannel}
+ * in groups: a group is forced to disk (a "group commit") once it holds
+ * a given number of records, or on {@link #commit()} or
+ * {@link #close()}, and also whenever the buffer fills. Changes since
+ * the last commit may be lost in a crash, so the matrix is recovered as
+ * it was after some prefix of its changes, which includes every
+ * committed change but may end between commits. Each record carries a
+ * CRC-32, so a torn record at the end of the log is detected and
+ * dropped.</p>
+ *
+ * <p>Each change is logged before it is made. A change that the wrapped
+ * matrix rejects is still in the log, and is rejected the same way when
+ * the log is replayed. Once a write to the log fails, the log is not
+ * written again, and every further change fails without being made.</p>
+ *
+ * <p>Once the log grows past a given size, a checkpoint writes a new
+ * snapshot and starts an empty log, so recovery reads at most that much
+ * log on top of one snapshot. Snapshots are written to a temporary file
+ * and renamed into place, and each snapshot and log is stamped with a
+ * generation number, so a crash during a checkpoint leaves either the
+ * old snapshot and its log or the new snapshot.</p>
+ *
+ * @author Andrew N. Fargo
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class LoggedMatrix<T> implements Matrix<T>, Closeable {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The name of the snapshot in the directory. */
+  public static final String SNAPSHOT = "matrix.snapshot";
+
+  /** The name of the log in the directory. */
+  public static final String LOG = "matrix.log";
+
+  /** The default number of records per group commit. */
+  public static final int DEFAULT_GROUP = 64;
+
+  /** The default size of the log, in bytes, that triggers a checkpoint. */
+  public static final long DEFAULT_CHECKPOINT_BYTES = 16L << 20;
+
+  /** Identifies our snapshots. */
+  static final int SNAPSHOT_MAGIC = 0x4d78536e;
+
+  /** Identifies our logs. */
+  static final int LOG_MAGIC = 0x4d784c67;
+
+  /** The size of the log header: magic number and generation. */
+  static final int LOG_HEADER = 12;
+
+  /** The size of a record header: length and CRC. */
+  static final int RECORD_HEADER = 8;
+
+  /** The size of the buffer for records not yet written. */
+  static final int BUFFER_SIZE = 1 << 16;
+
+  /** The operations, by ordinal, for decoding records. */
+  private static final MatrixOperation[] OPERATIONS = MatrixOperation.values();
+
+  // +------------+--------------------------------------------------
+  // | Interfaces |
+  // +------------+
+
+  /**
+   * Converts values to and from bytes. Null values are handled by the
+   * log, so codecs never see them.
+   *
+   * @param <T>
+   *   The type of values.
+   */
+  public interface Codec<T> {
+    /**
+     * Write a value.
+     *
+     * @param val
+     *   The value, not null.
+     * @param out
+     *   Where to write it.
+     *
+     * @throws IOException
+     *   If the value cannot be written.
+     */
+    void write(T val, DataOutput out) throws IOException;
+
+    /**
+     * Read a value written by write.
+     *
+     * @param in
+     *   Where to read it.
+     *
+     * @return the value.
+     *
+     * @throws IOException
+     *   If the value cannot be read.
+     */
+    T read(DataInput in) throws IOException;
+
+    /**
+     * Get a codec for integers.
+     *
+     * @return the codec.
+     */
+    static Codec<Integer> integers() {
+      return new Codec<Integer>() {
+        public void write(Integer val, DataOutput out) throws IOException {
+          out.writeInt(val);
+        } // write(Integer, DataOutput)
+
+        public Integer read(DataInput in) throws IOException {
+          return in.readInt();
+        } // read(DataInput)
+      };
+    } // integers()
+
+    /**
+     * Get a codec for doubles.
+     *
+     * @return the codec.
+     */
+    static Codec<Double> doubles() {
+      return new Codec<Double>() {
+        public void write(Double val, DataOutput out) throws IOException {
+          out.writeDouble(val);
+        } // write(Double, DataOutput)
+
+        public Double read(DataInput in) throws IOException {
+          return in.readDouble();
+        } // read(DataInput)
+      };
+    } // doubles()
+
+    /**
+     * Get a codec for strings.
+     *
+     * @return the codec.
+     */
+    static Codec<String> strings() {
+      return new Codec<String>() {
+        public void write(String val, DataOutput out) throws IOException {
+          out.writeUTF(val);
+        } // write(String, DataOutput)
+
+        public String read(DataInput in) throws IOException {
+          return in.readUTF();
+        } // read(DataInput)
+      };
+    } // strings()
+  } // interface Codec<T>
+
+  /**
+   * Makes the in-memory matrix, such as {@code MatrixV0::new}.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   */
+  public interface Factory<T> {
+    /**
+     * Make a matrix.
+     *
+     * @param width
+     *   The number of columns.
+     * @param height
+     *   The number of rows.
+     * @param def
+     *   The default value.
+     *
+     * @return the matrix.
+     */
+    Matrix<T> create(int width, int height, T def);
+  } // interface Factory<T>
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The matrix that holds the values. */
+  private final Matrix<T> delegate;
+
+  /** The directory of the snapshot and log. */
+  private final Path dir;
+
+  /** Converts values to and from bytes. */
+  private final Codec<T> codec;
+
+  /** The default value, kept in snapshots. */
+  private final T defaultValue;
+
+  /** The log. */
+  private final FileChannel log;
+
+  /** Records not yet written to the log. */
+  private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+  /** The record being encoded. */
+  private final Bytes record = new Bytes();
+
+  /** Encodes into the record. */
+  private final DataOutputStream out = new DataOutputStream(this.record);
+
+  /** Computes checksums of records. */
+  private final CRC32 crc = new CRC32();
+
+  /** The generation of the current snapshot and log. */
+  private long generation;
+
+  /** The size of the log, including records not yet written. */
+  private long logBytes;
+
+  /** The number of records since the last commit. */
+  private int uncommitted;
+
+  /** The number of records per group commit. */
+  private int groupSize = DEFAULT_GROUP;
+
+  /** The size of the log that triggers a checkpoint. */
+  private long checkpointBytes = DEFAULT_CHECKPOINT_BYTES;
+
+  /** The number of records replayed when the matrix was opened. */
+  private long replayed;
+
+  /** The first failed write to the log, after which it is not written. */
+  private IOException failure;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Build a logged matrix around a recovered or new matrix.
+   *
+   * @param matrix
+   *   The in-memory matrix.
+   * @param directory
+   *   The directory of the snapshot and log.
+   * @param values
+   *   Converts values to and from bytes.
+   * @param def
+   *   The default value.
+   * @param channel
+   *   The log, open for reading and writing.
+   */
+  private LoggedMatrix(Matrix<T> matrix, Path directory, Codec<T> values, T def,
+      FileChannel channel) {
+    this.delegate = matrix;
+    this.dir = directory;
+    this.codec = values;
+    this.defaultValue = def;
+    this.log = channel;
+  } // LoggedMatrix(Matrix<T>, Path, Codec<T>, T, FileChannel)
+
+  /**
+   * Open the matrix stored in a directory, replaying its log on top of
+   * its snapshot, or create a new one there if the directory holds no
+   * snapshot.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param directory
+   *   The directory, which is created if need be.
+   * @param values
+   *   Converts values to and from bytes.
+   * @param factory
+   *   Makes the in-memory matrix.
+   * @param width
+   *   The number of columns of a new matrix.
+   * @param height
+   *   The number of rows of a new matrix.
+   * @param def
+   *   The default value of a new matrix.
+   *
+   * @return the matrix.
+   *
+   * @throws IOException
+   *   If the directory cannot be used or the snapshot is corrupt.
+   */
+  public static <T> LoggedMatrix<T> open(Path directory, Codec<T> values,
+      Factory<T> factory, int width, int height, T def) throws IOException {
+    Files.createDirectories(directory);
+    Path snapshot = directory.resolve(SNAPSHOT);
+    FileChannel channel = FileChannel.open(directory.resolve(LOG), StandardOpenOption.CREATE,
+        StandardOpenOption.READ, StandardOpenOption.WRITE);
+    LoggedMatrix<T> result;
+    try {
+      if (Files.exists(snapshot)) {
+        result = readSnapshot(snapshot, directory, values, factory, channel);
+        result.recover();
+      } else {
+        result = new LoggedMatrix<T>(factory.create(width, height, def), directory, values,
+            def, channel);
+        result.checkpoint();
+      } // if/else
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    } // try/catch
+    return result;
+  } // open(Path, Codec<T>, Factory<T>, int, int, T)
+
+  // +-----------------+---------------------------------------------
+  // | Logging methods |
+  // +-----------------+
+
+  /**
+   * Set the number of records per group commit. A size of 1 makes each
+   * change durable before it returns.
+   *
+   * @param records
+   *   The number of records.
+   *
+   * @throws IllegalArgumentException
+   *   If records is not positive.
+   */
+  public void setGroupSize(int records) {
+    if (records <= 0) {
+      throw new IllegalArgumentException("Group size must be positive: " + records);
+    } // if
+    this.groupSize = records;
+  } // setGroupSize(int)
+
+  /**
+   * Set the size of the log that triggers a checkpoint.
+   *
+   * @param bytes
+   *   The size, in bytes.
+   *
+   * @throws IllegalArgumentException
+   *   If bytes is not positive.
+   */
+  public void setCheckpointBytes(long bytes) {
+    if (bytes <= 0) {
+      throw new IllegalArgumentException("Checkpoint size must be positive: " + bytes);
+    } // if
+    this.checkpointBytes = bytes;
+  } // setCheckpointBytes(long)
+
+  /**
+   * Get the matrix that this matrix wraps. Changes made directly to it
+   * are not logged.
+   *
+   * @return the wrapped matrix.
+   */
+  public Matrix<T> delegate() {
+    return this.delegate;
+  } // delegate()
+
+  /**
+   * Determine the size of the log since the last checkpoint, including
+   * records not yet written.
+   *
+   * @return the size, in bytes.
+   */
+  public long logBytes() {
+    return this.logBytes;
+  } // logBytes()
+
+  /**
+   * Determine how many log records were replayed when this matrix was
+   * opened.
+   *
+   * @return the number of records.
+   */
+  public long replayed() {
+    return this.replayed;
+  } // replayed()
+
+  /**
+   * Write the buffered records to the log and force them to disk.
+   *
+   * @throws IOException
+   *   If the log cannot be written.
+   */
+  public void commit() throws IOException {
+    this.drain();
+    try {
+      this.log.force(false);
+    } catch (IOException e) {
+      throw this.poison(e);
+    } // try/catch
+    this.uncommitted = 0;
+  } // commit()
+
+  /**
+   * Write a snapshot of the matrix and start an empty log.
+   *
+   * @throws IOException
+   *   If the snapshot or log cannot be written.
+   */
+  public void checkpoint() throws IOException {
+    this.drain();
+    long next = this.generation + 1;
+    this.writeSnapshot(next);
+    this.generation = next;
+    try {
+      this.startLog();
+    } catch (IOException e) {
+      throw this.poison(e);
+    } // try/catch
+  } // checkpoint()
+
+  /**
+   * Commit the buffered records and close the log.
+   *
+   * @throws IOException
+   *   If the log cannot be written.
+   */
+  public void close() throws IOException {
+    try {
+      this.commit();
+    } finally {
+      this.log.close();
+    } // try/finally
+  } // close()
+
+  // +-----------------+---------------------------------------------
+  // | Private methods |
+  // +-----------------+
+
+  /**
+   * Write a value, preceded by whether it is null.
+   *
+   * @param val
+   *   The value.
+   * @param dest
+   *   Where to write it.
+   *
+   * @throws IOException
+   *   If the value cannot be written.
+   */
+  private void writeValue(T val, DataOutput dest) throws IOException {
+    dest.writeBoolean(val != null);
+    if (val != null) {
+      this.codec.write(val, dest);
+    } // if
+  } // writeValue(T, DataOutput)
+
+  /**
+   * Read a value written by writeValue.
+   *
+   * @param <T>
+   *   The type of the value.
+   * @param values
+   *   Converts values from bytes.
+   * @param src
+   *   Where to read it.
+   *
+   * @return the value.
+   *
+   * @throws IOException
+   *   If the value cannot be read.
+   */
+  private static <T> T readValue(Codec<T> values, DataInput src) throws IOException {
+    return src.readBoolean() ? values.read(src) : null;
+  } // readValue(Codec<T>, DataInput)
+
+  /**
+   * Start a record.
+   *
+   * @param op
+   *   The operation it records.
+   *
+   * @return where to write the rest of the record.
+   *
+   * @throws IOException
+   *   Never, in practice.
+   */
+  private DataOutputStream begin(MatrixOperation op) throws IOException {
+    this.record.reset();
+    this.out.writeByte(op.ordinal());
+    return this.out;
+  } // begin(MatrixOperation)
+
+  /**
+   * Finish a record: frame it with its length and checksum, buffer it,
+   * and commit the group if it is full. The change is made only after
+   * this returns, so the log is never behind the matrix.
+   *
+   * @throws IOException
+   *   If the log cannot be written, or could not be earlier.
+   */
+  private void end() throws IOException {
+    this.ensureWritable();
+    int length = this.record.size();
+    this.crc.reset();
+    this.crc.update(this.record.array(), 0, length);
+    if (this.buffer.remaining() < RECORD_HEADER + length) {
+      this.drain();
+    } // if
+    if (this.buffer.remaining() < RECORD_HEADER + length) {
+      ByteBuffer big = ByteBuffer.allocate(RECORD_HEADER + length);
+      big.putInt(length).putInt((int) this.crc.getValue()).put(this.record.array(), 0, length);
+      big.flip();
+      try {
+        while (big.hasRemaining()) {
+          this.log.write(big);
+        } // while
+      } catch (IOException e) {
+        throw this.poison(e);
+      } // try/catch
+    } else {
+      this.buffer.putInt(length).putInt((int) this.crc.getValue())
+          .put(this.record.array(), 0, length);
+    } // if/else
+    this.logBytes += RECORD_HEADER + length;
+    if (++this.uncommitted >= this.groupSize) {
+      this.commit();
+    } // if
+  } // end()
+
+  /**
+   * Take a checkpoint, after a change has been made, if the log has
+   * grown too large.
+   *
+   * @throws UncheckedIOException
+   *   If the checkpoint cannot be written.
+   */
+  private void settle() {
+    if (this.logBytes >= this.checkpointBytes) {
+      try {
+        this.checkpoint();
+      } catch (IOException e) {
+        throw failed(e);
+      } // try/catch
+    } // if
+  } // settle()
+
+  /**
+   * Write the buffered records to the log, without forcing them to disk.
+   * The buffer is emptied even if the write fails, and the log is then
+   * never written again.
+   *
+   * @throws IOException
+   *   If the log cannot be written, or could not be earlier.
+   */
+  private void drain() throws IOException {
+    this.ensureWritable();
+    this.buffer.flip();
+    try {
+      while (this.buffer.hasRemaining()) {
+        this.log.write(this.buffer);
+      } // while
+    } catch (IOException e) {
+      throw this.poison(e);
+    } finally {
+      this.buffer.clear();
+    } // try/catch/finally
+  } // drain()
+
+  /**
+   * Make sure that no write to the log has failed.
+   *
+   * @throws IOException
+   *   If one has.
+   */
+  private void ensureWritable() throws IOException {
+    if (this.failure != null) {
+      throw new IOException("Matrix log failed earlier", this.failure);
+    } // if
+  } // ensureWritable()
+
+  /**
+   * Remember that a write to the log failed. The log may now end in a
+   * partial record, so nothing more is written to it.
+   *
+   * @param e
+   *   The exception.
+   *
+   * @return e, to throw.
+   */
+  private IOException poison(IOException e) {
+    if (this.failure == null) {
+      this.failure = e;
+    } // if
+    return e;
+  } // poison(IOException)
+
+  /**
+   * Wrap an exception from the log so that it may escape from the
+   * methods of Matrix.
+   *
+   * @param e
+   *   The exception.
+   *
+   * @return the unchecked exception to throw.
+   */
+  private static UncheckedIOException failed(IOException e) {
+    return new UncheckedIOException("Cannot log matrix change", e);
+  } // failed(IOException)
+
+  /**
+   * Empty the log and stamp it with the current generation.
+   *
+   * @throws IOException
+   *   If the log cannot be written.
+   */
+  private void startLog() throws IOException {
+    this.buffer.clear();
+    this.log.truncate(0);
+    ByteBuffer header = ByteBuffer.allocate(LOG_HEADER);
+    header.putInt(LOG_MAGIC).putLong(this.generation).flip();
+    this.log.write(header, 0);
+    this.log.position(LOG_HEADER);
+    this.log.force(false);
+    this.logBytes = LOG_HEADER;
+    this.uncommitted = 0;
+  } // startLog()
+
+  /**
+   * Write a snapshot to a temporary file, force it to disk and rename it
+   * into place.
+   *
+   * @param gen
+   *   The generation of the snapshot.
+   *
+   * @throws IOException
+   *   If the snapshot cannot be written.
+   */
+  private void writeSnapshot(long gen) throws IOException {
+    Path tmp = this.dir.resolve(SNAPSHOT + ".tmp");
+    try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      CheckedOutputStream checked = new CheckedOutputStream(
+          new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE), new CRC32());
+      DataOutputStream snap = new DataOutputStream(checked);
+      int width = this.delegate.width();
+      int height = this.delegate.height();
+      snap.writeInt(SNAPSHOT_MAGIC);
+      snap.writeLong(gen);
+      snap.writeInt(width);
+      snap.writeInt(height);
+      this.writeValue(this.defaultValue, snap);
+      for (int row = 0; row < height; row++) {
+        for (int col = 0; col < width; col++) {
+          this.writeValue(this.delegate.get(row, col), snap);
+        } // for col
+      } // for row
+      snap.flush();
+      long sum = checked.getChecksum().getValue();
+      snap.writeLong(sum);
+      snap.flush();
+      channel.force(true);
+    } // try
+    Files.move(tmp, this.dir.resolve(SNAPSHOT), StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+  } // writeSnapshot(long)
+
+  /**
+   * Read a snapshot into a new matrix.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param snapshot
+   *   The snapshot.
+   * @param directory
+   *   The directory of the snapshot and log.
+   * @param values
+   *   Converts values from bytes.
+   * @param factory
+   *   Makes the in-memory matrix.
+   * @param channel
+   *   The log.
+   *
+   * @return the logged matrix, with its generation set.
+   *
+   * @throws IOException
+   *   If the snapshot cannot be read or is corrupt.
+   */
+  private static <T> LoggedMatrix<T> readSnapshot(Path snapshot, Path directory,
+      Codec<T> values, Factory<T> factory, FileChannel channel) throws IOException {
+    try (CheckedInputStream checked = new CheckedInputStream(
+        new BufferedInputStream(Files.newInputStream(snapshot), BUFFER_SIZE), new CRC32())) {
+      DataInputStream snap = new DataInputStream(checked);
+      if (snap.readInt() != SNAPSHOT_MAGIC) {
+        throw new IOException("Not a matrix snapshot: " + snapshot);
+      } // if
+      long gen = snap.readLong();
+      int width = snap.readInt();
+      int height = snap.readInt();
+      T def = readValue(values, snap);
+      Matrix<T> matrix = factory.create(width, height, def);
+      for (int row = 0; row < height; row++) {
+        for (int col = 0; col < width; col++) {
+          matrix.set(row, col, readValue(values, snap));
+        } // for col
+      } // for row
+      long expected = checked.getChecksum().getValue();
+      if (snap.readLong() != expected) {
+        throw new IOException("Corrupt matrix snapshot: " + snapshot);
+      } // if
+      LoggedMatrix<T> result = new LoggedMatrix<T>(matrix, directory, values, def, channel);
+      result.generation = gen;
+      return result;
+    } // try
+  } // readSnapshot(Path, Path, Codec<T>, Factory<T>, FileChannel)
+
+  /**
+   * Replay the log, if it belongs to the current snapshot, up to its
+   * first incomplete or corrupt record, and cut it there. A log from an
+   * older generation (left by a crash during a checkpoint) is replaced.
+   *
+   * @throws IOException
+   *   If the log cannot be read or written.
+   */
+  private void recover() throws IOException {
+    long size = this.log.size();
+    long good = LOG_HEADER;
+    DataInputStream in = new DataInputStream(new BufferedInputStream(
+        Channels.newInputStream(this.log.position(0)), BUFFER_SIZE));
+    boolean ours = size >= LOG_HEADER && in.readInt() == LOG_MAGIC
+        && in.readLong() == this.generation;
+    if (!ours) {
+      this.startLog();
+      return;
+    } // if
+    byte[] payload = new byte[0];
+    try {
+      while (good + RECORD_HEADER <= size) {
+        int length = in.readInt();
+        int sum = in.readInt();
+        if (length <= 0 || length > size - good - RECORD_HEADER) {
+          break;
+        } // if
+        if (payload.length < length) {
+          payload = new byte[Math.max(length, 2 * payload.length)];
+        } // if
+        in.readFully(payload, 0, length);
+        this.crc.reset();
+        this.crc.update(payload, 0, length);
+        if ((int) this.crc.getValue() != sum) {
+          break;
+        } // if
+        try {
+          this.apply(new DataInputStream(new ByteArrayInputStream(payload, 0, length)));
+        } catch (RuntimeException e) {
+          // The matrix rejected this change when it was logged, too.
+        } // try/catch
+        this.replayed++;
+        good += RECORD_HEADER + length;
+      } // while
+    } catch (EOFException e) {
+      // A torn record; everything before it has been replayed.
+    } // try/catch
+    this.log.truncate(good);
+    this.log.position(good);
+    this.log.force(false);
+    this.logBytes = good;
+  } // recover()
+
+  /**
+   * Apply one record to the in-memory matrix.
+   *
+   * @param in
+   *   The record, after its header.
+   *
+   * @throws IOException
+   *   If the record cannot be decoded.
+   */
+  private void apply(DataInputStream in) throws IOException {
+    Matrix<T> matrix = this.delegate;
+    switch (OPERATIONS[in.readUnsignedByte()]) {
+      case SET:
+        int row = in.readInt();
+        int col = in.readInt();
+        matrix.set(row, col, readValue(this.codec, in));
+        break;
+      case INSERT_ROW:
+        int newRow = in.readInt();
+        matrix.insertRow(newRow);
+        for (int i = 0, n = in.readInt(); i < n; i++) {
+          matrix.set(newRow, i, readValue(this.codec, in));
+        } // for
+        break;
+      case INSERT_COL:
+        int newCol = in.readInt();
+        matrix.insertCol(newCol);
+        for (int i = 0, n = in.readInt(); i < n; i++) {
+          matrix.set(i, newCol, readValue(this.codec, in));
+        } // for
+        break;
+      case DELETE_ROW:
+        matrix.deleteRow(in.readInt());
+        break;
+      case DELETE_COL:
+        matrix.deleteCol(in.readInt());
+        break;
+      case FILL_REGION:
+        matrix.fillRegion(in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+            readValue(this.codec, in));
+        break;
+      case FILL_LINE:
+        matrix.fillLine(in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readInt(),
+            in.readInt(), readValue(this.codec, in));
+        break;
+      case TRANSPOSE:
+        matrix.transposeInPlace();
+        break;
+      default:
+        throw new IOException("Unexpected record in matrix log");
+    } // switch
+  } // apply(DataInputStream)
+
+  /**
+   * Log an insertion of a row or column: its position, the number of
+   * values given (0 for the default) and the values.
+   *
+   * @param op
+   *   INSERT_ROW or INSERT_COL.
+   * @param index
+   *   The row or column.
+   * @param vals
+   *   The values, or null for the default.
+   */
+  private void logInsert(MatrixOperation op, int index, T[] vals) {
+    try {
+      DataOutputStream rec = this.begin(op);
+      rec.writeInt(index);
+      rec.writeInt((vals == null) ? 0 : vals.length);
+      for (int i = 0; vals != null && i < vals.length; i++) {
+        this.writeValue(vals[i], rec);
+      } // for
+      this.end();
+    } catch (IOException e) {
+      throw failed(e);
+    } // try/catch
+  } // logInsert(MatrixOperation, int, T[])
+
+  /**
+   * Log a deletion of a row or column.
+   *
+   * @param op
+   *   DELETE_ROW or DELETE_COL.
+   * @param index
+   *   The row or column.
+   */
+  private void logDelete(MatrixOperation op, int index) {
+    try {
+      this.begin(op).writeInt(index);
+      this.end();
+    } catch (IOException e) {
+      throw failed(e);
+    } // try/catch
+  } // logDelete(MatrixOperation, int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    return this.delegate.get(row, col);
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   * @throws UncheckedIOException
+   *   If the change cannot be logged.
+   */
+  public void set(int row, int col, T val) {
+    try {
+      DataOutputStream rec = this.begin(MatrixOperation.SET);
+      rec.writeInt(row);
+      rec.writeInt(col);
+      this.writeValue(val, rec);
+      this.end();
+    } catch (IOException e) {
+      throw failed(e);
+    } // try/catch
+    this.delegate.set(row, col, val);
+    this.settle();
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.delegate.height();
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.delegate.width();
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws UncheckedIOException
+   *   If the change cannot be logged.
+   */
+  public void insertRow(int row) {
+    this.logInsert(MatrixOperation.INSERT_ROW, row, null);
+    this.delegate.insertRow(row);
+    this.settle();
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   * @throws UncheckedIOException
+   *   If the change cannot be logged.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    if (vals.length != this.delegate.width()) {
+      throw new ArraySizeException("Inserted row has invalid width");
+    } // if
+    this.logInsert(MatrixOperation.INSERT_ROW, row, vals);
+    this.delegate.insertRow(row, vals);
+    this.settle();
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws UncheckedIOException
+   *   If the change cannot be logged.
+   */
+  public void insertCol(int col) {
+    this.logInsert(MatrixOperation.INSERT_COL, col, null);
+    this.delegate.insertCol(col);
+    this.settle();
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   * @throws UncheckedIOException
+   *   If the change cannot be logged.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    if (vals.length != this.delegate.height()) {
+      throw new ArraySizeException("Inserted col has invalid height");
+    } // if
+    this.logInsert(MatrixOperation.INSERT_COL, col, vals);
+    this.delegate.insertCol(col, vals);
+    this.settle();
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   * @throws UncheckedIOException
+   *   If the change cannot be logged.
+   */
+  public void deleteRow(int row) {
+    this.logDelete(MatrixOperation.DELETE_ROW, row);
+    this.delegate.deleteRow(row);
+    this.settle();
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   * @throws UncheckedIOException
+   *   If the change cannot be logged.
+   */
+  public void deleteCol(int col) {
+    this.logDelete(MatrixOperation.DELETE_COL, col);
+    this.delegate.deleteCol(col);
+    this.settle();
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   * @throws UncheckedIOException
+   *   If the change cannot be logged.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    try {
+      DataOutputStream rec = this.begin(MatrixOperation.FILL_REGION);
+      rec.writeInt(startRow);
+      rec.writeInt(startCol);
+      rec.writeInt(endRow);
+      rec.writeInt(endCol);
+      this.writeValue(val, rec);
+      this.end();
+    } catch (IOException e) {
+      throw failed(e);
+    } // try/catch
+    this.delegate.fillRegion(startRow, startCol, endRow, endCol, val);
+    this.settle();
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   * @throws UncheckedIOException
+   *   If the change cannot be logged.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    try {
+      DataOutputStream rec = this.begin(MatrixOperation.FILL_LINE);
+      rec.writeInt(startRow);
+      rec.writeInt(startCol);
+      rec.writeInt(deltaRow);
+      rec.writeInt(deltaCol);
+      rec.writeInt(endRow);
+      rec.writeInt(endCol);
+      this.writeValue(val, rec);
+      this.end();
+    } catch (IOException e) {
+      throw failed(e);
+    } // try/catch
+    this.delegate.fillLine(startRow, startCol, deltaRow, deltaCol, endRow, endCol, val);
+    this.settle();
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a new matrix that is the transpose of this one. The transpose
+   * is an ordinary in-memory matrix; it is not logged.
+   *
+   * @return the transpose.
+   */
+  public Matrix<T> transpose() {
+    return this.delegate.transpose();
+  } // transpose()
+
+  /**
+   * Transpose this matrix in place.
+   *
+   * @throws UncheckedIOException
+   *   If the change cannot be logged.
+   */
+  public void transposeInPlace() {
+    try {
+      this.begin(MatrixOperation.TRANSPOSE);
+      this.end();
+    } catch (IOException e) {
+      throw failed(e);
+    } // try/catch
+    this.delegate.transposeInPlace();
+    this.settle();
+  } // transposeInPlace()
+
+  /**
+   * Combine all the elements with an operation, as the wrapped matrix
+   * does.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   *
+   * @return identity combined with every element.
+   */
+  public T reduce(T identity, BinaryOperator<T> op) {
+    return this.delegate.reduce(identity, op);
+  } // reduce(T, BinaryOperator<T>)
+
+  /**
+   * Count the elements that satisfy a predicate, as the wrapped matrix
+   * does.
+   *
+   * @param predicate
+   *   The predicate.
+   *
+   * @return the number of elements for which predicate is true.
+   */
+  public long count(Predicate<? super T> predicate) {
+    return this.delegate.count(predicate);
+  } // count(Predicate)
+
+  /**
+   * Combine the elements of each row, as the wrapped matrix does.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   * @param generator
+   *   Makes an array of the given length.
+   *
+   * @return an array with one combined value per row.
+   */
+  public T[] reduceRows(T identity, BinaryOperator<T> op, IntFunction<T[]> generator) {
+    return this.delegate.reduceRows(identity, op, generator);
+  } // reduceRows(T, BinaryOperator<T>, IntFunction<T[]>)
+
+  /**
+   * Combine the elements of each column, as the wrapped matrix does.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   * @param generator
+   *   Makes an array of the given length.
+   *
+   * @return an array with one combined value per column.
+   */
+  public T[] reduceCols(T identity, BinaryOperator<T> op, IntFunction<T[]> generator) {
+    return this.delegate.reduceCols(identity, op, generator);
+  } // reduceCols(T, BinaryOperator<T>, IntFunction<T[]>)
+
+  /**
+   * Make a copy of the matrix. The copy is an ordinary in-memory matrix;
+   * it is not logged.
+   *
+   * @return a copy of the matrix.
+   */
+  public Matrix<T> clone() {
+    return this.delegate.clone();
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    return this.delegate.equals(other);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix, which is the same as the hash
+   * code of the wrapped matrix.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    return this.delegate.hashCode();
+  } // hashCode()
+
+  /**
+   * Estimate the heap this matrix keeps alive, not counting elements:
+   * the wrapped matrix, plus the write buffer, the record being
+   * encoded, and its checksum as overlay. The open log is not counted.
+   *
+   * @return the estimate.
+   */
+  public MemoryFootprint footprint() {
+    long buffers = MemoryFootprint.object(4, 6 * Integer.BYTES + Long.BYTES)
+        + MemoryFootprint.primitiveArray(this.buffer.capacity(), 1)
+        + MemoryFootprint.object(1, Integer.BYTES)
+        + MemoryFootprint.primitiveArray(this.record.array().length, 1)
+        + MemoryFootprint.object(3, Integer.BYTES) + MemoryFootprint.primitiveArray(Long.BYTES, 1)
+        + MemoryFootprint.object(0, Integer.BYTES);
+    return this.delegate.footprint()
+        .plusIndex(MemoryFootprint.object(10, 4 * Long.BYTES + 2 * Integer.BYTES))
+        .plusOverlay(buffers);
+  } // footprint()
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * A byte array output stream that shares its array, so that records
+   * need not be copied.
+   */
+  private static final class Bytes extends ByteArrayOutputStream {
+    /**
+     * Get the bytes written so far, and possibly more.
+     *
+     * @return the array.
+     */
+    byte[] array() {
+      return this.buf;
+    } // array()
+  } // class Bytes
+} // class LoggedMatrix<T>
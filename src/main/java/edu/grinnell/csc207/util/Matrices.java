@@ -0,0 +1,573 @@
+package edu.grinnell.csc207.util;
+
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Makes matrices, choosing an implementation to suit the elements and
+ * how the matrix will be used.
+ *
+ * <p>Booleans with a non-null default are stored as bits. Otherwise, a
+ * matrix expected to be mostly default is stored sparsely, doubles with
+ * a non-null default are stored as primitives, a matrix expected to hold
+ * few distinct values is dictionary-encoded, and anything else is stored
+ * densely, in the layout that suits its workload. Bit and primitive
+ * storage reject null, so they are chosen only for matrices that are
+ * not expected to hold null (see {@link Builder#nulls}).</p>
+ *
+ * <p>A migrating matrix (see {@link MigratingMatrix}) makes the same
+ * choice again from the values it actually holds as it changes.</p>
+ *
+ * @author Andrew N. Fargo
+ */
+public final class Matrices {
+  // +-------+-------------------------------------------------------
+  // | Types |
+  // +-------+
+
+  /**
+   * The ways of storing a matrix.
+   */
+  public enum Storage {
+    /** References to the elements, as in MatrixV0. */
+    DENSE,
+    /** Only the tiles that hold other than the default, as in TiledMatrix. */
+    SPARSE,
+    /** Unboxed doubles, as in DoubleMatrix. Rejects null. */
+    PRIMITIVE,
+    /** One bit per cell, as in BooleanMatrix. Rejects null. */
+    BITSET,
+    /** A small code per cell and a dictionary of values, as in
+        DictionaryMatrix. */
+    DICTIONARY
+  } // enum Storage
+
+  /**
+   * The ways a matrix may be used, which decide the layout of dense
+   * storage.
+   */
+  public enum Workload {
+    /** Mostly getting and setting cells: rows, as in MatrixV0. */
+    GENERAL,
+    /** Many rows inserted and deleted: a tree of rows, as in RopeMatrix. */
+    ROW_EDITS,
+    /** Mostly working down columns: columns, as in ColumnMajorMatrix. */
+    COLUMN_SCANS,
+    /** Unknown or changing: either layout, as in AdaptiveMatrix. */
+    MIXED
+  } // enum Workload
+
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The fraction of cells holding other than the default at or below
+      which a matrix is stored sparsely. */
+  public static final double SPARSE_DENSITY = 0.1;
+
+  /** The fraction of cells holding other than the default above which
+      a sparse matrix that is migrating is stored densely again. */
+  public static final double DENSE_DENSITY = 0.3;
+
+  /** The most distinct values for which a matrix is dictionary-encoded,
+      which is as many as fit in one-byte codes. */
+  public static final int DICTIONARY_VALUES = 1 << Byte.SIZE;
+
+  // +----------------+----------------------------------------------
+  // | Nested classes |
+  // +----------------+
+
+  /**
+   * Collects what is known about a matrix and then makes it. Unless told
+   * otherwise, a builder expects a dense matrix of many distinct values,
+   * none of them null, used in no particular way, with null as its
+   * default.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   */
+  public static final class Builder<T> {
+    /** The type of the values. */
+    private final Class<T> type;
+
+    /** The width. */
+    private int cols;
+
+    /** The height. */
+    private int rows;
+
+    /** The default value. */
+    private T defaultValue;
+
+    /** The expected fraction of cells that hold other than the default. */
+    private double density = 1.0;
+
+    /** The expected number of distinct values. */
+    private int distinct = Integer.MAX_VALUE;
+
+    /** Whether cells may be set to null. */
+    private boolean nulls;
+
+    /** The expected use. */
+    private Workload workload = Workload.GENERAL;
+
+    /** The storage to use regardless of the other hints, or null. */
+    private Storage storage;
+
+    /** Whether to migrate as the values change. */
+    private boolean migrating;
+
+    /**
+     * Start building a matrix of values of the given type.
+     *
+     * @param elements
+     *   The type of the values.
+     */
+    private Builder(Class<T> elements) {
+      this.type = elements;
+    } // Builder(Class<T>)
+
+    /**
+     * Set the size of the matrix, which is 0 by 0 unless set.
+     *
+     * @param width
+     *   The width.
+     * @param height
+     *   The height.
+     *
+     * @return this builder.
+     *
+     * @throws NegativeArraySizeException
+     *   If either the width or height are negative.
+     */
+    public Builder<T> size(int width, int height) {
+      if (width < 0 || height < 0) {
+        throw new NegativeArraySizeException();
+      } // if
+      this.cols = width;
+      this.rows = height;
+      return this;
+    } // size(int, int)
+
+    /**
+     * Set the default value.
+     *
+     * @param def
+     *   The default value, used to fill all the cells.
+     *
+     * @return this builder.
+     */
+    public Builder<T> defaultValue(T def) {
+      this.defaultValue = def;
+      return this;
+    } // defaultValue(T)
+
+    /**
+     * Set the expected fraction of cells that hold other than the
+     * default value.
+     *
+     * @param fraction
+     *   The fraction, from 0 to 1.
+     *
+     * @return this builder.
+     *
+     * @throws IllegalArgumentException
+     *   If the fraction is not between 0 and 1.
+     */
+    public Builder<T> density(double fraction) {
+      if (!(fraction >= 0 && fraction <= 1)) {
+        throw new IllegalArgumentException("Density must be between 0 and 1");
+      } // if
+      this.density = fraction;
+      return this;
+    } // density(double)
+
+    /**
+     * Set the expected number of distinct values, including the default.
+     *
+     * @param count
+     *   The number of values.
+     *
+     * @return this builder.
+     *
+     * @throws IllegalArgumentException
+     *   If the count is less than 1.
+     */
+    public Builder<T> distinctValues(int count) {
+      if (count < 1) {
+        throw new IllegalArgumentException("A matrix holds at least one distinct value");
+      } // if
+      this.distinct = count;
+      return this;
+    } // distinctValues(int)
+
+    /**
+     * Say whether cells may be set to null, which rules out bit and
+     * primitive storage.
+     *
+     * @param allowed
+     *   Whether null may be stored.
+     *
+     * @return this builder.
+     */
+    public Builder<T> nulls(boolean allowed) {
+      this.nulls = allowed;
+      return this;
+    } // nulls(boolean)
+
+    /**
+     * Set the expected use.
+     *
+     * @param use
+     *   The workload.
+     *
+     * @return this builder.
+     */
+    public Builder<T> workload(Workload use) {
+      this.workload = Objects.requireNonNull(use);
+      return this;
+    } // workload(Workload)
+
+    /**
+     * Use the given storage, whatever the other hints say.
+     *
+     * @param kind
+     *   The storage, or null to choose from the hints.
+     *
+     * @return this builder.
+     */
+    public Builder<T> storage(Storage kind) {
+      this.storage = kind;
+      return this;
+    } // storage(Storage)
+
+    /**
+     * Make a matrix that changes storage as its values change.
+     *
+     * @param migrate
+     *   Whether to migrate.
+     *
+     * @return this builder.
+     */
+    public Builder<T> migrating(boolean migrate) {
+      this.migrating = migrate;
+      return this;
+    } // migrating(boolean)
+
+    /**
+     * Determine the storage that build would use.
+     *
+     * @return the storage.
+     */
+    public Storage choice() {
+      return (this.storage != null) ? this.storage
+          : choose(this.type, this.defaultValue, this.density, this.distinct, this.nulls);
+    } // choice()
+
+    /**
+     * Make the matrix, filled with the default value.
+     *
+     * @return the matrix.
+     *
+     * @throws IllegalArgumentException
+     *   If the storage was set to one that cannot hold the values.
+     */
+    public Matrix<T> build() {
+      Storage kind = this.choice();
+      Matrix<T> result =
+          empty(this.type, kind, this.workload, this.cols, this.rows, this.defaultValue);
+      if (this.migrating) {
+        result = new MigratingMatrix<T>(this.type, result, this.workload, this.defaultValue);
+      } // if
+      return result;
+    } // build()
+  } // class Builder<T>
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * There are no Matrices objects.
+   */
+  private Matrices() {
+  } // Matrices()
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Start building a matrix.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param type
+   *   The type of the values, such as Integer.class.
+   *
+   * @return a builder.
+   */
+  public static <T> Builder<T> builder(Class<T> type) {
+    return new Builder<T>(Objects.requireNonNull(type));
+  } // builder(Class<T>)
+
+  /**
+   * Make a matrix of the given type, size and default value, with
+   * storage chosen from the type alone. Matrices of doubles or booleans
+   * with a non-null default reject null; use a builder with
+   * {@code nulls(true)} to store null in them.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param type
+   *   The type of the values, such as Integer.class.
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @return the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public static <T> Matrix<T> create(Class<T> type, int width, int height, T def) {
+    return builder(type).size(width, height).defaultValue(def).build();
+  } // create(Class<T>, int, int, T)
+
+  /**
+   * Choose the storage for a matrix that holds the values of a matrix.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param matrix
+   *   The matrix.
+   * @param type
+   *   The type of the values.
+   * @param def
+   *   The default value.
+   *
+   * @return the storage that suits the values.
+   */
+  public static <T> Storage recommend(Matrix<T> matrix, Class<T> type, T def) {
+    return choose(type, def, density(matrix, def), distinct(matrix, DICTIONARY_VALUES + 1),
+        hasNulls(matrix));
+  } // recommend(Matrix<T>, Class<T>, T)
+
+  /**
+   * Copy a matrix into the given storage.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param matrix
+   *   The matrix to copy.
+   * @param type
+   *   The type of the values.
+   * @param storage
+   *   The storage of the copy.
+   * @param workload
+   *   The expected use of the copy.
+   * @param def
+   *   The default value of the copy.
+   *
+   * @return the copy.
+   *
+   * @throws IllegalArgumentException
+   *   If the storage cannot hold the values.
+   */
+  public static <T> Matrix<T> convert(Matrix<T> matrix, Class<T> type, Storage storage,
+      Workload workload, T def) {
+    Matrix<T> result = empty(type, storage, workload, matrix.width(), matrix.height(), def);
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < matrix.width(); col++) {
+        T val = matrix.get(row, col);
+        if (!Objects.equals(val, def)) {
+          result.set(row, col, val);
+        } // if
+      } // for col
+    } // for row
+    return result;
+  } // convert(Matrix<T>, Class<T>, Storage, Workload, T)
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Choose the storage for a matrix.
+   *
+   * @param type
+   *   The type of the values.
+   * @param def
+   *   The default value.
+   * @param density
+   *   The fraction of cells that hold other than the default.
+   * @param distinct
+   *   The number of distinct values.
+   * @param nulls
+   *   Whether any cell may hold null, which rules out the storages that
+   *   reject it.
+   *
+   * @return the storage.
+   */
+  static Storage choose(Class<?> type, Object def, double density, int distinct,
+      boolean nulls) {
+    boolean unboxed = def != null && !nulls;
+    if (type == Boolean.class && unboxed) {
+      return Storage.BITSET;
+    } else if (density <= SPARSE_DENSITY) {
+      return Storage.SPARSE;
+    } else if (type == Double.class && unboxed) {
+      return Storage.PRIMITIVE;
+    } else if (distinct <= DICTIONARY_VALUES) {
+      return Storage.DICTIONARY;
+    } else {
+      return Storage.DENSE;
+    } // if/else
+  } // choose(Class<?>, Object, double, int, boolean)
+
+  /**
+   * Determine whether any cell of a matrix holds null.
+   *
+   * @param matrix
+   *   The matrix.
+   *
+   * @return true if some cell holds null.
+   */
+  static boolean hasNulls(Matrix<?> matrix) {
+    return matrix.count(Objects::isNull) != 0;
+  } // hasNulls(Matrix<?>)
+
+  /**
+   * Determine whether a storage rejects null.
+   *
+   * @param storage
+   *   The storage.
+   *
+   * @return true if null cannot be stored.
+   */
+  static boolean rejectsNull(Storage storage) {
+    return storage == Storage.PRIMITIVE || storage == Storage.BITSET;
+  } // rejectsNull(Storage)
+
+  /**
+   * Determine how a matrix is stored.
+   *
+   * @param matrix
+   *   The matrix.
+   *
+   * @return the storage, which is DENSE for implementations not made
+   *   here.
+   */
+  static Storage storageOf(Matrix<?> matrix) {
+    if (matrix instanceof TiledMatrix) {
+      return Storage.SPARSE;
+    } else if (matrix instanceof DoubleMatrix) {
+      return Storage.PRIMITIVE;
+    } else if (matrix instanceof BooleanMatrix) {
+      return Storage.BITSET;
+    } else if (matrix instanceof DictionaryMatrix) {
+      return Storage.DICTIONARY;
+    } else {
+      return Storage.DENSE;
+    } // if/else
+  } // storageOf(Matrix<?>)
+
+  /**
+   * Determine the fraction of cells that hold other than the default.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param matrix
+   *   The matrix.
+   * @param def
+   *   The default value.
+   *
+   * @return the fraction, or 0 if the matrix has no cells.
+   */
+  static <T> double density(Matrix<T> matrix, T def) {
+    long cells = (long) matrix.width() * matrix.height();
+    return (cells == 0) ? 0 : (double) matrix.count((val) -> !Objects.equals(val, def)) / cells;
+  } // density(Matrix<T>, T)
+
+  /**
+   * Count the distinct values in a matrix, stopping at a limit.
+   *
+   * @param matrix
+   *   The matrix.
+   * @param limit
+   *   The most values to count.
+   *
+   * @return the number of distinct values, or limit if there are more.
+   */
+  static int distinct(Matrix<?> matrix, int limit) {
+    Set<Object> seen = new HashSet<Object>();
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < matrix.width(); col++) {
+        seen.add(matrix.get(row, col));
+        if (seen.size() >= limit) {
+          return limit;
+        } // if
+      } // for col
+    } // for row
+    return seen.size();
+  } // distinct(Matrix<?>, int)
+
+  /**
+   * Make a matrix filled with the default value.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param type
+   *   The type of the values.
+   * @param storage
+   *   The storage.
+   * @param workload
+   *   The expected use, which decides the layout of dense storage.
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value.
+   *
+   * @return the matrix.
+   *
+   * @throws IllegalArgumentException
+   *   If the storage cannot hold the values.
+   */
+  @SuppressWarnings({"unchecked"})
+  static <T> Matrix<T> empty(Class<T> type, Storage storage, Workload workload, int width,
+      int height, T def) {
+    switch (storage) {
+      case SPARSE:
+        return new TiledMatrix<T>(width, height, def);
+      case PRIMITIVE:
+        if (type != Double.class || def == null) {
+          throw new IllegalArgumentException("Primitive storage holds only non-null Doubles");
+        } // if
+        return (Matrix<T>) new DoubleMatrix(width, height, (Double) def);
+      case BITSET:
+        if (type != Boolean.class || def == null) {
+          throw new IllegalArgumentException("Bitset storage holds only non-null Booleans");
+        } // if
+        return (Matrix<T>) new BooleanMatrix(width, height, (Boolean) def);
+      case DICTIONARY:
+        return new DictionaryMatrix<T>(width, height, def);
+      default:
+        switch (workload) {
+          case ROW_EDITS:
+            return new RopeMatrix<T>(width, height, def);
+          case COLUMN_SCANS:
+            return new ColumnMajorMatrix<T>(width, height, def);
+          case MIXED:
+            return new AdaptiveMatrix<T>(width, height, def);
+          default:
+            return new MatrixV0<T>(width, height, def);
+        } // switch
+    } // switch
+  } // empty(Class<T>, Storage, Workload, int, int, T)
+} // class Matrices
@@ -1,6 +1,9 @@
 package edu.grinnell.csc207.util;
 
 import java.io.PrintWriter;
+import java.util.function.BinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 
 /**
  * Two-dimensional matrices.
@@ -99,13 +102,46 @@ public interface Matrix<T> extends Cloneable {
    */
   public static <T> void print(PrintWriter pen, Matrix<T> matrix,
       boolean includeLabels) {
-    int width = matrix.width();
-    int height = matrix.height();
+    printRegion(pen, matrix, 0, 0, matrix.height(), matrix.width(), includeLabels);
+  } // print(PrintWriter, Matrix)
+
+  /**
+   * Print a rectangular region of a matrix, such as one reported by a
+   * {@link DirtyRegionTracker}, with or without labels. Labels give the
+   * rows and columns within the whole matrix.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param pen
+   *   The PrintWriter to use for printing.
+   * @param matrix
+   *   The matrix to print.
+   * @param startRow
+   *   The top row (inclusive).
+   * @param startCol
+   *   The left column (inclusive).
+   * @param endRow
+   *   The bottom row (exclusive).
+   * @param endCol
+   *   The right column (exclusive).
+   * @param includeLabels
+   *   Set to true if you want labels and false otherwise.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the region does not fit in the matrix.
+   */
+  public static <T> void printRegion(PrintWriter pen, Matrix<T> matrix, int startRow,
+      int startCol, int endRow, int endCol, boolean includeLabels) {
+    if (startRow < 0 || startCol < 0 || endRow > matrix.height()
+        || endCol > matrix.width() || startRow > endRow || startCol > endCol) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    int width = endCol - startCol;
 
     // Find the maximum width of cells.
     int cellWidth = 0;
-    for (int row = 0; row < height; row++) {
-      for (int col = 0; col < width; col++) {
+    for (int row = startRow; row < endRow; row++) {
+      for (int col = startCol; col < endCol; col++) {
         T val = matrix.get(row, col);
         int valWidth = toString(val).length();
         cellWidth = Math.max(cellWidth, valWidth);
@@ -118,13 +154,13 @@ public interface Matrix<T> extends Cloneable {
     // Print everything out
     if (includeLabels) {
       pen.print(" ".repeat(4));
-      for (int col = 0; col < width; col++) {
+      for (int col = startCol; col < endCol; col++) {
         printCell(pen, String.format("%2d", col), cellWidth + 1);
       } // for
       pen.println();
     } // if
 
-    for (int row = 0; row < height; row++) {
+    for (int row = startRow; row < endRow; row++) {
       if (includeLabels) {
         pen.print(" ".repeat(4));
       } // if
@@ -132,7 +168,7 @@ public interface Matrix<T> extends Cloneable {
       if (includeLabels) {
         pen.printf(" %2d ", row);
       } // if
-      for (int col = 0; col < width; col++) {
+      for (int col = startCol; col < endCol; col++) {
         pen.print("|");
         printCell(pen, toString(matrix.get(row, col)), cellWidth);
       } // for col
@@ -142,7 +178,7 @@ public interface Matrix<T> extends Cloneable {
       pen.print(" ".repeat(4));
     } // if
     printRowSeparator(pen, cellWidth, width);
-  } // print(PrintWriter, Matrix)
+  } // printRegion(PrintWriter, Matrix, int, int, int, int, boolean)
 
   // +--------------+------------------------------------------------
   // | Core methods |
@@ -310,6 +346,172 @@ public interface Matrix<T> extends Cloneable {
   public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
       int endRow, int endCol, T val);
 
+  /**
+   * Make a new matrix that is the transpose of this one, so that
+   * get(row, col) on the result is get(col, row) on this matrix. By
+   * default, clones the matrix and transposes the clone in place, which
+   * works only for square matrices; implementations should override it.
+   *
+   * @return the transpose.
+   *
+   * @throws UnsupportedOperationException
+   *   If the matrix is not square and the implementation cannot
+   *   transpose it.
+   */
+  public default Matrix<T> transpose() {
+    Matrix<T> result = this.clone();
+    result.transposeInPlace();
+    return result;
+  } // transpose()
+
+  /**
+   * Transpose this matrix in place, exchanging its width and height. By
+   * default, swaps pairs of elements with get and set, which works only
+   * for square matrices; implementations should override it.
+   *
+   * @throws UnsupportedOperationException
+   *   If the matrix is not square and the implementation cannot
+   *   reshape it.
+   */
+  public default void transposeInPlace() {
+    int size = this.width();
+    if (size != this.height()) {
+      throw new UnsupportedOperationException("Cannot transpose a " + this.width() + "x"
+          + this.height() + " matrix in place");
+    } // if
+    for (int row = 0; row < size; row++) {
+      for (int col = row + 1; col < size; col++) {
+        T val = this.get(row, col);
+        this.set(row, col, this.get(col, row));
+        this.set(col, row, val);
+      } // for col
+    } // for row
+  } // transposeInPlace()
+
+  // +------------+--------------------------------------------------
+  // | Reductions |
+  // +------------+
+
+  /**
+   * Combine all the elements, row by row, with an operation.
+   * Implementations may combine blocks of elements in parallel, so op
+   * must be associative and identity must be its identity.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   *
+   * @return identity combined with every element.
+   */
+  public default T reduce(T identity, BinaryOperator<T> op) {
+    T result = identity;
+    for (int row = 0; row < this.height(); row++) {
+      for (int col = 0; col < this.width(); col++) {
+        result = op.apply(result, this.get(row, col));
+      } // for col
+    } // for row
+    return result;
+  } // reduce(T, BinaryOperator<T>)
+
+  /**
+   * Count the elements that satisfy a predicate.
+   *
+   * @param predicate
+   *   The predicate.
+   *
+   * @return the number of elements for which predicate is true.
+   */
+  public default long count(Predicate<? super T> predicate) {
+    long count = 0;
+    for (int row = 0; row < this.height(); row++) {
+      for (int col = 0; col < this.width(); col++) {
+        if (predicate.test(this.get(row, col))) {
+          count++;
+        } // if
+      } // for col
+    } // for row
+    return count;
+  } // count(Predicate)
+
+  /**
+   * Combine the elements of each row, left to right.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   * @param generator
+   *   Makes an array of the given length, such as Integer[]::new.
+   *
+   * @return an array with one combined value per row.
+   */
+  public default T[] reduceRows(T identity, BinaryOperator<T> op,
+      IntFunction<T[]> generator) {
+    T[] result = generator.apply(this.height());
+    for (int row = 0; row < this.height(); row++) {
+      T acc = identity;
+      for (int col = 0; col < this.width(); col++) {
+        acc = op.apply(acc, this.get(row, col));
+      } // for col
+      result[row] = acc;
+    } // for row
+    return result;
+  } // reduceRows(T, BinaryOperator<T>, IntFunction<T[]>)
+
+  /**
+   * Combine the elements of each column, top to bottom.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   * @param generator
+   *   Makes an array of the given length, such as Integer[]::new.
+   *
+   * @return an array with one combined value per column.
+   */
+  public default T[] reduceCols(T identity, BinaryOperator<T> op,
+      IntFunction<T[]> generator) {
+    T[] result = generator.apply(this.width());
+    for (int col = 0; col < this.width(); col++) {
+      result[col] = identity;
+    } // for
+    for (int row = 0; row < this.height(); row++) {
+      for (int col = 0; col < this.width(); col++) {
+        result[col] = op.apply(result[col], this.get(row, col));
+      } // for col
+    } // for row
+    return result;
+  } // reduceCols(T, BinaryOperator<T>, IntFunction<T[]>)
+
+  // +--------+------------------------------------------------------
+  // | Memory |
+  // +--------+
+
+  /**
+   * Estimate the heap this matrix keeps alive, not counting its elements,
+   * broken down by purpose. By default, assumes an array of rows, each an
+   * array of references, which implementations with other layouts
+   * should override.
+   *
+   * @return the estimate.
+   */
+  public default MemoryFootprint footprint() {
+    return new MemoryFootprint((long) this.height() * MemoryFootprint.referenceArray(this.width()),
+        0, MemoryFootprint.object(1, 0) + MemoryFootprint.referenceArray(this.height()), 0);
+  } // footprint()
+
+  /**
+   * Estimate the bytes of heap this matrix keeps alive, not counting its
+   * elements.
+   *
+   * @return the total of footprint().
+   */
+  public default long estimatedBytes() {
+    return this.footprint().total();
+  } // estimatedBytes()
+
   /**
    * A make a copy of the matrix. May share references (e.g., if individual
    * elements are mutable, mutating them in one matrix may affect the other
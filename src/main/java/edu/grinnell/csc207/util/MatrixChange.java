@@ -0,0 +1,421 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A frame of changes to a matrix, as published by a
+ * {@link MatrixChangePublisher}. A frame is one of three kinds:
+ *
+ * <ul>
+ *   <li>CELLS: region fills, in order, followed by the latest values of
+ *     individual cells. Repeated changes to a cell have been coalesced.</li>
+ *   <li>STRUCTURE: one row or column insertion or deletion, or a
+ *     transposition. Insertions carry the values inserted.</li>
+ *   <li>RESYNC: a copy of the whole matrix, sent in place of changes
+ *     that a lagging subscriber had not yet received.</li>
+ * </ul>
+ *
+ * <p>Applying each frame in order to a copy of the matrix, as
+ * {@link #applyTo(Matrix)} does, keeps the copy equal to the
+ * matrix.</p>
+ *
+ * @author Andrew N. Fargo
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public final class MatrixChange<T> {
+  // +-------+-------------------------------------------------------
+  // | Types |
+  // +-------+
+
+  /**
+   * The kinds of frames.
+   */
+  public enum Kind {
+    /** Fills and cell values. */
+    CELLS,
+    /** A change of shape. */
+    STRUCTURE,
+    /** A copy of the whole matrix. */
+    RESYNC
+  } // enum Kind
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The kind of frame. */
+  private final Kind kind;
+
+  /** The regions filled, in order (CELLS). */
+  private final List<DirtyRegionTracker.Region> fills;
+
+  /** The value stored in each region (CELLS). */
+  private final List<T> fillValues;
+
+  /** The rows of the cells (CELLS). */
+  private final int[] rows;
+
+  /** The columns of the cells (CELLS). */
+  private final int[] cols;
+
+  /** The values of the cells (CELLS), or of the line inserted
+      (STRUCTURE), in order. */
+  private final List<T> values;
+
+  /** The operation (STRUCTURE). */
+  private final MatrixOperation op;
+
+  /** The row or column inserted or deleted, or -1 (STRUCTURE). */
+  private final int index;
+
+  /** The copy of the matrix (RESYNC). */
+  private final Matrix<T> snapshot;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a CELLS frame.
+   *
+   * @param regions
+   *   The regions filled, in order.
+   * @param regionValues
+   *   The value stored in each region.
+   * @param cellRows
+   *   The rows of the cells.
+   * @param cellCols
+   *   The columns of the cells.
+   * @param cellValues
+   *   The values of the cells.
+   */
+  private MatrixChange(List<DirtyRegionTracker.Region> regions, List<T> regionValues,
+      int[] cellRows, int[] cellCols, List<T> cellValues) {
+    this.kind = Kind.CELLS;
+    this.fills = Collections.unmodifiableList(regions);
+    this.fillValues = Collections.unmodifiableList(regionValues);
+    this.rows = cellRows;
+    this.cols = cellCols;
+    this.values = Collections.unmodifiableList(cellValues);
+    this.op = null;
+    this.index = -1;
+    this.snapshot = null;
+  } // MatrixChange(List, List, int[], int[], List)
+
+  /**
+   * Create a STRUCTURE frame.
+   *
+   * @param operation
+   *   The change of shape.
+   * @param where
+   *   The row or column inserted or deleted, or -1.
+   * @param line
+   *   The values inserted, or an empty list.
+   */
+  private MatrixChange(MatrixOperation operation, int where, List<T> line) {
+    this.kind = Kind.STRUCTURE;
+    this.fills = Collections.emptyList();
+    this.fillValues = Collections.emptyList();
+    this.rows = new int[0];
+    this.cols = this.rows;
+    this.values = Collections.unmodifiableList(line);
+    this.op = operation;
+    this.index = where;
+    this.snapshot = null;
+  } // MatrixChange(MatrixOperation, int, List<T>)
+
+  /**
+   * Create a RESYNC frame.
+   *
+   * @param copy
+   *   A copy of the matrix.
+   */
+  private MatrixChange(Matrix<T> copy) {
+    this.kind = Kind.RESYNC;
+    this.fills = Collections.emptyList();
+    this.fillValues = Collections.emptyList();
+    this.rows = new int[0];
+    this.cols = this.rows;
+    this.values = Collections.emptyList();
+    this.op = null;
+    this.index = -1;
+    this.snapshot = copy;
+  } // MatrixChange(Matrix<T>)
+
+  /**
+   * Create a CELLS frame.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param regions
+   *   The regions filled, in order.
+   * @param regionValues
+   *   The value stored in each region.
+   * @param cellRows
+   *   The rows of the cells.
+   * @param cellCols
+   *   The columns of the cells.
+   * @param cellValues
+   *   The values of the cells.
+   *
+   * @return the frame.
+   */
+  static <T> MatrixChange<T> cells(List<DirtyRegionTracker.Region> regions,
+      List<T> regionValues, int[] cellRows, int[] cellCols, List<T> cellValues) {
+    return new MatrixChange<T>(regions, regionValues, cellRows, cellCols, cellValues);
+  } // cells(List, List, int[], int[], List)
+
+  /**
+   * Create a STRUCTURE frame.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param operation
+   *   The change of shape.
+   * @param where
+   *   The row or column inserted or deleted, or -1.
+   * @param line
+   *   The values inserted, or an empty list.
+   *
+   * @return the frame.
+   */
+  static <T> MatrixChange<T> structure(MatrixOperation operation, int where, List<T> line) {
+    return new MatrixChange<T>(operation, where, line);
+  } // structure(MatrixOperation, int, List<T>)
+
+  /**
+   * Create a RESYNC frame.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   * @param copy
+   *   A copy of the matrix, which no one else may change.
+   *
+   * @return the frame.
+   */
+  static <T> MatrixChange<T> resync(Matrix<T> copy) {
+    return new MatrixChange<T>(copy);
+  } // resync(Matrix<T>)
+
+  // +-----------+---------------------------------------------------
+  // | Accessors |
+  // +-----------+
+
+  /**
+   * Get the kind of frame.
+   *
+   * @return the kind.
+   */
+  public Kind kind() {
+    return this.kind;
+  } // kind()
+
+  /**
+   * Get the regions filled, in order.
+   *
+   * @return the regions; empty unless this is a CELLS frame.
+   */
+  public List<DirtyRegionTracker.Region> fills() {
+    return this.fills;
+  } // fills()
+
+  /**
+   * Get the value stored in each region filled.
+   *
+   * @return the values, parallel to fills().
+   */
+  public List<T> fillValues() {
+    return this.fillValues;
+  } // fillValues()
+
+  /**
+   * Count the individual cells in this frame.
+   *
+   * @return the number of cells; 0 unless this is a CELLS frame.
+   */
+  public int cellCount() {
+    return this.rows.length;
+  } // cellCount()
+
+  /**
+   * Get the row of a cell.
+   *
+   * @param i
+   *   Which cell, from 0 to cellCount() - 1.
+   *
+   * @return the row.
+   */
+  public int row(int i) {
+    return this.rows[i];
+  } // row(int)
+
+  /**
+   * Get the column of a cell.
+   *
+   * @param i
+   *   Which cell, from 0 to cellCount() - 1.
+   *
+   * @return the column.
+   */
+  public int col(int i) {
+    return this.cols[i];
+  } // col(int)
+
+  /**
+   * Get the new value of a cell.
+   *
+   * @param i
+   *   Which cell, from 0 to cellCount() - 1.
+   *
+   * @return the value.
+   */
+  public T value(int i) {
+    return this.values.get(i);
+  } // value(int)
+
+  /**
+   * Get the change of shape.
+   *
+   * @return the operation, or null unless this is a STRUCTURE frame.
+   */
+  public MatrixOperation operation() {
+    return this.op;
+  } // operation()
+
+  /**
+   * Get the row or column inserted or deleted.
+   *
+   * @return the row or column, or -1.
+   */
+  public int index() {
+    return this.index;
+  } // index()
+
+  /**
+   * Get the values of an inserted row or column.
+   *
+   * @return the values, or an empty list unless this frame is an
+   *   insertion.
+   */
+  public List<T> inserted() {
+    return (this.kind == Kind.STRUCTURE) ? this.values : Collections.emptyList();
+  } // inserted()
+
+  /**
+   * Get the copy of the matrix.
+   *
+   * @return the copy, or null unless this is a RESYNC frame. It must not
+   *   be changed.
+   */
+  public Matrix<T> snapshot() {
+    return this.snapshot;
+  } // snapshot()
+
+  // +---------+-----------------------------------------------------
+  // | Replays |
+  // +---------+
+
+  /**
+   * Apply this frame to a replica of the matrix.
+   *
+   * @param replica
+   *   A matrix that was equal to the published matrix before this frame.
+   */
+  public void applyTo(Matrix<T> replica) {
+    switch (this.kind) {
+      case CELLS:
+        for (int i = 0; i < this.fills.size(); i++) {
+          DirtyRegionTracker.Region region = this.fills.get(i);
+          replica.fillRegion(region.startRow(), region.startCol(), region.endRow(),
+              region.endCol(), this.fillValues.get(i));
+        } // for
+        for (int i = 0; i < this.rows.length; i++) {
+          replica.set(this.rows[i], this.cols[i], this.values.get(i));
+        } // for
+        break;
+      case STRUCTURE:
+        this.applyStructure(replica);
+        break;
+      default:
+        this.applySnapshot(replica);
+        break;
+    } // switch
+  } // applyTo(Matrix<T>)
+
+  /**
+   * Apply a change of shape to a replica.
+   *
+   * @param replica
+   *   The replica.
+   */
+  private void applyStructure(Matrix<T> replica) {
+    switch (this.op) {
+      case INSERT_ROW:
+        replica.insertRow(this.index);
+        for (int col = 0; col < this.values.size(); col++) {
+          replica.set(this.index, col, this.values.get(col));
+        } // for
+        break;
+      case INSERT_COL:
+        replica.insertCol(this.index);
+        for (int row = 0; row < this.values.size(); row++) {
+          replica.set(row, this.index, this.values.get(row));
+        } // for
+        break;
+      case DELETE_ROW:
+        replica.deleteRow(this.index);
+        break;
+      case DELETE_COL:
+        replica.deleteCol(this.index);
+        break;
+      default:
+        replica.transposeInPlace();
+        break;
+    } // switch
+  } // applyStructure(Matrix<T>)
+
+  /**
+   * Make a replica equal to the snapshot, reshaping it as needed.
+   *
+   * @param replica
+   *   The replica.
+   */
+  private void applySnapshot(Matrix<T> replica) {
+    while (replica.height() > this.snapshot.height()) {
+      replica.deleteRow(replica.height() - 1);
+    } // while
+    while (replica.height() < this.snapshot.height()) {
+      replica.insertRow(replica.height());
+    } // while
+    while (replica.width() > this.snapshot.width()) {
+      replica.deleteCol(replica.width() - 1);
+    } // while
+    while (replica.width() < this.snapshot.width()) {
+      replica.insertCol(replica.width());
+    } // while
+    for (int row = 0; row < this.snapshot.height(); row++) {
+      for (int col = 0; col < this.snapshot.width(); col++) {
+        replica.set(row, col, this.snapshot.get(row, col));
+      } // for col
+    } // for row
+  } // applySnapshot(Matrix<T>)
+
+  /**
+   * Describe this frame.
+   *
+   * @return a short description, such as "CELLS[2 fills, 5 cells]".
+   */
+  public String toString() {
+    switch (this.kind) {
+      case CELLS:
+        return "CELLS[" + this.fills.size() + " fills, " + this.rows.length + " cells]";
+      case STRUCTURE:
+        return "STRUCTURE[" + this.op + " " + this.index + "]";
+      default:
+        return "RESYNC[" + this.snapshot.width() + "x" + this.snapshot.height() + "]";
+    } // switch
+  } // toString()
+} // class MatrixChange<T>
@@ -0,0 +1,733 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Publishes the changes made to an {@link ObservableMatrix} as a stream
+ * of {@link MatrixChange} frames, so that replicas or views may follow
+ * the matrix on other threads.
+ *
+ * <p>Changes are batched: cell and region changes collect in a frame
+ * until it holds the given number of cells, until the shape of the
+ * matrix changes, or until {@link #flush()} is called. Frames are sent
+ * only as subscribers request them. While a subscriber lags, later
+ * changes are merged into its last undelivered frame, so repeated
+ * changes to a cell cost nothing. If a subscriber falls more than the
+ * given number of cells behind anyway, everything it has not received
+ * is replaced by one RESYNC frame holding a copy of the matrix. Writers
+ * therefore never wait for subscribers, and each subscriber holds at
+ * most one copy of the matrix plus that many cells.</p>
+ *
+ * <p>Frames are delivered on the given executor. Changes must be made
+ * by one thread at a time, as for any matrix.</p>
+ *
+ * @author Andrew N. Fargo
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public final class MatrixChangePublisher<T>
+    implements Flow.Publisher<MatrixChange<T>>, AutoCloseable {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The default number of cells in a frame. */
+  public static final int DEFAULT_FRAME_CELLS = 1024;
+
+  /** The default number of undelivered cells at which a subscriber is
+      resynchronized. */
+  public static final int DEFAULT_MAX_PENDING = 1 << 16;
+
+  /** The subscriptions when there are none. */
+  private static final Feed<?>[] NO_FEEDS = new Feed<?>[0];
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The matrix. */
+  private final ObservableMatrix<T> matrix;
+
+  /** The executor on which frames are delivered. */
+  private final Executor executor;
+
+  /** The largest number of cells in a frame. */
+  private final int frameCells;
+
+  /** The number of undelivered cells at which a subscriber is
+      resynchronized. */
+  private final int maxPending;
+
+  /** The listener registered with the matrix. */
+  private final Recorder recorder = new Recorder();
+
+  /** The subscriptions. Replaced, never changed, so that the writer may
+      read them without locking. */
+  private volatile Feed<T>[] feeds;
+
+  /** Whether close() has been called. */
+  private boolean closed;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a publisher of the changes made to a matrix.
+   *
+   * @param source
+   *   The matrix. Only changes made through it are published.
+   * @param deliverer
+   *   The executor on which frames are delivered.
+   * @param cellsPerFrame
+   *   The largest number of cells (or fills) in a frame.
+   * @param pendingLimit
+   *   The number of undelivered cells at which a subscriber is sent a
+   *   copy of the matrix instead.
+   *
+   * @throws IllegalArgumentException
+   *   If either limit is not positive.
+   */
+  @SuppressWarnings("unchecked")
+  public MatrixChangePublisher(ObservableMatrix<T> source, Executor deliverer,
+      int cellsPerFrame, int pendingLimit) {
+    if (cellsPerFrame <= 0 || pendingLimit <= 0) {
+      throw new IllegalArgumentException(
+          "Limits must be positive: " + cellsPerFrame + ", " + pendingLimit);
+    } // if
+    this.matrix = source;
+    this.executor = deliverer;
+    this.frameCells = cellsPerFrame;
+    this.maxPending = pendingLimit;
+    this.feeds = (Feed<T>[]) NO_FEEDS;
+    source.addListener(this.recorder);
+  } // MatrixChangePublisher(ObservableMatrix<T>, Executor, int, int)
+
+  /**
+   * Create a publisher of the changes made to a matrix, using the
+   * default limits.
+   *
+   * @param source
+   *   The matrix. Only changes made through it are published.
+   * @param deliverer
+   *   The executor on which frames are delivered.
+   */
+  public MatrixChangePublisher(ObservableMatrix<T> source, Executor deliverer) {
+    this(source, deliverer, DEFAULT_FRAME_CELLS, DEFAULT_MAX_PENDING);
+  } // MatrixChangePublisher(ObservableMatrix<T>, Executor)
+
+  /**
+   * Create a publisher of the changes made to a matrix that delivers
+   * frames on the common fork/join pool, using the default limits.
+   *
+   * @param source
+   *   The matrix. Only changes made through it are published.
+   */
+  public MatrixChangePublisher(ObservableMatrix<T> source) {
+    this(source, ForkJoinPool.commonPool());
+  } // MatrixChangePublisher(ObservableMatrix<T>)
+
+  // +----------------+----------------------------------------------
+  // | Public methods |
+  // +----------------+
+
+  /**
+   * Add a subscriber. It is sent the changes made from now on, so it
+   * should start from a copy of the matrix as it is now. Changes are
+   * recorded from before onSubscribe is called, but nothing is sent
+   * until it returns, even if it requests frames.
+   *
+   * @param subscriber
+   *   The subscriber.
+   *
+   * @throws NullPointerException
+   *   If subscriber is null.
+   */
+  @Override
+  public void subscribe(Flow.Subscriber<? super MatrixChange<T>> subscriber) {
+    if (subscriber == null) {
+      throw new NullPointerException("subscriber");
+    } // if
+    Feed<T> feed = new Feed<T>(this, subscriber);
+    boolean done;
+    synchronized (this) {
+      done = this.closed;
+      if (!done) {
+        Feed<T>[] more = Arrays.copyOf(this.feeds, this.feeds.length + 1);
+        more[more.length - 1] = feed;
+        this.feeds = more;
+      } // if
+    } // synchronized
+    try {
+      subscriber.onSubscribe(feed);
+    } catch (RuntimeException e) {
+      feed.cancel();
+      throw e;
+    } // try/catch
+    feed.start();
+    if (done) {
+      feed.complete();
+    } // if
+  } // subscribe(Flow.Subscriber)
+
+  /**
+   * Make every change so far deliverable, even if its frame is not
+   * full. Call this at the end of each batch of changes.
+   */
+  public void flush() {
+    for (Feed<T> feed : this.feeds) {
+      feed.flush();
+    } // for
+  } // flush()
+
+  /**
+   * Stop publishing. Changes made so far are delivered, after which
+   * each subscriber is told that the stream is complete.
+   */
+  @Override
+  public void close() {
+    Feed<T>[] current;
+    synchronized (this) {
+      if (this.closed) {
+        return;
+      } // if
+      this.closed = true;
+      current = this.feeds;
+    } // synchronized
+    this.matrix.removeListener(this.recorder);
+    for (Feed<T> feed : current) {
+      feed.complete();
+    } // for
+  } // close()
+
+  /**
+   * Count the current subscribers.
+   *
+   * @return the number of subscribers that have not cancelled.
+   */
+  public int subscriberCount() {
+    return this.feeds.length;
+  } // subscriberCount()
+
+  // +-----------------+---------------------------------------------
+  // | Private methods |
+  // +-----------------+
+
+  /**
+   * Forget a subscription.
+   *
+   * @param feed
+   *   The subscription.
+   */
+  @SuppressWarnings("unchecked")
+  private synchronized void remove(Feed<T> feed) {
+    for (int i = 0; i < this.feeds.length; i++) {
+      if (this.feeds[i] == feed) {
+        Feed<T>[] remaining = Arrays.copyOf(this.feeds, this.feeds.length - 1);
+        System.arraycopy(this.feeds, i + 1, remaining, i, remaining.length - i);
+        this.feeds = (remaining.length == 0) ? (Feed<T>[]) NO_FEEDS : remaining;
+        return;
+      } // if
+    } // for
+  } // remove(Feed<T>)
+
+  /**
+   * Copy the matrix as it is now.
+   *
+   * @return the copy.
+   */
+  private Matrix<T> copy() {
+    int width = this.matrix.width();
+    int height = this.matrix.height();
+    Matrix<T> result = new MatrixV0<T>(width, height);
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        result.set(row, col, this.matrix.get(row, col));
+      } // for col
+    } // for row
+    return result;
+  } // copy()
+
+  /**
+   * Read an inserted row or column.
+   *
+   * @param op
+   *   INSERT_ROW or INSERT_COL.
+   * @param index
+   *   The row or column.
+   *
+   * @return its values.
+   */
+  private List<T> line(MatrixOperation op, int index) {
+    boolean isRow = (op == MatrixOperation.INSERT_ROW);
+    int length = isRow ? this.matrix.width() : this.matrix.height();
+    List<T> result = new ArrayList<T>(length);
+    for (int i = 0; i < length; i++) {
+      result.add(isRow ? this.matrix.get(index, i) : this.matrix.get(i, index));
+    } // for
+    return result;
+  } // line(MatrixOperation, int)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * The listener that passes each change to every subscription.
+   */
+  private final class Recorder implements MatrixListener<T> {
+    @Override
+    public void cellChanged(int row, int col, T oldVal, T newVal) {
+      for (Feed<T> feed : MatrixChangePublisher.this.feeds) {
+        feed.cell(row, col, newVal);
+      } // for
+    } // cellChanged(int, int, T, T)
+
+    @Override
+    public void regionChanged(int startRow, int startCol, int endRow, int endCol) {
+      Feed<T>[] current = MatrixChangePublisher.this.feeds;
+      if (current.length == 0) {
+        return;
+      } // if
+      DirtyRegionTracker.Region region =
+          new DirtyRegionTracker.Region(startRow, startCol, endRow, endCol);
+      T val = MatrixChangePublisher.this.matrix.get(startRow, startCol);
+      for (Feed<T> feed : current) {
+        feed.fill(region, val);
+      } // for
+    } // regionChanged(int, int, int, int)
+
+    @Override
+    public void structureChanged(MatrixOperation op, int index) {
+      Feed<T>[] current = MatrixChangePublisher.this.feeds;
+      if (current.length == 0) {
+        return;
+      } // if
+      List<T> line = (op == MatrixOperation.INSERT_ROW || op == MatrixOperation.INSERT_COL)
+          ? MatrixChangePublisher.this.line(op, index) : new ArrayList<T>(0);
+      MatrixChange<T> frame = MatrixChange.structure(op, index, line);
+      for (Feed<T> feed : current) {
+        feed.structure(frame);
+      } // for
+    } // structureChanged(MatrixOperation, int)
+  } // class Recorder
+
+  /**
+   * A frame of cell changes that is still being collected.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   */
+  private static final class Batch<T> {
+    /** The regions filled, in order. */
+    final List<DirtyRegionTracker.Region> fills = new ArrayList<DirtyRegionTracker.Region>();
+
+    /** The value stored in each region. */
+    final List<T> fillValues = new ArrayList<T>();
+
+    /** The latest value of each cell, keyed by row and column. */
+    final Map<Long, T> cells = new LinkedHashMap<Long, T>();
+
+    /** Whether the batch may be delivered. */
+    boolean sealed;
+
+    /**
+     * Count the cells and fills in this batch.
+     *
+     * @return the count.
+     */
+    int size() {
+      return this.cells.size() + this.fills.size();
+    } // size()
+
+    /**
+     * Turn this batch into a frame.
+     *
+     * @return the frame.
+     */
+    MatrixChange<T> toFrame() {
+      int[] rows = new int[this.cells.size()];
+      int[] cols = new int[rows.length];
+      List<T> values = new ArrayList<T>(rows.length);
+      int i = 0;
+      for (Map.Entry<Long, T> entry : this.cells.entrySet()) {
+        long key = entry.getKey();
+        rows[i] = (int) (key >>> 32);
+        cols[i] = (int) key;
+        values.add(entry.getValue());
+        i++;
+      } // for
+      return MatrixChange.cells(this.fills, this.fillValues, rows, cols, values);
+    } // toFrame()
+  } // class Batch<T>
+
+  /**
+   * One subscription: the frames not yet delivered to a subscriber, and
+   * the demand it has signalled.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   */
+  private static final class Feed<T> implements Flow.Subscription {
+    /** The publisher. */
+    private final MatrixChangePublisher<T> publisher;
+
+    /** The subscriber. */
+    private final Flow.Subscriber<? super MatrixChange<T>> subscriber;
+
+    /** Undelivered entries: batches and finished frames. */
+    private final ArrayDeque<Object> queue = new ArrayDeque<Object>();
+
+    /** The number of cells, fills and lines in the queue. */
+    private long pending;
+
+    /** The number of frames requested and not yet delivered. */
+    private long demand;
+
+    /** Whether a delivery task is running or scheduled. */
+    private boolean running;
+
+    /** Whether onSubscribe has returned, so that frames may be sent. */
+    private boolean started;
+
+    /** Whether the subscription has been cancelled. */
+    private boolean cancelled;
+
+    /** Whether the publisher has closed. */
+    private boolean completing;
+
+    /** Whether onComplete has been called. */
+    private boolean completed;
+
+    /** The error to deliver in place of further frames, if any. */
+    private Throwable error;
+
+    /**
+     * Create a subscription.
+     *
+     * @param owner
+     *   The publisher.
+     * @param target
+     *   The subscriber.
+     */
+    Feed(MatrixChangePublisher<T> owner, Flow.Subscriber<? super MatrixChange<T>> target) {
+      this.publisher = owner;
+      this.subscriber = target;
+    } // Feed(MatrixChangePublisher<T>, Flow.Subscriber)
+
+    // +--------------+----------------------------------------------
+    // | Subscription |
+    // +--------------+
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        synchronized (this) {
+          if (this.cancelled || this.completed || this.error != null) {
+            return;
+          } // if
+          this.error =
+              new IllegalArgumentException("Must request a positive number of frames: " + n);
+          this.queue.clear();
+          this.pending = 0;
+        } // synchronized
+        this.publisher.remove(this);
+        this.schedule();
+        return;
+      } // if
+      synchronized (this) {
+        long sum = this.demand + n;
+        this.demand = (sum < 0) ? Long.MAX_VALUE : sum;
+      } // synchronized
+      this.schedule();
+    } // request(long)
+
+    @Override
+    public void cancel() {
+      synchronized (this) {
+        if (this.cancelled) {
+          return;
+        } // if
+        this.cancelled = true;
+        this.queue.clear();
+        this.pending = 0;
+      } // synchronized
+      this.publisher.remove(this);
+    } // cancel()
+
+    // +---------+---------------------------------------------------
+    // | Changes |
+    // +---------+
+
+    /**
+     * Record a changed cell.
+     *
+     * @param row
+     *   The row.
+     * @param col
+     *   The column.
+     * @param val
+     *   The new value.
+     */
+    void cell(int row, int col, T val) {
+      boolean full = false;
+      synchronized (this) {
+        if (this.cancelled) {
+          return;
+        } // if
+        Batch<T> batch = this.tail();
+        Long key = ((long) row << 32) | (col & 0xFFFFFFFFL);
+        if (batch.cells.containsKey(key)) {
+          batch.cells.put(key, val);
+          return;
+        } // if
+        if (batch.size() >= this.publisher.frameCells) {
+          batch.sealed = true;
+          full = true;
+          batch = new Batch<T>();
+          this.queue.addLast(batch);
+        } // if
+        batch.cells.put(key, val);
+        this.pending++;
+        full |= this.overflow();
+      } // synchronized
+      if (full) {
+        this.schedule();
+      } // if
+    } // cell(int, int, T)
+
+    /**
+     * Record a filled region.
+     *
+     * @param region
+     *   The region.
+     * @param val
+     *   The value stored in it.
+     */
+    void fill(DirtyRegionTracker.Region region, T val) {
+      boolean full = false;
+      synchronized (this) {
+        if (this.cancelled) {
+          return;
+        } // if
+        Batch<T> batch = this.tail();
+        Iterator<Long> keys = batch.cells.keySet().iterator();
+        while (keys.hasNext()) {
+          long key = keys.next();
+          if (region.contains((int) (key >>> 32), (int) key, (int) (key >>> 32) + 1,
+              (int) key + 1)) {
+            keys.remove();
+            this.pending--;
+          } // if
+        } // while
+        if (batch.size() >= this.publisher.frameCells) {
+          batch.sealed = true;
+          full = true;
+          batch = new Batch<T>();
+          this.queue.addLast(batch);
+        } // if
+        batch.fills.add(region);
+        batch.fillValues.add(val);
+        this.pending++;
+        full |= this.overflow();
+      } // synchronized
+      if (full) {
+        this.schedule();
+      } // if
+    } // fill(DirtyRegionTracker.Region, T)
+
+    /**
+     * Record a change of shape.
+     *
+     * @param frame
+     *   The frame describing it.
+     */
+    void structure(MatrixChange<T> frame) {
+      synchronized (this) {
+        if (this.cancelled) {
+          return;
+        } // if
+        this.queue.addLast(frame);
+        this.pending += 1 + frame.inserted().size();
+        this.overflow();
+      } // synchronized
+      this.schedule();
+    } // structure(MatrixChange<T>)
+
+    /**
+     * Allow delivery, once the subscriber has been told of this
+     * subscription.
+     */
+    void start() {
+      synchronized (this) {
+        this.started = true;
+      } // synchronized
+      this.schedule();
+    } // start()
+
+    /**
+     * Make the last batch deliverable.
+     */
+    void flush() {
+      synchronized (this) {
+        Object last = this.queue.peekLast();
+        if (last instanceof Batch) {
+          ((Batch<?>) last).sealed = true;
+        } // if
+      } // synchronized
+      this.schedule();
+    } // flush()
+
+    /**
+     * Deliver what remains, then complete.
+     */
+    void complete() {
+      this.flush();
+      synchronized (this) {
+        this.completing = true;
+      } // synchronized
+      this.schedule();
+    } // complete()
+
+    // +-----------------+-------------------------------------------
+    // | Private methods |
+    // +-----------------+
+
+    /**
+     * Find the batch that new cell changes join, starting one if the
+     * last entry is not a batch. Must hold the lock.
+     *
+     * @return the batch.
+     */
+    @SuppressWarnings("unchecked")
+    private Batch<T> tail() {
+      Object last = this.queue.peekLast();
+      if (last instanceof Batch) {
+        return (Batch<T>) last;
+      } // if
+      Batch<T> batch = new Batch<T>();
+      this.queue.addLast(batch);
+      return batch;
+    } // tail()
+
+    /**
+     * Replace everything undelivered with a copy of the matrix if too
+     * much is pending. Must hold the lock.
+     *
+     * @return true if the queue was replaced.
+     */
+    private boolean overflow() {
+      if (this.pending <= this.publisher.maxPending) {
+        return false;
+      } // if
+      this.queue.clear();
+      this.queue.addLast(MatrixChange.resync(this.publisher.copy()));
+      this.pending = 0;
+      return true;
+    } // overflow()
+
+    /**
+     * Remove the first deliverable frame. Must hold the lock.
+     *
+     * @return the frame, or null if none is deliverable.
+     */
+    @SuppressWarnings("unchecked")
+    private MatrixChange<T> poll() {
+      while (!this.queue.isEmpty()) {
+        Object first = this.queue.peekFirst();
+        if (first instanceof Batch) {
+          Batch<T> batch = (Batch<T>) first;
+          if (!batch.sealed && batch != this.queue.peekLast()) {
+            batch.sealed = true;
+          } // if
+          if (!batch.sealed) {
+            return null;
+          } // if
+          this.queue.pollFirst();
+          if (batch.size() > 0) {
+            this.pending -= batch.size();
+            return batch.toFrame();
+          } // if
+        } else {
+          MatrixChange<T> frame = (MatrixChange<T>) this.queue.pollFirst();
+          this.pending -= (frame.kind() == MatrixChange.Kind.STRUCTURE)
+              ? 1 + frame.inserted().size() : 0;
+          return frame;
+        } // if/else
+      } // while
+      return null;
+    } // poll()
+
+    /**
+     * Start a delivery task unless one is running.
+     */
+    private void schedule() {
+      synchronized (this) {
+        if (this.running || !this.started || this.cancelled || this.completed) {
+          return;
+        } // if
+        this.running = true;
+      } // synchronized
+      this.publisher.executor.execute(this::deliver);
+    } // schedule()
+
+    /**
+     * Deliver frames while the subscriber wants them. Errors are
+     * delivered here too, so that every signal comes from one task.
+     */
+    private void deliver() {
+      Throwable failure = null;
+      while (true) {
+        MatrixChange<T> next = null;
+        synchronized (this) {
+          if (!this.cancelled && this.error != null) {
+            failure = this.error;
+            this.cancelled = true;
+            this.queue.clear();
+            this.pending = 0;
+            this.running = false;
+            break;
+          } // if
+          if (!this.cancelled && this.demand > 0) {
+            next = this.poll();
+          } // if
+          if (next != null) {
+            this.demand--;
+          } else if (!this.cancelled && this.completing && this.queue.isEmpty()) {
+            this.completed = true;
+            this.running = false;
+            this.publisher.remove(this);
+            break;
+          } else {
+            this.running = false;
+            return;
+          } // if/else
+        } // synchronized
+        try {
+          this.subscriber.onNext(next);
+        } catch (RuntimeException e) {
+          this.cancel();
+          synchronized (this) {
+            this.running = false;
+          } // synchronized
+          return;
+        } // try/catch
+      } // while
+      if (failure != null) {
+        this.subscriber.onError(failure);
+      } else {
+        this.subscriber.onComplete();
+      } // if/else
+    } // deliver()
+  } // class Feed<T>
+} // class MatrixChangePublisher<T>
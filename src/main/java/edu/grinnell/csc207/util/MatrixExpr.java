@@ -0,0 +1,714 @@
+package edu.grinnell.csc207.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * A lazy, element-wise expression over matrices. Expressions are built
+ * from source matrices with {@link #of(Matrix)} and combined with
+ * {@link #map}, {@link #zip} and {@link #filter}; nothing is computed
+ * until a terminal operation ({@link #materialize()} or
+ * {@link #reduce}) runs. The terminal operation then computes each
+ * cell of the whole expression in a single pass, so a chain such as
+ * {@code of(a).map(f).zip(b, g).map(h)} allocates only its result,
+ * not a matrix per step.
+ *
+ * <p>Sources are read when the expression is evaluated, not when it is
+ * built. They must keep their shape once the expression is built and
+ * must not change at all during evaluation. Expressions themselves are
+ * immutable and may be evaluated more than once.</p>
+ *
+ * <p>An expression made with {@link #parallel()} evaluates by blocks of
+ * rows on the common fork/join pool. The functions in it must then be
+ * safe to call from several threads at once.</p>
+ *
+ * @author Andrew N. Fargo
+ *
+ * @param <T>
+ *   The type of the values the expression produces.
+ */
+public abstract class MatrixExpr<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The number of cells below which parallel evaluation stops
+      splitting the rows. */
+  static final int PARALLEL_CELLS = 1 << 14;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The number of columns. */
+  private final int cols;
+
+  /** The number of rows. */
+  private final int rows;
+
+  /** Whether terminal operations run in parallel. */
+  private final boolean parallel;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create an expression of the given shape.
+   *
+   * @param width
+   *   The number of columns.
+   * @param height
+   *   The number of rows.
+   * @param inParallel
+   *   Whether terminal operations run in parallel.
+   */
+  MatrixExpr(int width, int height, boolean inParallel) {
+    this.cols = width;
+    this.rows = height;
+    this.parallel = inParallel;
+  } // MatrixExpr(int, int, boolean)
+
+  /**
+   * Make an expression whose cells are those of a matrix.
+   *
+   * @param <T>
+   *   The type of values in the matrix.
+   * @param source
+   *   The matrix.
+   *
+   * @return the expression.
+   */
+  public static <T> MatrixExpr<T> of(Matrix<T> source) {
+    if (source instanceof MatrixV0) {
+      return new ArraySource<T>((MatrixV0<T>) source, false);
+    } // if
+    return new Source<T>(source, false);
+  } // of(Matrix<T>)
+
+  // +------------------+--------------------------------------------
+  // | Abstract methods |
+  // +------------------+
+
+  /**
+   * Compute one cell of the expression.
+   *
+   * @param row
+   *   The row of the cell, which must be in bounds.
+   * @param col
+   *   The column of the cell, which must be in bounds.
+   *
+   * @return the value of the cell.
+   */
+  abstract T at(int row, int col);
+
+  /**
+   * Make a copy of this expression that evaluates sequentially or in
+   * parallel.
+   *
+   * @param inParallel
+   *   Whether the copy evaluates in parallel.
+   *
+   * @return the copy.
+   */
+  abstract MatrixExpr<T> withParallel(boolean inParallel);
+
+  // +------------------+--------------------------------------------
+  // | Building methods |
+  // +------------------+
+
+  /**
+   * Determine the number of rows the expression produces.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.rows;
+  } // height()
+
+  /**
+   * Determine the number of columns the expression produces.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.cols;
+  } // width()
+
+  /**
+   * Determine whether terminal operations run in parallel.
+   *
+   * @return true if they do.
+   */
+  public boolean isParallel() {
+    return this.parallel;
+  } // isParallel()
+
+  /**
+   * Make an expression like this one whose terminal operations run in
+   * parallel, by blocks of rows.
+   *
+   * @return the parallel expression.
+   */
+  public MatrixExpr<T> parallel() {
+    return this.parallel ? this : this.withParallel(true);
+  } // parallel()
+
+  /**
+   * Make an expression like this one whose terminal operations run
+   * sequentially.
+   *
+   * @return the sequential expression.
+   */
+  public MatrixExpr<T> sequential() {
+    return this.parallel ? this.withParallel(false) : this;
+  } // sequential()
+
+  /**
+   * Apply a function to each cell.
+   *
+   * @param <R>
+   *   The type of the results.
+   * @param fun
+   *   The function.
+   *
+   * @return the expression fun(this).
+   */
+  public <R> MatrixExpr<R> map(Function<? super T, ? extends R> fun) {
+    return new Mapped<T, R>(this, fun, this.parallel);
+  } // map(Function)
+
+  /**
+   * Combine each cell with the corresponding cell of another expression.
+   *
+   * @param <U>
+   *   The type of values in the other expression.
+   * @param <R>
+   *   The type of the results.
+   * @param other
+   *   The other expression.
+   * @param fun
+   *   The function that combines a cell of this expression with a cell
+   *   of the other.
+   *
+   * @return the expression fun(this, other), which is parallel if either
+   *   this or other is.
+   *
+   * @throws ArraySizeException
+   *   If the expressions have different shapes.
+   */
+  public <U, R> MatrixExpr<R> zip(MatrixExpr<U> other,
+      BiFunction<? super T, ? super U, ? extends R> fun) throws ArraySizeException {
+    if (other.cols != this.cols || other.rows != this.rows) {
+      throw new ArraySizeException("Cannot combine a " + this.cols + "x" + this.rows
+          + " expression with a " + other.cols + "x" + other.rows + " one");
+    } // if
+    return new Zipped<T, U, R>(this, other, fun, this.parallel || other.parallel);
+  } // zip(MatrixExpr, BiFunction)
+
+  /**
+   * Combine each cell with the corresponding cell of a matrix.
+   *
+   * @param <U>
+   *   The type of values in the matrix.
+   * @param <R>
+   *   The type of the results.
+   * @param other
+   *   The matrix.
+   * @param fun
+   *   The function that combines a cell of this expression with a cell
+   *   of the matrix.
+   *
+   * @return the expression fun(this, other).
+   *
+   * @throws ArraySizeException
+   *   If the expression and the matrix have different shapes.
+   */
+  public <U, R> MatrixExpr<R> zip(Matrix<U> other,
+      BiFunction<? super T, ? super U, ? extends R> fun) throws ArraySizeException {
+    return this.zip(of(other), fun);
+  } // zip(Matrix, BiFunction)
+
+  /**
+   * Replace each cell that does not satisfy a predicate with a default
+   * value. The shape of the expression does not change.
+   *
+   * @param keep
+   *   The predicate that cells to keep satisfy.
+   * @param def
+   *   The value for the other cells.
+   *
+   * @return the filtered expression.
+   */
+  public MatrixExpr<T> filter(Predicate<? super T> keep, T def) {
+    return new Filtered<T>(this, keep, def, this.parallel);
+  } // filter(Predicate, T)
+
+  // +---------------------+-----------------------------------------
+  // | Terminal operations |
+  // +---------------------+
+
+  /**
+   * Compute every cell of the expression into a new matrix.
+   *
+   * @return a matrix holding the cells, with null as its default value.
+   */
+  public Matrix<T> materialize() {
+    MatrixV0<T> result = new MatrixV0<T>(this.cols, this.rows);
+    T[][] out = result.values;
+    if (this.parallel && (long) this.rows * this.cols > PARALLEL_CELLS) {
+      ForkJoinPool.commonPool().invoke(new Materialize<T>(this, out, 0, this.rows));
+    } else {
+      this.materializeRows(out, 0, this.rows);
+    } // if/else
+    return result;
+  } // materialize()
+
+  /**
+   * Fold every cell, row by row, into a single value.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   *
+   * @return the result of combining identity and every cell with op.
+   */
+  public T reduce(T identity, BinaryOperator<T> op) {
+    return this.reduce(identity, op, op);
+  } // reduce(T, BinaryOperator)
+
+  /**
+   * Fold every cell, row by row, into a single value of another type.
+   * In parallel, blocks of rows are folded separately, starting from
+   * identity, and the results combined in order.
+   *
+   * @param <R>
+   *   The type of the result.
+   * @param identity
+   *   The identity of combiner, and the starting value of each fold.
+   * @param accumulator
+   *   Adds a cell to a partial result.
+   * @param combiner
+   *   Combines two partial results; must be associative and agree with
+   *   accumulator.
+   *
+   * @return the result.
+   */
+  public <R> R reduce(R identity, BiFunction<R, ? super T, R> accumulator,
+      BinaryOperator<R> combiner) {
+    if (this.parallel && (long) this.rows * this.cols > PARALLEL_CELLS) {
+      return ForkJoinPool.commonPool().invoke(
+          new Reduce<T, R>(this, identity, accumulator, combiner, 0, this.rows));
+    } // if
+    return this.reduceRows(identity, accumulator, 0, this.rows);
+  } // reduce(R, BiFunction, BinaryOperator)
+
+  // +-----------------+---------------------------------------------
+  // | Private methods |
+  // +-----------------+
+
+  /**
+   * Compute some rows of the expression.
+   *
+   * @param out
+   *   The rows of the result.
+   * @param lo
+   *   The first row (inclusive).
+   * @param hi
+   *   The last row (exclusive).
+   */
+  final void materializeRows(T[][] out, int lo, int hi) {
+    for (int row = lo; row < hi; row++) {
+      T[] outRow = out[row];
+      for (int col = 0; col < this.cols; col++) {
+        outRow[col] = this.at(row, col);
+      } // for col
+    } // for row
+  } // materializeRows(T[][], int, int)
+
+  /**
+   * Fold some rows of the expression.
+   *
+   * @param <R>
+   *   The type of the result.
+   * @param start
+   *   The value to start from.
+   * @param accumulator
+   *   Adds a cell to a partial result.
+   * @param lo
+   *   The first row (inclusive).
+   * @param hi
+   *   The last row (exclusive).
+   *
+   * @return the fold.
+   */
+  final <R> R reduceRows(R start, BiFunction<R, ? super T, R> accumulator, int lo, int hi) {
+    R result = start;
+    for (int row = lo; row < hi; row++) {
+      for (int col = 0; col < this.cols; col++) {
+        result = accumulator.apply(result, this.at(row, col));
+      } // for col
+    } // for row
+    return result;
+  } // reduceRows(R, BiFunction, int, int)
+
+  /**
+   * Decide whether a block of rows is small enough to evaluate directly.
+   *
+   * @param lo
+   *   The first row (inclusive).
+   * @param hi
+   *   The last row (exclusive).
+   *
+   * @return true if the block should not be split.
+   */
+  final boolean smallBlock(int lo, int hi) {
+    return hi - lo < 2 || (long) (hi - lo) * this.cols <= PARALLEL_CELLS;
+  } // smallBlock(int, int)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * The cells of any matrix, read with get.
+   *
+   * @param <T>
+   *   The type of values in the matrix.
+   */
+  static final class Source<T> extends MatrixExpr<T> {
+    /** The matrix. */
+    private final Matrix<T> matrix;
+
+    /**
+     * Create the expression.
+     *
+     * @param source
+     *   The matrix.
+     * @param inParallel
+     *   Whether terminal operations run in parallel.
+     */
+    Source(Matrix<T> source, boolean inParallel) {
+      super(source.width(), source.height(), inParallel);
+      this.matrix = source;
+    } // Source(Matrix<T>, boolean)
+
+    @Override
+    T at(int row, int col) {
+      return this.matrix.get(row, col);
+    } // at(int, int)
+
+    @Override
+    MatrixExpr<T> withParallel(boolean inParallel) {
+      return new Source<T>(this.matrix, inParallel);
+    } // withParallel(boolean)
+  } // class Source<T>
+
+  /**
+   * The cells of a MatrixV0, read straight from its rows. The rows are
+   * fetched on each access, since inserting a column replaces them.
+   *
+   * @param <T>
+   *   The type of values in the matrix.
+   */
+  static final class ArraySource<T> extends MatrixExpr<T> {
+    /** The matrix. */
+    private final MatrixV0<T> matrix;
+
+    /**
+     * Create the expression.
+     *
+     * @param source
+     *   The matrix.
+     * @param inParallel
+     *   Whether terminal operations run in parallel.
+     */
+    ArraySource(MatrixV0<T> source, boolean inParallel) {
+      super(source.width(), source.height(), inParallel);
+      this.matrix = source;
+    } // ArraySource(MatrixV0<T>, boolean)
+
+    @Override
+    T at(int row, int col) {
+      return this.matrix.values[row][col];
+    } // at(int, int)
+
+    @Override
+    MatrixExpr<T> withParallel(boolean inParallel) {
+      return new ArraySource<T>(this.matrix, inParallel);
+    } // withParallel(boolean)
+  } // class ArraySource<T>
+
+  /**
+   * A function applied to each cell of an expression.
+   *
+   * @param <T>
+   *   The type of values in the argument.
+   * @param <R>
+   *   The type of the results.
+   */
+  static final class Mapped<T, R> extends MatrixExpr<R> {
+    /** The argument. */
+    private final MatrixExpr<T> arg;
+
+    /** The function. */
+    private final Function<? super T, ? extends R> fun;
+
+    /**
+     * Create the expression.
+     *
+     * @param argument
+     *   The argument.
+     * @param function
+     *   The function.
+     * @param inParallel
+     *   Whether terminal operations run in parallel.
+     */
+    Mapped(MatrixExpr<T> argument, Function<? super T, ? extends R> function,
+        boolean inParallel) {
+      super(argument.width(), argument.height(), inParallel);
+      this.arg = argument;
+      this.fun = function;
+    } // Mapped(MatrixExpr<T>, Function, boolean)
+
+    @Override
+    R at(int row, int col) {
+      return this.fun.apply(this.arg.at(row, col));
+    } // at(int, int)
+
+    @Override
+    MatrixExpr<R> withParallel(boolean inParallel) {
+      return new Mapped<T, R>(this.arg, this.fun, inParallel);
+    } // withParallel(boolean)
+  } // class Mapped<T, R>
+
+  /**
+   * A function applied to corresponding cells of two expressions.
+   *
+   * @param <T>
+   *   The type of values in the left argument.
+   * @param <U>
+   *   The type of values in the right argument.
+   * @param <R>
+   *   The type of the results.
+   */
+  static final class Zipped<T, U, R> extends MatrixExpr<R> {
+    /** The left argument. */
+    private final MatrixExpr<T> left;
+
+    /** The right argument. */
+    private final MatrixExpr<U> right;
+
+    /** The function. */
+    private final BiFunction<? super T, ? super U, ? extends R> fun;
+
+    /**
+     * Create the expression.
+     *
+     * @param leftArg
+     *   The left argument.
+     * @param rightArg
+     *   The right argument, of the same shape.
+     * @param function
+     *   The function.
+     * @param inParallel
+     *   Whether terminal operations run in parallel.
+     */
+    Zipped(MatrixExpr<T> leftArg, MatrixExpr<U> rightArg,
+        BiFunction<? super T, ? super U, ? extends R> function, boolean inParallel) {
+      super(leftArg.width(), leftArg.height(), inParallel);
+      this.left = leftArg;
+      this.right = rightArg;
+      this.fun = function;
+    } // Zipped(MatrixExpr<T>, MatrixExpr<U>, BiFunction, boolean)
+
+    @Override
+    R at(int row, int col) {
+      return this.fun.apply(this.left.at(row, col), this.right.at(row, col));
+    } // at(int, int)
+
+    @Override
+    MatrixExpr<R> withParallel(boolean inParallel) {
+      return new Zipped<T, U, R>(this.left, this.right, this.fun, inParallel);
+    } // withParallel(boolean)
+  } // class Zipped<T, U, R>
+
+  /**
+   * An expression with the cells that fail a predicate replaced.
+   *
+   * @param <T>
+   *   The type of values in the expression.
+   */
+  static final class Filtered<T> extends MatrixExpr<T> {
+    /** The expression to filter. */
+    private final MatrixExpr<T> arg;
+
+    /** The predicate that cells to keep satisfy. */
+    private final Predicate<? super T> keep;
+
+    /** The value for the other cells. */
+    private final T def;
+
+    /**
+     * Create the expression.
+     *
+     * @param argument
+     *   The expression to filter.
+     * @param predicate
+     *   The predicate that cells to keep satisfy.
+     * @param otherwise
+     *   The value for the other cells.
+     * @param inParallel
+     *   Whether terminal operations run in parallel.
+     */
+    Filtered(MatrixExpr<T> argument, Predicate<? super T> predicate, T otherwise,
+        boolean inParallel) {
+      super(argument.width(), argument.height(), inParallel);
+      this.arg = argument;
+      this.keep = predicate;
+      this.def = otherwise;
+    } // Filtered(MatrixExpr<T>, Predicate, T, boolean)
+
+    @Override
+    T at(int row, int col) {
+      T val = this.arg.at(row, col);
+      return this.keep.test(val) ? val : this.def;
+    } // at(int, int)
+
+    @Override
+    MatrixExpr<T> withParallel(boolean inParallel) {
+      return new Filtered<T>(this.arg, this.keep, this.def, inParallel);
+    } // withParallel(boolean)
+  } // class Filtered<T>
+
+  /**
+   * Materialize a block of rows, splitting it in half while it is large.
+   *
+   * @param <T>
+   *   The type of values in the expression.
+   */
+  static final class Materialize<T> extends RecursiveAction {
+    /** The version of the serialized form. */
+    private static final long serialVersionUID = 1L;
+
+    /** The expression. */
+    private final MatrixExpr<T> expr;
+
+    /** The rows of the result. */
+    private final T[][] out;
+
+    /** The first row (inclusive). */
+    private final int lo;
+
+    /** The last row (exclusive). */
+    private final int hi;
+
+    /**
+     * Create the task.
+     *
+     * @param expression
+     *   The expression.
+     * @param rowsOut
+     *   The rows of the result.
+     * @param first
+     *   The first row (inclusive).
+     * @param last
+     *   The last row (exclusive).
+     */
+    Materialize(MatrixExpr<T> expression, T[][] rowsOut, int first, int last) {
+      this.expr = expression;
+      this.out = rowsOut;
+      this.lo = first;
+      this.hi = last;
+    } // Materialize(MatrixExpr<T>, T[][], int, int)
+
+    @Override
+    protected void compute() {
+      if (this.expr.smallBlock(this.lo, this.hi)) {
+        this.expr.materializeRows(this.out, this.lo, this.hi);
+      } else {
+        int mid = (this.lo + this.hi) >>> 1;
+        invokeAll(new Materialize<T>(this.expr, this.out, this.lo, mid),
+            new Materialize<T>(this.expr, this.out, mid, this.hi));
+      } // if/else
+    } // compute()
+  } // class Materialize<T>
+
+  /**
+   * Fold a block of rows, splitting it in half while it is large.
+   *
+   * @param <T>
+   *   The type of values in the expression.
+   * @param <R>
+   *   The type of the result.
+   */
+  static final class Reduce<T, R> extends RecursiveTask<R> {
+    /** The version of the serialized form. */
+    private static final long serialVersionUID = 1L;
+
+    /** The expression. */
+    private final MatrixExpr<T> expr;
+
+    /** The identity of combiner. */
+    private final R identity;
+
+    /** Adds a cell to a partial result. */
+    private final BiFunction<R, ? super T, R> accumulator;
+
+    /** Combines two partial results. */
+    private final BinaryOperator<R> combiner;
+
+    /** The first row (inclusive). */
+    private final int lo;
+
+    /** The last row (exclusive). */
+    private final int hi;
+
+    /**
+     * Create the task.
+     *
+     * @param expression
+     *   The expression.
+     * @param zero
+     *   The identity of combiner.
+     * @param acc
+     *   Adds a cell to a partial result.
+     * @param comb
+     *   Combines two partial results.
+     * @param first
+     *   The first row (inclusive).
+     * @param last
+     *   The last row (exclusive).
+     */
+    Reduce(MatrixExpr<T> expression, R zero, BiFunction<R, ? super T, R> acc,
+        BinaryOperator<R> comb, int first, int last) {
+      this.expr = expression;
+      this.identity = zero;
+      this.accumulator = acc;
+      this.combiner = comb;
+      this.lo = first;
+      this.hi = last;
+    } // Reduce(MatrixExpr<T>, R, BiFunction, BinaryOperator, int, int)
+
+    @Override
+    protected R compute() {
+      if (this.expr.smallBlock(this.lo, this.hi)) {
+        return this.expr.reduceRows(this.identity, this.accumulator, this.lo, this.hi);
+      } // if
+      int mid = (this.lo + this.hi) >>> 1;
+      Reduce<T, R> top = new Reduce<T, R>(this.expr, this.identity, this.accumulator,
+          this.combiner, this.lo, mid);
+      Reduce<T, R> bottom = new Reduce<T, R>(this.expr, this.identity, this.accumulator,
+          this.combiner, mid, this.hi);
+      top.fork();
+      R bottomResult = bottom.compute();
+      return this.combiner.apply(top.join(), bottomResult);
+    } // compute()
+  } // class Reduce<T, R>
+} // class MatrixExpr<T>
@@ -0,0 +1,90 @@
+package edu.grinnell.csc207.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for a large fill of a matrix. Fills of
+ * fewer than {@link #MIN_CELLS} cells are never committed, so that
+ * recordings are not flooded with small edits.
+ *
+ * @author Andrew N. Fargo
+ */
+@Name(MatrixFillEvent.NAME)
+@Label("Matrix Fill")
+@Category({"Matrices"})
+@Description("A large region or line of a matrix was filled")
+class MatrixFillEvent extends Event {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The name of the event, as used in recording settings. */
+  static final String NAME = "edu.grinnell.csc207.MatrixFill";
+
+  /** The smallest fill, in cells, that is recorded. */
+  static final long MIN_CELLS = 1024;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The operation performed. */
+  @Label("Operation")
+  String operation;
+
+  /** The width of the matrix. */
+  @Label("Width")
+  int width;
+
+  /** The height of the matrix. */
+  @Label("Height")
+  int height;
+
+  /** The number of cells written. */
+  @Label("Cells Touched")
+  long cellsTouched;
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Create an event and start timing it.
+   *
+   * @return the event.
+   */
+  static MatrixFillEvent start() {
+    MatrixFillEvent event = new MatrixFillEvent();
+    event.begin();
+    return event;
+  } // start()
+
+  /**
+   * Stop timing the event and commit it, if it is being recorded and
+   * the fill was large enough.
+   *
+   * @param op
+   *   The operation performed.
+   * @param matrix
+   *   The matrix.
+   * @param cells
+   *   The number of cells written.
+   */
+  void finish(MatrixOperation op, Matrix<?> matrix, long cells) {
+    if (cells < MIN_CELLS) {
+      return;
+    } // if
+    this.end();
+    if (this.shouldCommit()) {
+      this.operation = op.name();
+      this.width = matrix.width();
+      this.height = matrix.height();
+      this.cellsTouched = cells;
+      this.commit();
+    } // if
+  } // finish(MatrixOperation, Matrix<?>, long)
+} // class MatrixFillEvent
@@ -0,0 +1,56 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * Something told about changes to a matrix, such as a view that must be
+ * redrawn or a replica that must be kept in sync. Each method is called
+ * after the change has been made. The methods do nothing by default, so
+ * a listener need implement only those it cares about.
+ *
+ * @author Andrew N. Fargo
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public interface MatrixListener<T> {
+  /**
+   * Note that one cell has changed, by set or fillLine.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   * @param oldVal
+   *   The value the cell had.
+   * @param newVal
+   *   The value the cell has now.
+   */
+  default void cellChanged(int row, int col, T oldVal, T newVal) {
+  } // cellChanged(int, int, T, T)
+
+  /**
+   * Note that the cells in a region have been filled.
+   *
+   * @param startRow
+   *   The top row of the region (inclusive).
+   * @param startCol
+   *   The left column of the region (inclusive).
+   * @param endRow
+   *   The bottom row of the region (exclusive).
+   * @param endCol
+   *   The right column of the region (exclusive).
+   */
+  default void regionChanged(int startRow, int startCol, int endRow, int endCol) {
+  } // regionChanged(int, int, int, int)
+
+  /**
+   * Note that the shape of the matrix has changed.
+   *
+   * @param op
+   *   The operation that changed it: a row or column insertion or
+   *   deletion, or a transposition.
+   * @param index
+   *   The row or column inserted or deleted, or -1 for a transposition.
+   */
+  default void structureChanged(MatrixOperation op, int index) {
+  } // structureChanged(MatrixOperation, int)
+} // interface MatrixListener<T>
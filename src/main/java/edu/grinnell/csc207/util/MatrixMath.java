@@ -0,0 +1,897 @@
+package edu.grinnell.csc207.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Arithmetic on numeric matrices.
+ *
+ * <p>Products are computed by copying the operands into primitive arrays
+ * (the right-hand operand transposed, so that both are read along rows),
+ * multiplying block by block so that each block stays in cache, and
+ * copying the result back out. Products of doubles are returned as a
+ * {@link DoubleMatrix}, which needs no copy, and DoubleMatrix operands
+ * are read directly from their backing arrays.</p>
+ *
+ * <p>{@link #parallelMultiply(Matrix, Matrix)} splits large products
+ * into quadrants on a {@link ForkJoinPool}. The quadrants are views
+ * (offset and stride) into the packed arrays, so splitting copies
+ * nothing.</p>
+ *
+ * @author Andrew N. Fargo
+ */
+public class MatrixMath {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The default block size, in elements along each side. Three 64x64
+      blocks of doubles fit comfortably in a typical L2 cache. */
+  public static final int DEFAULT_BLOCK_SIZE = 64;
+
+  /** The default size (along the longest side) below which parallel
+      multiplication stops splitting and runs the blocked kernel. */
+  public static final int DEFAULT_PARALLEL_CUTOFF = 128;
+
+  /** A Strassen cutoff that disables Strassen's algorithm. */
+  public static final int NO_STRASSEN = Integer.MAX_VALUE;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * This class only has static methods.
+   */
+  private MatrixMath() {
+  } // MatrixMath()
+
+  // +-----------------+---------------------------------------------
+  // | Private Methods |
+  // +-----------------+
+
+  /**
+   * Make sure that two matrices may be multiplied and that the block
+   * size is sensible.
+   *
+   * @param a
+   *   The left-hand matrix.
+   * @param b
+   *   The right-hand matrix.
+   * @param blockSize
+   *   The block size.
+   *
+   * @throws ArraySizeException
+   *   If the width of a is not the height of b.
+   * @throws IllegalArgumentException
+   *   If the block size is not positive.
+   */
+  static void checkProduct(Matrix<?> a, Matrix<?> b, int blockSize)
+      throws ArraySizeException {
+    if (blockSize <= 0) {
+      throw new IllegalArgumentException("Block size must be positive");
+    } // if
+    if (a.width() != b.height()) {
+      throw new ArraySizeException("Width of left matrix (" + a.width()
+          + ") does not match height of right matrix (" + b.height() + ")");
+    } // if
+  } // checkProduct(Matrix<?>, Matrix<?>, int)
+
+  /**
+   * Copy a matrix of doubles into a row-major array. A DoubleMatrix is
+   * already in that form, so its backing array is returned as is; the
+   * caller must not modify it.
+   *
+   * @param matrix
+   *   The matrix to copy.
+   *
+   * @return the array.
+   */
+  static double[] packDoubles(Matrix<Double> matrix) {
+    if (matrix instanceof DoubleMatrix) {
+      return ((DoubleMatrix) matrix).values;
+    } // if
+    int width = matrix.width();
+    double[] result = new double[width * matrix.height()];
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < width; col++) {
+        result[row * width + col] = matrix.get(row, col);
+      } // for col
+    } // for row
+    return result;
+  } // packDoubles(Matrix<Double>)
+
+  /**
+   * Copy a matrix of doubles into a column-major array (that is, a
+   * row-major array of its transpose).
+   *
+   * @param matrix
+   *   The matrix to copy.
+   *
+   * @return the array.
+   */
+  static double[] packDoublesTransposed(Matrix<Double> matrix) {
+    int height = matrix.height();
+    double[] result = new double[matrix.width() * height];
+    if (matrix instanceof DoubleMatrix) {
+      double[] values = ((DoubleMatrix) matrix).values;
+      int width = matrix.width();
+      for (int row = 0; row < height; row++) {
+        for (int col = 0; col < width; col++) {
+          result[col * height + row] = values[row * width + col];
+        } // for col
+      } // for row
+      return result;
+    } // if
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < matrix.width(); col++) {
+        result[col * height + row] = matrix.get(row, col);
+      } // for col
+    } // for row
+    return result;
+  } // packDoublesTransposed(Matrix<Double>)
+
+  /**
+   * Multiply two packed matrices of doubles, block by block.
+   *
+   * @param a
+   *   The left-hand matrix, n by m, row-major.
+   * @param bt
+   *   The right-hand matrix, m by p, column-major.
+   * @param c
+   *   Where to put the product, n by p, row-major.
+   * @param n
+   *   The height of a and c.
+   * @param m
+   *   The width of a and the height of b.
+   * @param p
+   *   The width of b and c.
+   * @param block
+   *   The block size.
+   */
+  static void multiplyBlocked(double[] a, double[] bt, double[] c, int n, int m, int p,
+      int block) {
+    multiplyBlocked(new View(a, 0, m, n, m), new View(bt, 0, m, p, m),
+        new View(c, 0, p, n, p), block);
+  } // multiplyBlocked(double[], double[], double[], int, int, int, int)
+
+  /**
+   * Multiply two views of doubles, block by block, adding the product
+   * to a third view. That is, c[i][j] += sum over k of a[i][k] * bt[j][k].
+   *
+   * @param a
+   *   The left-hand matrix, n by m.
+   * @param bt
+   *   The transpose of the right-hand matrix, p by m.
+   * @param c
+   *   Where to add the product, n by p.
+   * @param block
+   *   The block size.
+   */
+  static void multiplyBlocked(View a, View bt, View c, int block) {
+    int n = a.rows;
+    int m = a.cols;
+    int p = bt.rows;
+    double[] ad = a.data;
+    double[] bd = bt.data;
+    double[] cd = c.data;
+    for (int i0 = 0; i0 < n; i0 += block) {
+      int i1 = Math.min(i0 + block, n);
+      for (int j0 = 0; j0 < p; j0 += block) {
+        int j1 = Math.min(j0 + block, p);
+        for (int k0 = 0; k0 < m; k0 += block) {
+          int k1 = Math.min(k0 + block, m);
+          for (int i = i0; i < i1; i++) {
+            int arow = a.offset + i * a.stride;
+            int crow = c.offset + i * c.stride;
+            int j = j0;
+            // Four columns at a time, so each a[i][k] is loaded once
+            // for four independent sums.
+            for (; j + 3 < j1; j += 4) {
+              int b0 = bt.offset + j * bt.stride;
+              int b1 = b0 + bt.stride;
+              int b2 = b1 + bt.stride;
+              int b3 = b2 + bt.stride;
+              double s0 = 0;
+              double s1 = 0;
+              double s2 = 0;
+              double s3 = 0;
+              for (int k = k0; k < k1; k++) {
+                double aik = ad[arow + k];
+                s0 += aik * bd[b0 + k];
+                s1 += aik * bd[b1 + k];
+                s2 += aik * bd[b2 + k];
+                s3 += aik * bd[b3 + k];
+              } // for k
+              cd[crow + j] += s0;
+              cd[crow + j + 1] += s1;
+              cd[crow + j + 2] += s2;
+              cd[crow + j + 3] += s3;
+            } // for j
+            for (; j < j1; j++) {
+              int brow = bt.offset + j * bt.stride;
+              double sum = 0;
+              for (int k = k0; k < k1; k++) {
+                sum += ad[arow + k] * bd[brow + k];
+              } // for k
+              cd[crow + j] += sum;
+            } // for j
+          } // for i
+        } // for k0
+      } // for j0
+    } // for i0
+  } // multiplyBlocked(View, View, View, int)
+
+  /**
+   * Multiply two packed matrices of longs, block by block. Overflow
+   * wraps, as with Java's own arithmetic.
+   *
+   * @param a
+   *   The left-hand matrix, n by m, row-major.
+   * @param bt
+   *   The right-hand matrix, m by p, column-major.
+   * @param c
+   *   Where to put the product, n by p, row-major.
+   * @param n
+   *   The height of a and c.
+   * @param m
+   *   The width of a and the height of b.
+   * @param p
+   *   The width of b and c.
+   * @param block
+   *   The block size.
+   */
+  static void multiplyBlocked(long[] a, long[] bt, long[] c, int n, int m, int p,
+      int block) {
+    for (int i0 = 0; i0 < n; i0 += block) {
+      int i1 = Math.min(i0 + block, n);
+      for (int j0 = 0; j0 < p; j0 += block) {
+        int j1 = Math.min(j0 + block, p);
+        for (int k0 = 0; k0 < m; k0 += block) {
+          int k1 = Math.min(k0 + block, m);
+          for (int i = i0; i < i1; i++) {
+            int arow = i * m;
+            for (int j = j0; j < j1; j++) {
+              int brow = j * m;
+              long sum = 0;
+              for (int k = k0; k < k1; k++) {
+                sum += a[arow + k] * bt[brow + k];
+              } // for k
+              c[i * p + j] += sum;
+            } // for j
+          } // for i
+        } // for k0
+      } // for j0
+    } // for i0
+  } // multiplyBlocked(long[], long[], long[], int, int, int, int)
+
+  /**
+   * Multiply two packed matrices of ints, block by block. Overflow
+   * wraps, as with Java's own arithmetic.
+   *
+   * @param a
+   *   The left-hand matrix, n by m, row-major.
+   * @param bt
+   *   The right-hand matrix, m by p, column-major.
+   * @param c
+   *   Where to put the product, n by p, row-major.
+   * @param n
+   *   The height of a and c.
+   * @param m
+   *   The width of a and the height of b.
+   * @param p
+   *   The width of b and c.
+   * @param block
+   *   The block size.
+   */
+  static void multiplyBlocked(int[] a, int[] bt, int[] c, int n, int m, int p,
+      int block) {
+    for (int i0 = 0; i0 < n; i0 += block) {
+      int i1 = Math.min(i0 + block, n);
+      for (int j0 = 0; j0 < p; j0 += block) {
+        int j1 = Math.min(j0 + block, p);
+        for (int k0 = 0; k0 < m; k0 += block) {
+          int k1 = Math.min(k0 + block, m);
+          for (int i = i0; i < i1; i++) {
+            int arow = i * m;
+            for (int j = j0; j < j1; j++) {
+              int brow = j * m;
+              int sum = 0;
+              for (int k = k0; k < k1; k++) {
+                sum += a[arow + k] * bt[brow + k];
+              } // for k
+              c[i * p + j] += sum;
+            } // for j
+          } // for i
+        } // for k0
+      } // for j0
+    } // for i0
+  } // multiplyBlocked(int[], int[], int[], int, int, int, int)
+
+  // +----------------+----------------------------------------------
+  // | Multiplication |
+  // +----------------+
+
+  /**
+   * Multiply two matrices of doubles.
+   *
+   * @param a
+   *   The left-hand matrix.
+   * @param b
+   *   The right-hand matrix.
+   *
+   * @return a new matrix, as tall as a and as wide as b.
+   *
+   * @throws ArraySizeException
+   *   If the width of a is not the height of b.
+   * @throws NullPointerException
+   *   If either matrix contains null.
+   */
+  public static DoubleMatrix multiply(Matrix<Double> a, Matrix<Double> b)
+      throws ArraySizeException {
+    return multiply(a, b, DEFAULT_BLOCK_SIZE);
+  } // multiply(Matrix<Double>, Matrix<Double>)
+
+  /**
+   * Multiply two matrices of doubles with a particular block size.
+   *
+   * @param a
+   *   The left-hand matrix.
+   * @param b
+   *   The right-hand matrix.
+   * @param blockSize
+   *   The number of elements along each side of a block.
+   *
+   * @return a new matrix, as tall as a and as wide as b.
+   *
+   * @throws ArraySizeException
+   *   If the width of a is not the height of b.
+   * @throws IllegalArgumentException
+   *   If the block size is not positive.
+   * @throws NullPointerException
+   *   If either matrix contains null.
+   */
+  public static DoubleMatrix multiply(Matrix<Double> a, Matrix<Double> b,
+      int blockSize) throws ArraySizeException {
+    checkProduct(a, b, blockSize);
+    int n = a.height();
+    int m = a.width();
+    int p = b.width();
+    double[] c = new double[n * p];
+    multiplyBlocked(packDoubles(a), packDoublesTransposed(b), c, n, m, p, blockSize);
+    return new DoubleMatrix(p, n, 0.0, c);
+  } // multiply(Matrix<Double>, Matrix<Double>, int)
+
+  /**
+   * Multiply two matrices of longs. Overflow wraps, as with Java's own
+   * arithmetic.
+   *
+   * @param a
+   *   The left-hand matrix.
+   * @param b
+   *   The right-hand matrix.
+   *
+   * @return a new matrix, as tall as a and as wide as b.
+   *
+   * @throws ArraySizeException
+   *   If the width of a is not the height of b.
+   * @throws NullPointerException
+   *   If either matrix contains null.
+   */
+  public static Matrix<Long> multiplyLongs(Matrix<Long> a, Matrix<Long> b)
+      throws ArraySizeException {
+    return multiplyLongs(a, b, DEFAULT_BLOCK_SIZE);
+  } // multiplyLongs(Matrix<Long>, Matrix<Long>)
+
+  /**
+   * Multiply two matrices of longs with a particular block size.
+   * Overflow wraps, as with Java's own arithmetic.
+   *
+   * @param a
+   *   The left-hand matrix.
+   * @param b
+   *   The right-hand matrix.
+   * @param blockSize
+   *   The number of elements along each side of a block.
+   *
+   * @return a new matrix, as tall as a and as wide as b.
+   *
+   * @throws ArraySizeException
+   *   If the width of a is not the height of b.
+   * @throws IllegalArgumentException
+   *   If the block size is not positive.
+   * @throws NullPointerException
+   *   If either matrix contains null.
+   */
+  public static Matrix<Long> multiplyLongs(Matrix<Long> a, Matrix<Long> b, int blockSize)
+      throws ArraySizeException {
+    checkProduct(a, b, blockSize);
+    int n = a.height();
+    int m = a.width();
+    int p = b.width();
+    long[] pa = new long[n * m];
+    long[] pbt = new long[m * p];
+    for (int row = 0; row < n; row++) {
+      for (int col = 0; col < m; col++) {
+        pa[row * m + col] = a.get(row, col);
+      } // for col
+    } // for row
+    for (int row = 0; row < m; row++) {
+      for (int col = 0; col < p; col++) {
+        pbt[col * m + row] = b.get(row, col);
+      } // for col
+    } // for row
+    long[] c = new long[n * p];
+    multiplyBlocked(pa, pbt, c, n, m, p, blockSize);
+
+    Matrix<Long> result = new MatrixV0<Long>(p, n, 0L);
+    for (int row = 0; row < n; row++) {
+      for (int col = 0; col < p; col++) {
+        result.set(row, col, c[row * p + col]);
+      } // for col
+    } // for row
+    return result;
+  } // multiplyLongs(Matrix<Long>, Matrix<Long>, int)
+
+  /**
+   * Multiply two matrices of ints. Overflow wraps, as with Java's own
+   * arithmetic.
+   *
+   * @param a
+   *   The left-hand matrix.
+   * @param b
+   *   The right-hand matrix.
+   *
+   * @return a new matrix, as tall as a and as wide as b.
+   *
+   * @throws ArraySizeException
+   *   If the width of a is not the height of b.
+   * @throws NullPointerException
+   *   If either matrix contains null.
+   */
+  public static Matrix<Integer> multiplyInts(Matrix<Integer> a, Matrix<Integer> b)
+      throws ArraySizeException {
+    return multiplyInts(a, b, DEFAULT_BLOCK_SIZE);
+  } // multiplyInts(Matrix<Integer>, Matrix<Integer>)
+
+  /**
+   * Multiply two matrices of ints with a particular block size.
+   * Overflow wraps, as with Java's own arithmetic.
+   *
+   * @param a
+   *   The left-hand matrix.
+   * @param b
+   *   The right-hand matrix.
+   * @param blockSize
+   *   The number of elements along each side of a block.
+   *
+   * @return a new matrix, as tall as a and as wide as b.
+   *
+   * @throws ArraySizeException
+   *   If the width of a is not the height of b.
+   * @throws IllegalArgumentException
+   *   If the block size is not positive.
+   * @throws NullPointerException
+   *   If either matrix contains null.
+   */
+  public static Matrix<Integer> multiplyInts(Matrix<Integer> a, Matrix<Integer> b,
+      int blockSize) throws ArraySizeException {
+    checkProduct(a, b, blockSize);
+    int n = a.height();
+    int m = a.width();
+    int p = b.width();
+    int[] pa = new int[n * m];
+    int[] pbt = new int[m * p];
+    for (int row = 0; row < n; row++) {
+      for (int col = 0; col < m; col++) {
+        pa[row * m + col] = a.get(row, col);
+      } // for col
+    } // for row
+    for (int row = 0; row < m; row++) {
+      for (int col = 0; col < p; col++) {
+        pbt[col * m + row] = b.get(row, col);
+      } // for col
+    } // for row
+    int[] c = new int[n * p];
+    multiplyBlocked(pa, pbt, c, n, m, p, blockSize);
+
+    Matrix<Integer> result = new MatrixV0<Integer>(p, n, 0);
+    for (int row = 0; row < n; row++) {
+      for (int col = 0; col < p; col++) {
+        result.set(row, col, c[row * p + col]);
+      } // for col
+    } // for row
+    return result;
+  } // multiplyInts(Matrix<Integer>, Matrix<Integer>, int)
+
+  // +-------------------------+-------------------------------------
+  // | Parallel multiplication |
+  // +-------------------------+
+
+  /**
+   * Multiply two matrices of doubles in parallel on the common
+   * fork/join pool, without Strassen's algorithm.
+   *
+   * @param a
+   *   The left-hand matrix.
+   * @param b
+   *   The right-hand matrix.
+   *
+   * @return a new matrix, as tall as a and as wide as b.
+   *
+   * @throws ArraySizeException
+   *   If the width of a is not the height of b.
+   * @throws NullPointerException
+   *   If either matrix contains null.
+   */
+  public static DoubleMatrix parallelMultiply(Matrix<Double> a, Matrix<Double> b)
+      throws ArraySizeException {
+    return parallelMultiply(a, b, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_CUTOFF,
+        NO_STRASSEN);
+  } // parallelMultiply(Matrix<Double>, Matrix<Double>)
+
+  /**
+   * Multiply two matrices of doubles in parallel. The product is split
+   * recursively into quadrants until the longest side is no more than
+   * the cutoff, at which point the blocked kernel takes over. Square
+   * products with an even side of at least strassenCutoff are split with
+   * Strassen's algorithm instead, which needs seven rather than eight
+   * half-size products but rounds differently and allocates temporary
+   * matrices.
+   *
+   * @param a
+   *   The left-hand matrix.
+   * @param b
+   *   The right-hand matrix.
+   * @param pool
+   *   The pool in which to run.
+   * @param cutoff
+   *   The size at which to stop splitting.
+   * @param strassenCutoff
+   *   The smallest size at which to use Strassen's algorithm, or
+   *   {@link #NO_STRASSEN}.
+   *
+   * @return a new matrix, as tall as a and as wide as b.
+   *
+   * @throws ArraySizeException
+   *   If the width of a is not the height of b.
+   * @throws IllegalArgumentException
+   *   If either cutoff is not positive.
+   * @throws NullPointerException
+   *   If either matrix contains null.
+   */
+  public static DoubleMatrix parallelMultiply(Matrix<Double> a, Matrix<Double> b,
+      ForkJoinPool pool, int cutoff, int strassenCutoff) throws ArraySizeException {
+    if (cutoff <= 0 || strassenCutoff <= 0) {
+      throw new IllegalArgumentException("Cutoffs must be positive");
+    } // if
+    checkProduct(a, b, DEFAULT_BLOCK_SIZE);
+    int n = a.height();
+    int m = a.width();
+    int p = b.width();
+    double[] c = new double[n * p];
+    pool.invoke(new ProductTask(new View(c, 0, p, n, p),
+        new View(packDoubles(a), 0, m, n, m), new View(packDoublesTransposed(b), 0, m, p, m),
+        cutoff, strassenCutoff));
+    return new DoubleMatrix(p, n, 0.0, c);
+  } // parallelMultiply(Matrix<Double>, Matrix<Double>, ForkJoinPool, int, int)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * A rectangular window onto a row-major array.
+   */
+  static final class View {
+    /** The array. */
+    final double[] data;
+
+    /** The index of the top-left element. */
+    final int offset;
+
+    /** The distance between the starts of consecutive rows. */
+    final int stride;
+
+    /** The number of rows. */
+    final int rows;
+
+    /** The number of columns. */
+    final int cols;
+
+    /**
+     * Create a view.
+     *
+     * @param array
+     *   The array.
+     * @param start
+     *   The index of the top-left element.
+     * @param rowStride
+     *   The distance between the starts of consecutive rows.
+     * @param height
+     *   The number of rows.
+     * @param width
+     *   The number of columns.
+     */
+    View(double[] array, int start, int rowStride, int height, int width) {
+      this.data = array;
+      this.offset = start;
+      this.stride = rowStride;
+      this.rows = height;
+      this.cols = width;
+    } // View(double[], int, int, int, int)
+
+    /**
+     * Create a fresh, zeroed, compact view.
+     *
+     * @param rows
+     *   The number of rows.
+     * @param cols
+     *   The number of columns.
+     *
+     * @return the view.
+     */
+    static View zeros(int rows, int cols) {
+      return new View(new double[rows * cols], 0, cols, rows, cols);
+    } // zeros(int, int)
+
+    /**
+     * Get a window onto part of this view.
+     *
+     * @param row
+     *   The top row of the window.
+     * @param col
+     *   The left column of the window.
+     * @param height
+     *   The number of rows in the window.
+     * @param width
+     *   The number of columns in the window.
+     *
+     * @return the window.
+     */
+    View sub(int row, int col, int height, int width) {
+      return new View(this.data, this.offset + row * this.stride + col, this.stride,
+          height, width);
+    } // sub(int, int, int, int)
+
+    /**
+     * Add (sign = 1) or subtract (sign = -1) another view of the same
+     * shape into a new compact view.
+     *
+     * @param other
+     *   The other view.
+     * @param sign
+     *   1 or -1.
+     *
+     * @return this + sign * other.
+     */
+    View combine(View other, double sign) {
+      View result = zeros(this.rows, this.cols);
+      for (int row = 0; row < this.rows; row++) {
+        int x = this.offset + row * this.stride;
+        int y = other.offset + row * other.stride;
+        int z = row * this.cols;
+        for (int col = 0; col < this.cols; col++) {
+          result.data[z + col] = this.data[x + col] + sign * other.data[y + col];
+        } // for col
+      } // for row
+      return result;
+    } // combine(View, double)
+
+    /**
+     * Add a multiple of another view of the same shape into this view.
+     *
+     * @param other
+     *   The other view.
+     * @param sign
+     *   The multiple (1 or -1).
+     */
+    void accumulate(View other, double sign) {
+      for (int row = 0; row < this.rows; row++) {
+        int x = this.offset + row * this.stride;
+        int y = other.offset + row * other.stride;
+        for (int col = 0; col < this.cols; col++) {
+          this.data[x + col] += sign * other.data[y + col];
+        } // for col
+      } // for row
+    } // accumulate(View, double)
+  } // class View
+
+  /**
+   * A task that adds one or two products of views into a view. Each
+   * task is the only writer of its output view, so tasks need no
+   * synchronization.
+   */
+  static final class ProductTask extends RecursiveAction {
+    /** The version of the serialized form. */
+    private static final long serialVersionUID = 1L;
+
+    /** Where to add the products. */
+    private final View c;
+
+    /** The left-hand side of the first product. */
+    private final View a0;
+
+    /** The transposed right-hand side of the first product. */
+    private final View bt0;
+
+    /** The left-hand side of the second product (or null). */
+    private final View a1;
+
+    /** The transposed right-hand side of the second product (or null). */
+    private final View bt1;
+
+    /** The size at which to stop splitting. */
+    private final int cutoff;
+
+    /** The smallest size at which to use Strassen's algorithm. */
+    private final int strassenCutoff;
+
+    /**
+     * Create a task that computes c += a * bt^T.
+     *
+     * @param out
+     *   Where to add the product.
+     * @param a
+     *   The left-hand side.
+     * @param bt
+     *   The transposed right-hand side.
+     * @param splitCutoff
+     *   The size at which to stop splitting.
+     * @param strassenSize
+     *   The smallest size at which to use Strassen's algorithm.
+     */
+    ProductTask(View out, View a, View bt, int splitCutoff, int strassenSize) {
+      this(out, a, bt, null, null, splitCutoff, strassenSize);
+    } // ProductTask(View, View, View, int, int)
+
+    /**
+     * Create a task that computes c += a0 * bt0^T + a1 * bt1^T.
+     *
+     * @param out
+     *   Where to add the products.
+     * @param x0
+     *   The left-hand side of the first product.
+     * @param y0
+     *   The transposed right-hand side of the first product.
+     * @param x1
+     *   The left-hand side of the second product (or null).
+     * @param y1
+     *   The transposed right-hand side of the second product (or null).
+     * @param splitCutoff
+     *   The size at which to stop splitting.
+     * @param strassenSize
+     *   The smallest size at which to use Strassen's algorithm.
+     */
+    ProductTask(View out, View x0, View y0, View x1, View y1, int splitCutoff,
+        int strassenSize) {
+      this.c = out;
+      this.a0 = x0;
+      this.bt0 = y0;
+      this.a1 = x1;
+      this.bt1 = y1;
+      this.cutoff = splitCutoff;
+      this.strassenCutoff = strassenSize;
+    } // ProductTask(View, View, View, View, View, int, int)
+
+    /**
+     * Compute the products.
+     */
+    protected void compute() {
+      this.multiplyInto(this.c, this.a0, this.bt0);
+      if (this.a1 != null) {
+        this.multiplyInto(this.c, this.a1, this.bt1);
+      } // if
+    } // compute()
+
+    /**
+     * Compute out += a * bt^T, splitting in parallel if it is large.
+     *
+     * @param out
+     *   Where to add the product.
+     * @param a
+     *   The left-hand side.
+     * @param bt
+     *   The transposed right-hand side.
+     */
+    private void multiplyInto(View out, View a, View bt) {
+      int n = a.rows;
+      int m = a.cols;
+      int p = bt.rows;
+      if (Math.max(n, Math.max(m, p)) <= this.cutoff) {
+        multiplyBlocked(a, bt, out, DEFAULT_BLOCK_SIZE);
+      } else if (n == m && m == p && n % 2 == 0 && n >= this.strassenCutoff) {
+        this.strassen(out, a, bt);
+      } else {
+        int n0 = n / 2;
+        int m0 = m / 2;
+        int p0 = p / 2;
+        View[] as = {a.sub(0, 0, n0, m0), a.sub(0, m0, n0, m - m0),
+                     a.sub(n0, 0, n - n0, m0), a.sub(n0, m0, n - n0, m - m0)};
+        View[] bts = {bt.sub(0, 0, p0, m0), bt.sub(0, m0, p0, m - m0),
+                      bt.sub(p0, 0, p - p0, m0), bt.sub(p0, m0, p - p0, m - m0)};
+        // out[i][j] += a[i][0] * bt[j][0]^T + a[i][1] * bt[j][1]^T
+        invokeAll(
+            this.task(out.sub(0, 0, n0, p0), as[0], bts[0], as[1], bts[1]),
+            this.task(out.sub(0, p0, n0, p - p0), as[0], bts[2], as[1], bts[3]),
+            this.task(out.sub(n0, 0, n - n0, p0), as[2], bts[0], as[3], bts[1]),
+            this.task(out.sub(n0, p0, n - n0, p - p0), as[2], bts[2], as[3], bts[3]));
+      } // if/else
+    } // multiplyInto(View, View, View)
+
+    /**
+     * Compute out += a * bt^T for square views with an even side, using
+     * Strassen's seven products.
+     *
+     * @param out
+     *   Where to add the product.
+     * @param a
+     *   The left-hand side.
+     * @param bt
+     *   The transposed right-hand side.
+     */
+    private void strassen(View out, View a, View bt) {
+      int h = a.rows / 2;
+      View a11 = a.sub(0, 0, h, h);
+      View a12 = a.sub(0, h, h, h);
+      View a21 = a.sub(h, 0, h, h);
+      View a22 = a.sub(h, h, h, h);
+      // The quadrants of b, transposed: b11^T = bt11, b12^T = bt21,
+      // b21^T = bt12 and b22^T = bt22.
+      View b11 = bt.sub(0, 0, h, h);
+      View b21 = bt.sub(0, h, h, h);
+      View b12 = bt.sub(h, 0, h, h);
+      View b22 = bt.sub(h, h, h, h);
+
+      View[] ms = new View[7];
+      for (int i = 0; i < ms.length; i++) {
+        ms[i] = View.zeros(h, h);
+      } // for
+      invokeAll(
+          this.task(ms[0], a11.combine(a22, 1), b11.combine(b22, 1), null, null),
+          this.task(ms[1], a21.combine(a22, 1), b11, null, null),
+          this.task(ms[2], a11, b12.combine(b22, -1), null, null),
+          this.task(ms[3], a22, b21.combine(b11, -1), null, null),
+          this.task(ms[4], a11.combine(a12, 1), b22, null, null),
+          this.task(ms[5], a21.combine(a11, -1), b11.combine(b12, 1), null, null),
+          this.task(ms[6], a12.combine(a22, -1), b21.combine(b22, 1), null, null));
+
+      View c11 = out.sub(0, 0, h, h);
+      View c12 = out.sub(0, h, h, h);
+      View c21 = out.sub(h, 0, h, h);
+      View c22 = out.sub(h, h, h, h);
+      c11.accumulate(ms[0], 1);
+      c11.accumulate(ms[3], 1);
+      c11.accumulate(ms[4], -1);
+      c11.accumulate(ms[6], 1);
+      c12.accumulate(ms[2], 1);
+      c12.accumulate(ms[4], 1);
+      c21.accumulate(ms[1], 1);
+      c21.accumulate(ms[3], 1);
+      c22.accumulate(ms[0], 1);
+      c22.accumulate(ms[1], -1);
+      c22.accumulate(ms[2], 1);
+      c22.accumulate(ms[5], 1);
+    } // strassen(View, View, View)
+
+    /**
+     * Create a subtask with the same cutoffs as this task.
+     *
+     * @param out
+     *   Where to add the products.
+     * @param x0
+     *   The left-hand side of the first product.
+     * @param y0
+     *   The transposed right-hand side of the first product.
+     * @param x1
+     *   The left-hand side of the second product (or null).
+     * @param y1
+     *   The transposed right-hand side of the second product (or null).
+     *
+     * @return the subtask.
+     */
+    private ProductTask task(View out, View x0, View y0, View x1, View y1) {
+      return new ProductTask(out, x0, y0, x1, y1, this.cutoff, this.strassenCutoff);
+    } // task(View, View, View, View, View)
+  } // class ProductTask
+} // class MatrixMath
@@ -0,0 +1,45 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * The operations that may be performed on a matrix. Used to label
+ * measurements and records of what happened to a matrix.
+ *
+ * @author Andrew N. Fargo
+ */
+public enum MatrixOperation {
+  /** {@link Matrix#get(int, int)}. */
+  GET,
+  /** {@link Matrix#set(int, int, Object)}. */
+  SET,
+  /** {@link Matrix#insertRow(int)} and {@link Matrix#insertRow(int, Object[])}. */
+  INSERT_ROW,
+  /** {@link Matrix#insertCol(int)} and {@link Matrix#insertCol(int, Object[])}. */
+  INSERT_COL,
+  /** {@link Matrix#deleteRow(int)}. */
+  DELETE_ROW,
+  /** {@link Matrix#deleteCol(int)}. */
+  DELETE_COL,
+  /** {@link Matrix#fillRegion(int, int, int, int, Object)}. */
+  FILL_REGION,
+  /** {@link Matrix#fillLine(int, int, int, int, int, int, Object)}. */
+  FILL_LINE,
+  /** {@link Matrix#transpose()} and {@link Matrix#transposeInPlace()}. */
+  TRANSPOSE,
+  /** {@link Matrix#clone()}. */
+  CLONE,
+  /** {@link Matrix#equals(Object)}. */
+  EQUALS,
+  /** {@link Object#hashCode()}. */
+  HASH_CODE;
+
+  /**
+   * Determine if this operation changes the shape of the matrix.
+   *
+   * @return true for row and column insertions and deletions, false
+   *   otherwise.
+   */
+  public boolean isStructural() {
+    return this == INSERT_ROW || this == INSERT_COL
+        || this == DELETE_ROW || this == DELETE_COL;
+  } // isStructural()
+} // enum MatrixOperation
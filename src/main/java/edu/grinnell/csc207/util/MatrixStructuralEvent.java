@@ -0,0 +1,91 @@
+package edu.grinnell.csc207.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event for an operation that changes the shape
+ * of a matrix (inserting or deleting a row or column) or copies it.
+ * When no recording is running, creating and finishing the event costs
+ * next to nothing.
+ *
+ * @author Andrew N. Fargo
+ */
+@Name(MatrixStructuralEvent.NAME)
+@Label("Matrix Structural Operation")
+@Category({"Matrices"})
+@Description("A row or column was inserted or deleted, or a matrix was cloned")
+class MatrixStructuralEvent extends Event {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The name of the event, as used in recording settings. */
+  static final String NAME = "edu.grinnell.csc207.MatrixStructural";
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The operation performed. */
+  @Label("Operation")
+  String operation;
+
+  /** The row or column inserted or deleted (-1 for clone). */
+  @Label("Index")
+  int index;
+
+  /** The width of the matrix after the operation. */
+  @Label("Width")
+  int width;
+
+  /** The height of the matrix after the operation. */
+  @Label("Height")
+  int height;
+
+  /** The number of cells copied, moved, or written. */
+  @Label("Cells Touched")
+  long cellsTouched;
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Create an event and start timing it.
+   *
+   * @return the event.
+   */
+  static MatrixStructuralEvent start() {
+    MatrixStructuralEvent event = new MatrixStructuralEvent();
+    event.begin();
+    return event;
+  } // start()
+
+  /**
+   * Stop timing the event and commit it, if it is being recorded.
+   *
+   * @param op
+   *   The operation performed.
+   * @param matrix
+   *   The matrix, after the operation.
+   * @param where
+   *   The row or column inserted or deleted (-1 for clone).
+   * @param cells
+   *   The number of cells copied, moved, or written.
+   */
+  void finish(MatrixOperation op, Matrix<?> matrix, int where, long cells) {
+    this.end();
+    if (this.shouldCommit()) {
+      this.operation = op.name();
+      this.index = where;
+      this.width = matrix.width();
+      this.height = matrix.height();
+      this.cellsTouched = cells;
+      this.commit();
+    } // if
+  } // finish(MatrixOperation, Matrix<?>, int, long)
+} // class MatrixStructuralEvent
@@ -1,6 +1,10 @@
 package edu.grinnell.csc207.util;
 
 import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
 
 /**
  * An implementation of two-dimensional matrices.
@@ -29,27 +33,55 @@ public class MatrixV0<T> implements Matrix<T> {
       create a row of size `cols`. */
   private int cols;
 
+  /** Where new rows come from and old rows go, or null to allocate
+      every row and leave old ones to the garbage collector. */
+  private ArrayPool pool;
+
+  /** The side of the blocks at which transposition stops recursing.
+      Two blocks of this size fit comfortably in a level-one cache. */
+  private static final int TRANSPOSE_BLOCK = 16;
+
   // +-----------------+---------------------------------------------
   // | Private Methods |
   // +-----------------+
 
+  /**
+   * Gets an array of nulls for a row, from the pool if there is one.
+   * @param len The length of the array.
+   * @return the array.
+   */
+  @SuppressWarnings({"unchecked"})
+  private T[] allocate(int len) {
+    return (T[]) ((this.pool == null) ? new Object[len] : this.pool.take(len));
+  } // allocate(int)
+
+  /**
+   * Returns an array that is no longer used to the pool, if there is one.
+   * @param arr The array, which must not be used again.
+   */
+  private void release(T[] arr) {
+    if (this.pool != null) {
+      this.pool.give(arr);
+    } // if
+  } // release(T[])
+
   /**
    * Repeats an element of type T into a new array.
    * @param val The value to repeat.
    * @param len The length of the generated array.
    * @return [val, val, val, ... val] (len times)
    */
-  @SuppressWarnings({"unchecked"})
   private T[] repeat(T val, int len) {
-    T[] ret = (T[]) new Object[len];
-    for (int i = 0; i < len; i++) {
-      ret[i] = val;
-    } // for
+    T[] ret = this.allocate(len);
+    if (val != null) {
+      Arrays.fill(ret, val);
+    } // if
     return ret;
   } // repeat(T, int)
 
   /**
-   * Shifts each row in the matrix by `amount` spaces.
+   * Shifts each row in the matrix by `amount` spaces. Only references
+   * to rows move; the rows themselves are not copied.
    *
    * @param row The starting row. Goes until the end.
    * @param amount The number of rows we shift by, negative
@@ -57,22 +89,17 @@ public class MatrixV0<T> implements Matrix<T> {
    * @pre row + amount is in bounds of this.values.
    */
   private void shiftRows(int row, int amount) {
-    T[][] newArr = Arrays.copyOf(this.values, this.values.length);
-    for (int r = 0; r < this.height(); r++) {
-      newArr[r] = Arrays.copyOf(this.values[r], this.cols);
-    } // for
     int startRow = Math.max(row, row - amount);
     int endRow = Math.min(this.height(), this.height() - amount);
-    for (int i = startRow; i < endRow; i++) {
-      for (int col = 0; col < this.width(); col++) {
-        newArr[i + amount][col] = this.values[i][col];
-      } // for
-    } // for
-    this.values = newArr;
+    System.arraycopy(this.values, startRow, this.values, startRow + amount,
+        endRow - startRow);
   } // shiftRow(int, int)
 
   /**
-   * Shifts each column in the matrix by `amount` spaces.
+   * Shifts each column in the matrix by `amount` spaces, moving each
+   * row into an array `amount` longer (or shorter) and releasing the
+   * old row. Columns before `col` stay put; for a negative amount, the
+   * columns shifted over are dropped.
    *
    * @param col The starting col. Goes until the end.
    * @param amount The number of cols we shift by, negative
@@ -81,13 +108,13 @@ public class MatrixV0<T> implements Matrix<T> {
    */
   private void shiftCols(int col, int amount) {
     int startCol = Math.max(col, col - amount);
-    int endCol = Math.min(this.width(), this.width() - amount);
     for (int row = 0; row < this.height(); row++) {
-      T[] newArr = Arrays.copyOf(this.values[row], this.cols);
-      for (int i = startCol; i < endCol; i++) {
-        newArr[i + amount] = this.values[row][i];
-      } // for
+      T[] old = this.values[row];
+      T[] newArr = this.allocate(this.cols + amount);
+      System.arraycopy(old, 0, newArr, 0, col);
+      System.arraycopy(old, startCol, newArr, startCol + amount, this.cols - startCol);
       this.values[row] = newArr;
+      this.release(old);
     } // for
   } // shiftCol(int, int)
 
@@ -100,6 +127,111 @@ public class MatrixV0<T> implements Matrix<T> {
   private boolean outOfBounds(int row, int col) {
     return row < 0 || row >= this.height() || col < 0 || col >= this.width();
   } // inBounds(int, int)
+
+  /**
+   * Transpose part of one array of rows into another, recursively
+   * halving the longer side of the part until it is small enough to
+   * stay in cache. The result is that dst[col][row] = src[row][col]
+   * for every row in [r0, r1) and col in [c0, c1).
+   *
+   * @param <T> The type of the values.
+   * @param src The rows to transpose.
+   * @param dst Where to put the transpose.
+   * @param r0 The first row (inclusive).
+   * @param r1 The last row (exclusive).
+   * @param c0 The first column (inclusive).
+   * @param c1 The last column (exclusive).
+   */
+  static <T> void transposeInto(T[][] src, T[][] dst, int r0, int r1, int c0,
+      int c1) {
+    if (r1 - r0 <= TRANSPOSE_BLOCK && c1 - c0 <= TRANSPOSE_BLOCK) {
+      for (int row = r0; row < r1; row++) {
+        T[] srcRow = src[row];
+        for (int col = c0; col < c1; col++) {
+          dst[col][row] = srcRow[col];
+        } // for col
+      } // for row
+    } else if (r1 - r0 >= c1 - c0) {
+      int mid = (r0 + r1) >>> 1;
+      transposeInto(src, dst, r0, mid, c0, c1);
+      transposeInto(src, dst, mid, r1, c0, c1);
+    } else {
+      int mid = (c0 + c1) >>> 1;
+      transposeInto(src, dst, r0, r1, c0, mid);
+      transposeInto(src, dst, r0, r1, mid, c1);
+    } // if/else
+  } // transposeInto(T[][], T[][], int, int, int, int)
+
+  /**
+   * Transpose the square block on the diagonal from (lo, lo) up to
+   * (hi, hi) in place, recursively: transpose the two diagonal quarters
+   * and swap the two off-diagonal quarters.
+   *
+   * @param <T> The type of the values.
+   * @param vals The rows of a square matrix.
+   * @param lo The first row and column (inclusive).
+   * @param hi The last row and column (exclusive).
+   */
+  static <T> void transposeDiagonal(T[][] vals, int lo, int hi) {
+    if (hi - lo <= TRANSPOSE_BLOCK) {
+      for (int row = lo; row < hi; row++) {
+        for (int col = row + 1; col < hi; col++) {
+          T tmp = vals[row][col];
+          vals[row][col] = vals[col][row];
+          vals[col][row] = tmp;
+        } // for col
+      } // for row
+    } else {
+      int mid = (lo + hi) >>> 1;
+      transposeDiagonal(vals, lo, mid);
+      transposeDiagonal(vals, mid, hi);
+      swapMirrored(vals, lo, mid, mid, hi);
+    } // if/else
+  } // transposeDiagonal(T[][], int, int)
+
+  /**
+   * Swap each element in a block that lies off the diagonal with its
+   * mirror image across the diagonal, recursively halving the block.
+   *
+   * @param <T> The type of the values.
+   * @param vals The rows of a square matrix.
+   * @param r0 The first row (inclusive).
+   * @param r1 The last row (exclusive).
+   * @param c0 The first column (inclusive).
+   * @param c1 The last column (exclusive).
+   * @pre The block does not meet the diagonal.
+   */
+  private static <T> void swapMirrored(T[][] vals, int r0, int r1, int c0, int c1) {
+    if (r1 - r0 <= TRANSPOSE_BLOCK && c1 - c0 <= TRANSPOSE_BLOCK) {
+      for (int row = r0; row < r1; row++) {
+        for (int col = c0; col < c1; col++) {
+          T tmp = vals[row][col];
+          vals[row][col] = vals[col][row];
+          vals[col][row] = tmp;
+        } // for col
+      } // for row
+    } else if (r1 - r0 >= c1 - c0) {
+      int mid = (r0 + r1) >>> 1;
+      swapMirrored(vals, r0, mid, c0, c1);
+      swapMirrored(vals, mid, r1, c0, c1);
+    } else {
+      int mid = (c0 + c1) >>> 1;
+      swapMirrored(vals, r0, r1, c0, mid);
+      swapMirrored(vals, r0, r1, mid, c1);
+    } // if/else
+  } // swapMirrored(T[][], int, int, int, int)
+
+  /**
+   * Build the transpose of the values in new arrays.
+   *
+   * @return the transposed rows.
+   */
+  @SuppressWarnings({"unchecked"})
+  private T[][] transposedValues() {
+    T[][] result = (T[][]) new Object[this.cols][this.values.length];
+    transposeInto(this.values, result, 0, this.values.length, 0, this.cols);
+    return result;
+  } // transposedValues()
   // +--------------+------------------------------------------------
   // | Constructors |
   // +--------------+
@@ -153,6 +285,40 @@ public class MatrixV0<T> implements Matrix<T> {
     this(width, height, null);
   } // MatrixV0
 
+  /**
+   * Create a new matrix that uses existing arrays as its rows.
+   *
+   * @param rows
+   *   The rows, each exactly width long. They are not copied.
+   * @param width
+   *   The width of the matrix, which is needed when there are no rows.
+   * @param def
+   *   The default value.
+   */
+  MatrixV0(T[][] rows, int width, T def) {
+    this.values = rows;
+    this.cols = width;
+    this.defaultValue = def;
+  } // MatrixV0(T[][], int, T)
+
+  // +---------------+-----------------------------------------------
+  // | Array pooling |
+  // +---------------+
+
+  /**
+   * Draw new rows from an array pool, and return rows that are no
+   * longer used to it, so that steady insertions and deletions reuse
+   * the same arrays. Arrays passed to insertRow become rows of the
+   * matrix and so may be reused once their row is deleted.
+   *
+   * @param arrays
+   *   The pool, which should be used by one thread only, or null to
+   *   allocate every row.
+   */
+  public void setPool(ArrayPool arrays) {
+    this.pool = arrays;
+  } // setPool(ArrayPool)
+
   // +--------------+------------------------------------------------
   // | Core methods |
   // +--------------+
@@ -253,16 +419,18 @@ public class MatrixV0<T> implements Matrix<T> {
     if (vals.length != this.width()) {
       throw new ArraySizeException("Inserted row has invalid width");
     } // if (throws out)
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
 
     // Reallocate
     this.values = Arrays.copyOf(this.values, this.values.length + 1);
-    this.values[this.values.length - 1] = this.repeat(null, this.cols);
 
     // Shift
     this.shiftRows(row, 1);
 
     // Place
     this.values[row] = vals;
+    event.finish(MatrixOperation.INSERT_ROW, this, row,
+        (long) this.height() * this.width());
   } // insertRow(int, T[])
 
   /**
@@ -276,7 +444,9 @@ public class MatrixV0<T> implements Matrix<T> {
    */
   public void insertCol(int col) {
     try {
-      this.insertCol(col, this.repeat(this.defaultValue, this.height()));
+      T[] vals = this.repeat(this.defaultValue, this.height());
+      this.insertCol(col, vals);
+      this.release(vals);
     } catch (ArraySizeException e) {
       // Something has gone (yet again) seriously wrong.
       throw new RuntimeException(e.getMessage());
@@ -303,21 +473,18 @@ public class MatrixV0<T> implements Matrix<T> {
     if (vals.length != this.height()) {
       throw new ArraySizeException("Inserted col has invalid height");
     } // if throws out
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
 
-    // Reallocate
-    for (int row = 0; row < this.height(); row++) {
-      this.values[row] = Arrays.copyOf(this.values[row], this.values[row].length);
-    } // for
-    this.cols++;
-
-    // Shift
+    // Reallocate and shift
     this.shiftCols(col, 1);
+    this.cols++;
 
     // Place
     for (int i = 0; i < vals.length; i++) {
       this.values[i][col] = vals[i];
     } // for
-
+    event.finish(MatrixOperation.INSERT_COL, this, col,
+        (long) this.height() * this.width());
   } // insertCol(int, T[])
 
   /**
@@ -333,13 +500,16 @@ public class MatrixV0<T> implements Matrix<T> {
     if (row < 0 || row >= this.height()) {
       throw new IndexOutOfBoundsException();
     } // if throws out
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    long cells = (long) this.height() * this.width();
 
     // Shift
+    this.release(this.values[row]);
     this.shiftRows(row, -1);
 
     // Reallocate
     this.values = Arrays.copyOf(this.values, this.values.length - 1);
-
+    event.finish(MatrixOperation.DELETE_ROW, this, row, cells);
   } // deleteRow(int)
 
   /**
@@ -355,21 +525,18 @@ public class MatrixV0<T> implements Matrix<T> {
     if (col < 0 || col >= this.width()) {
       throw new IndexOutOfBoundsException();
     } // if throws out
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    long cells = (long) this.height() * this.width();
 
-    // Shift
+    // Shift and reallocate
     this.shiftCols(col, -1);
-
-    // Reallocate
-    for (int row = 0; row < this.height(); row++) {
-      this.values[row] = Arrays.copyOf(this.values[row],
-                                       this.values[row].length - 1);
-    } // for
-
     this.cols--;
+    event.finish(MatrixOperation.DELETE_COL, this, col, cells);
   } // deleteCol(int)
 
   /**
-   * Fill a rectangular region of the matrix.
+   * Fill a rectangular region of the matrix. The corners are checked
+   * once, and then each row is filled directly.
    *
    * @param startRow
    *   The top edge / row to start with (inclusive).
@@ -392,16 +559,21 @@ public class MatrixV0<T> implements Matrix<T> {
     } else if (outOfBounds(startRow, startCol) || outOfBounds(endRow - 1, endCol - 1)) {
       throw new IndexOutOfBoundsException();
     } // if/else
+    MatrixFillEvent event = MatrixFillEvent.start();
 
-    for (int row = startRow; row < endRow; row++) {
-      for (int col = startCol; col < endCol; col++) {
-        this.set(row, col, val);
-      } // for col
-    } // for row
+    if (startCol < endCol) {
+      for (int row = startRow; row < endRow; row++) {
+        Arrays.fill(this.values[row], startCol, endCol, val);
+      } // for
+    } // if
+    event.finish(MatrixOperation.FILL_REGION, this,
+        (long) (endRow - startRow) * (endCol - startCol));
   } // fillRegion(int, int, int, int, T)
 
   /**
-   * Fill a line (horizontal, vertical, diagonal).
+   * Fill a line (horizontal, vertical, diagonal). The ends are checked
+   * once, and then cells are stored directly; a horizontal line stays
+   * within one row.
    *
    * @param startRow
    *   The row to start with (inclusive).
@@ -426,34 +598,181 @@ public class MatrixV0<T> implements Matrix<T> {
     if (outOfBounds(startRow, startCol) || outOfBounds(endRow - 1, endCol - 1)) {
       throw new IndexOutOfBoundsException();
     } // if
-
-    for (int row = startRow, col = startCol;
-         row < endRow && col < endCol;
-         row += deltaRow, col += deltaCol) {
-      this.set(row, col, val);
-    } // for row
+    MatrixFillEvent event = MatrixFillEvent.start();
+
+    long cells = 0;
+    if (deltaRow == 0) {
+      T[] vals = this.values[startRow];
+      for (int col = startCol; startRow < endRow && col < endCol; col += deltaCol) {
+        vals[col] = val;
+        cells++;
+      } // for
+    } else {
+      for (int row = startRow, col = startCol;
+           row < endRow && col < endCol;
+           row += deltaRow, col += deltaCol) {
+        this.values[row][col] = val;
+        cells++;
+      } // for
+    } // if/else
+    event.finish(MatrixOperation.FILL_LINE, this, cells);
   } // fillLine(int, int, int, int, int, int, T)
 
   /**
-   * A make a copy of the matrix. May share references (e.g., if individual
-   * elements are mutable, mutating them in one matrix may affect the other
-   * matrix) or may not.
+   * Make a new matrix that is the transpose of this one. Uses a
+   * recursive, cache-oblivious traversal of the rows rather than
+   * striding down the columns of the result.
+   *
+   * @return the transpose.
+   */
+  public Matrix<T> transpose() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    MatrixV0<T> result =
+        new MatrixV0<T>(this.transposedValues(), this.values.length, this.defaultValue);
+    event.finish(MatrixOperation.TRANSPOSE, result, -1, (long) this.height() * this.width());
+    return result;
+  } // transpose()
+
+  /**
+   * Transpose this matrix in place. Square matrices are transposed by
+   * swapping elements across the diagonal, recursively; other matrices
+   * need rows of a different length, so they get new rows.
+   */
+  public void transposeInPlace() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    if (this.values.length == this.cols) {
+      transposeDiagonal(this.values, 0, this.cols);
+    } else {
+      int height = this.values.length;
+      this.values = this.transposedValues();
+      this.cols = height;
+    } // if/else
+    event.finish(MatrixOperation.TRANSPOSE, this, -1, (long) this.height() * this.width());
+  } // transposeInPlace()
+
+  /**
+   * Combine all the elements, row by row, with an operation. Large
+   * matrices are split into blocks of rows that are combined in
+   * parallel.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   *
+   * @return identity combined with every element.
+   */
+  public T reduce(T identity, BinaryOperator<T> op) {
+    return ParallelRanges.reduce(this.values.length, this.cols, (lo, hi) -> {
+      T result = identity;
+      for (int row = lo; row < hi; row++) {
+        for (T val : this.values[row]) {
+          result = op.apply(result, val);
+        } // for
+      } // for
+      return result;
+    }, op);
+  } // reduce(T, BinaryOperator<T>)
+
+  /**
+   * Count the elements that satisfy a predicate. Large matrices are
+   * split into blocks of rows that are counted in parallel.
+   *
+   * @param predicate
+   *   The predicate.
+   *
+   * @return the number of elements for which predicate is true.
+   */
+  public long count(Predicate<? super T> predicate) {
+    return ParallelRanges.reduce(this.values.length, this.cols, (lo, hi) -> {
+      long count = 0;
+      for (int row = lo; row < hi; row++) {
+        for (T val : this.values[row]) {
+          if (predicate.test(val)) {
+            count++;
+          } // if
+        } // for
+      } // for
+      return count;
+    }, Long::sum);
+  } // count(Predicate)
+
+  /**
+   * Combine the elements of each row, left to right. Large matrices are
+   * split into blocks of rows that are processed in parallel.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   * @param generator
+   *   Makes an array of the given length, such as Integer[]::new.
+   *
+   * @return an array with one combined value per row.
+   */
+  public T[] reduceRows(T identity, BinaryOperator<T> op, IntFunction<T[]> generator) {
+    T[] result = generator.apply(this.values.length);
+    ParallelRanges.forEach(this.values.length, this.cols, (lo, hi) -> {
+      for (int row = lo; row < hi; row++) {
+        T acc = identity;
+        for (T val : this.values[row]) {
+          acc = op.apply(acc, val);
+        } // for
+        result[row] = acc;
+      } // for
+    });
+    return result;
+  } // reduceRows(T, BinaryOperator<T>, IntFunction<T[]>)
+
+  /**
+   * Combine the elements of each column, top to bottom. Large matrices
+   * are split into blocks of columns that are processed in parallel;
+   * each block is read a row segment at a time.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   * @param generator
+   *   Makes an array of the given length, such as Integer[]::new.
+   *
+   * @return an array with one combined value per column.
+   */
+  public T[] reduceCols(T identity, BinaryOperator<T> op, IntFunction<T[]> generator) {
+    T[] result = generator.apply(this.cols);
+    ParallelRanges.forEach(this.cols, this.values.length, (lo, hi) -> {
+      Arrays.fill(result, lo, hi, identity);
+      for (T[] rowVals : this.values) {
+        for (int col = lo; col < hi; col++) {
+          result[col] = op.apply(result[col], rowVals[col]);
+        } // for col
+      } // for
+    });
+    return result;
+  } // reduceCols(T, BinaryOperator<T>, IntFunction<T[]>)
+
+  /**
+   * A make a copy of the matrix. Shares the elements (e.g., if individual
+   * elements are mutable, mutating them in one matrix affects the other
+   * matrix) but not the rows, which are copied whole.
    *
    * @return a copy of the matrix.
    */
+  @SuppressWarnings({"unchecked"})
   public Matrix<T> clone() {
-    MatrixV0<T> newMatrix = new MatrixV0<T>(this.width(),
-                                            this.height(), this.defaultValue);
-    for (int row = 0; row < this.height(); row++) {
-      for (int col = 0; col < this.height(); col++) {
-        newMatrix.set(row, col, this.get(row, col));
-      } // for
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    T[][] rows = (T[][]) new Object[this.values.length][];
+    for (int row = 0; row < rows.length; row++) {
+      rows[row] = this.values[row].clone();
     } // for
+    MatrixV0<T> newMatrix = new MatrixV0<T>(rows, this.cols, this.defaultValue);
+    event.finish(MatrixOperation.CLONE, this, -1, (long) this.height() * this.width());
     return newMatrix;
   } // clone()
 
   /**
-   * Determine if this object is equal to another object.
+   * Determine if this object is equal to another object. Elements are
+   * compared as by Objects.equals, so null elements are allowed.
    *
    * @param other
    *   The object to compare.
@@ -472,9 +791,19 @@ public class MatrixV0<T> implements Matrix<T> {
     if (other.width() != this.width() || other.height() != this.height()) {
       return false;
     } // if
-    for (int row = 0; row < this.height(); row++) {
-      for (int col = 0; col < this.width(); col++) {
-        if (!this.get(row, col).equals(other.get(row, col))) {
+    if (other instanceof MatrixV0) {
+      T[][] those = ((MatrixV0<T>) other).values;
+      for (int row = 0; row < this.values.length; row++) {
+        if (!Arrays.equals(this.values[row], those[row])) {
+          return false;
+        } // if
+      } // for
+      return true;
+    } // if
+    for (int row = 0; row < this.values.length; row++) {
+      T[] vals = this.values[row];
+      for (int col = 0; col < vals.length; col++) {
+        if (!Objects.equals(vals[col], other.get(row, col))) {
           return false;
         } // if
       } // for col
@@ -492,16 +821,28 @@ public class MatrixV0<T> implements Matrix<T> {
   public int hashCode() {
     int multiplier = 7;
     int code = this.width() + multiplier * this.height();
-    for (int row = 0; row < this.height(); row++) {
-      for (int col = 0; col < this.width(); col++) {
-        T val = this.get(row, col);
+    for (T[] vals : this.values) {
+      for (T val : vals) {
         if (val != null) {
           // It's okay if the following computation overflows, since
           // it will overflow uniformly.
           code = code * multiplier + val.hashCode();
         } // if
-      } // for col
-    } // for row
+      } // for
+    } // for
     return code;
   } // hashCode()
+
+  /**
+   * Estimate the heap this matrix keeps alive, not counting its elements
+   * or its pool: the rows are cell storage, and the matrix and its array
+   * of rows are index.
+   *
+   * @return the estimate.
+   */
+  public MemoryFootprint footprint() {
+    return new MemoryFootprint(this.values.length * MemoryFootprint.referenceArray(this.cols), 0,
+        MemoryFootprint.object(3, Integer.BYTES)
+            + MemoryFootprint.referenceArray(this.values.length), 0);
+  } // footprint()
 } // class MatrixV0
@@ -0,0 +1,262 @@
+package edu.grinnell.csc207.util;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * An estimate of the heap occupied by a matrix, broken down by purpose.
+ * Elements are never counted, since they may be shared with other
+ * matrices or with the caller; everything else that the matrix keeps
+ * alive is.
+ *
+ * <ul>
+ * <li>Cell storage: the arrays that hold the cells, including their
+ *   headers.</li>
+ * <li>Slack: capacity that is allocated but holds no cells, such as
+ *   unused slots in chunks or padding bits.</li>
+ * <li>Index: the matrix objects themselves and the structures used to
+ *   find cells, such as arrays of rows, trees, bands and dictionaries,
+ *   plus any indexes kept up to date with the cells.</li>
+ * <li>Overlay: state layered on by decorators, such as journals,
+ *   listeners, metrics and log buffers.</li>
+ * </ul>
+ *
+ * Sizes assume the running HotSpot VM's layout: 8-byte alignment,
+ * compressed references and class pointers when the VM uses them.
+ *
+ * @author Andrew N. Fargo
+ */
+public final class MemoryFootprint {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The size of a reference, in bytes. */
+  public static final long REFERENCE;
+
+  /** The size of an object header, in bytes. */
+  public static final long OBJECT_HEADER;
+
+  /** The size of an array header, including its length, in bytes. */
+  public static final long ARRAY_HEADER;
+
+  /** Objects start at multiples of this many bytes. */
+  public static final long ALIGNMENT = 8;
+
+  static {
+    boolean compressedOops = true;
+    boolean compressedClasses = true;
+    try {
+      HotSpotDiagnosticMXBean vm =
+          ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+      compressedOops = Boolean.parseBoolean(vm.getVMOption("UseCompressedOops").getValue());
+      compressedClasses =
+          Boolean.parseBoolean(vm.getVMOption("UseCompressedClassPointers").getValue());
+    } catch (RuntimeException | LinkageError e) {
+      // Not HotSpot; assume the usual 64-bit layout.
+    } // try/catch
+    REFERENCE = compressedOops ? 4 : 8;
+    OBJECT_HEADER = compressedClasses ? 12 : 16;
+    ARRAY_HEADER = compressedClasses ? 16 : 20;
+  } // static
+
+  /** An empty footprint. */
+  public static final MemoryFootprint NONE = new MemoryFootprint(0, 0, 0, 0);
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** Bytes of cell storage. */
+  private final long cells;
+
+  /** Bytes of unused capacity. */
+  private final long slack;
+
+  /** Bytes of indexing structure. */
+  private final long index;
+
+  /** Bytes of overlays. */
+  private final long overlay;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a footprint.
+   *
+   * @param cellBytes
+   *   Bytes of cell storage.
+   * @param slackBytes
+   *   Bytes of unused capacity.
+   * @param indexBytes
+   *   Bytes of indexing structure.
+   * @param overlayBytes
+   *   Bytes of overlays.
+   */
+  public MemoryFootprint(long cellBytes, long slackBytes, long indexBytes, long overlayBytes) {
+    this.cells = cellBytes;
+    this.slack = slackBytes;
+    this.index = indexBytes;
+    this.overlay = overlayBytes;
+  } // MemoryFootprint(long, long, long, long)
+
+  // +-------------------+-------------------------------------------
+  // | Size calculations |
+  // +-------------------+
+
+  /**
+   * Round a size up to the alignment of objects.
+   *
+   * @param bytes
+   *   The size.
+   *
+   * @return the aligned size.
+   */
+  public static long align(long bytes) {
+    return (bytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+  } // align(long)
+
+  /**
+   * Estimate the size of an object.
+   *
+   * @param references
+   *   The number of reference fields.
+   * @param primitiveBytes
+   *   The total size of the primitive fields.
+   *
+   * @return the size, in bytes.
+   */
+  public static long object(int references, long primitiveBytes) {
+    return align(OBJECT_HEADER + references * REFERENCE + primitiveBytes);
+  } // object(int, long)
+
+  /**
+   * Estimate the size of an array of references.
+   *
+   * @param length
+   *   The length of the array.
+   *
+   * @return the size, in bytes.
+   */
+  public static long referenceArray(long length) {
+    return align(ARRAY_HEADER + length * REFERENCE);
+  } // referenceArray(long)
+
+  /**
+   * Estimate the size of an array of primitives.
+   *
+   * @param length
+   *   The length of the array.
+   * @param elementBytes
+   *   The size of each element.
+   *
+   * @return the size, in bytes.
+   */
+  public static long primitiveArray(long length, int elementBytes) {
+    return align(ARRAY_HEADER + length * elementBytes);
+  } // primitiveArray(long, int)
+
+  /**
+   * Estimate the size of a HashMap and its entries, but not its keys or
+   * values, as sized when copied from a map of the same size.
+   *
+   * @param size
+   *   The number of entries.
+   *
+   * @return the size, in bytes.
+   */
+  public static long hashMap(int size) {
+    long table = 0;
+    if (size > 0) {
+      int capacity = Integer.highestOneBit(Math.max(1, (int) (size / 0.75f + 1.0f) - 1)) << 1;
+      table = referenceArray(capacity);
+    } // if
+    return object(4, 16) + table + size * object(3, 4);
+  } // hashMap(int)
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Get the bytes of cell storage.
+   *
+   * @return the bytes.
+   */
+  public long cells() {
+    return this.cells;
+  } // cells()
+
+  /**
+   * Get the bytes of unused capacity.
+   *
+   * @return the bytes.
+   */
+  public long slack() {
+    return this.slack;
+  } // slack()
+
+  /**
+   * Get the bytes of indexing structure.
+   *
+   * @return the bytes.
+   */
+  public long index() {
+    return this.index;
+  } // index()
+
+  /**
+   * Get the bytes of overlays.
+   *
+   * @return the bytes.
+   */
+  public long overlay() {
+    return this.overlay;
+  } // overlay()
+
+  /**
+   * Get the total.
+   *
+   * @return the bytes in all four parts.
+   */
+  public long total() {
+    return this.cells + this.slack + this.index + this.overlay;
+  } // total()
+
+  /**
+   * Add bytes of index, as a decorator does for its own object.
+   *
+   * @param bytes
+   *   The bytes to add.
+   *
+   * @return a new footprint.
+   */
+  public MemoryFootprint plusIndex(long bytes) {
+    return new MemoryFootprint(this.cells, this.slack, this.index + bytes, this.overlay);
+  } // plusIndex(long)
+
+  /**
+   * Add bytes of overlay.
+   *
+   * @param bytes
+   *   The bytes to add.
+   *
+   * @return a new footprint.
+   */
+  public MemoryFootprint plusOverlay(long bytes) {
+    return new MemoryFootprint(this.cells, this.slack, this.index, this.overlay + bytes);
+  } // plusOverlay(long)
+
+  /**
+   * Describe the footprint.
+   *
+   * @return a string listing each part and the total.
+   */
+  public String toString() {
+    return String.format("MemoryFootprint[cells=%d, slack=%d, index=%d, overlay=%d, total=%d]",
+        this.cells, this.slack, this.index, this.overlay, this.total());
+  } // toString()
+} // class MemoryFootprint
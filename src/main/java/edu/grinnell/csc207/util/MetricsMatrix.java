@@ -0,0 +1,781 @@
+package edu.grinnell.csc207.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A matrix that records how it is used. Wraps any other matrix and
+ * counts each operation, the cells each operation touches, and an
+ * estimate of the bytes each operation allocates. Everything but
+ * {@code get} and {@code set} is also timed.
+ *
+ * <p>Counters are {@link LongAdder}s, so concurrent readers do not
+ * contend, and {@code get} and {@code set} never allocate. The metrics
+ * may be read with {@link #snapshot()} or over JMX, after calling
+ * {@link #register(String)}.</p>
+ *
+ * @author Andrew N. Fargo
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class MetricsMatrix<T> implements Matrix<T>, MetricsMatrixMXBean {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The JMX domain under which matrices are registered. */
+  public static final String JMX_DOMAIN = "edu.grinnell.csc207.util";
+
+  /** All of the operations, so that we need not call values() repeatedly. */
+  private static final MatrixOperation[] OPERATIONS = MatrixOperation.values();
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The matrix that does the real work. */
+  private final Matrix<T> delegate;
+
+  /** The number of times each operation was performed, by ordinal. */
+  private final LongAdder[] counts;
+
+  /** The number of cells touched by each operation, by ordinal. */
+  private final LongAdder[] cells;
+
+  /** The latencies of each timed operation, by ordinal (null if untimed). */
+  private final LatencyHistogram[] latencies;
+
+  /** The estimated number of bytes allocated. */
+  private final LongAdder bytes = new LongAdder();
+
+  /** The name under which we are registered with JMX, if any. */
+  private ObjectName name;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix that records how another matrix is used.
+   *
+   * @param matrix
+   *   The matrix to wrap. Operations performed directly on it are not
+   *   recorded.
+   */
+  public MetricsMatrix(Matrix<T> matrix) {
+    this.delegate = matrix;
+    this.counts = new LongAdder[OPERATIONS.length];
+    this.cells = new LongAdder[OPERATIONS.length];
+    this.latencies = new LatencyHistogram[OPERATIONS.length];
+    for (MatrixOperation op : OPERATIONS) {
+      this.counts[op.ordinal()] = new LongAdder();
+      this.cells[op.ordinal()] = new LongAdder();
+      if (op != MatrixOperation.GET && op != MatrixOperation.SET) {
+        this.latencies[op.ordinal()] = new LatencyHistogram();
+      } // if
+    } // for
+  } // MetricsMatrix(Matrix<T>)
+
+  // +-----------------+---------------------------------------------
+  // | Private Methods |
+  // +-----------------+
+
+  /**
+   * Record a timed operation.
+   *
+   * @param op
+   *   The operation.
+   * @param touched
+   *   The number of cells it touched.
+   * @param allocated
+   *   The estimated number of bytes it allocated.
+   * @param start
+   *   When it started, as given by System.nanoTime().
+   */
+  private void record(MatrixOperation op, long touched, long allocated, long start) {
+    long elapsed = System.nanoTime() - start;
+    this.counts[op.ordinal()].increment();
+    this.cells[op.ordinal()].add(touched);
+    if (allocated != 0) {
+      this.bytes.add(allocated);
+    } // if
+    this.latencies[op.ordinal()].record(elapsed);
+  } // record(MatrixOperation, long, long, long)
+
+  /**
+   * Estimate the size of an array of references.
+   *
+   * @param length
+   *   The length of the array.
+   *
+   * @return the estimated size, in bytes.
+   */
+  static long arrayBytes(long length) {
+    return MemoryFootprint.referenceArray(length);
+  } // arrayBytes(long)
+
+  /**
+   * Count the cells on a line, as filled by fillLine.
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   *
+   * @return the number of cells.
+   */
+  static long lineLength(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol) {
+    if (startRow >= endRow || startCol >= endCol) {
+      return 0;
+    } // if
+    long steps = Long.MAX_VALUE;
+    if (deltaRow > 0) {
+      steps = Math.min(steps, ((long) endRow - startRow + deltaRow - 1) / deltaRow);
+    } // if
+    if (deltaCol > 0) {
+      steps = Math.min(steps, ((long) endCol - startCol + deltaCol - 1) / deltaCol);
+    } // if
+    return (steps == Long.MAX_VALUE) ? 0 : steps;
+  } // lineLength(int, int, int, int, int, int)
+
+  /**
+   * Build a map from the names of the timed operations to some
+   * statistic of their latencies.
+   *
+   * @param percentile
+   *   The percentile to report, or a negative number for the maximum.
+   *
+   * @return the map.
+   */
+  private Map<String, Long> latencyMap(double percentile) {
+    Map<String, Long> result = new TreeMap<String, Long>();
+    for (MatrixOperation op : OPERATIONS) {
+      LatencyHistogram histogram = this.latencies[op.ordinal()];
+      if (histogram != null) {
+        result.put(op.name(), (percentile < 0)
+            ? histogram.max() : histogram.percentile(percentile));
+      } // if
+    } // for
+    return result;
+  } // latencyMap(double)
+
+  /**
+   * Count the cells touched by an operation. Gets and sets, which are
+   * not timed, touch one cell each and are only counted.
+   *
+   * @param op
+   *   The operation.
+   *
+   * @return the number of cells.
+   */
+  private long cellsTouched(MatrixOperation op) {
+    return (this.latencies[op.ordinal()] == null)
+        ? this.counts[op.ordinal()].sum()
+        : this.cells[op.ordinal()].sum();
+  } // cellsTouched(MatrixOperation)
+
+  /**
+   * Build a map from the names of the operations to their counters.
+   *
+   * @param adders
+   *   The counters, by ordinal.
+   *
+   * @return the map.
+   */
+  private static Map<String, Long> adderMap(LongAdder[] adders) {
+    Map<String, Long> result = new TreeMap<String, Long>();
+    for (MatrixOperation op : OPERATIONS) {
+      result.put(op.name(), adders[op.ordinal()].sum());
+    } // for
+    return result;
+  } // adderMap(LongAdder[])
+
+  // +---------+-----------------------------------------------------
+  // | Metrics |
+  // +---------+
+
+  /**
+   * Get the matrix that this matrix wraps.
+   *
+   * @return the wrapped matrix.
+   */
+  public Matrix<T> delegate() {
+    return this.delegate;
+  } // delegate()
+
+  /**
+   * Take a snapshot of the metrics recorded so far. The snapshot is
+   * not atomic: operations that happen while it is taken may be
+   * partially included.
+   *
+   * @return the snapshot.
+   */
+  public Snapshot snapshot() {
+    return new Snapshot(this);
+  } // snapshot()
+
+  /**
+   * Forget everything recorded so far.
+   */
+  public void reset() {
+    for (MatrixOperation op : OPERATIONS) {
+      this.counts[op.ordinal()].reset();
+      this.cells[op.ordinal()].reset();
+      if (this.latencies[op.ordinal()] != null) {
+        this.latencies[op.ordinal()].reset();
+      } // if
+    } // for
+    this.bytes.reset();
+  } // reset()
+
+  /**
+   * Register this matrix with the platform MBean server.
+   *
+   * @param matrixName
+   *   A name for the matrix, unique among registered matrices.
+   *
+   * @return the name under which the matrix is registered.
+   *
+   * @throws JMException
+   *   If the name is invalid or already in use.
+   */
+  public synchronized ObjectName register(String matrixName) throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName objectName = new ObjectName(JMX_DOMAIN + ":type=MetricsMatrix,name="
+        + ObjectName.quote(matrixName));
+    server.registerMBean(this, objectName);
+    this.name = objectName;
+    return objectName;
+  } // register(String)
+
+  /**
+   * Remove this matrix from the platform MBean server, if it was
+   * registered.
+   *
+   * @throws JMException
+   *   If the matrix cannot be unregistered.
+   */
+  public synchronized void unregister() throws JMException {
+    if (this.name != null) {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(this.name);
+      this.name = null;
+    } // if
+  } // unregister()
+
+  /**
+   * Get the number of times each operation has been performed.
+   *
+   * @return the counts, by operation.
+   */
+  public Map<String, Long> getOperationCounts() {
+    return adderMap(this.counts);
+  } // getOperationCounts()
+
+  /**
+   * Get the number of cells read or written by each operation.
+   *
+   * @return the numbers of cells, by operation.
+   */
+  public Map<String, Long> getCellsTouched() {
+    Map<String, Long> result = new TreeMap<String, Long>();
+    for (MatrixOperation op : OPERATIONS) {
+      result.put(op.name(), this.cellsTouched(op));
+    } // for
+    return result;
+  } // getCellsTouched()
+
+  /**
+   * Get the estimated number of bytes allocated by all operations.
+   *
+   * @return the number of bytes.
+   */
+  public long getEstimatedBytesAllocated() {
+    return this.bytes.sum();
+  } // getEstimatedBytesAllocated()
+
+  /**
+   * Get the median latency of each timed operation.
+   *
+   * @return the latencies, in nanoseconds, by operation.
+   */
+  public Map<String, Long> getLatencyP50Nanos() {
+    return this.latencyMap(50);
+  } // getLatencyP50Nanos()
+
+  /**
+   * Get the 99th percentile latency of each timed operation.
+   *
+   * @return the latencies, in nanoseconds, by operation.
+   */
+  public Map<String, Long> getLatencyP99Nanos() {
+    return this.latencyMap(99);
+  } // getLatencyP99Nanos()
+
+  /**
+   * Get the largest latency of each timed operation.
+   *
+   * @return the latencies, in nanoseconds, by operation.
+   */
+  public Map<String, Long> getLatencyMaxNanos() {
+    return this.latencyMap(-1);
+  } // getLatencyMaxNanos()
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    T val = this.delegate.get(row, col);
+    this.counts[MatrixOperation.GET.ordinal()].increment();
+    return val;
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    this.delegate.set(row, col, val);
+    this.counts[MatrixOperation.SET.ordinal()].increment();
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.delegate.height();
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.delegate.width();
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    long start = System.nanoTime();
+    this.delegate.insertRow(row);
+    this.record(MatrixOperation.INSERT_ROW, this.width(),
+        arrayBytes(this.width()) + arrayBytes(this.height()), start);
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    long start = System.nanoTime();
+    this.delegate.insertRow(row, vals);
+    this.record(MatrixOperation.INSERT_ROW, this.width(), arrayBytes(this.height()),
+        start);
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    long start = System.nanoTime();
+    this.delegate.insertCol(col);
+    this.record(MatrixOperation.INSERT_COL, this.height(),
+        arrayBytes(this.height()) + this.height() * arrayBytes(this.width()), start);
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    long start = System.nanoTime();
+    this.delegate.insertCol(col, vals);
+    this.record(MatrixOperation.INSERT_COL, this.height(),
+        this.height() * arrayBytes(this.width()), start);
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    long start = System.nanoTime();
+    this.delegate.deleteRow(row);
+    this.record(MatrixOperation.DELETE_ROW, this.width(), arrayBytes(this.height()),
+        start);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    long start = System.nanoTime();
+    this.delegate.deleteCol(col);
+    this.record(MatrixOperation.DELETE_COL, this.height(),
+        this.height() * arrayBytes(this.width()), start);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    long start = System.nanoTime();
+    this.delegate.fillRegion(startRow, startCol, endRow, endCol, val);
+    this.record(MatrixOperation.FILL_REGION,
+        Math.max(0L, (long) (endRow - startRow)) * Math.max(0, endCol - startCol), 0,
+        start);
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    long start = System.nanoTime();
+    this.delegate.fillLine(startRow, startCol, deltaRow, deltaCol, endRow, endCol, val);
+    this.record(MatrixOperation.FILL_LINE,
+        lineLength(startRow, startCol, deltaRow, deltaCol, endRow, endCol), 0, start);
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a new matrix that is the transpose of this one. Like a copy,
+   * the transpose records its own metrics, starting from zero.
+   *
+   * @return the transpose.
+   */
+  public Matrix<T> transpose() {
+    long start = System.nanoTime();
+    MetricsMatrix<T> result = new MetricsMatrix<T>(this.delegate.transpose());
+    this.record(MatrixOperation.TRANSPOSE, (long) this.width() * this.height(),
+        arrayBytes(this.width()) + this.width() * arrayBytes(this.height()), start);
+    return result;
+  } // transpose()
+
+  /**
+   * Transpose this matrix in place. Square matrices are assumed to be
+   * transposed without allocating; others, to need new rows.
+   */
+  public void transposeInPlace() {
+    long start = System.nanoTime();
+    boolean square = this.width() == this.height();
+    this.delegate.transposeInPlace();
+    this.record(MatrixOperation.TRANSPOSE, (long) this.width() * this.height(),
+        square ? 0 : arrayBytes(this.height()) + this.height() * arrayBytes(this.width()),
+        start);
+  } // transposeInPlace()
+
+  /**
+   * Make a copy of the matrix. The copy records its own metrics,
+   * starting from zero, and is not registered with JMX.
+   *
+   * @return a copy of the matrix.
+   */
+  public Matrix<T> clone() {
+    long start = System.nanoTime();
+    MetricsMatrix<T> copy = new MetricsMatrix<T>(this.delegate.clone());
+    long size = (long) this.width() * this.height();
+    this.record(MatrixOperation.CLONE, size,
+        arrayBytes(this.height()) + this.height() * arrayBytes(this.width()), start);
+    return copy;
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    long start = System.nanoTime();
+    boolean result = this.delegate.equals(other);
+    this.record(MatrixOperation.EQUALS, result ? (long) this.width() * this.height() : 0,
+        0, start);
+    return result;
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix, which is the same as the hash
+   * code of the wrapped matrix.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    long start = System.nanoTime();
+    int code = this.delegate.hashCode();
+    this.record(MatrixOperation.HASH_CODE, (long) this.width() * this.height(), 0, start);
+    return code;
+  } // hashCode()
+
+  /**
+   * Estimate the heap this matrix keeps alive, not counting elements:
+   * the wrapped matrix, plus the counters and histograms as overlay.
+   *
+   * @return the estimate.
+   */
+  public MemoryFootprint footprint() {
+    long adder = MemoryFootprint.object(1, Long.BYTES + Integer.BYTES);
+    long metrics = 3 * MemoryFootprint.referenceArray(OPERATIONS.length)
+        + (2L * OPERATIONS.length + 1) * adder;
+    for (LatencyHistogram histogram : this.latencies) {
+      if (histogram != null) {
+        metrics += LatencyHistogram.estimatedBytes();
+      } // if
+    } // for
+    return this.delegate.footprint().plusIndex(MemoryFootprint.object(6, 0))
+        .plusOverlay(metrics);
+  } // footprint()
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * The metrics of a matrix at one point in time.
+   */
+  public static class Snapshot {
+    /** The number of times each operation was performed. */
+    private final Map<MatrixOperation, Long> counts =
+        new EnumMap<MatrixOperation, Long>(MatrixOperation.class);
+
+    /** The number of cells touched by each operation. */
+    private final Map<MatrixOperation, Long> cells =
+        new EnumMap<MatrixOperation, Long>(MatrixOperation.class);
+
+    /** The latency percentiles (50, 90, 99, 100) of each timed operation. */
+    private final Map<MatrixOperation, long[]> latencies =
+        new EnumMap<MatrixOperation, long[]>(MatrixOperation.class);
+
+    /** The estimated number of bytes allocated. */
+    private final long bytes;
+
+    /**
+     * Take a snapshot of a matrix.
+     *
+     * @param matrix
+     *   The matrix.
+     */
+    Snapshot(MetricsMatrix<?> matrix) {
+      for (MatrixOperation op : OPERATIONS) {
+        this.counts.put(op, matrix.counts[op.ordinal()].sum());
+        this.cells.put(op, matrix.cellsTouched(op));
+        LatencyHistogram histogram = matrix.latencies[op.ordinal()];
+        if (histogram != null) {
+          this.latencies.put(op, new long[] {histogram.percentile(50),
+              histogram.percentile(90), histogram.percentile(99), histogram.max()});
+        } // if
+      } // for
+      this.bytes = matrix.bytes.sum();
+    } // Snapshot(MetricsMatrix<?>)
+
+    /**
+     * Get the number of times an operation was performed.
+     *
+     * @param op
+     *   The operation.
+     *
+     * @return the count.
+     */
+    public long count(MatrixOperation op) {
+      return this.counts.get(op);
+    } // count(MatrixOperation)
+
+    /**
+     * Get the number of cells touched by an operation.
+     *
+     * @param op
+     *   The operation.
+     *
+     * @return the number of cells.
+     */
+    public long cellsTouched(MatrixOperation op) {
+      return this.cells.get(op);
+    } // cellsTouched(MatrixOperation)
+
+    /**
+     * Get the estimated number of bytes allocated by all operations.
+     *
+     * @return the number of bytes.
+     */
+    public long estimatedBytesAllocated() {
+      return this.bytes;
+    } // estimatedBytesAllocated()
+
+    /**
+     * Get a latency percentile of an operation.
+     *
+     * @param op
+     *   The operation.
+     * @param percentile
+     *   One of 50, 90, 99 or 100.
+     *
+     * @return the latency, in nanoseconds, or 0 if the operation is not
+     *   timed.
+     *
+     * @throws IllegalArgumentException
+     *   If the percentile is not one of those recorded.
+     */
+    public long latency(MatrixOperation op, int percentile) {
+      long[] values = this.latencies.get(op);
+      int index;
+      switch (percentile) {
+        case 50:
+          index = 0;
+          break;
+        case 90:
+          index = 1;
+          break;
+        case 99:
+          index = 2;
+          break;
+        case 100:
+          index = 3;
+          break;
+        default:
+          throw new IllegalArgumentException("Unrecorded percentile: " + percentile);
+      } // switch
+      return (values == null) ? 0 : values[index];
+    } // latency(MatrixOperation, int)
+
+    /**
+     * Summarize the snapshot.
+     *
+     * @return a string with one line per operation performed.
+     */
+    public String toString() {
+      StringBuilder result = new StringBuilder();
+      for (MatrixOperation op : OPERATIONS) {
+        if (this.count(op) != 0) {
+          result.append(String.format("%-12s count=%d cells=%d", op, this.count(op),
+              this.cellsTouched(op)));
+          if (this.latencies.containsKey(op)) {
+            result.append(String.format(" p50=%dns p99=%dns max=%dns",
+                this.latency(op, 50), this.latency(op, 99), this.latency(op, 100)));
+          } // if
+          result.append(System.lineSeparator());
+        } // if
+      } // for
+      result.append("estimated bytes allocated=").append(this.bytes);
+      return result.toString();
+    } // toString()
+  } // class Snapshot
+} // class MetricsMatrix
@@ -0,0 +1,58 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Map;
+
+/**
+ * The management interface for a {@link MetricsMatrix}, for use with JMX.
+ * All maps are keyed by the names of {@link MatrixOperation} constants.
+ *
+ * @author Andrew N. Fargo
+ */
+public interface MetricsMatrixMXBean {
+  /**
+   * Get the number of times each operation has been performed.
+   *
+   * @return the counts, by operation.
+   */
+  Map<String, Long> getOperationCounts();
+
+  /**
+   * Get the number of cells read or written by each operation.
+   *
+   * @return the numbers of cells, by operation.
+   */
+  Map<String, Long> getCellsTouched();
+
+  /**
+   * Get the estimated number of bytes allocated by all operations.
+   *
+   * @return the number of bytes.
+   */
+  long getEstimatedBytesAllocated();
+
+  /**
+   * Get the median latency of each timed operation.
+   *
+   * @return the latencies, in nanoseconds, by operation.
+   */
+  Map<String, Long> getLatencyP50Nanos();
+
+  /**
+   * Get the 99th percentile latency of each timed operation.
+   *
+   * @return the latencies, in nanoseconds, by operation.
+   */
+  Map<String, Long> getLatencyP99Nanos();
+
+  /**
+   * Get the largest latency of each timed operation.
+   *
+   * @return the latencies, in nanoseconds, by operation.
+   */
+  Map<String, Long> getLatencyMaxNanos();
+
+  /**
+   * Forget everything recorded so far.
+   */
+  void reset();
+} // interface MetricsMatrixMXBean
@@ -0,0 +1,527 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.function.BinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * A matrix that moves its values into another implementation when the
+ * values it holds come to suit one better, as chosen by
+ * {@link Matrices}.
+ *
+ * <p>After changes to a quarter of its cells (or at least MIN_CHECK
+ * cells), the matrix counts the cells that hold other than the default
+ * and the distinct values, and chooses storage for them as Matrices
+ * would. It is copied into that storage if it differs from the current
+ * one, with some hysteresis: a sparse matrix stays sparse until more
+ * than DENSE_DENSITY of its cells are set, and a matrix becomes
+ * dictionary-encoded only when it has at most half of DICTIONARY_VALUES
+ * distinct values. Checks cost time in proportion to the size of the
+ * matrix, as do the changes between them, so they add a constant factor
+ * to the cost of changes.</p>
+ *
+ * <p>Bit and primitive storage are chosen only while no cell holds
+ * null. Storing null in a matrix kept in either first moves it to
+ * storage that can hold null, so a migrating matrix accepts null like
+ * MatrixV0.</p>
+ *
+ * @author Andrew N. Fargo
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class MigratingMatrix<T> implements Matrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The fewest cells changed between checks. */
+  static final int MIN_CHECK = 64;
+
+  /** The fraction of the cells that must change between checks, as
+      a divisor. */
+  private static final int CHECK_DIVISOR = 4;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The type of the values. */
+  private final Class<T> type;
+
+  /** The matrix that holds the values. */
+  private Matrix<T> delegate;
+
+  /** How the values are stored now. */
+  private Matrices.Storage storage;
+
+  /** The expected use, which decides the layout of dense storage. */
+  private final Matrices.Workload workload;
+
+  /** Default value for insertions. */
+  private final T defaultValue;
+
+  /** The number of cells changed since the last check. */
+  private long changes;
+
+  /** The number of times the matrix has changed storage. */
+  private int migrations;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a matrix that holds the values of another matrix, which it
+   * takes over, and later migrates them as they change.
+   *
+   * @param elements
+   *   The type of the values, such as Integer.class.
+   * @param matrix
+   *   The matrix that holds the values at first. It must not be used
+   *   directly afterwards.
+   * @param use
+   *   The expected use, which decides the layout of dense storage.
+   * @param def
+   *   The default value of matrix.
+   */
+  public MigratingMatrix(Class<T> elements, Matrix<T> matrix, Matrices.Workload use, T def) {
+    this.type = elements;
+    this.delegate = matrix;
+    this.storage = Matrices.storageOf(matrix);
+    this.workload = use;
+    this.defaultValue = def;
+  } // MigratingMatrix(Class<T>, Matrix<T>, Matrices.Workload, T)
+
+  // +---------+-----------------------------------------------------
+  // | Storage |
+  // +---------+
+
+  /**
+   * Determine how the values are stored now.
+   *
+   * @return the storage.
+   */
+  public Matrices.Storage storage() {
+    return this.storage;
+  } // storage()
+
+  /**
+   * Count the changes of storage so far.
+   *
+   * @return the number of times the matrix has been copied into other
+   *   storage.
+   */
+  public int migrations() {
+    return this.migrations;
+  } // migrations()
+
+  /**
+   * Store the values in the given storage, copying them if needed. The
+   * storage may change again as the matrix is used.
+   *
+   * @param target
+   *   The storage.
+   *
+   * @throws IllegalArgumentException
+   *   If the storage cannot hold the values.
+   */
+  public void setStorage(Matrices.Storage target) {
+    if (target != this.storage) {
+      this.delegate = Matrices.convert(this.delegate, this.type, target, this.workload,
+          this.defaultValue);
+      this.storage = target;
+      this.migrations++;
+    } // if
+    this.changes = 0;
+  } // setStorage(Matrices.Storage)
+
+  // +-----------------+---------------------------------------------
+  // | Private methods |
+  // +-----------------+
+
+  /**
+   * Note that cells have changed, and check the storage if enough have.
+   *
+   * @param cells
+   *   The number of cells changed.
+   */
+  private void changed(long cells) {
+    this.changes += cells;
+    long cellCount = (long) this.delegate.width() * this.delegate.height();
+    if (this.changes >= Math.max(MIN_CHECK, cellCount / CHECK_DIVISOR)) {
+      this.check();
+    } // if
+  } // changed(long)
+
+  /**
+   * Choose storage for the values the matrix holds now, and migrate to
+   * it if it is different enough.
+   */
+  private void check() {
+    this.changes = 0;
+    double density = Matrices.density(this.delegate, this.defaultValue);
+    int distinct = Matrices.distinct(this.delegate, Matrices.DICTIONARY_VALUES + 1);
+    Matrices.Storage target = Matrices.choose(this.type, this.defaultValue, density, distinct,
+        Matrices.hasNulls(this.delegate));
+    if (this.storage == Matrices.Storage.SPARSE && density <= Matrices.DENSE_DENSITY) {
+      return;
+    } else if (target == Matrices.Storage.DICTIONARY
+        && distinct > Matrices.DICTIONARY_VALUES / 2) {
+      return;
+    } // if/else
+    this.setStorage(target);
+  } // check()
+
+  /**
+   * Make sure the storage can hold a value that is about to be stored,
+   * migrating if it cannot.
+   *
+   * @param val
+   *   The value.
+   */
+  private void admit(T val) {
+    if (val == null && Matrices.rejectsNull(this.storage)) {
+      this.setStorage(Matrices.choose(this.type, this.defaultValue,
+          Matrices.density(this.delegate, this.defaultValue),
+          Matrices.distinct(this.delegate, Matrices.DICTIONARY_VALUES + 1), true));
+    } // if
+  } // admit(T)
+
+  /**
+   * Make sure the storage can hold values that are about to be stored,
+   * migrating if it cannot.
+   *
+   * @param vals
+   *   The values.
+   */
+  private void admitAll(T[] vals) {
+    if (vals != null && Arrays.asList(vals).contains(null)) {
+      this.admit(null);
+    } // if
+  } // admitAll(T[])
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    return this.delegate.get(row, col);
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    this.admit(val);
+    this.delegate.set(row, col, val);
+    this.changed(1);
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.delegate.height();
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.delegate.width();
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    this.delegate.insertRow(row);
+    this.changed(this.width());
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    this.admitAll(vals);
+    this.delegate.insertRow(row, vals);
+    this.changed(this.width());
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    this.delegate.insertCol(col);
+    this.changed(this.height());
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    this.admitAll(vals);
+    this.delegate.insertCol(col, vals);
+    this.changed(this.height());
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    this.delegate.deleteRow(row);
+    this.changed(this.width());
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    this.delegate.deleteCol(col);
+    this.changed(this.height());
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    this.admit(val);
+    this.delegate.fillRegion(startRow, startCol, endRow, endCol, val);
+    this.changed((long) Math.max(0, endRow - startRow) * Math.max(0, endCol - startCol));
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    this.admit(val);
+    this.delegate.fillLine(startRow, startCol, deltaRow, deltaCol, endRow, endCol, val);
+    this.changed(Math.max(this.width(), this.height()));
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a new matrix that is the transpose of this one, in the same
+   * storage.
+   *
+   * @return the transpose.
+   */
+  public MigratingMatrix<T> transpose() {
+    return new MigratingMatrix<T>(this.type, this.delegate.transpose(), this.workload,
+        this.defaultValue);
+  } // transpose()
+
+  /**
+   * Transpose this matrix in place.
+   */
+  public void transposeInPlace() {
+    this.delegate.transposeInPlace();
+  } // transposeInPlace()
+
+  /**
+   * Combine all the elements, row by row, with an operation.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   *
+   * @return identity combined with every element.
+   */
+  public T reduce(T identity, BinaryOperator<T> op) {
+    return this.delegate.reduce(identity, op);
+  } // reduce(T, BinaryOperator<T>)
+
+  /**
+   * Count the elements that satisfy a predicate.
+   *
+   * @param predicate
+   *   The predicate.
+   *
+   * @return the number of elements for which predicate is true.
+   */
+  public long count(Predicate<? super T> predicate) {
+    return this.delegate.count(predicate);
+  } // count(Predicate)
+
+  /**
+   * Combine the elements of each row, left to right.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   * @param generator
+   *   Makes an array of the given length, such as Integer[]::new.
+   *
+   * @return an array with one combined value per row.
+   */
+  public T[] reduceRows(T identity, BinaryOperator<T> op, IntFunction<T[]> generator) {
+    return this.delegate.reduceRows(identity, op, generator);
+  } // reduceRows(T, BinaryOperator<T>, IntFunction<T[]>)
+
+  /**
+   * Combine the elements of each column, top to bottom.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   * @param generator
+   *   Makes an array of the given length, such as Integer[]::new.
+   *
+   * @return an array with one combined value per column.
+   */
+  public T[] reduceCols(T identity, BinaryOperator<T> op, IntFunction<T[]> generator) {
+    return this.delegate.reduceCols(identity, op, generator);
+  } // reduceCols(T, BinaryOperator<T>, IntFunction<T[]>)
+
+  /**
+   * Make a copy of the matrix in the same storage.
+   *
+   * @return a copy of the matrix.
+   */
+  public MigratingMatrix<T> clone() {
+    return new MigratingMatrix<T>(this.type, this.delegate.clone(), this.workload,
+        this.defaultValue);
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    return this.delegate.equals(other);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    return this.delegate.hashCode();
+  } // hashCode()
+
+  /**
+   * Estimate the heap this matrix keeps alive, not counting its elements:
+   * the footprint of the current storage, plus this matrix as index.
+   *
+   * @return the estimate.
+   */
+  public MemoryFootprint footprint() {
+    return this.delegate.footprint()
+        .plusIndex(MemoryFootprint.object(5, Long.BYTES + Integer.BYTES));
+  } // footprint()
+} // class MigratingMatrix<T>
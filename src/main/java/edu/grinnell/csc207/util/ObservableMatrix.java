@@ -0,0 +1,485 @@
+package edu.grinnell.csc207.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+/**
+ * A matrix that tells {@link MatrixListener}s about its changes. Wraps
+ * any other matrix. While no listener is registered, changes are passed
+ * straight to the wrapped matrix, without reading old values or
+ * allocating anything.
+ *
+ * @author Andrew N. Fargo
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class ObservableMatrix<T> implements Matrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** An empty set of listeners, shared by all matrices without any. */
+  private static final MatrixListener<?>[] NO_LISTENERS = {};
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The matrix that does the real work. */
+  private final Matrix<T> delegate;
+
+  /** The listeners. Replaced, never changed, so that listeners may be
+      added or removed while others are being told about a change. */
+  private MatrixListener<? super T>[] listeners;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix that reports changes to another matrix.
+   *
+   * @param matrix
+   *   The matrix to wrap. Changes made directly to it are not reported.
+   */
+  @SuppressWarnings("unchecked")
+  public ObservableMatrix(Matrix<T> matrix) {
+    this.delegate = matrix;
+    this.listeners = (MatrixListener<? super T>[]) NO_LISTENERS;
+  } // ObservableMatrix(Matrix<T>)
+
+  // +-----------+---------------------------------------------------
+  // | Listeners |
+  // +-----------+
+
+  /**
+   * Get the matrix that this matrix wraps.
+   *
+   * @return the wrapped matrix.
+   */
+  public Matrix<T> delegate() {
+    return this.delegate;
+  } // delegate()
+
+  /**
+   * Start telling a listener about changes to this matrix.
+   *
+   * @param listener
+   *   The listener.
+   */
+  public void addListener(MatrixListener<? super T> listener) {
+    MatrixListener<? super T>[] more =
+        Arrays.copyOf(this.listeners, this.listeners.length + 1);
+    more[more.length - 1] = listener;
+    this.listeners = more;
+  } // addListener(MatrixListener)
+
+  /**
+   * Stop telling a listener about changes to this matrix.
+   *
+   * @param listener
+   *   The listener.
+   */
+  @SuppressWarnings("unchecked")
+  public void removeListener(MatrixListener<? super T> listener) {
+    for (int i = 0; i < this.listeners.length; i++) {
+      if (this.listeners[i] == listener) {
+        MatrixListener<? super T>[] remaining =
+            Arrays.copyOf(this.listeners, this.listeners.length - 1);
+        System.arraycopy(this.listeners, i + 1, remaining, i, remaining.length - i);
+        this.listeners = (remaining.length == 0)
+            ? (MatrixListener<? super T>[]) NO_LISTENERS : remaining;
+        return;
+      } // if
+    } // for
+  } // removeListener(MatrixListener)
+
+  // +-----------------+---------------------------------------------
+  // | Private methods |
+  // +-----------------+
+
+  /**
+   * Tell the listeners about a change to the shape of the matrix.
+   *
+   * @param op
+   *   The operation that changed it.
+   * @param index
+   *   The row or column inserted or deleted, or -1.
+   */
+  private void structureChanged(MatrixOperation op, int index) {
+    for (MatrixListener<? super T> listener : this.listeners) {
+      listener.structureChanged(op, index);
+    } // for
+  } // structureChanged(MatrixOperation, int)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public T get(int row, int col) {
+    return this.delegate.get(row, col);
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    MatrixListener<? super T>[] current = this.listeners;
+    if (current.length == 0) {
+      this.delegate.set(row, col, val);
+      return;
+    } // if
+    T old = this.delegate.get(row, col);
+    this.delegate.set(row, col, val);
+    for (MatrixListener<? super T> listener : current) {
+      listener.cellChanged(row, col, old, val);
+    } // for
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.delegate.height();
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.delegate.width();
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public void insertRow(int row) {
+    this.delegate.insertRow(row);
+    this.structureChanged(MatrixOperation.INSERT_ROW, row);
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    this.delegate.insertRow(row, vals);
+    this.structureChanged(MatrixOperation.INSERT_ROW, row);
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  public void insertCol(int col) {
+    this.delegate.insertCol(col);
+    this.structureChanged(MatrixOperation.INSERT_COL, col);
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    this.delegate.insertCol(col, vals);
+    this.structureChanged(MatrixOperation.INSERT_COL, col);
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    this.delegate.deleteRow(row);
+    this.structureChanged(MatrixOperation.DELETE_ROW, row);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    this.delegate.deleteCol(col);
+    this.structureChanged(MatrixOperation.DELETE_COL, col);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    this.delegate.fillRegion(startRow, startCol, endRow, endCol, val);
+    if (startRow < endRow && startCol < endCol) {
+      for (MatrixListener<? super T> listener : this.listeners) {
+        listener.regionChanged(startRow, startCol, endRow, endCol);
+      } // for
+    } // if
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal). Listeners are told
+   * about each cell on the line.
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    MatrixListener<? super T>[] current = this.listeners;
+    if (current.length == 0) {
+      this.delegate.fillLine(startRow, startCol, deltaRow, deltaCol, endRow, endCol, val);
+      return;
+    } // if
+    // Walk the line as the wrapped matrix does, stopping where it would
+    // leave the matrix, so that listening never changes what it does.
+    int height = this.delegate.height();
+    int width = this.delegate.width();
+    List<T> old = new ArrayList<T>();
+    for (int row = startRow, col = startCol;
+         row < endRow && col < endCol && row >= 0 && row < height && col >= 0 && col < width;
+         row += deltaRow, col += deltaCol) {
+      old.add(this.delegate.get(row, col));
+    } // for
+    boolean filled = false;
+    try {
+      this.delegate.fillLine(startRow, startCol, deltaRow, deltaCol, endRow, endCol, val);
+      filled = true;
+    } finally {
+      // If the fill failed partway, report only the cells it changed.
+      for (int i = 0; i < old.size(); i++) {
+        int row = startRow + i * deltaRow;
+        int col = startCol + i * deltaCol;
+        if (filled || !Objects.equals(old.get(i), this.delegate.get(row, col))) {
+          for (MatrixListener<? super T> listener : current) {
+            listener.cellChanged(row, col, old.get(i), val);
+          } // for listener
+        } // if
+      } // for i
+    } // try/finally
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a new matrix that is the transpose of this one. The transpose
+   * is observable but starts without listeners.
+   *
+   * @return the transpose.
+   */
+  public Matrix<T> transpose() {
+    return new ObservableMatrix<T>(this.delegate.transpose());
+  } // transpose()
+
+  /**
+   * Transpose this matrix in place.
+   */
+  public void transposeInPlace() {
+    this.delegate.transposeInPlace();
+    this.structureChanged(MatrixOperation.TRANSPOSE, -1);
+  } // transposeInPlace()
+
+  /**
+   * Combine all the elements with an operation, as the wrapped matrix
+   * does.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   *
+   * @return identity combined with every element.
+   */
+  public T reduce(T identity, BinaryOperator<T> op) {
+    return this.delegate.reduce(identity, op);
+  } // reduce(T, BinaryOperator<T>)
+
+  /**
+   * Count the elements that satisfy a predicate, as the wrapped matrix
+   * does.
+   *
+   * @param predicate
+   *   The predicate.
+   *
+   * @return the number of elements for which predicate is true.
+   */
+  public long count(Predicate<? super T> predicate) {
+    return this.delegate.count(predicate);
+  } // count(Predicate)
+
+  /**
+   * Combine the elements of each row, as the wrapped matrix does.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   * @param generator
+   *   Makes an array of the given length.
+   *
+   * @return an array with one combined value per row.
+   */
+  public T[] reduceRows(T identity, BinaryOperator<T> op, IntFunction<T[]> generator) {
+    return this.delegate.reduceRows(identity, op, generator);
+  } // reduceRows(T, BinaryOperator<T>, IntFunction<T[]>)
+
+  /**
+   * Combine the elements of each column, as the wrapped matrix does.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   * @param generator
+   *   Makes an array of the given length.
+   *
+   * @return an array with one combined value per column.
+   */
+  public T[] reduceCols(T identity, BinaryOperator<T> op, IntFunction<T[]> generator) {
+    return this.delegate.reduceCols(identity, op, generator);
+  } // reduceCols(T, BinaryOperator<T>, IntFunction<T[]>)
+
+  /**
+   * Make a copy of the matrix. The copy is observable but starts without
+   * listeners.
+   *
+   * @return a copy of the matrix.
+   */
+  public Matrix<T> clone() {
+    return new ObservableMatrix<T>(this.delegate.clone());
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    return this.delegate.equals(other);
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix, which is the same as the hash
+   * code of the wrapped matrix.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    return this.delegate.hashCode();
+  } // hashCode()
+
+  /**
+   * Estimate the heap this matrix keeps alive, not counting elements or
+   * listeners: the wrapped matrix, plus the array of listeners as
+   * overlay.
+   *
+   * @return the estimate.
+   */
+  public MemoryFootprint footprint() {
+    return this.delegate.footprint().plusIndex(MemoryFootprint.object(2, 0))
+        .plusOverlay(this.listeners == NO_LISTENERS ? 0
+            : MemoryFootprint.referenceArray(this.listeners.length));
+  } // footprint()
+} // class ObservableMatrix<T>
@@ -0,0 +1,251 @@
+package edu.grinnell.csc207.util;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * Helpers that split a range of indices (rows, columns or cells) into
+ * blocks and process the blocks on the common fork/join pool. Small
+ * ranges are processed directly in the calling thread.
+ *
+ * @author Andrew N. Fargo
+ */
+final class ParallelRanges {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The number of cells at or below which a range is not split. */
+  static final int SEQUENTIAL_CELLS = 1 << 15;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Prevent instantiation.
+   */
+  private ParallelRanges() {
+  } // ParallelRanges()
+
+  // +------------+--------------------------------------------------
+  // | Interfaces |
+  // +------------+
+
+  /**
+   * Something computed from a range of indices.
+   *
+   * @param <R>
+   *   The type of the result.
+   */
+  interface RangeFunction<R> {
+    /**
+     * Compute the result for a range.
+     *
+     * @param lo
+     *   The first index (inclusive).
+     * @param hi
+     *   The last index (exclusive).
+     *
+     * @return the result.
+     */
+    R apply(int lo, int hi);
+  } // interface RangeFunction<R>
+
+  /**
+   * Something done to a range of indices.
+   */
+  interface RangeAction {
+    /**
+     * Process a range.
+     *
+     * @param lo
+     *   The first index (inclusive).
+     * @param hi
+     *   The last index (exclusive).
+     */
+    void run(int lo, int hi);
+  } // interface RangeAction
+
+  // +----------------+----------------------------------------------
+  // | Static methods |
+  // +----------------+
+
+  /**
+   * Determine how many indices to process in one block.
+   *
+   * @param cellsEach
+   *   The number of cells each index covers.
+   *
+   * @return the number of indices per block, at least 1.
+   */
+  static int blockSize(long cellsEach) {
+    return (int) Math.max(1, SEQUENTIAL_CELLS / Math.max(1, cellsEach));
+  } // blockSize(long)
+
+  /**
+   * Compute a result for each block of [0, n) and combine the results
+   * in order.
+   *
+   * @param <R>
+   *   The type of the result.
+   * @param n
+   *   The number of indices.
+   * @param cellsEach
+   *   The number of cells each index covers.
+   * @param leaf
+   *   Computes the result for a block.
+   * @param combiner
+   *   Combines the results of adjacent blocks; must be associative.
+   *
+   * @return the combined result.
+   */
+  static <R> R reduce(int n, long cellsEach, RangeFunction<R> leaf,
+      BinaryOperator<R> combiner) {
+    int block = blockSize(cellsEach);
+    if (n <= block) {
+      return leaf.apply(0, n);
+    } // if
+    return ForkJoinPool.commonPool().invoke(new ReduceTask<R>(leaf, combiner, block, 0, n));
+  } // reduce(int, long, RangeFunction<R>, BinaryOperator<R>)
+
+  /**
+   * Process each block of [0, n). Blocks may be processed at the same
+   * time, so they must not write to shared state.
+   *
+   * @param n
+   *   The number of indices.
+   * @param cellsEach
+   *   The number of cells each index covers.
+   * @param leaf
+   *   Processes a block.
+   */
+  static void forEach(int n, long cellsEach, RangeAction leaf) {
+    int block = blockSize(cellsEach);
+    if (n <= block) {
+      leaf.run(0, n);
+    } else {
+      ForkJoinPool.commonPool().invoke(new ForEachTask(leaf, block, 0, n));
+    } // if/else
+  } // forEach(int, long, RangeAction)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * Reduce a range, halving it while it is larger than a block.
+   *
+   * @param <R>
+   *   The type of the result.
+   */
+  static final class ReduceTask<R> extends RecursiveTask<R> {
+    /** The version of the serialized form. */
+    private static final long serialVersionUID = 1L;
+
+    /** Computes the result for a block. */
+    private final RangeFunction<R> leaf;
+
+    /** Combines adjacent results. */
+    private final BinaryOperator<R> combiner;
+
+    /** The largest range to process directly. */
+    private final int block;
+
+    /** The first index (inclusive). */
+    private final int lo;
+
+    /** The last index (exclusive). */
+    private final int hi;
+
+    /**
+     * Create the task.
+     *
+     * @param fun
+     *   Computes the result for a block.
+     * @param comb
+     *   Combines adjacent results.
+     * @param size
+     *   The largest range to process directly.
+     * @param first
+     *   The first index (inclusive).
+     * @param last
+     *   The last index (exclusive).
+     */
+    ReduceTask(RangeFunction<R> fun, BinaryOperator<R> comb, int size, int first,
+        int last) {
+      this.leaf = fun;
+      this.combiner = comb;
+      this.block = size;
+      this.lo = first;
+      this.hi = last;
+    } // ReduceTask(RangeFunction<R>, BinaryOperator<R>, int, int, int)
+
+    @Override
+    protected R compute() {
+      if (this.hi - this.lo <= this.block) {
+        return this.leaf.apply(this.lo, this.hi);
+      } // if
+      int mid = (this.lo + this.hi) >>> 1;
+      ReduceTask<R> left =
+          new ReduceTask<R>(this.leaf, this.combiner, this.block, this.lo, mid);
+      ReduceTask<R> right =
+          new ReduceTask<R>(this.leaf, this.combiner, this.block, mid, this.hi);
+      left.fork();
+      R rightResult = right.compute();
+      return this.combiner.apply(left.join(), rightResult);
+    } // compute()
+  } // class ReduceTask<R>
+
+  /**
+   * Process a range, halving it while it is larger than a block.
+   */
+  static final class ForEachTask extends RecursiveAction {
+    /** The version of the serialized form. */
+    private static final long serialVersionUID = 1L;
+
+    /** Processes a block. */
+    private final RangeAction leaf;
+
+    /** The largest range to process directly. */
+    private final int block;
+
+    /** The first index (inclusive). */
+    private final int lo;
+
+    /** The last index (exclusive). */
+    private final int hi;
+
+    /**
+     * Create the task.
+     *
+     * @param action
+     *   Processes a block.
+     * @param size
+     *   The largest range to process directly.
+     * @param first
+     *   The first index (inclusive).
+     * @param last
+     *   The last index (exclusive).
+     */
+    ForEachTask(RangeAction action, int size, int first, int last) {
+      this.leaf = action;
+      this.block = size;
+      this.lo = first;
+      this.hi = last;
+    } // ForEachTask(RangeAction, int, int, int)
+
+    @Override
+    protected void compute() {
+      if (this.hi - this.lo <= this.block) {
+        this.leaf.run(this.lo, this.hi);
+      } else {
+        int mid = (this.lo + this.hi) >>> 1;
+        invokeAll(new ForEachTask(this.leaf, this.block, this.lo, mid),
+            new ForEachTask(this.leaf, this.block, mid, this.hi));
+      } // if/else
+    } // compute()
+  } // class ForEachTask
+} // class ParallelRanges
@@ -0,0 +1,967 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BinaryOperator;
+import java.util.function.ObjIntConsumer;
+import java.util.function.Predicate;
+
+/**
+ * A matrix whose rows are kept in chunks of up to CHUNK rows, and whose
+ * chunks are the nodes of a balanced tree (a treap) ordered by position
+ * and annotated with the number of rows in each subtree. Finding,
+ * inserting or deleting a row takes expected O(log n) time however tall
+ * the matrix is, and whole blocks of rows can be split off or appended
+ * in O(log n) with {@link #splitRows} and {@link #appendRows}.
+ *
+ * <p>Rows are separate arrays, as in MatrixV0, so column operations cost
+ * the same as they do there.</p>
+ *
+ * @author Andrew N. Fargo
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class RopeMatrix<T> implements Matrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The most rows in a chunk. */
+  static final int CHUNK = 64;
+
+  // +----------------+----------------------------------------------
+  // | Nested classes |
+  // +----------------+
+
+  /**
+   * A chunk of rows and the root of a subtree of chunks.
+   */
+  private static final class Node {
+    /** The rows of the chunk. Only the first count are used. */
+    Object[][] rows;
+
+    /** The number of rows in the chunk. */
+    int count;
+
+    /** The number of rows in this subtree. */
+    int size;
+
+    /** The heap priority; parents have higher priorities. */
+    final int priority;
+
+    /** The chunks before this one. */
+    Node left;
+
+    /** The chunks after this one. */
+    Node right;
+
+    /**
+     * Create a node for a chunk with no children.
+     *
+     * @param chunk
+     *   The rows, CHUNK long.
+     * @param n
+     *   The number of rows used.
+     */
+    Node(Object[][] chunk, int n) {
+      this.rows = chunk;
+      this.count = n;
+      this.size = n;
+      this.priority = ThreadLocalRandom.current().nextInt();
+    } // Node(Object[][], int)
+  } // class Node
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The root of the tree of chunks, or null if there are no rows. */
+  private Node root;
+
+  /** The number of columns. */
+  private int cols;
+
+  /** Default value for insertions. */
+  private final T defaultValue;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public RopeMatrix(int width, int height, T def) {
+    if (width < 0 || height < 0) {
+      throw new NegativeArraySizeException();
+    } // if
+    this.cols = width;
+    this.defaultValue = def;
+    Object[][] rows = new Object[height][];
+    for (int row = 0; row < height; row++) {
+      rows[row] = this.repeat(def, width);
+    } // for
+    this.root = build(rows);
+  } // RopeMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with null as
+   * the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public RopeMatrix(int width, int height) {
+    this(width, height, null);
+  } // RopeMatrix(int, int)
+
+  /**
+   * Create a new matrix from a tree of chunks.
+   *
+   * @param tree
+   *   The root of the tree, or null.
+   * @param width
+   *   The width of every row.
+   * @param def
+   *   The default value.
+   */
+  private RopeMatrix(Node tree, int width, T def) {
+    this.root = tree;
+    this.cols = width;
+    this.defaultValue = def;
+  } // RopeMatrix(Node, int, T)
+
+  // +----------------+----------------------------------------------
+  // | Tree utilities |
+  // +----------------+
+
+  /**
+   * Determine the number of rows in a subtree.
+   *
+   * @param node
+   *   The root of the subtree, or null.
+   *
+   * @return the number of rows.
+   */
+  private static int size(Node node) {
+    return (node == null) ? 0 : node.size;
+  } // size(Node)
+
+  /**
+   * Recompute the size of a node from its chunk and children.
+   *
+   * @param node
+   *   The node.
+   */
+  private static void update(Node node) {
+    node.size = size(node.left) + node.count + size(node.right);
+  } // update(Node)
+
+  /**
+   * Join two trees, all of whose rows in the first come before all of
+   * those in the second.
+   *
+   * @param first
+   *   The first tree, or null.
+   * @param second
+   *   The second tree, or null.
+   *
+   * @return the joined tree.
+   */
+  private static Node merge(Node first, Node second) {
+    if (first == null) {
+      return second;
+    } else if (second == null) {
+      return first;
+    } else if (first.priority > second.priority) {
+      first.right = merge(first.right, second);
+      update(first);
+      return first;
+    } else {
+      second.left = merge(first, second.left);
+      update(second);
+      return second;
+    } // if/else
+  } // merge(Node, Node)
+
+  /**
+   * Split a tree after a number of rows, splitting a chunk if need be.
+   *
+   * @param node
+   *   The tree, or null.
+   * @param k
+   *   The number of rows to put in the first tree.
+   *
+   * @return the tree of the first k rows and the tree of the rest.
+   */
+  private static Node[] split(Node node, int k) {
+    if (node == null) {
+      return new Node[] {null, null};
+    } // if
+    int before = size(node.left);
+    if (k <= before) {
+      Node[] parts = split(node.left, k);
+      node.left = parts[1];
+      update(node);
+      return new Node[] {parts[0], node};
+    } else if (k >= before + node.count) {
+      Node[] parts = split(node.right, k - before - node.count);
+      node.right = parts[0];
+      update(node);
+      return new Node[] {node, parts[1]};
+    } else {
+      int at = k - before;
+      Object[][] tail = new Object[CHUNK][];
+      System.arraycopy(node.rows, at, tail, 0, node.count - at);
+      Arrays.fill(node.rows, at, node.count, null);
+      Node rest = new Node(tail, node.count - at);
+      node.count = at;
+      Node right = node.right;
+      node.right = null;
+      update(node);
+      return new Node[] {node, merge(rest, right)};
+    } // if/else
+  } // split(Node, int)
+
+  /**
+   * Build a tree from rows, CHUNK rows to a chunk.
+   *
+   * @param rows
+   *   The rows, which are not copied.
+   *
+   * @return the tree, or null if there are no rows.
+   */
+  private static Node build(Object[][] rows) {
+    Node tree = null;
+    for (int start = 0; start < rows.length; start += CHUNK) {
+      int n = Math.min(CHUNK, rows.length - start);
+      Object[][] chunk = new Object[CHUNK][];
+      System.arraycopy(rows, start, chunk, 0, n);
+      tree = merge(tree, new Node(chunk, n));
+    } // for
+    return tree;
+  } // build(Object[][])
+
+  /**
+   * Delete a row from a subtree, dropping its chunk if it empties.
+   *
+   * @param node
+   *   The subtree.
+   * @param row
+   *   The row, relative to the subtree.
+   *
+   * @return the new subtree.
+   */
+  private static Node delete(Node node, int row) {
+    int before = size(node.left);
+    if (row < before) {
+      node.left = delete(node.left, row);
+    } else if (row - before < node.count) {
+      int at = row - before;
+      System.arraycopy(node.rows, at + 1, node.rows, at, node.count - at - 1);
+      node.rows[--node.count] = null;
+      if (node.count == 0) {
+        return merge(node.left, node.right);
+      } // if
+    } else {
+      node.right = delete(node.right, row - before - node.count);
+    } // if/else
+    node.size--;
+    return node;
+  } // delete(Node, int)
+
+  /**
+   * Copy a subtree, with copies of its rows.
+   *
+   * @param node
+   *   The subtree, or null.
+   *
+   * @return the copy.
+   */
+  private static Node copy(Node node) {
+    if (node == null) {
+      return null;
+    } // if
+    Object[][] chunk = new Object[CHUNK][];
+    for (int i = 0; i < node.count; i++) {
+      chunk[i] = node.rows[i].clone();
+    } // for
+    Node result = new Node(chunk, node.count);
+    result.left = copy(node.left);
+    result.right = copy(node.right);
+    update(result);
+    return result;
+  } // copy(Node)
+
+  /**
+   * Visit the rows of a subtree that fall in a range, in order.
+   *
+   * @param node
+   *   The subtree, or null.
+   * @param base
+   *   The number of the first row of the subtree.
+   * @param from
+   *   The first row to visit (inclusive).
+   * @param to
+   *   The last row to visit (exclusive).
+   * @param action
+   *   What to do with each row and its number.
+   */
+  private static void visit(Node node, int base, int from, int to,
+      ObjIntConsumer<Object[]> action) {
+    if (node == null || from >= base + node.size || to <= base) {
+      return;
+    } // if
+    visit(node.left, base, from, to, action);
+    int start = base + size(node.left);
+    for (int i = Math.max(0, from - start); i < node.count && start + i < to; i++) {
+      action.accept(node.rows[i], start + i);
+    } // for
+    visit(node.right, start + node.count, from, to, action);
+  } // visit(Node, int, int, int, ObjIntConsumer<Object[]>)
+
+  /**
+   * Visit the chunks of a subtree, in order.
+   *
+   * @param node
+   *   The subtree, or null.
+   * @param base
+   *   The number of the first row of the subtree.
+   * @param action
+   *   What to do with each chunk and the number of its first row.
+   */
+  private static void visitChunks(Node node, int base, ObjIntConsumer<Node> action) {
+    if (node != null) {
+      visitChunks(node.left, base, action);
+      action.accept(node, base + size(node.left));
+      visitChunks(node.right, base + size(node.left) + node.count, action);
+    } // if
+  } // visitChunks(Node, int, ObjIntConsumer<Node>)
+
+  /**
+   * Find a row.
+   *
+   * @param row
+   *   The number of the row, which must be in bounds.
+   *
+   * @return the row.
+   */
+  private Object[] row(int row) {
+    Node node = this.root;
+    int r = row;
+    while (true) {
+      int before = size(node.left);
+      if (r < before) {
+        node = node.left;
+      } else if (r - before < node.count) {
+        return node.rows[r - before];
+      } else {
+        r -= before + node.count;
+        node = node.right;
+      } // if/else
+    } // while
+  } // row(int)
+
+  /**
+   * Gather references to all the rows, in order.
+   *
+   * @return the rows, which are not copied.
+   */
+  private Object[][] rowArray() {
+    Object[][] result = new Object[this.height()][];
+    visit(this.root, 0, 0, result.length, (vals, row) -> result[row] = vals);
+    return result;
+  } // rowArray()
+
+  /**
+   * Repeat a value into a new array.
+   *
+   * @param val
+   *   The value to repeat.
+   * @param len
+   *   The length of the array.
+   *
+   * @return [val, val, ... val] (len times).
+   */
+  private Object[] repeat(T val, int len) {
+    Object[] result = new Object[len];
+    if (val != null) {
+      Arrays.fill(result, val);
+    } // if
+    return result;
+  } // repeat(T, int)
+
+  /**
+   * Determine if a cell is out of bounds.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return true if the cell is not in the matrix.
+   */
+  private boolean outOfBounds(int row, int col) {
+    return row < 0 || row >= this.height() || col < 0 || col >= this.cols;
+  } // outOfBounds(int, int)
+
+  // +----------------+----------------------------------------------
+  // | Splitting rows |
+  // +----------------+
+
+  /**
+   * Remove the rows from a given row on and return them as a new
+   * matrix with the same width and default value. Takes expected
+   * O(log n) time; no rows are copied.
+   *
+   * @param row
+   *   The first row to move to the new matrix.
+   *
+   * @return a matrix of the rows from row on.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  public RopeMatrix<T> splitRows(int row) {
+    if (row < 0 || row > this.height()) {
+      throw new IndexOutOfBoundsException("Provided row exceeds height of RopeMatrix");
+    } // if
+    Node[] parts = split(this.root, row);
+    this.root = parts[0];
+    return new RopeMatrix<T>(parts[1], this.cols, this.defaultValue);
+  } // splitRows(int)
+
+  /**
+   * Move all the rows of another matrix to the bottom of this one,
+   * leaving the other matrix with no rows. Takes expected O(log n)
+   * time; no rows are copied.
+   *
+   * @param other
+   *   The matrix whose rows to take.
+   *
+   * @throws ArraySizeException
+   *   If the other matrix has a different width.
+   * @throws IllegalArgumentException
+   *   If the other matrix is this one, whose rows cannot be moved to
+   *   itself without copying them.
+   */
+  public void appendRows(RopeMatrix<T> other) throws ArraySizeException {
+    if (other == this) {
+      throw new IllegalArgumentException("Cannot append a RopeMatrix to itself");
+    } // if
+    if (other.cols != this.cols) {
+      throw new ArraySizeException("Appended rows have invalid width");
+    } // if
+    this.root = merge(this.root, other.root);
+    other.root = null;
+  } // appendRows(RopeMatrix<T>)
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @SuppressWarnings({"unchecked"})
+  public T get(int row, int col) {
+    if (this.outOfBounds(row, col)) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    return (T) this.row(row)[col];
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    if (this.outOfBounds(row, col)) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    this.row(row)[col] = val;
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return size(this.root);
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.cols;
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  @SuppressWarnings({"unchecked"})
+  public void insertRow(int row) {
+    try {
+      this.insertRow(row, (T[]) this.repeat(this.defaultValue, this.cols));
+    } catch (ArraySizeException e) {
+      // The row was made the right size.
+      throw new RuntimeException(e.getMessage());
+    } // try/catch
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values, in expected
+   * O(log n) time. A full chunk is split in two first.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert. The array becomes the row.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    if (row < 0 || row > this.height()) {
+      throw new IndexOutOfBoundsException("Provided row exceeds height of RopeMatrix");
+    } // if
+    if (vals.length != this.cols) {
+      throw new ArraySizeException("Inserted row has invalid width");
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    if (this.root == null) {
+      this.root = new Node(new Object[CHUNK][], 0);
+    } // if
+
+    // Find the chunk, splitting it and looking again if it is full.
+    Node node = this.root;
+    int r = row;
+    while (true) {
+      int before = size(node.left);
+      if (r < before) {
+        node = node.left;
+      } else if (r - before <= node.count) {
+        if (node.count < CHUNK) {
+          break;
+        } // if
+        Node[] parts = split(this.root, row - (r - before) + CHUNK / 2);
+        this.root = merge(parts[0], parts[1]);
+        node = this.root;
+        r = row;
+      } else {
+        r -= before + node.count;
+        node = node.right;
+      } // if/else
+    } // while
+
+    // Walk down again, counting the new row in each subtree.
+    node = this.root;
+    r = row;
+    while (true) {
+      node.size++;
+      int before = size(node.left);
+      if (r < before) {
+        node = node.left;
+      } else if (r - before <= node.count) {
+        break;
+      } else {
+        r -= before + node.count;
+        node = node.right;
+      } // if/else
+    } // while
+    int at = r - size(node.left);
+    System.arraycopy(node.rows, at, node.rows, at + 1, node.count - at);
+    node.rows[at] = vals;
+    node.count++;
+    event.finish(MatrixOperation.INSERT_ROW, this, row, (long) this.height() * this.cols);
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  @SuppressWarnings({"unchecked"})
+  public void insertCol(int col) {
+    try {
+      this.insertCol(col, (T[]) this.repeat(this.defaultValue, this.height()));
+    } catch (ArraySizeException e) {
+      // The column was made the right size.
+      throw new RuntimeException(e.getMessage());
+    } // try/catch
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values. Every row is
+   * reallocated.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    if (col < 0 || col > this.cols) {
+      throw new IndexOutOfBoundsException("Provided col exceeds width of RopeMatrix");
+    } // if
+    if (vals.length != this.height()) {
+      throw new ArraySizeException("Inserted col has invalid height");
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    int width = this.cols;
+    visitChunks(this.root, 0, (node, base) -> {
+      for (int i = 0; i < node.count; i++) {
+        Object[] old = node.rows[i];
+        Object[] wider = new Object[width + 1];
+        System.arraycopy(old, 0, wider, 0, col);
+        wider[col] = vals[base + i];
+        System.arraycopy(old, col, wider, col + 1, width - col);
+        node.rows[i] = wider;
+      } // for
+    });
+    this.cols++;
+    event.finish(MatrixOperation.INSERT_COL, this, col, (long) this.height() * this.cols);
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row, in expected O(log n) time. A chunk that empties is
+   * removed from the tree.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    if (row < 0 || row >= this.height()) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    long cells = (long) this.height() * this.cols;
+    this.root = delete(this.root, row);
+    event.finish(MatrixOperation.DELETE_ROW, this, row, cells);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column. Every row is reallocated.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    if (col < 0 || col >= this.cols) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    long cells = (long) this.height() * this.cols;
+    int width = this.cols;
+    visitChunks(this.root, 0, (node, base) -> {
+      for (int i = 0; i < node.count; i++) {
+        Object[] old = node.rows[i];
+        Object[] narrower = new Object[width - 1];
+        System.arraycopy(old, 0, narrower, 0, col);
+        System.arraycopy(old, col + 1, narrower, col, width - col - 1);
+        node.rows[i] = narrower;
+      } // for
+    });
+    this.cols--;
+    event.finish(MatrixOperation.DELETE_COL, this, col, cells);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix. Only the chunks that hold
+   * the region's rows are visited.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    if (startRow >= endRow || startCol >= endCol) {
+      return;
+    } else if (outOfBounds(startRow, startCol) || outOfBounds(endRow - 1, endCol - 1)) {
+      throw new IndexOutOfBoundsException();
+    } // if/else
+    MatrixFillEvent event = MatrixFillEvent.start();
+    visit(this.root, 0, startRow, endRow,
+        (vals, row) -> Arrays.fill(vals, startCol, endCol, val));
+    event.finish(MatrixOperation.FILL_REGION, this,
+        (long) (endRow - startRow) * (endCol - startCol));
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    if (outOfBounds(startRow, startCol) || outOfBounds(endRow - 1, endCol - 1)) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    MatrixFillEvent event = MatrixFillEvent.start();
+    long cells = 0;
+    if (deltaRow == 0 && startRow < endRow) {
+      Object[] vals = this.row(startRow);
+      for (int col = startCol; col < endCol; col += deltaCol) {
+        vals[col] = val;
+        cells++;
+      } // for
+    } else if (deltaRow != 0) {
+      for (int row = startRow, col = startCol;
+           row < endRow && col < endCol;
+           row += deltaRow, col += deltaCol) {
+        this.row(row)[col] = val;
+        cells++;
+      } // for
+    } // if/else
+    event.finish(MatrixOperation.FILL_LINE, this, cells);
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Build the transpose of the rows in new arrays.
+   *
+   * @return the rows of the transpose.
+   */
+  private Object[][] transposedRows() {
+    Object[][] rows = this.rowArray();
+    Object[][] result = new Object[this.cols][rows.length];
+    MatrixV0.transposeInto(rows, result, 0, rows.length, 0, this.cols);
+    return result;
+  } // transposedRows()
+
+  /**
+   * Make a new matrix that is the transpose of this one.
+   *
+   * @return the transpose.
+   */
+  public RopeMatrix<T> transpose() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    RopeMatrix<T> result =
+        new RopeMatrix<T>(build(this.transposedRows()), this.height(), this.defaultValue);
+    event.finish(MatrixOperation.TRANSPOSE, result, -1, (long) this.height() * this.cols);
+    return result;
+  } // transpose()
+
+  /**
+   * Transpose this matrix in place.
+   */
+  public void transposeInPlace() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    int height = this.height();
+    this.root = build(this.transposedRows());
+    this.cols = height;
+    event.finish(MatrixOperation.TRANSPOSE, this, -1, (long) this.height() * this.cols);
+  } // transposeInPlace()
+
+  /**
+   * Combine all the elements, row by row, with an operation.
+   *
+   * @param identity
+   *   The identity of op.
+   * @param op
+   *   An associative operation.
+   *
+   * @return identity combined with every element.
+   */
+  @SuppressWarnings({"unchecked"})
+  public T reduce(T identity, BinaryOperator<T> op) {
+    T result = identity;
+    for (Object[] vals : this.rowArray()) {
+      for (Object val : vals) {
+        result = op.apply(result, (T) val);
+      } // for
+    } // for
+    return result;
+  } // reduce(T, BinaryOperator<T>)
+
+  /**
+   * Count the elements that satisfy a predicate.
+   *
+   * @param predicate
+   *   The predicate.
+   *
+   * @return the number of elements for which predicate is true.
+   */
+  @SuppressWarnings({"unchecked"})
+  public long count(Predicate<? super T> predicate) {
+    long count = 0;
+    for (Object[] vals : this.rowArray()) {
+      for (Object val : vals) {
+        if (predicate.test((T) val)) {
+          count++;
+        } // if
+      } // for
+    } // for
+    return count;
+  } // count(Predicate)
+
+  /**
+   * Make a copy of the matrix, sharing the elements but not the rows.
+   * The copy has the same tree of chunks.
+   *
+   * @return a copy of the matrix.
+   */
+  public RopeMatrix<T> clone() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    RopeMatrix<T> result = new RopeMatrix<T>(copy(this.root), this.cols, this.defaultValue);
+    event.finish(MatrixOperation.CLONE, this, -1, (long) this.height() * this.cols);
+    return result;
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object. Elements are
+   * compared as by Objects.equals.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    if (!(other instanceof Matrix)) {
+      return false;
+    } // if
+    Matrix<?> that = (Matrix<?>) other;
+    if (that.width() != this.cols || that.height() != this.height()) {
+      return false;
+    } // if
+    Object[][] rows = this.rowArray();
+    for (int row = 0; row < rows.length; row++) {
+      for (int col = 0; col < this.cols; col++) {
+        if (!Objects.equals(rows[row][col], that.get(row, col))) {
+          return false;
+        } // if
+      } // for col
+    } // for row
+    return true;
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix. Equal to the hash code of a
+   * MatrixV0 with the same elements.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    int multiplier = 7;
+    int code = this.cols + multiplier * this.height();
+    for (Object[] vals : this.rowArray()) {
+      for (Object val : vals) {
+        if (val != null) {
+          code = code * multiplier + val.hashCode();
+        } // if
+      } // for
+    } // for
+    return code;
+  } // hashCode()
+
+  /**
+   * Estimate the heap this matrix keeps alive, not counting its elements:
+   * the rows are cell storage, the unused slots at the ends of chunks
+   * are slack, and the matrix, the nodes, and the used slots are index.
+   *
+   * @return the estimate.
+   */
+  public MemoryFootprint footprint() {
+    long[] bytes = {0, MemoryFootprint.object(2, Integer.BYTES)};
+    visitChunks(this.root, 0, (node, start) -> {
+      long unused = (node.rows.length - node.count) * MemoryFootprint.REFERENCE;
+      bytes[0] += unused;
+      bytes[1] += MemoryFootprint.object(3, 3 * Integer.BYTES)
+          + MemoryFootprint.referenceArray(node.rows.length) - unused;
+    });
+    return new MemoryFootprint(this.height() * MemoryFootprint.referenceArray(this.cols),
+        bytes[0], bytes[1], 0);
+  } // footprint()
+} // class RopeMatrix<T>
@@ -0,0 +1,226 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * Element-wise operations on arrays of doubles, one element at a time.
+ * Used when the Vector API is unavailable.
+ *
+ * @author Andrew N. Fargo
+ */
+class ScalarDoubleKernels implements DoubleKernels {
+  /**
+   * Name the kernels, for diagnostics.
+   *
+   * @return the name.
+   */
+  public String name() {
+    return "scalar";
+  } // name()
+
+  /**
+   * Compute out[i] = a[i] + b[i].
+   *
+   * @param a
+   *   The first operand.
+   * @param b
+   *   The second operand.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  public void add(double[] a, double[] b, double[] out, int n) {
+    for (int i = 0; i < n; i++) {
+      out[i] = a[i] + b[i];
+    } // for
+  } // add(double[], double[], double[], int)
+
+  /**
+   * Compute out[i] = a[i] - b[i].
+   *
+   * @param a
+   *   The first operand.
+   * @param b
+   *   The second operand.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  public void sub(double[] a, double[] b, double[] out, int n) {
+    for (int i = 0; i < n; i++) {
+      out[i] = a[i] - b[i];
+    } // for
+  } // sub(double[], double[], double[], int)
+
+  /**
+   * Compute out[i] = a[i] * b[i].
+   *
+   * @param a
+   *   The first operand.
+   * @param b
+   *   The second operand.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  public void mul(double[] a, double[] b, double[] out, int n) {
+    for (int i = 0; i < n; i++) {
+      out[i] = a[i] * b[i];
+    } // for
+  } // mul(double[], double[], double[], int)
+
+  /**
+   * Compute out[i] = a[i] * factor.
+   *
+   * @param a
+   *   The operand.
+   * @param factor
+   *   The scale factor.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  public void scale(double[] a, double factor, double[] out, int n) {
+    for (int i = 0; i < n; i++) {
+      out[i] = a[i] * factor;
+    } // for
+  } // scale(double[], double, double[], int)
+
+  /**
+   * Compute out[i] = a[i] * b[i] + c[i] with a single rounding.
+   *
+   * @param a
+   *   The first factor.
+   * @param b
+   *   The second factor.
+   * @param c
+   *   The addend.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  public void fma(double[] a, double[] b, double[] c, double[] out, int n) {
+    for (int i = 0; i < n; i++) {
+      out[i] = Math.fma(a[i], b[i], c[i]);
+    } // for
+  } // fma(double[], double[], double[], double[], int)
+
+  /**
+   * Compute out[i] = a[i] &lt; b[i].
+   *
+   * @param a
+   *   The first operand.
+   * @param b
+   *   The second operand.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  public void lessThan(double[] a, double[] b, boolean[] out, int n) {
+    for (int i = 0; i < n; i++) {
+      out[i] = a[i] < b[i];
+    } // for
+  } // lessThan(double[], double[], boolean[], int)
+
+  /**
+   * Compute out[i] = a[i] == b[i].
+   *
+   * @param a
+   *   The first operand.
+   * @param b
+   *   The second operand.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  public void equalTo(double[] a, double[] b, boolean[] out, int n) {
+    for (int i = 0; i < n; i++) {
+      out[i] = a[i] == b[i];
+    } // for
+  } // equalTo(double[], double[], boolean[], int)
+
+  /**
+   * Add up elements.
+   *
+   * @param a
+   *   The elements.
+   * @param from
+   *   The index of the first element (inclusive).
+   * @param to
+   *   The index of the last element (exclusive).
+   *
+   * @return the sum.
+   */
+  public double sum(double[] a, int from, int to) {
+    double sum = 0;
+    for (int i = from; i < to; i++) {
+      sum += a[i];
+    } // for
+    return sum;
+  } // sum(double[], int, int)
+
+  /**
+   * Find the smallest element, as by Math.min.
+   *
+   * @param a
+   *   The elements.
+   * @param from
+   *   The index of the first element (inclusive).
+   * @param to
+   *   The index of the last element (exclusive).
+   *
+   * @return the smallest, or positive infinity if the range is empty.
+   */
+  public double min(double[] a, int from, int to) {
+    double min = Double.POSITIVE_INFINITY;
+    for (int i = from; i < to; i++) {
+      min = Math.min(min, a[i]);
+    } // for
+    return min;
+  } // min(double[], int, int)
+
+  /**
+   * Find the largest element, as by Math.max.
+   *
+   * @param a
+   *   The elements.
+   * @param from
+   *   The index of the first element (inclusive).
+   * @param to
+   *   The index of the last element (exclusive).
+   *
+   * @return the largest, or negative infinity if the range is empty.
+   */
+  public double max(double[] a, int from, int to) {
+    double max = Double.NEGATIVE_INFINITY;
+    for (int i = from; i < to; i++) {
+      max = Math.max(max, a[i]);
+    } // for
+    return max;
+  } // max(double[], int, int)
+
+  /**
+   * Compute the dot product of a and b.
+   *
+   * @param a
+   *   The first operand.
+   * @param b
+   *   The second operand.
+   * @param n
+   *   The number of elements.
+   *
+   * @return the sum of a[i] * b[i].
+   */
+  public double dot(double[] a, double[] b, int n) {
+    double sum = 0;
+    for (int i = 0; i < n; i++) {
+      sum += a[i] * b[i];
+    } // for
+    return sum;
+  } // dot(double[], double[], int)
+} // class ScalarDoubleKernels
@@ -0,0 +1,400 @@
+package edu.grinnell.csc207.util;
+
+/**
+ * A two-dimensional segment tree over a {@link DoubleMatrix}, which
+ * answers the sum, minimum or maximum of any rectangle and follows
+ * point updates to the matrix, each in O(log(height) * log(width))
+ * time. Use it instead of a {@link SummedAreaTable} when updates are
+ * frequent.
+ *
+ * <p>The tree is a segment tree over the rows whose nodes are segment
+ * trees over the columns, stored bottom-up in one array padded to powers
+ * of two. Region fills and row insertions and deletions recompute only
+ * the rows they affect and the nodes above them. Column insertions and
+ * deletions and transpositions change every row, so they mark the tree
+ * stale, and the next query recomputes it.</p>
+ *
+ * @author Andrew N. Fargo
+ */
+public class SegmentTree2D {
+  // +-------+-------------------------------------------------------
+  // | Types |
+  // +-------+
+
+  /**
+   * The ways of combining the cells in a rectangle.
+   */
+  public enum Aggregate {
+    /** Add them up. */
+    SUM(0.0),
+    /** Find the smallest, as by Math.min. */
+    MIN(Double.POSITIVE_INFINITY),
+    /** Find the largest, as by Math.max. */
+    MAX(Double.NEGATIVE_INFINITY);
+
+    /** The result for an empty rectangle. */
+    private final double identity;
+
+    /**
+     * Create an aggregate.
+     *
+     * @param zero
+     *   The result for an empty rectangle.
+     */
+    Aggregate(double zero) {
+      this.identity = zero;
+    } // Aggregate(double)
+
+    /**
+     * Get the result for an empty rectangle.
+     *
+     * @return the identity of the aggregate.
+     */
+    public double identity() {
+      return this.identity;
+    } // identity()
+
+    /**
+     * Combine two partial results.
+     *
+     * @param a
+     *   One result.
+     * @param b
+     *   The other result.
+     *
+     * @return the combination.
+     */
+    double combine(double a, double b) {
+      switch (this) {
+        case MIN:
+          return Math.min(a, b);
+        case MAX:
+          return Math.max(a, b);
+        default:
+          return a + b;
+      } // switch
+    } // combine(double, double)
+  } // enum Aggregate
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The matrix. */
+  private final DoubleMatrix matrix;
+
+  /** How cells are combined. */
+  private final Aggregate aggregate;
+
+  /** What the matrix tells about its changes. */
+  private final Follower follower = new Follower();
+
+  /** Whether we still follow the matrix. */
+  private boolean attached = true;
+
+  /** Whether the tree must be recomputed. */
+  private boolean stale = true;
+
+  /** The number of leaf rows: a power of two, at least the height. */
+  private int rowLeaves;
+
+  /** The number of leaf columns: a power of two, at least the width. */
+  private int colLeaves;
+
+  /** The nodes. Node (i, j), for i and j in [1, 2 * leaves), is at
+      i * 2 * colLeaves + j; node i has children 2i and 2i + 1. */
+  private double[] tree;
+
+  /** The number of leaf rows computed so far. */
+  private long rowsBuilt;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a tree over a matrix and start following its changes. The
+   * tree is computed by the first query.
+   *
+   * @param source
+   *   The matrix.
+   * @param agg
+   *   How to combine cells.
+   */
+  public SegmentTree2D(DoubleMatrix source, Aggregate agg) {
+    this.matrix = source;
+    this.aggregate = agg;
+    source.addIndex(this.follower);
+  } // SegmentTree2D(DoubleMatrix, Aggregate)
+
+  // +----------------+----------------------------------------------
+  // | Public methods |
+  // +----------------+
+
+  /**
+   * Combine the cells in a rectangle.
+   *
+   * @param startRow
+   *   The top row (inclusive).
+   * @param startCol
+   *   The left column (inclusive).
+   * @param endRow
+   *   The bottom row (exclusive).
+   * @param endCol
+   *   The right column (exclusive).
+   *
+   * @return the combination, or the identity of the aggregate if the
+   *   rectangle is empty.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rectangle does not fit in the matrix.
+   * @throws IllegalStateException
+   *   If the tree has been detached.
+   */
+  public double query(int startRow, int startCol, int endRow, int endCol) {
+    if (!this.attached) {
+      throw new IllegalStateException("Segment tree has been detached");
+    } // if
+    if (startRow < 0 || startCol < 0 || endRow > this.matrix.height()
+        || endCol > this.matrix.width() || startRow > endRow || startCol > endCol) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    if (this.stale) {
+      this.rebuild();
+    } // if
+    double result = this.aggregate.identity;
+    for (int lo = startRow + this.rowLeaves, hi = endRow + this.rowLeaves; lo < hi;
+         lo >>= 1, hi >>= 1) {
+      if ((lo & 1) == 1) {
+        result = this.aggregate.combine(result, this.queryRow(lo++, startCol, endCol));
+      } // if
+      if ((hi & 1) == 1) {
+        result = this.aggregate.combine(result, this.queryRow(--hi, startCol, endCol));
+      } // if
+    } // for
+    return result;
+  } // query(int, int, int, int)
+
+  /**
+   * Get the aggregate this tree computes.
+   *
+   * @return the aggregate.
+   */
+  public Aggregate aggregate() {
+    return this.aggregate;
+  } // aggregate()
+
+  /**
+   * Determine how many leaf rows have been computed, counting each
+   * complete computation as the padded height of the tree.
+   *
+   * @return the number of leaf rows.
+   */
+  public long rowsBuilt() {
+    return this.rowsBuilt;
+  } // rowsBuilt()
+
+  /**
+   * Stop following the matrix and release the tree.
+   */
+  public void detach() {
+    this.matrix.removeIndex(this.follower);
+    this.attached = false;
+    this.tree = null;
+  } // detach()
+
+  // +-----------------+---------------------------------------------
+  // | Private methods |
+  // +-----------------+
+
+  /**
+   * Combine a range of columns within one row node.
+   *
+   * @param node
+   *   The row node.
+   * @param startCol
+   *   The left column (inclusive).
+   * @param endCol
+   *   The right column (exclusive).
+   *
+   * @return the combination.
+   */
+  private double queryRow(int node, int startCol, int endCol) {
+    int base = node * 2 * this.colLeaves;
+    double result = this.aggregate.identity;
+    for (int lo = startCol + this.colLeaves, hi = endCol + this.colLeaves; lo < hi;
+         lo >>= 1, hi >>= 1) {
+      if ((lo & 1) == 1) {
+        result = this.aggregate.combine(result, this.tree[base + lo++]);
+      } // if
+      if ((hi & 1) == 1) {
+        result = this.aggregate.combine(result, this.tree[base + --hi]);
+      } // if
+    } // for
+    return result;
+  } // queryRow(int, int, int)
+
+  /**
+   * Find the smallest power of two that is at least n (and at least 1).
+   *
+   * @param n
+   *   The number.
+   *
+   * @return the power of two.
+   */
+  private static int ceilingPowerOfTwo(int n) {
+    return (n <= 1) ? 1 : Integer.highestOneBit(n - 1) << 1;
+  } // ceilingPowerOfTwo(int)
+
+  /**
+   * Recompute the whole tree, resizing it to fit the matrix.
+   */
+  private void rebuild() {
+    this.rowLeaves = ceilingPowerOfTwo(this.matrix.height());
+    this.colLeaves = ceilingPowerOfTwo(this.matrix.width());
+    this.tree = new double[Math.multiplyExact(4 * this.rowLeaves, this.colLeaves)];
+    this.stale = false;
+    this.rebuildRows(0, this.rowLeaves);
+  } // rebuild()
+
+  /**
+   * Recompute some leaf rows (from the matrix, or as padding past its
+   * last row), then the row nodes above them. Large ranges are computed
+   * in parallel blocks of rows.
+   *
+   * @param lo
+   *   The first row (inclusive).
+   * @param hi
+   *   The last row (exclusive), at most the number of leaf rows.
+   */
+  private void rebuildRows(int lo, int hi) {
+    if (lo >= hi) {
+      return;
+    } // if
+    int stride = 2 * this.colLeaves;
+    int width = this.matrix.width();
+    int height = this.matrix.height();
+    double[] cells = this.matrix.values;
+    double[] nodes = this.tree;
+    Aggregate agg = this.aggregate;
+    ParallelRanges.forEach(hi - lo, stride, (first, last) -> {
+      for (int row = lo + first; row < lo + last; row++) {
+        int base = (row + this.rowLeaves) * stride;
+        for (int col = 0; col < this.colLeaves; col++) {
+          nodes[base + this.colLeaves + col] = (row < height && col < width)
+              ? cells[row * width + col] : agg.identity;
+        } // for
+        for (int j = this.colLeaves - 1; j >= 1; j--) {
+          nodes[base + j] = agg.combine(nodes[base + 2 * j], nodes[base + 2 * j + 1]);
+        } // for
+      } // for
+    });
+    this.rowsBuilt += hi - lo;
+    for (int top = (lo + this.rowLeaves) >> 1, bottom = (hi - 1 + this.rowLeaves) >> 1;
+         top >= 1; top >>= 1, bottom >>= 1) {
+      int first = top;
+      ParallelRanges.forEach(bottom - top + 1, stride, (from, to) -> {
+        for (int i = first + from; i < first + to; i++) {
+          int here = i * stride;
+          int left = 2 * i * stride;
+          int right = left + stride;
+          for (int j = 1; j < stride; j++) {
+            nodes[here + j] = agg.combine(nodes[left + j], nodes[right + j]);
+          } // for j
+        } // for i
+      });
+    } // for
+  } // rebuildRows(int, int)
+
+  /**
+   * Change one leaf and the nodes above it.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   * @param val
+   *   The new value of the cell.
+   */
+  private void update(int row, int col, double val) {
+    int stride = 2 * this.colLeaves;
+    int leafRow = row + this.rowLeaves;
+    int leafCol = col + this.colLeaves;
+    int base = leafRow * stride;
+    this.tree[base + leafCol] = val;
+    for (int j = leafCol >> 1; j >= 1; j >>= 1) {
+      this.tree[base + j] = this.aggregate.combine(this.tree[base + 2 * j],
+          this.tree[base + 2 * j + 1]);
+    } // for
+    for (int i = leafRow >> 1; i >= 1; i >>= 1) {
+      int here = i * stride;
+      int left = 2 * i * stride;
+      int right = left + stride;
+      for (int j = leafCol; j >= 1; j >>= 1) {
+        this.tree[here + j] = this.aggregate.combine(this.tree[left + j],
+            this.tree[right + j]);
+      } // for j
+    } // for i
+  } // update(int, int, double)
+
+  /**
+   * Follow an insertion or deletion of a row. Rows above it are
+   * unchanged; rows from it down have moved, so they are recomputed.
+   *
+   * @param row
+   *   The row inserted or deleted.
+   * @param oldHeight
+   *   The height before the change.
+   */
+  private void rowsMoved(int row, int oldHeight) {
+    int height = this.matrix.height();
+    if (height > this.rowLeaves) {
+      this.stale = true;
+    } else {
+      this.rebuildRows(row, Math.max(height, oldHeight));
+    } // if/else
+  } // rowsMoved(int, int)
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * Passes changes to the matrix on to the tree.
+   */
+  private final class Follower implements DoubleMatrixIndex {
+    @Override
+    public void cellChanged(int row, int col, double oldVal, double newVal) {
+      if (!SegmentTree2D.this.stale) {
+        SegmentTree2D.this.update(row, col, newVal);
+      } // if
+    } // cellChanged(int, int, double, double)
+
+    @Override
+    public void regionChanged(int startRow, int startCol, int endRow, int endCol) {
+      if (!SegmentTree2D.this.stale) {
+        SegmentTree2D.this.rebuildRows(startRow, endRow);
+      } // if
+    } // regionChanged(int, int, int, int)
+
+    @Override
+    public void structureChanged(MatrixOperation op, int index) {
+      if (SegmentTree2D.this.stale) {
+        return;
+      } else if (op == MatrixOperation.INSERT_ROW) {
+        SegmentTree2D.this.rowsMoved(index, SegmentTree2D.this.matrix.height() - 1);
+      } else if (op == MatrixOperation.DELETE_ROW) {
+        SegmentTree2D.this.rowsMoved(index, SegmentTree2D.this.matrix.height() + 1);
+      } else {
+        SegmentTree2D.this.stale = true;
+      } // if/else
+    } // structureChanged(MatrixOperation, int)
+
+    @Override
+    public long estimatedBytes() {
+      double[] cells = SegmentTree2D.this.tree;
+      return MemoryFootprint.object(1, 0) + MemoryFootprint.object(4, 18)
+          + (cells == null ? 0 : MemoryFootprint.primitiveArray(cells.length, Double.BYTES));
+    } // estimatedBytes()
+  } // class Follower
+} // class SegmentTree2D
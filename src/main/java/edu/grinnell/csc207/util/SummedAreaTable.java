@@ -0,0 +1,297 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+
+/**
+ * A summed-area table (two-dimensional prefix sums) over a
+ * {@link DoubleMatrix}, which answers the sum of any rectangle in
+ * constant time.
+ *
+ * <p>The table follows changes to the matrix. Changes to single cells
+ * (set and fillLine) are kept in a short list, which queries consult
+ * directly; when the list fills, it is applied to the table if that is
+ * cheaper than recomputing the table, and otherwise the table is marked
+ * stale. Region fills and changes of shape always mark the table stale.
+ * A stale table is recomputed, in parallel for large matrices, by the
+ * next query.</p>
+ *
+ * <p>Patching the table adds and subtracts the changes, so after many
+ * patches sums may differ in the last bits from a fresh computation.
+ * Sums that involve infinite or NaN cells are not patched.</p>
+ *
+ * @author Andrew N. Fargo
+ */
+public class SummedAreaTable {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The number of single-cell changes to remember before patching. */
+  static final int MAX_PENDING = 64;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The matrix. */
+  private final DoubleMatrix matrix;
+
+  /** What the matrix tells about its changes. */
+  private final Follower follower = new Follower();
+
+  /** Whether we still follow the matrix. */
+  private boolean attached = true;
+
+  /** The prefix sums: table[r * (width + 1) + c] is the sum of the cells
+      above row r and left of column c. */
+  private double[] table;
+
+  /** The width of the matrix when the table was computed. */
+  private int cols;
+
+  /** Whether the table must be recomputed. */
+  private boolean stale;
+
+  /** The rows of the changes not yet in the table. */
+  private final int[] pendingRows = new int[MAX_PENDING];
+
+  /** The columns of the changes not yet in the table. */
+  private final int[] pendingCols = new int[MAX_PENDING];
+
+  /** The amounts by which those cells changed. */
+  private final double[] pendingDeltas = new double[MAX_PENDING];
+
+  /** The number of changes not yet in the table. */
+  private int pending;
+
+  /** The number of times the table has been recomputed. */
+  private long rebuilds;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a table over a matrix and start following its changes. The
+   * table is computed by the first query.
+   *
+   * @param source
+   *   The matrix.
+   */
+  public SummedAreaTable(DoubleMatrix source) {
+    this.matrix = source;
+    this.stale = true;
+    source.addIndex(this.follower);
+  } // SummedAreaTable(DoubleMatrix)
+
+  // +----------------+----------------------------------------------
+  // | Public methods |
+  // +----------------+
+
+  /**
+   * Add up the cells in a rectangle.
+   *
+   * @param startRow
+   *   The top row (inclusive).
+   * @param startCol
+   *   The left column (inclusive).
+   * @param endRow
+   *   The bottom row (exclusive).
+   * @param endCol
+   *   The right column (exclusive).
+   *
+   * @return the sum, or 0 if the rectangle is empty.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the rectangle does not fit in the matrix.
+   * @throws IllegalStateException
+   *   If the table has been detached.
+   */
+  public double sum(int startRow, int startCol, int endRow, int endCol) {
+    if (!this.attached) {
+      throw new IllegalStateException("Summed-area table has been detached");
+    } // if
+    if (startRow < 0 || startCol < 0 || endRow > this.matrix.height()
+        || endCol > this.matrix.width() || startRow > endRow || startCol > endCol) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    if (this.stale) {
+      this.rebuild();
+    } // if
+    int w = this.cols + 1;
+    double sum = this.table[endRow * w + endCol] - this.table[startRow * w + endCol]
+        - this.table[endRow * w + startCol] + this.table[startRow * w + startCol];
+    for (int i = 0; i < this.pending; i++) {
+      int row = this.pendingRows[i];
+      int col = this.pendingCols[i];
+      if (row >= startRow && row < endRow && col >= startCol && col < endCol) {
+        sum += this.pendingDeltas[i];
+      } // if
+    } // for
+    return sum;
+  } // sum(int, int, int, int)
+
+  /**
+   * Stop following the matrix and release the table.
+   */
+  public void detach() {
+    this.matrix.removeIndex(this.follower);
+    this.attached = false;
+    this.table = null;
+    this.pending = 0;
+  } // detach()
+
+  /**
+   * Determine how many times the table has been computed.
+   *
+   * @return the number of computations.
+   */
+  public long rebuilds() {
+    return this.rebuilds;
+  } // rebuilds()
+
+  // +-----------------+---------------------------------------------
+  // | Private methods |
+  // +-----------------+
+
+  /**
+   * Note that one cell has changed, remembering the change if the table
+   * is current.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   * @param delta
+   *   The amount by which it changed.
+   */
+  private void cellChanged(int row, int col, double delta) {
+    if (this.stale) {
+      return;
+    } // if
+    if (!Double.isFinite(delta)) {
+      this.invalidate();
+      return;
+    } // if
+    if (this.pending == MAX_PENDING) {
+      this.flush();
+      if (this.stale) {
+        return;
+      } // if
+    } // if
+    this.pendingRows[this.pending] = row;
+    this.pendingCols[this.pending] = col;
+    this.pendingDeltas[this.pending] = delta;
+    this.pending++;
+  } // cellChanged(int, int, double)
+
+  /**
+   * Mark the table as needing to be recomputed.
+   */
+  private void invalidate() {
+    this.stale = true;
+    this.pending = 0;
+  } // invalidate()
+
+  /**
+   * Apply the pending changes to the table if that costs less than
+   * recomputing it; otherwise mark it stale.
+   */
+  private void flush() {
+    int height = this.matrix.height();
+    long cost = 0;
+    for (int i = 0; i < this.pending; i++) {
+      cost += (long) (height - this.pendingRows[i]) * (this.cols - this.pendingCols[i]);
+    } // for
+    if (cost >= (long) height * this.cols) {
+      this.invalidate();
+      return;
+    } // if
+    int w = this.cols + 1;
+    for (int i = 0; i < this.pending; i++) {
+      double delta = this.pendingDeltas[i];
+      for (int r = this.pendingRows[i] + 1; r <= height; r++) {
+        for (int c = r * w + this.pendingCols[i] + 1, end = r * w + w; c < end; c++) {
+          this.table[c] += delta;
+        } // for c
+      } // for r
+    } // for
+    this.pending = 0;
+  } // flush()
+
+  /**
+   * Recompute the table: first the prefix sums along each row, then
+   * down each column. Rows, and then columns, are independent, so large
+   * tables are computed in parallel blocks.
+   */
+  private void rebuild() {
+    double[] cells = this.matrix.values;
+    int height = this.matrix.height();
+    int width = this.matrix.width();
+    int w = width + 1;
+    long size = (long) (height + 1) * w;
+    if (this.table == null || this.table.length != size) {
+      this.table = new double[Math.toIntExact(size)];
+    } // if
+    double[] sums = this.table;
+    ParallelRanges.forEach(height, width, (lo, hi) -> {
+      for (int row = lo; row < hi; row++) {
+        double acc = 0;
+        int src = row * width;
+        int dst = (row + 1) * w;
+        sums[dst] = 0;
+        for (int col = 0; col < width; col++) {
+          acc += cells[src + col];
+          sums[dst + col + 1] = acc;
+        } // for col
+      } // for row
+    });
+    Arrays.fill(sums, 0, w, 0.0);
+    ParallelRanges.forEach(w, height, (lo, hi) -> {
+      for (int row = 2; row <= height; row++) {
+        int here = row * w;
+        int above = here - w;
+        for (int col = lo; col < hi; col++) {
+          sums[here + col] += sums[above + col];
+        } // for col
+      } // for row
+    });
+    this.cols = width;
+    this.stale = false;
+    this.pending = 0;
+    this.rebuilds++;
+  } // rebuild()
+
+  // +---------------+-----------------------------------------------
+  // | Inner classes |
+  // +---------------+
+
+  /**
+   * Passes changes to the matrix on to the table.
+   */
+  private final class Follower implements DoubleMatrixIndex {
+    @Override
+    public void cellChanged(int row, int col, double oldVal, double newVal) {
+      SummedAreaTable.this.cellChanged(row, col, newVal - oldVal);
+    } // cellChanged(int, int, double, double)
+
+    @Override
+    public void regionChanged(int startRow, int startCol, int endRow, int endCol) {
+      SummedAreaTable.this.invalidate();
+    } // regionChanged(int, int, int, int)
+
+    @Override
+    public void structureChanged(MatrixOperation op, int index) {
+      SummedAreaTable.this.invalidate();
+    } // structureChanged(MatrixOperation, int)
+
+    @Override
+    public long estimatedBytes() {
+      double[] sums = SummedAreaTable.this.table;
+      return MemoryFootprint.object(1, 0) + MemoryFootprint.object(6, 18)
+          + 2 * MemoryFootprint.primitiveArray(MAX_PENDING, Integer.BYTES)
+          + MemoryFootprint.primitiveArray(MAX_PENDING, Double.BYTES)
+          + (sums == null ? 0 : MemoryFootprint.primitiveArray(sums.length, Double.BYTES));
+    } // estimatedBytes()
+  } // class Follower
+} // class SummedAreaTable
@@ -0,0 +1,1209 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * A matrix stored as a grid of tiles. Rows are grouped into bands of at
+ * most tileSize rows, and columns into bands of at most tileSize
+ * columns; each tile, the cells in one row band and one column band, is
+ * a single row-major array. Cells that are near each other in either
+ * direction are near each other in memory, which suits stencils and
+ * region fills.
+ *
+ * <p>Tiles are allocated lazily. A tile that was never written, or that
+ * was wholly filled with the default value, is stored as null and reads
+ * as the default value, so large mostly-default matrices are cheap.</p>
+ *
+ * <p>Inserting a row or column only copies the tiles of its band. A band
+ * that is full is first split in two, so no band grows past a whole
+ * tile. Bands are rebalanced only when rows or columns are deleted: a
+ * band that shrinks below a quarter of a tile is then merged with a
+ * neighbour if the two fit in one tile. Smaller bands may therefore
+ * remain, such as the last band of a new matrix, or a small band whose
+ * neighbours are too full to merge with.</p>
+ *
+ * @author Andrew N. Fargo
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class TiledMatrix<T> implements Matrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The default number of rows and columns in a tile. */
+  public static final int DEFAULT_TILE_SIZE = 64;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The most rows or columns in a band. */
+  private final int tileSize;
+
+  /** The first row of each row band, followed by the height. */
+  private int[] rowStarts;
+
+  /** The first column of each column band, followed by the width. */
+  private int[] colStarts;
+
+  /**
+   * The tiles, indexed by row band and then column band. Each is null
+   * (all default) or a row-major array of the cells in the band.
+   */
+  private Object[][][] tiles;
+
+  /** Default value for insertions and unallocated tiles. */
+  private final T defaultValue;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default and tiles of the given size.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   * @param size
+   *   The most rows and columns in a tile.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   * @throws IllegalArgumentException
+   *   If size is less than 2, which leaves no room to split a band.
+   */
+  public TiledMatrix(int width, int height, T def, int size) {
+    if (width < 0 || height < 0) {
+      throw new NegativeArraySizeException();
+    } // if
+    if (size < 2) {
+      throw new IllegalArgumentException("Tiles must be at least 2 by 2");
+    } // if
+    this.tileSize = size;
+    this.defaultValue = def;
+    this.rowStarts = bands(height, size);
+    this.colStarts = bands(width, size);
+    this.tiles = new Object[this.rowStarts.length - 1][this.colStarts.length - 1][];
+  } // TiledMatrix(int, int, T, int)
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public TiledMatrix(int width, int height, T def) {
+    this(width, height, def, DEFAULT_TILE_SIZE);
+  } // TiledMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with null as
+   * the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public TiledMatrix(int width, int height) {
+    this(width, height, null);
+  } // TiledMatrix(int, int)
+
+  /**
+   * Create a new matrix from existing bands and tiles, which are not
+   * copied.
+   *
+   * @param size
+   *   The most rows and columns in a tile.
+   * @param rowBands
+   *   The first row of each row band, followed by the height.
+   * @param colBands
+   *   The first column of each column band, followed by the width.
+   * @param grid
+   *   The tiles.
+   * @param def
+   *   The default value.
+   */
+  private TiledMatrix(int size, int[] rowBands, int[] colBands, Object[][][] grid, T def) {
+    this.tileSize = size;
+    this.rowStarts = rowBands;
+    this.colStarts = colBands;
+    this.tiles = grid;
+    this.defaultValue = def;
+  } // TiledMatrix(int, int[], int[], Object[][][], T)
+
+  // +-------------------------+-------------------------------------
+  // | Band and tile utilities |
+  // +-------------------------+
+
+  /**
+   * Split a length into bands of the given size, the last possibly
+   * shorter.
+   *
+   * @param length
+   *   The length to split.
+   * @param size
+   *   The size of a band.
+   *
+   * @return the start of each band, followed by the length.
+   */
+  private static int[] bands(int length, int size) {
+    int count = (int) (((long) length + size - 1) / size);
+    int[] starts = new int[count + 1];
+    for (int i = 0; i < count; i++) {
+      starts[i] = i * size;
+    } // for
+    starts[count] = length;
+    return starts;
+  } // bands(int, int)
+
+  /**
+   * Find the band that holds an index. Bands are never larger than a
+   * tile, so index / size is a lower bound and is usually right.
+   *
+   * @param starts
+   *   The start of each band, followed by the length.
+   * @param size
+   *   The most indices in a band.
+   * @param index
+   *   An index less than the length.
+   *
+   * @return the band.
+   */
+  private static int band(int[] starts, int size, int index) {
+    int guess = Math.min(index / size, starts.length - 2);
+    if (starts[guess] <= index && index < starts[guess + 1]) {
+      return guess;
+    } // if
+    int found = Arrays.binarySearch(starts, guess, starts.length - 1, index);
+    return (found >= 0) ? found : -found - 2;
+  } // band(int[], int, int)
+
+  /**
+   * Add a band boundary.
+   *
+   * @param starts
+   *   The start of each band, followed by the length.
+   * @param at
+   *   The position of the new boundary.
+   * @param value
+   *   The index at which the new band starts.
+   *
+   * @return the new boundaries.
+   */
+  private static int[] addStart(int[] starts, int at, int value) {
+    int[] result = new int[starts.length + 1];
+    System.arraycopy(starts, 0, result, 0, at);
+    result[at] = value;
+    System.arraycopy(starts, at, result, at + 1, starts.length - at);
+    return result;
+  } // addStart(int[], int, int)
+
+  /**
+   * Remove a band boundary.
+   *
+   * @param starts
+   *   The start of each band, followed by the length.
+   * @param at
+   *   The position of the boundary to remove.
+   *
+   * @return the new boundaries.
+   */
+  private static int[] removeStart(int[] starts, int at) {
+    int[] result = new int[starts.length - 1];
+    System.arraycopy(starts, 0, result, 0, at);
+    System.arraycopy(starts, at + 1, result, at, result.length - at);
+    return result;
+  } // removeStart(int[], int)
+
+  /**
+   * Move the boundaries after a band.
+   *
+   * @param starts
+   *   The start of each band, followed by the length.
+   * @param from
+   *   The first boundary to move.
+   * @param delta
+   *   How far to move them.
+   */
+  private static void shift(int[] starts, int from, int delta) {
+    for (int i = from; i < starts.length; i++) {
+      starts[i] += delta;
+    } // for
+  } // shift(int[], int, int)
+
+  /**
+   * Copy some rows of a tile.
+   *
+   * @param tile
+   *   The tile, which may be null.
+   * @param w
+   *   The width of the tile.
+   * @param from
+   *   The first row to copy (inclusive).
+   * @param to
+   *   The last row to copy (exclusive).
+   *
+   * @return the rows, or null if the tile is null.
+   */
+  private static Object[] tileRows(Object[] tile, int w, int from, int to) {
+    return (tile == null) ? null : Arrays.copyOfRange(tile, from * w, to * w);
+  } // tileRows(Object[], int, int, int)
+
+  /**
+   * Copy some columns of a tile.
+   *
+   * @param tile
+   *   The tile, which may be null.
+   * @param w
+   *   The width of the tile.
+   * @param h
+   *   The height of the tile.
+   * @param from
+   *   The first column to copy (inclusive).
+   * @param to
+   *   The last column to copy (exclusive).
+   *
+   * @return the columns, or null if the tile is null.
+   */
+  private static Object[] tileCols(Object[] tile, int w, int h, int from, int to) {
+    if (tile == null) {
+      return null;
+    } // if
+    int n = to - from;
+    Object[] result = new Object[h * n];
+    for (int row = 0; row < h; row++) {
+      System.arraycopy(tile, row * w + from, result, row * n, n);
+    } // for
+    return result;
+  } // tileCols(Object[], int, int, int, int)
+
+  /**
+   * Transpose a tile.
+   *
+   * @param tile
+   *   The tile, which may be null.
+   * @param w
+   *   The width of the tile.
+   * @param h
+   *   The height of the tile.
+   *
+   * @return a tile of width h and height w, or null if the tile is null.
+   */
+  private static Object[] transposeTile(Object[] tile, int w, int h) {
+    if (tile == null) {
+      return null;
+    } // if
+    Object[] result = new Object[tile.length];
+    for (int row = 0; row < h; row++) {
+      for (int col = 0; col < w; col++) {
+        result[col * h + row] = tile[row * w + col];
+      } // for col
+    } // for row
+    return result;
+  } // transposeTile(Object[], int, int)
+
+  /**
+   * Make a tile filled with the default value.
+   *
+   * @param cells
+   *   The number of cells in the tile.
+   *
+   * @return the tile.
+   */
+  private Object[] blank(int cells) {
+    Object[] tile = new Object[cells];
+    if (this.defaultValue != null) {
+      Arrays.fill(tile, this.defaultValue);
+    } // if
+    return tile;
+  } // blank(int)
+
+  /**
+   * Determine if a range of values are all the default value.
+   *
+   * @param vals
+   *   The values.
+   * @param from
+   *   The first value to check (inclusive).
+   * @param to
+   *   The last value to check (exclusive).
+   *
+   * @return true if every value equals the default.
+   */
+  private boolean allDefault(Object[] vals, int from, int to) {
+    for (int i = from; i < to; i++) {
+      if (!Objects.equals(vals[i], this.defaultValue)) {
+        return false;
+      } // if
+    } // for
+    return true;
+  } // allDefault(T[], int, int)
+
+  /**
+   * Release a tile that holds only the default value.
+   *
+   * @param tile
+   *   The tile, which may be null.
+   *
+   * @return the tile, or null if it holds only the default value.
+   */
+  private Object[] compact(Object[] tile) {
+    return (tile == null || this.allDefault(tile, 0, tile.length)) ? null : tile;
+  } // compact(Object[])
+
+  /**
+   * Split a row band in two. Halves that hold only the default value
+   * are released.
+   *
+   * @param rb
+   *   The row band.
+   * @param k
+   *   The number of rows in the first half.
+   */
+  private void splitRowBand(int rb, int k) {
+    int h = this.rowStarts[rb + 1] - this.rowStarts[rb];
+    Object[][][] grid = new Object[this.tiles.length + 1][][];
+    System.arraycopy(this.tiles, 0, grid, 0, rb);
+    System.arraycopy(this.tiles, rb + 1, grid, rb + 2, this.tiles.length - rb - 1);
+    grid[rb] = new Object[this.colStarts.length - 1][];
+    grid[rb + 1] = new Object[this.colStarts.length - 1][];
+    for (int cb = 0; cb < this.colStarts.length - 1; cb++) {
+      int w = this.colStarts[cb + 1] - this.colStarts[cb];
+      grid[rb][cb] = this.compact(tileRows(this.tiles[rb][cb], w, 0, k));
+      grid[rb + 1][cb] = this.compact(tileRows(this.tiles[rb][cb], w, k, h));
+    } // for
+    this.tiles = grid;
+    this.rowStarts = addStart(this.rowStarts, rb + 1, this.rowStarts[rb] + k);
+  } // splitRowBand(int, int)
+
+  /**
+   * Split a column band in two. Halves that hold only the default
+   * value are released.
+   *
+   * @param cb
+   *   The column band.
+   * @param k
+   *   The number of columns in the first half.
+   */
+  private void splitColBand(int cb, int k) {
+    int w = this.colStarts[cb + 1] - this.colStarts[cb];
+    for (int rb = 0; rb < this.tiles.length; rb++) {
+      int h = this.rowStarts[rb + 1] - this.rowStarts[rb];
+      Object[][] old = this.tiles[rb];
+      Object[][] band = new Object[old.length + 1][];
+      System.arraycopy(old, 0, band, 0, cb);
+      System.arraycopy(old, cb + 1, band, cb + 2, old.length - cb - 1);
+      band[cb] = this.compact(tileCols(old[cb], w, h, 0, k));
+      band[cb + 1] = this.compact(tileCols(old[cb], w, h, k, w));
+      this.tiles[rb] = band;
+    } // for
+    this.colStarts = addStart(this.colStarts, cb + 1, this.colStarts[cb] + k);
+  } // splitColBand(int, int)
+
+  /**
+   * Merge a row band with the one below it.
+   *
+   * @param rb
+   *   The upper row band.
+   */
+  private void mergeRowBands(int rb) {
+    int top = this.rowStarts[rb + 1] - this.rowStarts[rb];
+    int bottom = this.rowStarts[rb + 2] - this.rowStarts[rb + 1];
+    Object[][][] grid = new Object[this.tiles.length - 1][][];
+    System.arraycopy(this.tiles, 0, grid, 0, rb);
+    System.arraycopy(this.tiles, rb + 2, grid, rb + 1, grid.length - rb - 1);
+    grid[rb] = new Object[this.colStarts.length - 1][];
+    for (int cb = 0; cb < this.colStarts.length - 1; cb++) {
+      Object[] upper = this.tiles[rb][cb];
+      Object[] lower = this.tiles[rb + 1][cb];
+      if (upper != null || lower != null) {
+        int w = this.colStarts[cb + 1] - this.colStarts[cb];
+        Object[] tile = this.blank((top + bottom) * w);
+        if (upper != null) {
+          System.arraycopy(upper, 0, tile, 0, top * w);
+        } // if
+        if (lower != null) {
+          System.arraycopy(lower, 0, tile, top * w, bottom * w);
+        } // if
+        grid[rb][cb] = tile;
+      } // if
+    } // for
+    this.tiles = grid;
+    this.rowStarts = removeStart(this.rowStarts, rb + 1);
+  } // mergeRowBands(int)
+
+  /**
+   * Merge a column band with the one to its right.
+   *
+   * @param cb
+   *   The left column band.
+   */
+  private void mergeColBands(int cb) {
+    int left = this.colStarts[cb + 1] - this.colStarts[cb];
+    int right = this.colStarts[cb + 2] - this.colStarts[cb + 1];
+    int w = left + right;
+    for (int rb = 0; rb < this.tiles.length; rb++) {
+      int h = this.rowStarts[rb + 1] - this.rowStarts[rb];
+      Object[][] old = this.tiles[rb];
+      Object[][] band = new Object[old.length - 1][];
+      System.arraycopy(old, 0, band, 0, cb);
+      System.arraycopy(old, cb + 2, band, cb + 1, band.length - cb - 1);
+      if (old[cb] != null || old[cb + 1] != null) {
+        Object[] tile = this.blank(h * w);
+        for (int row = 0; row < h; row++) {
+          if (old[cb] != null) {
+            System.arraycopy(old[cb], row * left, tile, row * w, left);
+          } // if
+          if (old[cb + 1] != null) {
+            System.arraycopy(old[cb + 1], row * right, tile, row * w + left, right);
+          } // if
+        } // for
+        band[cb] = tile;
+      } // if
+      this.tiles[rb] = band;
+    } // for
+    this.colStarts = removeStart(this.colStarts, cb + 1);
+  } // mergeColBands(int)
+
+  /**
+   * Merge a row band that has become small with a neighbour, if the
+   * two fit in one tile.
+   *
+   * @param rb
+   *   The row band.
+   */
+  private void rebalanceRowBand(int rb) {
+    int h = this.rowStarts[rb + 1] - this.rowStarts[rb];
+    if (h >= Math.max(1, this.tileSize / 4)) {
+      return;
+    } // if
+    int bands = this.rowStarts.length - 1;
+    if (rb + 1 < bands && h + this.rowStarts[rb + 2] - this.rowStarts[rb + 1] <= this.tileSize) {
+      this.mergeRowBands(rb);
+    } else if (rb > 0 && h + this.rowStarts[rb] - this.rowStarts[rb - 1] <= this.tileSize) {
+      this.mergeRowBands(rb - 1);
+    } // if/else
+  } // rebalanceRowBand(int)
+
+  /**
+   * Merge a column band that has become small with a neighbour, if the
+   * two fit in one tile.
+   *
+   * @param cb
+   *   The column band.
+   */
+  private void rebalanceColBand(int cb) {
+    int w = this.colStarts[cb + 1] - this.colStarts[cb];
+    if (w >= Math.max(1, this.tileSize / 4)) {
+      return;
+    } // if
+    int bands = this.colStarts.length - 1;
+    if (cb + 1 < bands && w + this.colStarts[cb + 2] - this.colStarts[cb + 1] <= this.tileSize) {
+      this.mergeColBands(cb);
+    } else if (cb > 0 && w + this.colStarts[cb] - this.colStarts[cb - 1] <= this.tileSize) {
+      this.mergeColBands(cb - 1);
+    } // if/else
+  } // rebalanceColBand(int)
+
+  /**
+   * Determine if a cell is out of bounds.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return true if the cell is not in the matrix.
+   */
+  private boolean outOfBounds(int row, int col) {
+    return row < 0 || row >= this.height() || col < 0 || col >= this.width();
+  } // outOfBounds(int, int)
+
+  /**
+   * Determine the number of cells in the matrix.
+   *
+   * @return width * height.
+   */
+  private long cells() {
+    return (long) this.width() * this.height();
+  } // cells()
+
+  // +-----------------+---------------------------------------------
+  // | Tile inspection |
+  // +-----------------+
+
+  /**
+   * Determine how many tiles hold their own arrays. The rest read as
+   * the default value.
+   *
+   * @return the number of allocated tiles.
+   */
+  public int allocatedTiles() {
+    int count = 0;
+    for (Object[][] band : this.tiles) {
+      for (Object[] tile : band) {
+        if (tile != null) {
+          count++;
+        } // if
+      } // for
+    } // for
+    return count;
+  } // allocatedTiles()
+
+  /**
+   * Determine how many tiles the matrix is divided into, allocated or
+   * not.
+   *
+   * @return the number of row bands times the number of column bands.
+   */
+  public int tiles() {
+    return (this.rowStarts.length - 1) * (this.colStarts.length - 1);
+  } // tiles()
+
+  /**
+   * Estimate the heap this matrix keeps alive, not counting its elements:
+   * the allocated tiles are cell storage, and the matrix, the band starts,
+   * and the grid of tiles are index. Unallocated tiles cost only their
+   * slot in the grid.
+   *
+   * @return the estimate.
+   */
+  public MemoryFootprint footprint() {
+    long cells = 0;
+    long index = MemoryFootprint.object(4, Integer.BYTES)
+        + MemoryFootprint.primitiveArray(this.rowStarts.length, Integer.BYTES)
+        + MemoryFootprint.primitiveArray(this.colStarts.length, Integer.BYTES)
+        + MemoryFootprint.referenceArray(this.tiles.length);
+    for (Object[][] band : this.tiles) {
+      index += MemoryFootprint.referenceArray(band.length);
+      for (Object[] tile : band) {
+        if (tile != null) {
+          cells += MemoryFootprint.referenceArray(tile.length);
+        } // if
+      } // for
+    } // for
+    return new MemoryFootprint(cells, 0, index, 0);
+  } // footprint()
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @SuppressWarnings({"unchecked"})
+  public T get(int row, int col) {
+    if (this.outOfBounds(row, col)) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    int rb = band(this.rowStarts, this.tileSize, row);
+    int cb = band(this.colStarts, this.tileSize, col);
+    Object[] tile = this.tiles[rb][cb];
+    if (tile == null) {
+      return this.defaultValue;
+    } // if
+    int w = this.colStarts[cb + 1] - this.colStarts[cb];
+    return (T) tile[(row - this.rowStarts[rb]) * w + col - this.colStarts[cb]];
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column. Setting a cell of an
+   * unallocated tile to anything but the default value allocates the
+   * tile.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    if (this.outOfBounds(row, col)) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    int rb = band(this.rowStarts, this.tileSize, row);
+    int cb = band(this.colStarts, this.tileSize, col);
+    int w = this.colStarts[cb + 1] - this.colStarts[cb];
+    Object[] tile = this.tiles[rb][cb];
+    if (tile == null) {
+      if (Objects.equals(val, this.defaultValue)) {
+        return;
+      } // if
+      tile = this.blank(w * (this.rowStarts[rb + 1] - this.rowStarts[rb]));
+      this.tiles[rb][cb] = tile;
+    } // if
+    tile[(row - this.rowStarts[rb]) * w + col - this.colStarts[cb]] = val;
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.rowStarts[this.rowStarts.length - 1];
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.colStarts[this.colStarts.length - 1];
+  } // width()
+
+  /**
+   * Insert a row filled with the default value. Unallocated tiles stay
+   * unallocated.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  @SuppressWarnings({"unchecked"})
+  public void insertRow(int row) {
+    T[] vals = (T[]) this.blank(this.width());
+    try {
+      this.insertRow(row, vals);
+    } catch (ArraySizeException e) {
+      // The row was made the right size.
+      throw new RuntimeException(e.getMessage());
+    } // try/catch
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values. Only the tiles in
+   * the row's band are copied, after splitting the band if it is full.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    if (row < 0 || row > this.height()) {
+      throw new IndexOutOfBoundsException("Provided row exceeds height of TiledMatrix");
+    } // if
+    if (vals.length != this.width()) {
+      throw new ArraySizeException("Inserted row has invalid width");
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    if (this.tiles.length == 0) {
+      this.tiles = new Object[1][this.colStarts.length - 1][];
+      this.rowStarts = new int[] {0, 0};
+    } // if
+    int rb = (row == this.height()) ? this.tiles.length - 1
+        : band(this.rowStarts, this.tileSize, row);
+    if (this.rowStarts[rb + 1] - this.rowStarts[rb] >= this.tileSize) {
+      int half = this.tileSize / 2;
+      this.splitRowBand(rb, half);
+      if (row > this.rowStarts[rb + 1]) {
+        rb++;
+      } // if
+    } // if
+    int h = this.rowStarts[rb + 1] - this.rowStarts[rb];
+    int at = row - this.rowStarts[rb];
+    for (int cb = 0; cb < this.colStarts.length - 1; cb++) {
+      int start = this.colStarts[cb];
+      int w = this.colStarts[cb + 1] - start;
+      Object[] old = this.tiles[rb][cb];
+      if (old == null && this.allDefault(vals, start, start + w)) {
+        continue;
+      } // if
+      if (old == null) {
+        old = this.blank(h * w);
+      } // if
+      Object[] tile = new Object[(h + 1) * w];
+      System.arraycopy(old, 0, tile, 0, at * w);
+      System.arraycopy(vals, start, tile, at * w, w);
+      System.arraycopy(old, at * w, tile, (at + 1) * w, (h - at) * w);
+      this.tiles[rb][cb] = tile;
+    } // for
+    shift(this.rowStarts, rb + 1, 1);
+    event.finish(MatrixOperation.INSERT_ROW, this, row, this.cells());
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value. Unallocated tiles
+   * stay unallocated.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  @SuppressWarnings({"unchecked"})
+  public void insertCol(int col) {
+    T[] vals = (T[]) this.blank(this.height());
+    try {
+      this.insertCol(col, vals);
+    } catch (ArraySizeException e) {
+      // The column was made the right size.
+      throw new RuntimeException(e.getMessage());
+    } // try/catch
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values. Only the tiles
+   * in the column's band are copied, after splitting the band if it is
+   * full.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    if (col < 0 || col > this.width()) {
+      throw new IndexOutOfBoundsException("Provided col exceeds width of TiledMatrix");
+    } // if
+    if (vals.length != this.height()) {
+      throw new ArraySizeException("Inserted col has invalid height");
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    if (this.colStarts.length == 1) {
+      for (int rb = 0; rb < this.tiles.length; rb++) {
+        this.tiles[rb] = new Object[1][];
+      } // for
+      this.colStarts = new int[] {0, 0};
+    } // if
+    int cb = (col == this.width()) ? this.colStarts.length - 2
+        : band(this.colStarts, this.tileSize, col);
+    if (this.colStarts[cb + 1] - this.colStarts[cb] >= this.tileSize) {
+      int half = this.tileSize / 2;
+      this.splitColBand(cb, half);
+      if (col > this.colStarts[cb + 1]) {
+        cb++;
+      } // if
+    } // if
+    int w = this.colStarts[cb + 1] - this.colStarts[cb];
+    int at = col - this.colStarts[cb];
+    for (int rb = 0; rb < this.tiles.length; rb++) {
+      int start = this.rowStarts[rb];
+      int h = this.rowStarts[rb + 1] - start;
+      Object[] old = this.tiles[rb][cb];
+      if (old == null && this.allDefault(vals, start, start + h)) {
+        continue;
+      } // if
+      if (old == null) {
+        old = this.blank(h * w);
+      } // if
+      Object[] tile = new Object[h * (w + 1)];
+      for (int row = 0; row < h; row++) {
+        System.arraycopy(old, row * w, tile, row * (w + 1), at);
+        tile[row * (w + 1) + at] = vals[start + row];
+        System.arraycopy(old, row * w + at, tile, row * (w + 1) + at + 1, w - at);
+      } // for
+      this.tiles[rb][cb] = tile;
+    } // for
+    shift(this.colStarts, cb + 1, 1);
+    event.finish(MatrixOperation.INSERT_COL, this, col, this.cells());
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row. Only the tiles in the row's band are copied, and the
+   * band is merged with a neighbour if it becomes small.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    if (row < 0 || row >= this.height()) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    long cells = this.cells();
+    int rb = band(this.rowStarts, this.tileSize, row);
+    int h = this.rowStarts[rb + 1] - this.rowStarts[rb];
+    int at = row - this.rowStarts[rb];
+    if (h == 1) {
+      Object[][][] grid = new Object[this.tiles.length - 1][][];
+      System.arraycopy(this.tiles, 0, grid, 0, rb);
+      System.arraycopy(this.tiles, rb + 1, grid, rb, grid.length - rb);
+      this.tiles = grid;
+      this.rowStarts = removeStart(this.rowStarts, rb + 1);
+      shift(this.rowStarts, rb + 1, -1);
+    } else {
+      for (int cb = 0; cb < this.colStarts.length - 1; cb++) {
+        Object[] old = this.tiles[rb][cb];
+        if (old != null) {
+          int w = this.colStarts[cb + 1] - this.colStarts[cb];
+          Object[] tile = new Object[(h - 1) * w];
+          System.arraycopy(old, 0, tile, 0, at * w);
+          System.arraycopy(old, (at + 1) * w, tile, at * w, (h - at - 1) * w);
+          this.tiles[rb][cb] = tile;
+        } // if
+      } // for
+      shift(this.rowStarts, rb + 1, -1);
+      this.rebalanceRowBand(rb);
+    } // if/else
+    event.finish(MatrixOperation.DELETE_ROW, this, row, cells);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column. Only the tiles in the column's band are copied,
+   * and the band is merged with a neighbour if it becomes small.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    if (col < 0 || col >= this.width()) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    long cells = this.cells();
+    int cb = band(this.colStarts, this.tileSize, col);
+    int w = this.colStarts[cb + 1] - this.colStarts[cb];
+    int at = col - this.colStarts[cb];
+    if (w == 1) {
+      for (int rb = 0; rb < this.tiles.length; rb++) {
+        Object[][] old = this.tiles[rb];
+        Object[][] band = new Object[old.length - 1][];
+        System.arraycopy(old, 0, band, 0, cb);
+        System.arraycopy(old, cb + 1, band, cb, band.length - cb);
+        this.tiles[rb] = band;
+      } // for
+      this.colStarts = removeStart(this.colStarts, cb + 1);
+      shift(this.colStarts, cb + 1, -1);
+    } else {
+      for (int rb = 0; rb < this.tiles.length; rb++) {
+        Object[] old = this.tiles[rb][cb];
+        if (old != null) {
+          int h = this.rowStarts[rb + 1] - this.rowStarts[rb];
+          Object[] tile = new Object[h * (w - 1)];
+          for (int row = 0; row < h; row++) {
+            System.arraycopy(old, row * w, tile, row * (w - 1), at);
+            System.arraycopy(old, row * w + at + 1, tile, row * (w - 1) + at, w - at - 1);
+          } // for
+          this.tiles[rb][cb] = tile;
+        } // if
+      } // for
+      shift(this.colStarts, cb + 1, -1);
+      this.rebalanceColBand(cb);
+    } // if/else
+    event.finish(MatrixOperation.DELETE_COL, this, col, cells);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix, a tile at a time. Tiles
+   * wholly inside the region are replaced, and become unallocated if
+   * val is the default value.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    if (startRow >= endRow || startCol >= endCol) {
+      return;
+    } else if (outOfBounds(startRow, startCol) || outOfBounds(endRow - 1, endCol - 1)) {
+      throw new IndexOutOfBoundsException();
+    } // if/else
+    MatrixFillEvent event = MatrixFillEvent.start();
+    boolean isDefault = Objects.equals(val, this.defaultValue);
+    int lastRb = band(this.rowStarts, this.tileSize, endRow - 1);
+    int lastCb = band(this.colStarts, this.tileSize, endCol - 1);
+    for (int rb = band(this.rowStarts, this.tileSize, startRow); rb <= lastRb; rb++) {
+      int top = this.rowStarts[rb];
+      int h = this.rowStarts[rb + 1] - top;
+      int r0 = Math.max(startRow, top) - top;
+      int r1 = Math.min(endRow, top + h) - top;
+      for (int cb = band(this.colStarts, this.tileSize, startCol); cb <= lastCb; cb++) {
+        int left = this.colStarts[cb];
+        int w = this.colStarts[cb + 1] - left;
+        int c0 = Math.max(startCol, left) - left;
+        int c1 = Math.min(endCol, left + w) - left;
+        Object[] tile = this.tiles[rb][cb];
+        if (r1 - r0 == h && c1 - c0 == w) {
+          if (isDefault) {
+            this.tiles[rb][cb] = null;
+          } else {
+            if (tile == null) {
+              tile = new Object[h * w];
+              this.tiles[rb][cb] = tile;
+            } // if
+            Arrays.fill(tile, val);
+          } // if/else
+        } else if (tile != null || !isDefault) {
+          if (tile == null) {
+            tile = this.blank(h * w);
+            this.tiles[rb][cb] = tile;
+          } // if
+          for (int row = r0; row < r1; row++) {
+            Arrays.fill(tile, row * w + c0, row * w + c1, val);
+          } // for
+        } // if/else
+      } // for cb
+    } // for rb
+    event.finish(MatrixOperation.FILL_REGION, this,
+        (long) (endRow - startRow) * (endCol - startCol));
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    if (outOfBounds(startRow, startCol) || outOfBounds(endRow - 1, endCol - 1)) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    MatrixFillEvent event = MatrixFillEvent.start();
+    long cells = 0;
+    for (int row = startRow, col = startCol;
+         row < endRow && col < endCol;
+         row += deltaRow, col += deltaCol) {
+      this.set(row, col, val);
+      cells++;
+    } // for
+    event.finish(MatrixOperation.FILL_LINE, this, cells);
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Build the transposed grid of tiles.
+   *
+   * @return the transposed tiles.
+   */
+  private Object[][][] transposedTiles() {
+    int rowBands = this.rowStarts.length - 1;
+    int colBands = this.colStarts.length - 1;
+    Object[][][] grid = new Object[colBands][rowBands][];
+    for (int rb = 0; rb < rowBands; rb++) {
+      int h = this.rowStarts[rb + 1] - this.rowStarts[rb];
+      for (int cb = 0; cb < colBands; cb++) {
+        int w = this.colStarts[cb + 1] - this.colStarts[cb];
+        grid[cb][rb] = transposeTile(this.tiles[rb][cb], w, h);
+      } // for cb
+    } // for rb
+    return grid;
+  } // transposedTiles()
+
+  /**
+   * Make a new matrix that is the transpose of this one. Each tile is
+   * transposed on its own and unallocated tiles stay unallocated.
+   *
+   * @return the transpose.
+   */
+  public TiledMatrix<T> transpose() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    TiledMatrix<T> result = new TiledMatrix<T>(this.tileSize, this.colStarts.clone(),
+        this.rowStarts.clone(), this.transposedTiles(), this.defaultValue);
+    event.finish(MatrixOperation.TRANSPOSE, result, -1, this.cells());
+    return result;
+  } // transpose()
+
+  /**
+   * Transpose this matrix in place.
+   */
+  public void transposeInPlace() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    this.tiles = this.transposedTiles();
+    int[] starts = this.rowStarts;
+    this.rowStarts = this.colStarts;
+    this.colStarts = starts;
+    event.finish(MatrixOperation.TRANSPOSE, this, -1, this.cells());
+  } // transposeInPlace()
+
+  /**
+   * Count the elements that satisfy a predicate. The predicate is tested
+   * once for all the cells of unallocated tiles.
+   *
+   * @param predicate
+   *   The predicate.
+   *
+   * @return the number of elements for which predicate is true.
+   */
+  @SuppressWarnings({"unchecked"})
+  public long count(Predicate<? super T> predicate) {
+    boolean matchesDefault = predicate.test(this.defaultValue);
+    long count = 0;
+    for (int rb = 0; rb < this.tiles.length; rb++) {
+      int h = this.rowStarts[rb + 1] - this.rowStarts[rb];
+      for (int cb = 0; cb < this.colStarts.length - 1; cb++) {
+        Object[] tile = this.tiles[rb][cb];
+        if (tile == null) {
+          if (matchesDefault) {
+            count += (long) h * (this.colStarts[cb + 1] - this.colStarts[cb]);
+          } // if
+        } else {
+          for (Object val : tile) {
+            if (predicate.test((T) val)) {
+              count++;
+            } // if
+          } // for
+        } // if/else
+      } // for cb
+    } // for rb
+    return count;
+  } // count(Predicate)
+
+  /**
+   * Make a copy of the matrix, sharing the elements but not the tiles.
+   *
+   * @return a copy of the matrix.
+   */
+  public TiledMatrix<T> clone() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    Object[][][] grid = new Object[this.tiles.length][][];
+    for (int rb = 0; rb < grid.length; rb++) {
+      grid[rb] = new Object[this.tiles[rb].length][];
+      for (int cb = 0; cb < grid[rb].length; cb++) {
+        Object[] tile = this.tiles[rb][cb];
+        grid[rb][cb] = (tile == null) ? null : tile.clone();
+      } // for cb
+    } // for rb
+    TiledMatrix<T> copy = new TiledMatrix<T>(this.tileSize, this.rowStarts.clone(),
+        this.colStarts.clone(), grid, this.defaultValue);
+    event.finish(MatrixOperation.CLONE, this, -1, this.cells());
+    return copy;
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object. Elements are
+   * compared as by Objects.equals.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    if (!(other instanceof Matrix)) {
+      return false;
+    } // if
+    Matrix<?> that = (Matrix<?>) other;
+    if (that.width() != this.width() || that.height() != this.height()) {
+      return false;
+    } // if
+    for (int rb = 0; rb < this.tiles.length; rb++) {
+      int top = this.rowStarts[rb];
+      for (int row = top; row < this.rowStarts[rb + 1]; row++) {
+        for (int cb = 0; cb < this.colStarts.length - 1; cb++) {
+          int left = this.colStarts[cb];
+          int w = this.colStarts[cb + 1] - left;
+          Object[] tile = this.tiles[rb][cb];
+          for (int col = 0; col < w; col++) {
+            Object val = (tile == null) ? this.defaultValue : tile[(row - top) * w + col];
+            if (!Objects.equals(val, that.get(row, left + col))) {
+              return false;
+            } // if
+          } // for col
+        } // for cb
+      } // for row
+    } // for rb
+    return true;
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix. Equal to the hash code of a
+   * MatrixV0 with the same elements.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    int multiplier = 7;
+    int code = this.width() + multiplier * this.height();
+    for (int rb = 0; rb < this.tiles.length; rb++) {
+      int top = this.rowStarts[rb];
+      for (int row = top; row < this.rowStarts[rb + 1]; row++) {
+        for (int cb = 0; cb < this.colStarts.length - 1; cb++) {
+          int w = this.colStarts[cb + 1] - this.colStarts[cb];
+          Object[] tile = this.tiles[rb][cb];
+          for (int col = 0; col < w; col++) {
+            Object val = (tile == null) ? this.defaultValue : tile[(row - top) * w + col];
+            if (val != null) {
+              code = code * multiplier + val.hashCode();
+            } // if
+          } // for col
+        } // for cb
+      } // for row
+    } // for rb
+    return code;
+  } // hashCode()
+} // class TiledMatrix<T>
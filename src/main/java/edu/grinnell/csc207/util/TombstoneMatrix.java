@@ -0,0 +1,780 @@
+package edu.grinnell.csc207.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A matrix that deletes rows and columns by marking them dead rather
+ * than moving the cells after them.
+ *
+ * <p>The cells are stored row by row in physical rows and columns, which
+ * never move. Two maps give the physical row of each logical row and the
+ * physical column of each logical column, and every access goes through
+ * them. Deleting a row or column removes one entry from a map and
+ * leaves a tombstone behind: a dropped row, or a physical column whose
+ * cells are cleared. Inserting reuses a tombstone if there is one, and
+ * otherwise appends a physical row or column, with spare capacity in
+ * each row so that columns are appended in amortized O(height) time.</p>
+ *
+ * <p>Deletions are still linear, not constant or logarithmic: removing
+ * an entry shifts the ints after it in the map, and deleting a column
+ * also clears its cell in every row. That is far cheaper than moving
+ * cells, as MatrixV0 does for columns, but it is O(height) or O(width).
+ * A tree over the maps would make deletions O(log n), but would make
+ * every get and set O(log n) too. Inserting a row writes its values one
+ * by one through the column map into a new physical row, so it costs
+ * somewhat more than in MatrixV0, which copies the values whole.</p>
+ *
+ * <p>Once the tombstones make up more than a given fraction (by default
+ * DEFAULT_COMPACTION_THRESHOLD) of the physical rows or columns, the
+ * matrix is compacted: the live cells are copied into new rows in
+ * logical order, and the maps become the identity again. Each
+ * compaction costs as much as copying the matrix, and is paid for by
+ * the deletions since the last one.</p>
+ *
+ * @author Andrew N. Fargo
+ *
+ * @param <T>
+ *   The type of values stored in the matrix.
+ */
+public class TombstoneMatrix<T> implements Matrix<T> {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The default fraction of physical rows or columns that may be
+      tombstones before the matrix is compacted. */
+  public static final double DEFAULT_COMPACTION_THRESHOLD = 0.25;
+
+  /** The fewest columns to make room for when rows must grow. */
+  private static final int MIN_CAPACITY = 4;
+
+  // +--------+------------------------------------------------------
+  // | Fields |
+  // +--------+
+
+  /** The physical rows, each colCapacity long, or null for dead rows. */
+  private Object[][] cells;
+
+  /** The number of physical rows, live or dead. */
+  private int physicalRows;
+
+  /** The number of physical columns, live or dead. */
+  private int physicalCols;
+
+  /** The length of each physical row. */
+  private int colCapacity;
+
+  /** The physical row of each logical row. Only the first rows are used. */
+  private int[] rowMap;
+
+  /** The number of logical rows. */
+  private int rows;
+
+  /** The physical column of each logical column. Only the first cols
+      are used. */
+  private int[] colMap;
+
+  /** The number of logical columns. */
+  private int cols;
+
+  /** Default value for insertions. */
+  private final T defaultValue;
+
+  /** The fraction of tombstones that triggers compaction. */
+  private double threshold = DEFAULT_COMPACTION_THRESHOLD;
+
+  /** The number of compactions so far. */
+  private int compactions;
+
+  /** Dead physical rows, to be reused first. */
+  private int[] freeRows = new int[MIN_CAPACITY];
+
+  /** The number of entries in freeRows. */
+  private int freeRowCount;
+
+  /** Dead physical columns, to be reused first. */
+  private int[] freeCols = new int[MIN_CAPACITY];
+
+  /** The number of entries in freeCols. */
+  private int freeColCount;
+
+  // +--------------+------------------------------------------------
+  // | Constructors |
+  // +--------------+
+
+  /**
+   * Create a new matrix of the specified width and height with the
+   * given value as the default.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   * @param def
+   *   The default value, used to fill all the cells.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public TombstoneMatrix(int width, int height, T def) {
+    if (width < 0 || height < 0) {
+      throw new NegativeArraySizeException();
+    } // if
+    this.defaultValue = def;
+    Object[][] live = new Object[height][];
+    for (int row = 0; row < height; row++) {
+      live[row] = this.repeat(def, width);
+    } // for
+    this.reset(live, width);
+  } // TombstoneMatrix(int, int, T)
+
+  /**
+   * Create a new matrix of the specified width and height with null as
+   * the default value.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @throws NegativeArraySizeException
+   *   If either the width or height are negative.
+   */
+  public TombstoneMatrix(int width, int height) {
+    this(width, height, null);
+  } // TombstoneMatrix(int, int)
+
+  /**
+   * Create a new matrix from rows, which are not copied.
+   *
+   * @param live
+   *   The rows, each exactly width long.
+   * @param width
+   *   The width of the matrix.
+   * @param def
+   *   The default value.
+   */
+  private TombstoneMatrix(Object[][] live, int width, T def) {
+    this.defaultValue = def;
+    this.reset(live, width);
+  } // TombstoneMatrix(Object[][], int, T)
+
+  // +-----------------+---------------------------------------------
+  // | Private methods |
+  // +-----------------+
+
+  /**
+   * Replace the cells with rows that have no tombstones.
+   *
+   * @param live
+   *   The rows, each exactly width long, which are not copied.
+   * @param width
+   *   The width of the matrix.
+   */
+  private void reset(Object[][] live, int width) {
+    this.cells = live;
+    this.rows = live.length;
+    this.cols = width;
+    this.physicalRows = live.length;
+    this.physicalCols = width;
+    this.colCapacity = width;
+    this.rowMap = identity(Math.max(this.rows, MIN_CAPACITY));
+    this.colMap = identity(Math.max(this.cols, MIN_CAPACITY));
+    this.freeRowCount = 0;
+    this.freeColCount = 0;
+  } // reset(Object[][], int)
+
+  /**
+   * Make an array of 0, 1, 2, ...
+   *
+   * @param length
+   *   The length of the array.
+   *
+   * @return the array.
+   */
+  private static int[] identity(int length) {
+    int[] result = new int[length];
+    for (int i = 0; i < length; i++) {
+      result[i] = i;
+    } // for
+    return result;
+  } // identity(int)
+
+  /**
+   * Add an entry to a map.
+   *
+   * @param map
+   *   The map.
+   * @param size
+   *   The number of entries used.
+   * @param at
+   *   Where to add the entry.
+   * @param physical
+   *   The entry.
+   *
+   * @return the map, which is new if it had to grow.
+   */
+  private static int[] insert(int[] map, int size, int at, int physical) {
+    int[] result = (size < map.length) ? map : Arrays.copyOf(map, size * 2);
+    System.arraycopy(result, at, result, at + 1, size - at);
+    result[at] = physical;
+    return result;
+  } // insert(int[], int, int, int)
+
+  /**
+   * Push an entry onto a stack.
+   *
+   * @param stack
+   *   The stack.
+   * @param size
+   *   The number of entries used.
+   * @param val
+   *   The entry.
+   *
+   * @return the stack, which is new if it had to grow.
+   */
+  private static int[] push(int[] stack, int size, int val) {
+    int[] result = (size < stack.length) ? stack : Arrays.copyOf(stack, size * 2);
+    result[size] = val;
+    return result;
+  } // push(int[], int, int)
+
+  /**
+   * Repeat a value into a new array.
+   *
+   * @param val
+   *   The value to repeat.
+   * @param len
+   *   The length of the array.
+   *
+   * @return [val, val, ... val] (len times).
+   */
+  private Object[] repeat(T val, int len) {
+    Object[] result = new Object[len];
+    if (val != null) {
+      Arrays.fill(result, val);
+    } // if
+    return result;
+  } // repeat(T, int)
+
+  /**
+   * Copy the live cells into new rows, in logical order.
+   *
+   * @return the rows, each exactly width long.
+   */
+  private Object[][] liveRows() {
+    Object[][] result = new Object[this.rows][this.cols];
+    for (int row = 0; row < this.rows; row++) {
+      Object[] physical = this.cells[this.rowMap[row]];
+      Object[] logical = result[row];
+      for (int col = 0; col < this.cols; col++) {
+        logical[col] = physical[this.colMap[col]];
+      } // for col
+    } // for row
+    return result;
+  } // liveRows()
+
+  /**
+   * Compact the matrix if there are too many tombstones.
+   */
+  private void compactIfNeeded() {
+    if (this.physicalRows - this.rows > this.threshold * this.physicalRows
+        || this.physicalCols - this.cols > this.threshold * this.physicalCols) {
+      this.compact();
+    } // if
+  } // compactIfNeeded()
+
+  /**
+   * Determine if a cell is out of bounds.
+   *
+   * @param row
+   *   The row of the cell.
+   * @param col
+   *   The column of the cell.
+   *
+   * @return true if the cell is not in the matrix.
+   */
+  private boolean outOfBounds(int row, int col) {
+    return row < 0 || row >= this.rows || col < 0 || col >= this.cols;
+  } // outOfBounds(int, int)
+
+  // +------------+--------------------------------------------------
+  // | Tombstones |
+  // +------------+
+
+  /**
+   * Determine how many deleted rows and columns have not yet been
+   * compacted away.
+   *
+   * @return the number of tombstones.
+   */
+  public int tombstones() {
+    return (this.physicalRows - this.rows) + (this.physicalCols - this.cols);
+  } // tombstones()
+
+  /**
+   * Count the compactions so far.
+   *
+   * @return the number of times the matrix has been compacted.
+   */
+  public int compactions() {
+    return this.compactions;
+  } // compactions()
+
+  /**
+   * Set the fraction of physical rows or columns that may be tombstones
+   * before the matrix is compacted. The matrix is compacted now if it
+   * already has more.
+   *
+   * @param ratio
+   *   The fraction, greater than 0 and less than 1.
+   *
+   * @throws IllegalArgumentException
+   *   If the fraction is not greater than 0 and less than 1.
+   */
+  public void setCompactionThreshold(double ratio) {
+    if (!(ratio > 0 && ratio < 1)) {
+      throw new IllegalArgumentException("Compaction threshold must be between 0 and 1");
+    } // if
+    this.threshold = ratio;
+    this.compactIfNeeded();
+  } // setCompactionThreshold(double)
+
+  /**
+   * Copy the live cells into new rows, dropping all the tombstones. Done
+   * automatically when there are enough tombstones, but callers may do
+   * it sooner, for instance when the matrix is idle.
+   */
+  public void compact() {
+    this.reset(this.liveRows(), this.cols);
+    this.compactions++;
+  } // compact()
+
+  // +--------------+------------------------------------------------
+  // | Core methods |
+  // +--------------+
+
+  /**
+   * Get the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   *
+   * @return the value at the specified location.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  @SuppressWarnings({"unchecked"})
+  public T get(int row, int col) {
+    if (this.outOfBounds(row, col)) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    return (T) this.cells[this.rowMap[row]][this.colMap[col]];
+  } // get(int, int)
+
+  /**
+   * Set the element at the given row and column.
+   *
+   * @param row
+   *   The row of the element.
+   * @param col
+   *   The column of the element.
+   * @param val
+   *   The value to set.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If either the row or column is out of reasonable bounds.
+   */
+  public void set(int row, int col, T val) {
+    if (this.outOfBounds(row, col)) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    this.cells[this.rowMap[row]][this.colMap[col]] = val;
+  } // set(int, int, T)
+
+  /**
+   * Determine the number of rows in the matrix.
+   *
+   * @return the number of rows.
+   */
+  public int height() {
+    return this.rows;
+  } // height()
+
+  /**
+   * Determine the number of columns in the matrix.
+   *
+   * @return the number of columns.
+   */
+  public int width() {
+    return this.cols;
+  } // width()
+
+  /**
+   * Insert a row filled with the default value.
+   *
+   * @param row
+   *   The number of the row to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   */
+  @SuppressWarnings({"unchecked"})
+  public void insertRow(int row) {
+    try {
+      this.insertRow(row, (T[]) this.repeat(this.defaultValue, this.cols));
+    } catch (ArraySizeException e) {
+      // The row was made the right size.
+      throw new RuntimeException(e.getMessage());
+    } // try/catch
+  } // insertRow(int)
+
+  /**
+   * Insert a row filled with the specified values, in a dead physical
+   * row or a new one.
+   *
+   * @param row
+   *   The number of the row to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than the height.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the width of the matrix.
+   */
+  public void insertRow(int row, T[] vals) throws ArraySizeException {
+    if (row < 0 || row > this.rows) {
+      throw new IndexOutOfBoundsException("Provided row exceeds height of TombstoneMatrix");
+    } // if
+    if (vals.length != this.cols) {
+      throw new ArraySizeException("Inserted row has invalid width");
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    Object[] physical = new Object[this.colCapacity];
+    for (int col = 0; col < this.cols; col++) {
+      physical[this.colMap[col]] = vals[col];
+    } // for
+    int at;
+    if (this.freeRowCount > 0) {
+      at = this.freeRows[--this.freeRowCount];
+    } else {
+      if (this.physicalRows == this.cells.length) {
+        this.cells = Arrays.copyOf(this.cells, Math.max(MIN_CAPACITY, this.physicalRows * 2));
+      } // if
+      at = this.physicalRows++;
+    } // if/else
+    this.cells[at] = physical;
+    this.rowMap = insert(this.rowMap, this.rows++, row, at);
+    event.finish(MatrixOperation.INSERT_ROW, this, row, (long) this.rows * this.cols);
+  } // insertRow(int, T[])
+
+  /**
+   * Insert a column filled with the default value.
+   *
+   * @param col
+   *   The number of the column to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   */
+  @SuppressWarnings({"unchecked"})
+  public void insertCol(int col) {
+    try {
+      this.insertCol(col, (T[]) this.repeat(this.defaultValue, this.rows));
+    } catch (ArraySizeException e) {
+      // The column was made the right size.
+      throw new RuntimeException(e.getMessage());
+    } // try/catch
+  } // insertCol(int)
+
+  /**
+   * Insert a column filled with the specified values, in a dead physical
+   * column or a new one. When the rows are full, every row is
+   * reallocated with twice the room.
+   *
+   * @param col
+   *   The number of the column to insert.
+   * @param vals
+   *   The values to insert.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than the width.
+   * @throws ArraySizeException
+   *   If the size of vals is not the same as the height of the matrix.
+   */
+  public void insertCol(int col, T[] vals) throws ArraySizeException {
+    if (col < 0 || col > this.cols) {
+      throw new IndexOutOfBoundsException("Provided col exceeds width of TombstoneMatrix");
+    } // if
+    if (vals.length != this.rows) {
+      throw new ArraySizeException("Inserted col has invalid height");
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    if (this.freeColCount == 0 && this.physicalCols == this.colCapacity) {
+      this.colCapacity = Math.max(MIN_CAPACITY, this.colCapacity * 2);
+      for (int row = 0; row < this.physicalRows; row++) {
+        if (this.cells[row] != null) {
+          this.cells[row] = Arrays.copyOf(this.cells[row], this.colCapacity);
+        } // if
+      } // for
+    } // if
+    int physical = (this.freeColCount > 0) ? this.freeCols[--this.freeColCount]
+        : this.physicalCols++;
+    for (int row = 0; row < this.rows; row++) {
+      this.cells[this.rowMap[row]][physical] = vals[row];
+    } // for
+    this.colMap = insert(this.colMap, this.cols++, col, physical);
+    event.finish(MatrixOperation.INSERT_COL, this, col, (long) this.rows * this.cols);
+  } // insertCol(int, T[])
+
+  /**
+   * Delete a row, leaving a tombstone. Takes O(height) time to shift the
+   * row map.
+   *
+   * @param row
+   *   The number of the row to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the row is negative or greater than or equal to the height.
+   */
+  public void deleteRow(int row) {
+    if (row < 0 || row >= this.rows) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    this.cells[this.rowMap[row]] = null;
+    this.freeRows = push(this.freeRows, this.freeRowCount++, this.rowMap[row]);
+    System.arraycopy(this.rowMap, row + 1, this.rowMap, row, --this.rows - row);
+    this.compactIfNeeded();
+    event.finish(MatrixOperation.DELETE_ROW, this, row, (long) this.rows * this.cols);
+  } // deleteRow(int)
+
+  /**
+   * Delete a column, leaving a tombstone. The column's cells are
+   * cleared, so that they do not keep their elements alive. Takes
+   * O(width + height) time to shift the column map and clear the cells.
+   *
+   * @param col
+   *   The number of the column to delete.
+   *
+   * @throws IndexOutOfBoundsException
+   *   If the column is negative or greater than or equal to the width.
+   */
+  public void deleteCol(int col) {
+    if (col < 0 || col >= this.cols) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    int physical = this.colMap[col];
+    for (int row = 0; row < this.rows; row++) {
+      this.cells[this.rowMap[row]][physical] = null;
+    } // for
+    this.freeCols = push(this.freeCols, this.freeColCount++, physical);
+    System.arraycopy(this.colMap, col + 1, this.colMap, col, --this.cols - col);
+    this.compactIfNeeded();
+    event.finish(MatrixOperation.DELETE_COL, this, col, (long) this.rows * this.cols);
+  } // deleteCol(int)
+
+  /**
+   * Fill a rectangular region of the matrix.
+   *
+   * @param startRow
+   *   The top edge / row to start with (inclusive).
+   * @param startCol
+   *   The left edge / column to start with (inclusive).
+   * @param endRow
+   *   The bottom edge / row to stop with (exclusive).
+   * @param endCol
+   *   The right edge / column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillRegion(int startRow, int startCol, int endRow, int endCol,
+      T val) {
+    if (endRow - startRow == 0 || endCol - startCol == 0) {
+      return;
+    } else if (outOfBounds(startRow, startCol) || outOfBounds(endRow - 1, endCol - 1)) {
+      throw new IndexOutOfBoundsException();
+    } // if/else
+    MatrixFillEvent event = MatrixFillEvent.start();
+    for (int row = startRow; row < endRow; row++) {
+      Object[] physical = this.cells[this.rowMap[row]];
+      for (int col = startCol; col < endCol; col++) {
+        physical[this.colMap[col]] = val;
+      } // for col
+    } // for row
+    event.finish(MatrixOperation.FILL_REGION, this,
+        (long) (endRow - startRow) * (endCol - startCol));
+  } // fillRegion(int, int, int, int, T)
+
+  /**
+   * Fill a line (horizontal, vertical, diagonal).
+   *
+   * @param startRow
+   *   The row to start with (inclusive).
+   * @param startCol
+   *   The column to start with (inclusive).
+   * @param deltaRow
+   *   How much to change the row in each step.
+   * @param deltaCol
+   *   How much to change the column in each step.
+   * @param endRow
+   *   The row to stop with (exclusive).
+   * @param endCol
+   *   The column to stop with (exclusive).
+   * @param val
+   *   The value to store.
+   *
+   * @throw IndexOutOfBoundsException
+   *   If the rows or columns are inappropriate.
+   */
+  public void fillLine(int startRow, int startCol, int deltaRow, int deltaCol,
+      int endRow, int endCol, T val) {
+    if (outOfBounds(startRow, startCol) || outOfBounds(endRow - 1, endCol - 1)) {
+      throw new IndexOutOfBoundsException();
+    } // if
+    MatrixFillEvent event = MatrixFillEvent.start();
+    long count = 0;
+    if (deltaRow == 0 && startRow < endRow) {
+      Object[] physical = this.cells[this.rowMap[startRow]];
+      for (int col = startCol; col < endCol; col += deltaCol) {
+        physical[this.colMap[col]] = val;
+        count++;
+      } // for
+    } else if (deltaRow != 0) {
+      for (int row = startRow, col = startCol;
+           row < endRow && col < endCol;
+           row += deltaRow, col += deltaCol) {
+        this.cells[this.rowMap[row]][this.colMap[col]] = val;
+        count++;
+      } // for
+    } // if/else
+    event.finish(MatrixOperation.FILL_LINE, this, count);
+  } // fillLine(int, int, int, int, int, int, T)
+
+  /**
+   * Make a new matrix that is the transpose of this one, with no
+   * tombstones.
+   *
+   * @return the transpose.
+   */
+  public TombstoneMatrix<T> transpose() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    Object[][] live = this.liveRows();
+    Object[][] result = new Object[this.cols][this.rows];
+    MatrixV0.transposeInto(live, result, 0, this.rows, 0, this.cols);
+    TombstoneMatrix<T> transposed =
+        new TombstoneMatrix<T>(result, this.rows, this.defaultValue);
+    event.finish(MatrixOperation.TRANSPOSE, transposed, -1, (long) this.rows * this.cols);
+    return transposed;
+  } // transpose()
+
+  /**
+   * Transpose this matrix in place, dropping the tombstones.
+   */
+  public void transposeInPlace() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    Object[][] live = this.liveRows();
+    Object[][] result = new Object[this.cols][this.rows];
+    MatrixV0.transposeInto(live, result, 0, this.rows, 0, this.cols);
+    this.reset(result, this.rows);
+    event.finish(MatrixOperation.TRANSPOSE, this, -1, (long) this.rows * this.cols);
+  } // transposeInPlace()
+
+  /**
+   * Make a copy of the matrix, sharing the elements but not the rows.
+   * The copy has no tombstones.
+   *
+   * @return a copy of the matrix.
+   */
+  public TombstoneMatrix<T> clone() {
+    MatrixStructuralEvent event = MatrixStructuralEvent.start();
+    TombstoneMatrix<T> copy =
+        new TombstoneMatrix<T>(this.liveRows(), this.cols, this.defaultValue);
+    copy.threshold = this.threshold;
+    event.finish(MatrixOperation.CLONE, this, -1, (long) this.rows * this.cols);
+    return copy;
+  } // clone()
+
+  /**
+   * Determine if this object is equal to another object. Elements are
+   * compared as by Objects.equals.
+   *
+   * @param other
+   *   The object to compare.
+   *
+   * @return true if the other object is a matrix with the same width,
+   * height, and equal elements; false otherwise.
+   */
+  public boolean equals(Object other) {
+    if (!(other instanceof Matrix)) {
+      return false;
+    } // if
+    Matrix<?> that = (Matrix<?>) other;
+    if (that.width() != this.cols || that.height() != this.rows) {
+      return false;
+    } // if
+    for (int row = 0; row < this.rows; row++) {
+      Object[] physical = this.cells[this.rowMap[row]];
+      for (int col = 0; col < this.cols; col++) {
+        if (!Objects.equals(physical[this.colMap[col]], that.get(row, col))) {
+          return false;
+        } // if
+      } // for col
+    } // for row
+    return true;
+  } // equals(Object)
+
+  /**
+   * Compute a hash code for this matrix. Equal to the hash code of a
+   * MatrixV0 with the same elements.
+   *
+   * @return the hash code.
+   */
+  public int hashCode() {
+    int multiplier = 7;
+    int code = this.cols + multiplier * this.rows;
+    for (int row = 0; row < this.rows; row++) {
+      Object[] physical = this.cells[this.rowMap[row]];
+      for (int col = 0; col < this.cols; col++) {
+        Object val = physical[this.colMap[col]];
+        if (val != null) {
+          code = code * multiplier + val.hashCode();
+        } // if
+      } // for col
+    } // for row
+    return code;
+  } // hashCode()
+
+  /**
+   * Estimate the heap this matrix keeps alive, not counting its elements:
+   * the live cells are cell storage; dead and spare columns, spare rows,
+   * and spare map entries are slack; and the matrix, its array of rows,
+   * the maps, and the lists of dead rows and columns are index.
+   *
+   * @return the estimate.
+   */
+  public MemoryFootprint footprint() {
+    long rowSlack = (long) this.rows * (this.colCapacity - this.cols) * MemoryFootprint.REFERENCE;
+    long spineSlack = (long) (this.cells.length - this.rows) * MemoryFootprint.REFERENCE;
+    long mapSlack = (long) (this.rowMap.length - this.rows + this.colMap.length - this.cols)
+        * Integer.BYTES;
+    long index = MemoryFootprint.object(6, 8 * Integer.BYTES + Double.BYTES)
+        + MemoryFootprint.referenceArray(this.cells.length)
+        + MemoryFootprint.primitiveArray(this.rowMap.length, Integer.BYTES)
+        + MemoryFootprint.primitiveArray(this.colMap.length, Integer.BYTES)
+        + MemoryFootprint.primitiveArray(this.freeRows.length, Integer.BYTES)
+        + MemoryFootprint.primitiveArray(this.freeCols.length, Integer.BYTES);
+    return new MemoryFootprint(
+        this.rows * MemoryFootprint.referenceArray(this.colCapacity) - rowSlack,
+        rowSlack + spineSlack + mapSlack, index - spineSlack - mapSlack, 0);
+  } // footprint()
+} // class TombstoneMatrix<T>
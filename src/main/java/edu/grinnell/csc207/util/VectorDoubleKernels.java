@@ -0,0 +1,306 @@
+package edu.grinnell.csc207.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Element-wise operations on arrays of doubles, using the Java Vector
+ * API to process as many elements at once as the hardware allows. Only
+ * loaded (by {@link DoubleKernels#select()}) when the
+ * {@code jdk.incubator.vector} module is present.
+ *
+ * @author Andrew N. Fargo
+ */
+class VectorDoubleKernels implements DoubleKernels {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The preferred vector shape on this machine. */
+  static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+  // +---------+-----------------------------------------------------
+  // | Methods |
+  // +---------+
+
+  /**
+   * Name the kernels, for diagnostics.
+   *
+   * @return the name.
+   */
+  public String name() {
+    return "vector (" + SPECIES.length() + " lanes)";
+  } // name()
+
+  /**
+   * Compute out[i] = a[i] + b[i].
+   *
+   * @param a
+   *   The first operand.
+   * @param b
+   *   The second operand.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  public void add(double[] a, double[] b, double[] out, int n) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, a, i)
+          .add(DoubleVector.fromArray(SPECIES, b, i))
+          .intoArray(out, i);
+    } // for
+    for (; i < n; i++) {
+      out[i] = a[i] + b[i];
+    } // for
+  } // add(double[], double[], double[], int)
+
+  /**
+   * Compute out[i] = a[i] - b[i].
+   *
+   * @param a
+   *   The first operand.
+   * @param b
+   *   The second operand.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  public void sub(double[] a, double[] b, double[] out, int n) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, a, i)
+          .sub(DoubleVector.fromArray(SPECIES, b, i))
+          .intoArray(out, i);
+    } // for
+    for (; i < n; i++) {
+      out[i] = a[i] - b[i];
+    } // for
+  } // sub(double[], double[], double[], int)
+
+  /**
+   * Compute out[i] = a[i] * b[i].
+   *
+   * @param a
+   *   The first operand.
+   * @param b
+   *   The second operand.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  public void mul(double[] a, double[] b, double[] out, int n) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, a, i)
+          .mul(DoubleVector.fromArray(SPECIES, b, i))
+          .intoArray(out, i);
+    } // for
+    for (; i < n; i++) {
+      out[i] = a[i] * b[i];
+    } // for
+  } // mul(double[], double[], double[], int)
+
+  /**
+   * Compute out[i] = a[i] * factor.
+   *
+   * @param a
+   *   The operand.
+   * @param factor
+   *   The scale factor.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  public void scale(double[] a, double factor, double[] out, int n) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, a, i).mul(factor).intoArray(out, i);
+    } // for
+    for (; i < n; i++) {
+      out[i] = a[i] * factor;
+    } // for
+  } // scale(double[], double, double[], int)
+
+  /**
+   * Compute out[i] = a[i] * b[i] + c[i] with a single rounding.
+   *
+   * @param a
+   *   The first factor.
+   * @param b
+   *   The second factor.
+   * @param c
+   *   The addend.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  public void fma(double[] a, double[] b, double[] c, double[] out, int n) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, a, i)
+          .fma(DoubleVector.fromArray(SPECIES, b, i), DoubleVector.fromArray(SPECIES, c, i))
+          .intoArray(out, i);
+    } // for
+    for (; i < n; i++) {
+      out[i] = Math.fma(a[i], b[i], c[i]);
+    } // for
+  } // fma(double[], double[], double[], double[], int)
+
+  /**
+   * Compute out[i] = a[i] &lt; b[i].
+   *
+   * @param a
+   *   The first operand.
+   * @param b
+   *   The second operand.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  public void lessThan(double[] a, double[] b, boolean[] out, int n) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+      VectorMask<Double> mask = DoubleVector.fromArray(SPECIES, a, i)
+          .compare(VectorOperators.LT, DoubleVector.fromArray(SPECIES, b, i));
+      mask.intoArray(out, i);
+    } // for
+    for (; i < n; i++) {
+      out[i] = a[i] < b[i];
+    } // for
+  } // lessThan(double[], double[], boolean[], int)
+
+  /**
+   * Compute out[i] = a[i] == b[i].
+   *
+   * @param a
+   *   The first operand.
+   * @param b
+   *   The second operand.
+   * @param out
+   *   Where to put the result.
+   * @param n
+   *   The number of elements.
+   */
+  public void equalTo(double[] a, double[] b, boolean[] out, int n) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+      VectorMask<Double> mask = DoubleVector.fromArray(SPECIES, a, i)
+          .compare(VectorOperators.EQ, DoubleVector.fromArray(SPECIES, b, i));
+      mask.intoArray(out, i);
+    } // for
+    for (; i < n; i++) {
+      out[i] = a[i] == b[i];
+    } // for
+  } // equalTo(double[], double[], boolean[], int)
+
+  /**
+   * Add up elements, one lane at a time, then across lanes.
+   *
+   * @param a
+   *   The elements.
+   * @param from
+   *   The index of the first element (inclusive).
+   * @param to
+   *   The index of the last element (exclusive).
+   *
+   * @return the sum.
+   */
+  public double sum(double[] a, int from, int to) {
+    DoubleVector acc = DoubleVector.zero(SPECIES);
+    int i = from;
+    for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+      acc = acc.add(DoubleVector.fromArray(SPECIES, a, i));
+    } // for
+    double sum = acc.reduceLanes(VectorOperators.ADD);
+    for (; i < to; i++) {
+      sum += a[i];
+    } // for
+    return sum;
+  } // sum(double[], int, int)
+
+  /**
+   * Find the smallest element, as by Math.min.
+   *
+   * @param a
+   *   The elements.
+   * @param from
+   *   The index of the first element (inclusive).
+   * @param to
+   *   The index of the last element (exclusive).
+   *
+   * @return the smallest, or positive infinity if the range is empty.
+   */
+  public double min(double[] a, int from, int to) {
+    DoubleVector acc = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+    int i = from;
+    for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+      acc = acc.min(DoubleVector.fromArray(SPECIES, a, i));
+    } // for
+    double min = acc.reduceLanes(VectorOperators.MIN);
+    for (; i < to; i++) {
+      min = Math.min(min, a[i]);
+    } // for
+    return min;
+  } // min(double[], int, int)
+
+  /**
+   * Find the largest element, as by Math.max.
+   *
+   * @param a
+   *   The elements.
+   * @param from
+   *   The index of the first element (inclusive).
+   * @param to
+   *   The index of the last element (exclusive).
+   *
+   * @return the largest, or negative infinity if the range is empty.
+   */
+  public double max(double[] a, int from, int to) {
+    DoubleVector acc = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+    int i = from;
+    for (int bound = from + SPECIES.loopBound(to - from); i < bound; i += SPECIES.length()) {
+      acc = acc.max(DoubleVector.fromArray(SPECIES, a, i));
+    } // for
+    double max = acc.reduceLanes(VectorOperators.MAX);
+    for (; i < to; i++) {
+      max = Math.max(max, a[i]);
+    } // for
+    return max;
+  } // max(double[], int, int)
+
+  /**
+   * Compute the dot product of a and b, one lane at a time, then across
+   * lanes.
+   *
+   * @param a
+   *   The first operand.
+   * @param b
+   *   The second operand.
+   * @param n
+   *   The number of elements.
+   *
+   * @return the sum of a[i] * b[i].
+   */
+  public double dot(double[] a, double[] b, int n) {
+    DoubleVector acc = DoubleVector.zero(SPECIES);
+    int i = 0;
+    for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+      acc = DoubleVector.fromArray(SPECIES, a, i)
+          .fma(DoubleVector.fromArray(SPECIES, b, i), acc);
+    } // for
+    double sum = acc.reduceLanes(VectorOperators.ADD);
+    for (; i < n; i++) {
+      sum += a[i] * b[i];
+    } // for
+    return sum;
+  } // dot(double[], double[], int)
+} // class VectorDoubleKernels
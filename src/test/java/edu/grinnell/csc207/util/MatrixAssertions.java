@@ -2,6 +2,9 @@ package edu.grinnell.csc207.util;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.lang.reflect.Array;
+import java.util.Random;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -68,4 +71,151 @@ class MatrixAssertions {
     } // for row
   } // assertMatrixEquals()
 
+  /**
+   * Assert that two matrices hold the same values.
+   *
+   * @param expected
+   *   The matrix we expect.
+   * @param actual
+   *   The matrix we're comparing.
+   * @param message
+   *   The message to provide.
+   */
+  static <T> void assertMatrixEquals(Matrix<T> expected, Matrix<T> actual,
+      String message) {
+    assertEquals(expected.height(), actual.height(), message + " [height]");
+    assertEquals(expected.width(), actual.width(), message + " [width]");
+    for (int row = 0; row < expected.height(); row++) {
+      for (int col = 0; col < expected.width(); col++) {
+        int r = row;
+        int c = col;
+        assertEquals(expected.get(row, col), actual.get(row, col),
+            () -> String.format("%s [at (%d,%d)]", message, r, c));
+      } // for col
+    } // for row
+  } // assertMatrixEquals(Matrix<T>, Matrix<T>, String)
+
+  /**
+   * Copy the contents of a matrix.
+   *
+   * @param matrix
+   *   The matrix.
+   *
+   * @return its rows.
+   */
+  static Integer[][] contents(Matrix<Integer> matrix) {
+    Integer[][] result = new Integer[matrix.height()][matrix.width()];
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < matrix.width(); col++) {
+        result[row][col] = matrix.get(row, col);
+      } // for col
+    } // for row
+    return result;
+  } // contents(Matrix<Integer>)
+
+  /**
+   * Make a random change to a matrix of integers below 1000, never
+   * leaving it without rows or columns.
+   *
+   * @param random
+   *   The source of randomness.
+   * @param matrix
+   *   The matrix.
+   */
+  static void change(Random random, Matrix<Integer> matrix) throws ArraySizeException {
+    change(random, matrix, (r) -> r.nextInt(1000));
+  } // change(Random, Matrix<Integer>)
+
+  /**
+   * Make one random change to a matrix, never leaving it without rows
+   * or columns; a matrix with one row or column gets another instead of
+   * losing it. Two matrices of the same size given sources with the
+   * same seed get the same change.
+   *
+   * @param random
+   *   The source of randomness.
+   * @param matrix
+   *   The matrix.
+   * @param values
+   *   Makes the values to store.
+   */
+  static <T> void change(Random random, Matrix<T> matrix, Function<Random, T> values)
+      throws ArraySizeException {
+    int height = matrix.height();
+    int width = matrix.width();
+    T val = values.apply(random);
+    switch (random.nextInt(10)) {
+      case 0:
+        if (random.nextBoolean()) {
+          matrix.insertRow(random.nextInt(height + 1));
+        } else {
+          T[] row = newArray(val, width);
+          for (int i = 0; i < width; i++) {
+            row[i] = values.apply(random);
+          } // for
+          matrix.insertRow(random.nextInt(height + 1), row);
+        } // if/else
+        break;
+      case 1:
+        if (random.nextBoolean()) {
+          matrix.insertCol(random.nextInt(width + 1));
+        } else {
+          T[] col = newArray(val, height);
+          for (int i = 0; i < height; i++) {
+            col[i] = values.apply(random);
+          } // for
+          matrix.insertCol(random.nextInt(width + 1), col);
+        } // if/else
+        break;
+      case 2:
+        if (height > 1) {
+          matrix.deleteRow(random.nextInt(height));
+        } else {
+          matrix.insertRow(random.nextInt(height + 1));
+        } // if/else
+        break;
+      case 3:
+        if (width > 1) {
+          matrix.deleteCol(random.nextInt(width));
+        } else {
+          matrix.insertCol(random.nextInt(width + 1));
+        } // if/else
+        break;
+      case 4:
+        int r0 = random.nextInt(height);
+        int c0 = random.nextInt(width);
+        matrix.fillRegion(r0, c0, r0 + 1 + random.nextInt(height - r0),
+            c0 + 1 + random.nextInt(width - c0), val);
+        break;
+      case 5:
+        matrix.fillLine(0, random.nextInt(width), 1, random.nextInt(2), height, width, val);
+        break;
+      case 6:
+        int r1 = random.nextInt(height);
+        matrix.fillLine(r1, random.nextInt(width), 0, 1 + random.nextInt(2), r1 + 1, width,
+            val);
+        break;
+      case 7:
+        matrix.transposeInPlace();
+        break;
+      default:
+        matrix.set(random.nextInt(height), random.nextInt(width), val);
+        break;
+    } // switch
+  } // change(Random, Matrix<T>, Function<Random, T>)
+
+  /**
+   * Make an array with room for values of the same class as a sample.
+   *
+   * @param sample
+   *   A value, which must not be null.
+   * @param length
+   *   The length of the array.
+   *
+   * @return the array.
+   */
+  @SuppressWarnings("unchecked")
+  static <T> T[] newArray(T sample, int length) {
+    return (T[]) Array.newInstance(sample.getClass(), length);
+  } // newArray(T, int)
 } // class MatrixAssertions
@@ -0,0 +1,104 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static edu.grinnell.csc207.util.MatrixAssertions.change;
+import static edu.grinnell.csc207.util.MatrixAssertions.contents;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of matrices that change layout.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestAdaptiveMatrix {
+  /**
+   * Make sure an adaptive matrix behaves like a MatrixV0, whatever its
+   * layout.
+   */
+  @Test
+  public void testAgainstMatrixV0() throws ArraySizeException {
+    Random expectedRandom = new Random(44);
+    Random actualRandom = new Random(44);
+    Random layouts = new Random(45);
+    Matrix<Integer> expected = new MatrixV0<Integer>(8, 8, 0);
+    AdaptiveMatrix<Integer> actual = new AdaptiveMatrix<Integer>(8, 8, 0);
+    for (int i = 0; i < 2000; i++) {
+      change(expectedRandom, expected);
+      change(actualRandom, actual);
+      if (layouts.nextInt(50) == 0) {
+        actual.setLayout(AdaptiveMatrix.Layout.values()[layouts.nextInt(2)]);
+      } // if
+      assertMatrixEquals(contents(expected), actual, "step " + i);
+    } // for
+    assertTrue(actual.clone().equals(expected), "clone");
+    assertTrue(actual.transpose().equals(expected.transpose()), "transpose");
+  } // testAgainstMatrixV0()
+
+  /**
+   * Make sure the layout follows the workload.
+   */
+  @Test
+  public void testSwitching() throws ArraySizeException {
+    AdaptiveMatrix<Integer> matrix = new AdaptiveMatrix<Integer>(50, 50, 0);
+    assertEquals(AdaptiveMatrix.Layout.ROW_MAJOR, matrix.layout(), "rows at first");
+    for (int i = 0; i < 10; i++) {
+      matrix.insertCol(i);
+      matrix.deleteCol(50 - i);
+    } // for
+    assertEquals(AdaptiveMatrix.Layout.COLUMN_MAJOR, matrix.layout(), "columns edited");
+    for (int i = 0; i < 10; i++) {
+      matrix.reduceCols(0, Integer::sum, Integer[]::new);
+    } // for
+    assertEquals(AdaptiveMatrix.Layout.COLUMN_MAJOR, matrix.layout(), "columns reduced");
+
+    for (int pass = 0; pass < 4; pass++) {
+      for (int row = 0; row < 50; row++) {
+        for (int col = 0; col < 50; col++) {
+          matrix.set(row, col, row * col);
+        } // for col
+      } // for row
+    } // for pass
+    assertEquals(AdaptiveMatrix.Layout.ROW_MAJOR, matrix.layout(), "rows scanned");
+    assertEquals(2, matrix.relayouts(), "two changes");
+    assertEquals(49 * 49, matrix.get(49, 49), "values kept");
+
+    int[] sums = new int[50];
+    for (int pass = 0; pass < 4; pass++) {
+      sums = new int[50];
+      for (int col = 0; col < 50; col++) {
+        for (int row = 0; row < 50; row++) {
+          sums[col] += matrix.get(row, col);
+        } // for row
+      } // for col
+    } // for pass
+    assertEquals(AdaptiveMatrix.Layout.COLUMN_MAJOR, matrix.layout(), "columns scanned");
+    assertEquals(1225 * 49, sums[49], "sum of a column");
+  } // testSwitching()
+
+  /**
+   * Make sure that operations that fail their bounds checks are not
+   * charged.
+   */
+  @Test
+  public void testFailuresNotCharged() throws ArraySizeException {
+    AdaptiveMatrix<Integer> matrix = new AdaptiveMatrix<Integer>(50, 50, 0);
+    for (int i = 0; i < 100; i++) {
+      int k = i % 50;
+      assertThrows(IndexOutOfBoundsException.class, () -> matrix.insertCol(-1), "insertCol");
+      assertThrows(IndexOutOfBoundsException.class, () -> matrix.deleteCol(50), "deleteCol");
+      assertThrows(IndexOutOfBoundsException.class,
+          () -> matrix.insertCol(51, new Integer[50]), "insertCol with values");
+      assertThrows(IndexOutOfBoundsException.class, () -> matrix.get(k, 50), "get");
+      assertThrows(IndexOutOfBoundsException.class, () -> matrix.set(50, k, 1), "set");
+    } // for
+    assertEquals(AdaptiveMatrix.Layout.ROW_MAJOR, matrix.layout(), "layout kept");
+    assertEquals(0, matrix.relayouts(), "no changes");
+  } // testFailuresNotCharged()
+} // class TestAdaptiveMatrix
@@ -0,0 +1,80 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.change;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of array pools and the matrices that use them.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestArrayPool {
+  /**
+   * Make sure a pooled MatrixV0 reuses rows and keeps the pool within
+   * its cap.
+   */
+  @Test
+  public void testPooledMatrix() throws ArraySizeException {
+    Random random = new Random(47);
+    ArrayPool pool = new ArrayPool(200);
+    MatrixV0<Integer> matrix = new MatrixV0<Integer>(8, 6, 0);
+    matrix.setPool(pool);
+    for (int i = 0; i < 1500; i++) {
+      change(random, matrix);
+      assertTrue(pool.retainedCells() <= 200, "within the cap");
+    } // for
+    assertTrue(pool.hits() > 0, "rows reused");
+
+    Matrix<String> strings = new MatrixV0<String>(4, 3, "s");
+    ((MatrixV0<String>) strings).setPool(pool);
+    for (int i = 0; i < 100; i++) {
+      strings.insertCol(0);
+      strings.deleteCol(2);
+      strings.insertRow(1);
+      strings.set(1, 3, "t" + i);
+      strings.deleteRow(0);
+    } // for
+    assertEquals("t99", strings.get(0, 3), "a shared pool");
+  } // testPooledMatrix()
+
+  /**
+   * Make sure the pool clears, caps and buckets the arrays it keeps.
+   */
+  @Test
+  public void testPool() {
+    ArrayPool pool = new ArrayPool(10);
+    Object[] four = pool.take(4);
+    four[0] = "x";
+    pool.give(four);
+    assertEquals(4, pool.retainedCells(), "kept");
+    Object[] again = pool.take(4);
+    assertSame(four, again, "reused");
+    assertEquals(null, again[0], "cleared");
+    assertNotSame(four, pool.take(4), "only once");
+    pool.give(new Object[8]);
+    pool.give(new Object[4]);
+    assertEquals(8, pool.retainedCells(), "over the cap");
+    pool.give(new Integer[1]);
+    assertEquals(8, pool.retainedCells(), "not a plain Object[]");
+    pool.clear();
+    assertEquals(0, pool.retainedCells(), "cleared");
+
+    ArrayPool lengths = new ArrayPool(100);
+    for (int len = 1; len <= ArrayPool.MAX_BUCKETS + 1; len++) {
+      lengths.give(new Object[len]);
+    } // for
+    assertEquals(44, lengths.retainedCells(), "the oldest length evicted");
+    long misses = lengths.misses();
+    lengths.take(1);
+    lengths.take(2);
+    assertEquals(misses + 1, lengths.misses(), "only the evicted length misses");
+  } // testPool()
+} // class TestArrayPool
@@ -0,0 +1,62 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of bit-packed boolean matrices.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestBooleanMatrix {
+  /**
+   * Make sure the bitwise operations work cell by cell and leave the
+   * padding clear.
+   */
+  @Test
+  public void testBitwise() throws ArraySizeException {
+    Random random = new Random(7);
+    BooleanMatrix a = new BooleanMatrix(100, 5);
+    BooleanMatrix b = new BooleanMatrix(100, 5);
+    for (int i = 0; i < 200; i++) {
+      a.setBoolean(random.nextInt(5), random.nextInt(100), true);
+      b.setBoolean(random.nextInt(5), random.nextInt(100), true);
+    } // for
+    BooleanMatrix and = a.and(b);
+    BooleanMatrix or = a.or(b);
+    BooleanMatrix xor = a.xor(b);
+    BooleanMatrix not = a.not();
+    for (int row = 0; row < 5; row++) {
+      for (int col = 0; col < 100; col++) {
+        boolean x = a.getBoolean(row, col);
+        boolean y = b.getBoolean(row, col);
+        assertEquals(x && y, and.getBoolean(row, col), "and");
+        assertEquals(x || y, or.getBoolean(row, col), "or");
+        assertEquals(x ^ y, xor.getBoolean(row, col), "xor");
+        assertEquals(!x, not.getBoolean(row, col), "not");
+      } // for col
+    } // for row
+    assertEquals(a.count((x) -> x), a.countTrue(), "count true");
+    assertEquals(500 - a.countTrue(), not.countTrue(), "no bits past the last column");
+    assertTrue(not.not().equals(a), "not twice");
+    assertThrows(ArraySizeException.class, () -> a.and(new BooleanMatrix(99, 5)));
+
+    DoubleMatrix left = new DoubleMatrix(3, 1);
+    DoubleMatrix right = new DoubleMatrix(3, 1);
+    left.setDouble(0, 1, 1.0);
+    BooleanMatrix greater = left.greaterThan(right);
+    assertEquals(1, greater.countTrue(), "comparisons give packed bits");
+    assertTrue(greater.getBoolean(0, 1), "greater at 1");
+
+    BooleanMatrix empty = new BooleanMatrix(3, 4);
+    empty.fillLine(2, 0, 0, 1, 1, 3, true);
+    empty.fillRegion(2, 0, 1, 3, true);
+    empty.fillRegion(0, 2, 3, 1, true);
+    assertEquals(0, empty.countTrue(), "empty lines and regions fill nothing");
+  } // testBitwise()
+} // class TestBooleanMatrix
@@ -0,0 +1,47 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static edu.grinnell.csc207.util.MatrixAssertions.change;
+import static edu.grinnell.csc207.util.MatrixAssertions.contents;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of column-major matrices.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestColumnMajorMatrix {
+  /**
+   * Make sure a column-major matrix behaves like a MatrixV0 under random
+   * changes, and reduces and hashes alike.
+   */
+  @Test
+  public void testAgainstMatrixV0() throws ArraySizeException {
+    Random expectedRandom = new Random(43);
+    Random actualRandom = new Random(43);
+    Matrix<Integer> expected = new MatrixV0<Integer>(6, 9, 0);
+    ColumnMajorMatrix<Integer> actual = new ColumnMajorMatrix<Integer>(6, 9, 0);
+    for (int i = 0; i < 2000; i++) {
+      change(expectedRandom, expected);
+      change(actualRandom, actual);
+      assertMatrixEquals(contents(expected), actual, "step " + i);
+    } // for
+    assertTrue(actual.equals(expected), "equals a MatrixV0");
+    assertEquals(expected.hashCode(), actual.hashCode(), "same hash code");
+    assertEquals(expected.reduce(0, Integer::sum), actual.reduce(0, Integer::sum), "sum");
+    assertArrayEquals(expected.reduceRows(0, Integer::sum, Integer[]::new),
+        actual.reduceRows(0, Integer::sum, Integer[]::new), "row sums");
+    assertArrayEquals(expected.reduceCols(0, Integer::sum, Integer[]::new),
+        actual.reduceCols(0, Integer::sum, Integer[]::new), "column sums");
+    assertEquals(expected.count((x) -> x > 500), actual.count((x) -> x > 500), "count");
+    assertTrue(actual.transpose().equals(expected.transpose()), "transpose");
+    assertTrue(actual.clone().equals(actual), "clone");
+  } // testAgainstMatrixV0()
+} // class TestColumnMajorMatrix
@@ -0,0 +1,99 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static edu.grinnell.csc207.util.MatrixAssertions.change;
+import static edu.grinnell.csc207.util.MatrixAssertions.contents;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of dictionary-encoded matrices.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestDictionaryMatrix {
+  /**
+   * Make sure copies with codes assigned in other orders compare and
+   * hash alike.
+   */
+  @Test
+  public void testCopyOf() throws ArraySizeException {
+    Random random = new Random(41);
+    Matrix<Integer> expected = new MatrixV0<Integer>(7, 5, 0);
+    for (int i = 0; i < 500; i++) {
+      change(random, expected);
+    } // for
+    DictionaryMatrix<Integer> copy = DictionaryMatrix.copyOf(expected, 0);
+    DictionaryMatrix<Integer> other = DictionaryMatrix.copyOf(expected.transpose(), 0);
+    other.transposeInPlace();
+    assertMatrixEquals(contents(expected), copy, "copy");
+    assertTrue(copy.equals(other), "equals a copy with other codes");
+    assertEquals(copy.hashCode(), other.hashCode(), "same hash code");
+    other.set(0, 0, other.get(0, 0) + 1);
+    assertFalse(copy.equals(other), "differs after a change");
+    assertFalse(other.equals(copy), "differs the other way");
+  } // testCopyOf()
+
+  /**
+   * Make sure codes widen as distinct values appear, and that values no
+   * longer used give up their codes.
+   */
+  @Test
+  public void testWidening() {
+    DictionaryMatrix<String> matrix = new DictionaryMatrix<String>(300, 300, "X");
+    assertEquals(8, matrix.bitsPerCode(), "bytes at first");
+    for (int i = 0; i < 300; i++) {
+      matrix.set(i, i, "v" + i);
+    } // for
+    assertEquals(16, matrix.bitsPerCode(), "shorts after 256 values");
+    assertEquals(301, matrix.cardinality(), "301 values");
+    for (int row = 0; row < 300; row++) {
+      for (int col = 0; col < 300; col++) {
+        matrix.set(row, col, row + "," + col);
+      } // for col
+    } // for row
+    assertEquals(32, matrix.bitsPerCode(), "ints after 65536 values");
+    assertEquals(90000, matrix.cardinality(), "every cell distinct");
+    assertEquals("299,7", matrix.get(299, 7), "a cell");
+    matrix.fillRegion(0, 0, 300, 300, "O");
+    assertEquals(1, matrix.cardinality(), "one value after a fill");
+    matrix.deleteRow(0);
+    matrix.insertCol(0);
+    assertEquals(2, matrix.cardinality(), "default inserted");
+    assertEquals("X", matrix.get(0, 0), "default value");
+  } // testWidening()
+
+  /**
+   * Make sure replaceAll renames a value or merges it with another.
+   */
+  @Test
+  public void testReplaceAll() {
+    DictionaryMatrix<String> matrix = new DictionaryMatrix<String>(4, 3, "X");
+    matrix.fillLine(0, 0, 1, 1, 3, 3, "O");
+    matrix.set(2, 3, "Z");
+    assertEquals(8, matrix.replaceAll("X", "@"), "renamed");
+    assertEquals(3, matrix.cardinality(), "still three values");
+    assertEquals(0, matrix.replaceAll("X", "O"), "X is gone");
+    assertEquals(3, matrix.replaceAll("O", "@"), "merged");
+    assertEquals(2, matrix.cardinality(), "two values");
+    assertMatrixEquals(new String[][] {
+        {"@", "@", "@", "@"},
+        {"@", "@", "@", "@"},
+        {"@", "@", "@", "Z"}}, matrix, "after replacing");
+    matrix.insertRow(0);
+    assertEquals(11, matrix.count((x) -> "@".equals(x)), "count by value");
+    assertEquals(4, matrix.count((x) -> "X".equals(x)), "count defaults");
+
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> matrix.fillLine(1, 1, 1, -1, 4, 4, "Y"), "lines do not wrap between rows");
+    assertEquals("@", matrix.get(2, 3), "the previous row is untouched");
+    assertEquals(2, matrix.replaceAll("Y", "@"), "the cells before the failure are counted");
+  } // testReplaceAll()
+} // class TestDictionaryMatrix
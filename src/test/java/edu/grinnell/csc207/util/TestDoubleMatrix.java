@@ -0,0 +1,165 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of DoubleMatrix and the kernels behind it.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestDoubleMatrix {
+  /**
+   * Make sure that DoubleMatrix behaves like MatrixV0 for the core
+   * operations.
+   */
+  @Test
+  public void testLikeMatrixV0() throws ArraySizeException {
+    Matrix<Double> expected = new MatrixV0<Double>(4, 3, 1.0);
+    DoubleMatrix actual = new DoubleMatrix(4, 3, 1.0);
+    for (Matrix<Double> m : List.of(expected, actual)) {
+      m.set(0, 0, 5.0);
+      m.insertRow(1);
+      m.insertCol(4, new Double[] {7.0, 8.0, 9.0, 10.0});
+      m.deleteCol(1);
+      m.insertCol(0);
+      m.deleteRow(3);
+      m.fillRegion(1, 2, 3, 4, 2.5);
+      m.fillLine(0, 0, 1, 2, 3, 5, -1.0);
+    } // for
+    assertEquals(expected, actual, "same contents as MatrixV0");
+    assertEquals(actual, expected, "equality is symmetric");
+    assertEquals(expected.hashCode(), actual.hashCode(), "same hash code as MatrixV0");
+    assertMatrixEquals(new Double[][] {
+        {-1.0, 5.0, 1.0, 1.0, 7.0},
+        {1.0, 1.0, -1.0, 2.5, 8.0},
+        {1.0, 1.0, 2.5, 2.5, -1.0}}, actual, "contents");
+
+    DoubleMatrix copy = actual.clone();
+    copy.setDouble(0, 0, 0.0);
+    assertEquals(-1.0, actual.getDouble(0, 0), "clones are independent");
+
+    assertThrows(NullPointerException.class, () -> actual.set(0, 0, null), "no nulls");
+    assertThrows(NullPointerException.class,
+        () -> actual.insertRow(0, new Double[] {1.0, null, 1.0, 1.0, 1.0}), "no null rows");
+    assertEquals(3, actual.height(), "failed insertions leave the matrix alone");
+
+    actual.fillRegion(2, 3, 1, 4, 0.0);
+    actual.fillRegion(0, 3, 1, 2, 0.0);
+    assertEquals(expected, actual, "inverted regions are empty");
+
+    DoubleMatrix small = new DoubleMatrix(4, 3, 1.0);
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> small.fillLine(0, 1, 1, -1, 3, 4, 0.0), "lines do not wrap between rows");
+    assertEquals(1.0, small.getDouble(1, 3), "the previous row is untouched");
+  } // testLikeMatrixV0()
+
+  /**
+   * Check the element-wise operations on small matrices.
+   */
+  @Test
+  public void testElementwise() throws ArraySizeException {
+    DoubleMatrix a = new DoubleMatrix(3, 1);
+    DoubleMatrix b = new DoubleMatrix(3, 1);
+    for (int col = 0; col < 3; col++) {
+      a.setDouble(0, col, col + 1);
+      b.setDouble(0, col, 2);
+    } // for
+    assertMatrixEquals(new Double[][] {{3.0, 4.0, 5.0}}, a.plus(b), "plus");
+    assertMatrixEquals(new Double[][] {{-1.0, 0.0, 1.0}}, a.minus(b), "minus");
+    assertMatrixEquals(new Double[][] {{2.0, 4.0, 6.0}}, a.times(b), "times");
+    assertMatrixEquals(new Double[][] {{0.5, 1.0, 1.5}}, a.scale(0.5), "scale");
+    assertMatrixEquals(new Double[][] {{3.0, 6.0, 9.0}}, a.fma(b, a), "fma");
+    assertMatrixEquals(new Boolean[][] {{true, false, false}}, a.lessThan(b), "lessThan");
+    assertMatrixEquals(new Boolean[][] {{false, false, true}}, a.greaterThan(b),
+        "greaterThan");
+    assertMatrixEquals(new Boolean[][] {{false, true, false}}, a.equalTo(b), "equalTo");
+    assertEquals(6.0, a.sum(), "sum");
+    assertEquals(1.0, a.min(), "min");
+    assertEquals(3.0, a.max(), "max");
+    assertEquals(12.0, a.dot(b), "dot");
+    assertThrows(ArraySizeException.class, () -> a.plus(new DoubleMatrix(1, 3)),
+        "shapes must match");
+  } // testElementwise()
+
+  /**
+   * Make sure the vector and scalar kernels agree, at lengths that are
+   * and are not multiples of the vector length.
+   */
+  @Test
+  public void testKernelsAgree() {
+    DoubleKernels scalar = new ScalarDoubleKernels();
+    DoubleKernels best = DoubleKernels.INSTANCE;
+    assertTrue(best.name().startsWith("vector"), "tests run with the vector module");
+    Random random = new Random(207);
+    for (int n : new int[] {0, 1, 7, 8, 33, 1000}) {
+      double[] a = new double[n];
+      double[] b = new double[n];
+      double[] c = new double[n];
+      for (int i = 0; i < n; i++) {
+        a[i] = random.nextGaussian();
+        b[i] = (i % 5 == 0) ? a[i] : random.nextGaussian();
+        c[i] = random.nextGaussian();
+      } // for
+      double[] expected = new double[n];
+      double[] actual = new double[n];
+      scalar.add(a, b, expected, n);
+      best.add(a, b, actual, n);
+      assertArrayEquals(expected, actual, "add " + n);
+      scalar.sub(a, b, expected, n);
+      best.sub(a, b, actual, n);
+      assertArrayEquals(expected, actual, "sub " + n);
+      scalar.mul(a, b, expected, n);
+      best.mul(a, b, actual, n);
+      assertArrayEquals(expected, actual, "mul " + n);
+      scalar.scale(a, 3.5, expected, n);
+      best.scale(a, 3.5, actual, n);
+      assertArrayEquals(expected, actual, "scale " + n);
+      scalar.fma(a, b, c, expected, n);
+      best.fma(a, b, c, actual, n);
+      assertArrayEquals(expected, actual, "fma " + n);
+      boolean[] expectedMask = new boolean[n];
+      boolean[] actualMask = new boolean[n];
+      scalar.lessThan(a, b, expectedMask, n);
+      best.lessThan(a, b, actualMask, n);
+      assertArrayEquals(expectedMask, actualMask, "lessThan " + n);
+      scalar.equalTo(a, b, expectedMask, n);
+      best.equalTo(a, b, actualMask, n);
+      assertArrayEquals(expectedMask, actualMask, "equalTo " + n);
+      assertEquals(scalar.sum(a, 0, n), best.sum(a, 0, n), 1e-9, "sum " + n);
+      assertEquals(scalar.dot(a, b, n), best.dot(a, b, n), 1e-9, "dot " + n);
+      assertEquals(scalar.min(a, 0, n), best.min(a, 0, n), "min " + n);
+      assertEquals(scalar.max(a, 0, n), best.max(a, 0, n), "max " + n);
+      assertEquals(scalar.sum(a, n / 3, n), best.sum(a, n / 3, n), 1e-9, "sum from " + n / 3);
+      assertEquals(scalar.min(a, n / 3, n), best.min(a, n / 3, n), "min from " + n / 3);
+      assertEquals(scalar.max(a, n / 3, n), best.max(a, n / 3, n), "max from " + n / 3);
+    } // for
+  } // testKernelsAgree()
+
+  /**
+   * Make sure the scalar kernels can be forced.
+   */
+  @Test
+  public void testFallback() {
+    String old = System.getProperty(DoubleKernels.SCALAR_PROPERTY);
+    try {
+      System.setProperty(DoubleKernels.SCALAR_PROPERTY, "true");
+      assertEquals("scalar", DoubleKernels.select().name(), "forced fallback");
+    } finally {
+      if (old == null) {
+        System.clearProperty(DoubleKernels.SCALAR_PROPERTY);
+      } else {
+        System.setProperty(DoubleKernels.SCALAR_PROPERTY, old);
+      } // if/else
+    } // try/finally
+  } // testFallback()
+} // class TestDoubleMatrix
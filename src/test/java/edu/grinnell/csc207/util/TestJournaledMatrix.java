@@ -0,0 +1,85 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static edu.grinnell.csc207.util.MatrixAssertions.change;
+import static edu.grinnell.csc207.util.MatrixAssertions.contents;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of journaled matrices.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestJournaledMatrix {
+  /**
+   * Make many random changes, then undo them all and redo them all,
+   * checking the matrix after each step.
+   */
+  @Test
+  public void testUndoRedo() throws ArraySizeException {
+    Random random = new Random(207);
+    JournaledMatrix<Integer> matrix =
+        new JournaledMatrix<Integer>(new MatrixV0<Integer>(5, 4, 0));
+    List<Integer[][]> states = new ArrayList<Integer[][]>();
+    states.add(contents(matrix));
+    for (int i = 0; i < 300; i++) {
+      change(random, matrix);
+      states.add(contents(matrix));
+    } // for
+    for (int i = states.size() - 2; i >= 0; i--) {
+      assertTrue(matrix.undo(), "undo " + i);
+      assertMatrixEquals(states.get(i), matrix, "after undo to " + i);
+    } // for
+    assertFalse(matrix.undo(), "nothing left to undo");
+    for (int i = 1; i < states.size(); i++) {
+      assertTrue(matrix.redo(), "redo " + i);
+      assertMatrixEquals(states.get(i), matrix, "after redo to " + i);
+    } // for
+    assertFalse(matrix.redo(), "nothing left to redo");
+
+    // A new change forgets what could have been redone.
+    matrix.undo();
+    matrix.set(0, 0, -1);
+    assertFalse(matrix.canRedo(), "redo forgotten");
+    matrix.undo();
+    assertMatrixEquals(states.get(states.size() - 2), matrix, "undo after new change");
+  } // testUndoRedo()
+
+  /**
+   * Make sure the journal holds only the cells that changed and no more
+   * than its capacity.
+   */
+  @Test
+  public void testBoundedJournal() throws ArraySizeException {
+    JournaledMatrix<Integer> matrix =
+        new JournaledMatrix<Integer>(new MatrixV0<Integer>(100, 100, 0), 250);
+    matrix.fillRegion(10, 10, 20, 20, 1);
+    assertEquals(100, matrix.journalSize(), "a fill holds the cells it overwrote");
+    matrix.deleteRow(50);
+    assertEquals(200, matrix.journalSize(), "a deletion holds the row it removed");
+    matrix.insertCol(3);
+    matrix.set(1, 1, 5);
+    assertEquals(202, matrix.journalSize(), "an insertion holds no cells");
+    matrix.deleteCol(7);
+    assertEquals(201, matrix.journalSize(), "the oldest change is forgotten");
+    for (int i = 0; i < 4; i++) {
+      assertTrue(matrix.undo(), "undo " + i);
+    } // for
+    assertFalse(matrix.canUndo(), "the fill cannot be undone");
+    assertEquals(1, matrix.get(15, 15), "the fill remains");
+
+    matrix.fillRegion(0, 0, 100, 100, 2);
+    assertEquals(0, matrix.journalSize(), "a change larger than the journal empties it");
+    assertFalse(matrix.canUndo(), "nothing to undo");
+    assertFalse(matrix.canRedo(), "nothing to redo");
+  } // testBoundedJournal()
+} // class TestJournaledMatrix
@@ -0,0 +1,153 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static edu.grinnell.csc207.util.MatrixAssertions.change;
+import static edu.grinnell.csc207.util.MatrixAssertions.contents;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests of logged matrices.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestLoggedMatrix {
+  /** A fresh directory for each test. */
+  @TempDir
+  Path dir;
+
+  /**
+   * Open the matrix in the test directory, creating a 4x3 matrix of
+   * zeros if there is none.
+   *
+   * @return the matrix.
+   */
+  LoggedMatrix<Integer> open() throws IOException {
+    return LoggedMatrix.open(this.dir, LoggedMatrix.Codec.integers(), MatrixV0::new, 4, 3, 0);
+  } // open()
+
+  /**
+   * Make random changes, close the matrix and make sure that reopening
+   * it replays them.
+   */
+  @Test
+  public void testReplay() throws Exception {
+    Random random = new Random(207);
+    Integer[][] expected;
+    try (LoggedMatrix<Integer> matrix = this.open()) {
+      for (int i = 0; i < 500; i++) {
+        change(random, matrix);
+      } // for
+      matrix.set(0, 0, null);
+      expected = contents(matrix);
+    } // try
+    try (LoggedMatrix<Integer> matrix = this.open()) {
+      assertEquals(501, matrix.replayed(), "every change replayed");
+      assertMatrixEquals(expected, matrix, "after replay");
+    } // try
+  } // testReplay()
+
+  /**
+   * Simulate a crash that tears the last record, and make sure that
+   * recovery keeps everything before it.
+   */
+  @Test
+  public void testTornRecord() throws Exception {
+    LoggedMatrix<Integer> matrix = this.open();
+    matrix.setGroupSize(1);
+    matrix.fillRegion(0, 0, 2, 2, 7);
+    matrix.insertCol(1, new Integer[] {1, 2, 3});
+    Integer[][] expected = contents(matrix);
+    matrix.set(2, 2, 9);
+    Path log = this.dir.resolve(LoggedMatrix.LOG);
+    long size = Files.size(log);
+    matrix.close();
+    try (FileChannel channel = FileChannel.open(log, StandardOpenOption.WRITE)) {
+      channel.truncate(size - 3);
+    } // try
+
+    try (LoggedMatrix<Integer> recovered = this.open()) {
+      assertEquals(2, recovered.replayed(), "torn record dropped");
+      assertMatrixEquals(expected, recovered, "state before the torn record");
+      assertEquals(recovered.logBytes(), Files.size(log), "log cut at the last good record");
+      assertTrue(recovered.logBytes() < size - 3, "torn bytes removed");
+      recovered.set(0, 3, 5);
+      expected[0][3] = 5;
+    } // try
+    try (LoggedMatrix<Integer> recovered = this.open()) {
+      assertMatrixEquals(expected, recovered, "changes after recovery are kept");
+    } // try
+  } // testTornRecord()
+
+  /**
+   * Make sure that checkpoints bound the log, and that a log left over
+   * from before a checkpoint is ignored.
+   */
+  @Test
+  public void testCheckpoint() throws Exception {
+    Random random = new Random(207);
+    Path log = this.dir.resolve(LoggedMatrix.LOG);
+    byte[] stale;
+    Integer[][] expected;
+    try (LoggedMatrix<Integer> matrix = this.open()) {
+      matrix.setCheckpointBytes(1000);
+      for (int i = 0; i < 2000; i++) {
+        matrix.set(random.nextInt(3), random.nextInt(4), i);
+        assertTrue(matrix.logBytes() < 1000, "log bounded");
+      } // for
+      matrix.commit();
+      stale = Files.readAllBytes(log);
+      matrix.checkpoint();
+      expected = contents(matrix);
+    } // try
+    // As if we crashed after the new snapshot, before the log was reset.
+    Files.write(log, stale);
+    try (LoggedMatrix<Integer> matrix = this.open()) {
+      assertEquals(0, matrix.replayed(), "stale log ignored");
+      assertMatrixEquals(expected, matrix, "state from the snapshot");
+    } // try
+  } // testCheckpoint()
+
+  /**
+   * Make sure that a change the matrix rejects replays the same way, and
+   * that a failed write leaves the matrix unchanged and stops logging.
+   */
+  @Test
+  public void testFailures() throws Exception {
+    Integer[][] expected;
+    LoggedMatrix<Integer> matrix = this.open();
+    assertThrows(IllegalArgumentException.class, () -> matrix.setCheckpointBytes(0),
+        "checkpoint size must be positive");
+    assertThrows(ArraySizeException.class, () -> matrix.insertRow(0, new Integer[] {1}),
+        "short rows are not logged");
+    matrix.set(1, 1, 4);
+    assertThrows(IndexOutOfBoundsException.class, () -> matrix.fillLine(0, 2, 1, 1, 3, 5, 6),
+        "line leaves the matrix");
+    expected = contents(matrix);
+    matrix.setGroupSize(1);
+    matrix.close();
+    assertThrows(UncheckedIOException.class, () -> matrix.set(0, 0, 8), "log closed");
+    assertMatrixEquals(expected, matrix, "failed change not made");
+    matrix.setGroupSize(64);
+    assertThrows(UncheckedIOException.class, () -> matrix.set(0, 0, 8), "log stays failed");
+    assertMatrixEquals(expected, matrix, "later change not made");
+
+    try (LoggedMatrix<Integer> recovered = this.open()) {
+      assertEquals(2, recovered.replayed(), "rejected line replayed");
+      assertMatrixEquals(expected, recovered, "partial line replayed");
+    } // try
+  } // testFailures()
+} // class TestLoggedMatrix
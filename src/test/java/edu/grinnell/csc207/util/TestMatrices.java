@@ -0,0 +1,154 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.change;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.grinnell.csc207.util.Matrices.Storage;
+import edu.grinnell.csc207.util.Matrices.Workload;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the matrix factory and of migrating matrices.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestMatrices {
+  /**
+   * Make sure the factory chooses storage from the hints.
+   */
+  @Test
+  public void testChoice() {
+    assertInstanceOf(MatrixV0.class, Matrices.create(String.class, 3, 4, "x"));
+    assertInstanceOf(BooleanMatrix.class, Matrices.create(Boolean.class, 3, 4, false));
+    assertInstanceOf(DoubleMatrix.class, Matrices.create(Double.class, 3, 4, 0.0));
+    assertInstanceOf(MatrixV0.class, Matrices.create(Double.class, 3, 4, null));
+
+    assertEquals(Storage.SPARSE,
+        Matrices.builder(Double.class).defaultValue(0.0).density(0.01).choice());
+    assertEquals(Storage.BITSET,
+        Matrices.builder(Boolean.class).defaultValue(false).density(0.01).choice());
+    assertEquals(Storage.DICTIONARY,
+        Matrices.builder(String.class).distinctValues(Matrices.DICTIONARY_VALUES).choice());
+    assertEquals(Storage.DENSE,
+        Matrices.builder(String.class).distinctValues(Matrices.DICTIONARY_VALUES + 1).choice());
+    assertEquals(Storage.DENSE,
+        Matrices.builder(Double.class).defaultValue(0.0).nulls(true).choice());
+    assertEquals(Storage.DENSE,
+        Matrices.builder(Boolean.class).defaultValue(false).nulls(true).choice());
+
+    Matrix<Integer> sparse = Matrices.builder(Integer.class).size(1000, 1000).defaultValue(0)
+        .density(0.001).build();
+    assertInstanceOf(TiledMatrix.class, sparse);
+    assertEquals(1000, sparse.height());
+    assertEquals(0, sparse.get(999, 999));
+    assertInstanceOf(RopeMatrix.class,
+        Matrices.builder(Integer.class).workload(Workload.ROW_EDITS).build());
+    assertInstanceOf(ColumnMajorMatrix.class,
+        Matrices.builder(Integer.class).workload(Workload.COLUMN_SCANS).build());
+    assertInstanceOf(AdaptiveMatrix.class,
+        Matrices.builder(Integer.class).workload(Workload.MIXED).build());
+    assertInstanceOf(DictionaryMatrix.class,
+        Matrices.builder(Double.class).storage(Storage.DICTIONARY).build());
+
+    assertThrows(IllegalArgumentException.class,
+        () -> Matrices.builder(Integer.class).storage(Storage.PRIMITIVE).build());
+    assertThrows(IllegalArgumentException.class,
+        () -> Matrices.builder(Boolean.class).storage(Storage.BITSET).build());
+    assertThrows(IllegalArgumentException.class,
+        () -> Matrices.builder(Integer.class).density(1.5));
+    assertThrows(NegativeArraySizeException.class,
+        () -> Matrices.builder(Integer.class).size(-1, 2));
+  } // testChoice()
+
+  /**
+   * Make sure a migrating matrix built from hints changes storage as
+   * random changes fill it.
+   */
+  @Test
+  public void testMigrating() throws ArraySizeException {
+    Random random = new Random(49);
+    MigratingMatrix<Integer> matrix = (MigratingMatrix<Integer>) Matrices.builder(Integer.class)
+        .size(20, 15).defaultValue(0).density(0).migrating(true).build();
+    assertEquals(Storage.SPARSE, matrix.storage());
+    for (int i = 0; i < 1000; i++) {
+      change(random, matrix);
+    } // for
+    assertTrue(matrix.migrations() > 0, "migrated");
+  } // testMigrating()
+
+  /**
+   * Make sure a migrating matrix follows the density and the number of
+   * distinct values.
+   */
+  @Test
+  public void testMigration() {
+    Random random = new Random(490);
+    MigratingMatrix<Integer> matrix = new MigratingMatrix<Integer>(Integer.class,
+        new MatrixV0<Integer>(100, 100, 0), Workload.GENERAL, 0);
+    assertEquals(Storage.DENSE, matrix.storage());
+
+    matrix.set(5, 5, 1);
+    matrix.fillRegion(0, 0, 100, 100, 0);
+    assertEquals(Storage.SPARSE, matrix.storage(), "all default");
+
+    for (int row = 0; row < 20; row++) {
+      for (int col = 0; col < 100; col++) {
+        matrix.set(row, col, 1 + random.nextInt(10000));
+      } // for col
+    } // for row
+    assertEquals(Storage.SPARSE, matrix.storage(), "a fifth set is still sparse");
+    for (int row = 20; row < 50; row++) {
+      for (int col = 0; col < 100; col++) {
+        matrix.set(row, col, 1 + random.nextInt(10000));
+      } // for col
+    } // for row
+    assertEquals(Storage.DENSE, matrix.storage(), "half set, many values");
+
+    matrix.fillRegion(0, 0, 100, 100, 3);
+    matrix.fillRegion(0, 0, 50, 100, 4);
+    assertEquals(Storage.DICTIONARY, matrix.storage(), "two values");
+    assertEquals(3, matrix.get(99, 99));
+    assertEquals(4, matrix.get(0, 0));
+
+    matrix.setStorage(Storage.SPARSE);
+    assertInstanceOf(TiledMatrix.class, Matrices.convert(matrix, Integer.class, Storage.SPARSE,
+        Workload.GENERAL, 0));
+    assertEquals(Storage.DICTIONARY, Matrices.recommend(matrix, Integer.class, 0));
+    assertEquals(4, matrix.get(0, 0));
+  } // testMigration()
+
+  /**
+   * Make sure a migrating matrix never chooses storage that rejects
+   * null while it holds null, and leaves such storage to store null.
+   */
+  @Test
+  public void testNulls() {
+    MigratingMatrix<Double> matrix = (MigratingMatrix<Double>) Matrices.builder(Double.class)
+        .size(20, 20).defaultValue(0.0).storage(Storage.DENSE).migrating(true).build();
+    matrix.set(0, 0, null);
+    for (int row = 0; row < 20; row++) {
+      for (int col = 1; col < 20; col++) {
+        matrix.set(row, col, (double) row * 20 + col);
+      } // for col
+    } // for row
+    assertEquals(Storage.DENSE, matrix.storage(), "not primitive while holding null");
+    assertEquals(null, matrix.get(0, 0));
+    assertEquals(Storage.DENSE, Matrices.recommend(matrix, Double.class, 0.0),
+        "nor recommended");
+
+    matrix.set(0, 0, 1.0);
+    matrix.setStorage(Matrices.recommend(matrix, Double.class, 0.0));
+    assertEquals(Storage.PRIMITIVE, matrix.storage(), "primitive without nulls");
+    matrix.fillLine(0, 0, 1, 1, 20, 20, null);
+    assertEquals(Storage.DENSE, matrix.storage(), "left primitive storage for null");
+    assertEquals(null, matrix.get(19, 19));
+    assertEquals(22.0, matrix.get(1, 2), "kept the other values");
+  } // testNulls()
+} // class TestMatrices
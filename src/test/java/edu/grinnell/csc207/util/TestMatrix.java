@@ -521,4 +521,31 @@ class TestMatrix {
     } // for i
   } // testEquals()
 
+  /**
+   * Make sure that clones of non-square matrices are complete and
+   * independent, and that null elements compare equal.
+   */
+  @Test
+  public void testCloneAndNulls() {
+    Matrix<String> wide = new MatrixV0<String>(4, 2);
+    wide.fillLine(1, 0, 0, 1, 2, 4, "b");
+    wide.set(0, 3, "a");
+    Matrix<String> copy = wide.clone();
+    assertMatrixEquals(new String[][] {
+        {null, null, null, "a"},
+        {"b", "b", "b", "b"}}, copy, "clone of a wide matrix");
+    assertTrue(wide.equals(copy), "equal with nulls");
+    assertFalse(wide.equals(new ColumnMajorMatrix<String>(4, 2)),
+        "unequal to another implementation");
+    copy.set(1, 3, "c");
+    assertFalse(wide.equals(copy), "unequal after a change");
+    assertMatrixEquals(new String[][] {
+        {null, null, null, "a"},
+        {"b", "b", "b", "b"}}, wide, "original unchanged");
+
+    Matrix<String> tall = wide.transpose();
+    assertMatrixEquals(new String[][] {{null, "b"}, {null, "b"}, {null, "b"}, {"a", "b"}},
+        tall.clone(), "clone of a tall matrix");
+  } // testCloneAndNulls()
+
 } // TestMatrix
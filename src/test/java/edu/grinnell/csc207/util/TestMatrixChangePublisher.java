@@ -0,0 +1,203 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static edu.grinnell.csc207.util.MatrixAssertions.change;
+import static edu.grinnell.csc207.util.MatrixAssertions.contents;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Flow;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of publishing matrix changes.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestMatrixChangePublisher {
+  /**
+   * A subscriber that applies each frame to a replica and requests
+   * frames only when told to.
+   */
+  static class Replica implements Flow.Subscriber<MatrixChange<Integer>> {
+    /** The replica. */
+    final Matrix<Integer> matrix;
+
+    /** The frames received. */
+    final List<MatrixChange<Integer>> frames = new ArrayList<MatrixChange<Integer>>();
+
+    /** The subscription. */
+    Flow.Subscription subscription;
+
+    /** Whether the stream completed. */
+    boolean complete;
+
+    /** The error received, if any. */
+    Throwable error;
+
+    /**
+     * Create a replica.
+     *
+     * @param start
+     *   The matrix to copy.
+     */
+    Replica(Matrix<Integer> start) {
+      this.matrix = new MatrixV0<Integer>(start.width(), start.height(), 0);
+      MatrixChange.resync(start).applyTo(this.matrix);
+    } // Replica(Matrix<Integer>)
+
+    @Override
+    public void onSubscribe(Flow.Subscription sub) {
+      this.subscription = sub;
+    } // onSubscribe(Flow.Subscription)
+
+    @Override
+    public void onNext(MatrixChange<Integer> frame) {
+      this.frames.add(frame);
+      frame.applyTo(this.matrix);
+    } // onNext(MatrixChange<Integer>)
+
+    @Override
+    public void onError(Throwable throwable) {
+      this.error = throwable;
+    } // onError(Throwable)
+
+    @Override
+    public void onComplete() {
+      this.complete = true;
+    } // onComplete()
+  } // class Replica
+
+  /**
+   * Make sure a replica that takes every frame follows random changes.
+   */
+  @Test
+  public void testReplica() throws ArraySizeException {
+    Random random = new Random(40);
+    ObservableMatrix<Integer> matrix =
+        new ObservableMatrix<Integer>(new MatrixV0<Integer>(6, 5, 0));
+    MatrixChangePublisher<Integer> publisher =
+        new MatrixChangePublisher<Integer>(matrix, Runnable::run, 8, 1000);
+    Replica replica = new Replica(matrix);
+    publisher.subscribe(replica);
+    replica.subscription.request(Long.MAX_VALUE);
+    for (int i = 0; i < 500; i++) {
+      change(random, matrix);
+      if (random.nextInt(5) == 0) {
+        publisher.flush();
+      } // if
+    } // for
+    publisher.close();
+    assertTrue(replica.complete, "complete after close");
+    assertMatrixEquals(contents(matrix), replica.matrix, "replica");
+    assertEquals(0, publisher.subscriberCount(), "no subscribers after close");
+  } // testReplica()
+
+  /**
+   * Make sure frames are sent only on demand, that a lagging subscriber
+   * sees repeated changes coalesced, and that one that lags too far is
+   * resynchronized.
+   */
+  @Test
+  public void testBackpressure() {
+    ObservableMatrix<Integer> matrix =
+        new ObservableMatrix<Integer>(new MatrixV0<Integer>(10, 10, 0));
+    MatrixChangePublisher<Integer> publisher =
+        new MatrixChangePublisher<Integer>(matrix, Runnable::run, 16, 40);
+    Replica replica = new Replica(matrix);
+    publisher.subscribe(replica);
+    for (int i = 0; i < 1000; i++) {
+      matrix.set(i % 2, 0, i);
+    } // for
+    matrix.fillRegion(5, 5, 7, 7, 9);
+    matrix.set(5, 5, 1);
+    publisher.flush();
+    assertEquals(0, replica.frames.size(), "nothing sent without demand");
+
+    replica.subscription.request(1);
+    assertEquals(1, replica.frames.size(), "one frame");
+    MatrixChange<Integer> frame = replica.frames.get(0);
+    assertEquals(MatrixChange.Kind.CELLS, frame.kind(), "cells");
+    assertEquals(3, frame.cellCount(), "coalesced cells");
+    assertEquals(1, frame.fills().size(), "one fill");
+    assertMatrixEquals(contents(matrix), replica.matrix, "after one");
+
+    matrix.insertRow(3);
+    matrix.set(0, 0, 7);
+    for (int i = 0; i < 100; i++) {
+      matrix.set(i / 10, i % 10, i);
+    } // for
+    matrix.deleteCol(2);
+    replica.subscription.request(1);
+    assertEquals(MatrixChange.Kind.RESYNC, replica.frames.get(1).kind(), "resync");
+    replica.subscription.request(10);
+    assertEquals(5, replica.frames.size(), "two frames of cells and a deletion");
+    assertMatrixEquals(contents(matrix), replica.matrix, "after resync");
+
+    replica.subscription.request(0);
+    assertTrue(replica.error instanceof IllegalArgumentException, "bad request");
+    assertEquals(0, publisher.subscriberCount(), "cancelled");
+    matrix.set(0, 0, 3);
+    publisher.close();
+    assertEquals(5, replica.frames.size(), "nothing after cancel");
+  } // testBackpressure()
+
+  /**
+   * Make sure a bad request is reported by the delivery task rather
+   * than on the requesting thread.
+   */
+  @Test
+  public void testBadRequest() {
+    ObservableMatrix<Integer> matrix =
+        new ObservableMatrix<Integer>(new MatrixV0<Integer>(4, 4, 0));
+    List<Runnable> tasks = new ArrayList<Runnable>();
+    MatrixChangePublisher<Integer> publisher =
+        new MatrixChangePublisher<Integer>(matrix, tasks::add, 16, 40);
+    Replica replica = new Replica(matrix);
+    publisher.subscribe(replica);
+    matrix.set(1, 1, 5);
+    publisher.flush();
+    replica.subscription.request(1);
+    replica.subscription.request(-1);
+    assertEquals(null, replica.error, "no error on the requesting thread");
+    assertEquals(0, publisher.subscriberCount(), "removed at once");
+    while (!tasks.isEmpty()) {
+      tasks.remove(0).run();
+    } // while
+    assertTrue(replica.error instanceof IllegalArgumentException, "error delivered");
+    assertEquals(0, replica.frames.size(), "no frames after the error");
+    assertTrue(!replica.complete, "not complete");
+  } // testBadRequest()
+
+  /**
+   * Make sure nothing is sent while the subscriber is still in
+   * onSubscribe, even if it requests frames and changes the matrix
+   * there.
+   */
+  @Test
+  public void testSubscribeFirst() {
+    ObservableMatrix<Integer> source =
+        new ObservableMatrix<Integer>(new MatrixV0<Integer>(4, 4, 0));
+    MatrixChangePublisher<Integer> publisher =
+        new MatrixChangePublisher<Integer>(source, Runnable::run, 16, 40);
+    int[] early = new int[] {-1};
+    Replica replica = new Replica(source) {
+      @Override
+      public void onSubscribe(Flow.Subscription sub) {
+        super.onSubscribe(sub);
+        sub.request(10);
+        source.insertRow(0);
+        early[0] = this.frames.size();
+      } // onSubscribe(Flow.Subscription)
+    };
+    publisher.subscribe(replica);
+    assertEquals(0, early[0], "nothing sent during onSubscribe");
+    assertEquals(1, replica.frames.size(), "sent once onSubscribe returns");
+    assertEquals(MatrixChange.Kind.STRUCTURE, replica.frames.get(0).kind(), "the insertion");
+  } // testSubscribeFirst()
+} // class TestMatrixChangePublisher
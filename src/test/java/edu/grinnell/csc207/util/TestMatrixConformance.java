@@ -0,0 +1,361 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static edu.grinnell.csc207.util.MatrixAssertions.change;
+import static edu.grinnell.csc207.util.MatrixAssertions.newArray;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+/**
+ * Tests that every implementation of Matrix behaves like MatrixV0.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestMatrixConformance {
+  // +-----------+---------------------------------------------------
+  // | Constants |
+  // +-----------+
+
+  /** The seed of the random changes. */
+  private static final long SEED = 207;
+
+  /** The number of random changes. */
+  private static final int STEPS = 2000;
+
+  // +-------+-------------------------------------------------------
+  // | Cases |
+  // +-------+
+
+  /**
+   * Makes matrices of one implementation.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   */
+  interface Maker<T> {
+    /**
+     * Make a matrix.
+     *
+     * @param width
+     *   The width.
+     * @param height
+     *   The height.
+     * @param def
+     *   The default value.
+     *
+     * @return the matrix.
+     */
+    Matrix<T> make(int width, int height, T def);
+  } // interface Maker<T>
+
+  /**
+   * A change to a matrix that may fail.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   */
+  interface Edit<T> {
+    /**
+     * Change a matrix.
+     *
+     * @param matrix
+     *   The matrix.
+     */
+    void apply(Matrix<T> matrix) throws ArraySizeException;
+  } // interface Edit<T>
+
+  /**
+   * An implementation to test, with the values to test it with.
+   *
+   * @param <T>
+   *   The type of values stored in the matrix.
+   */
+  static class Case<T> {
+    /** The name of the case. */
+    final String name;
+
+    /** Makes the matrices. */
+    final Maker<T> maker;
+
+    /** The width of the matrices at first. */
+    final int width;
+
+    /** The height of the matrices at first. */
+    final int height;
+
+    /** The default value. */
+    final T def;
+
+    /** Makes the values to store. */
+    final Function<Random, T> values;
+
+    /** The identity of op. */
+    final T identity;
+
+    /** An associative operation on the values, for reductions. */
+    final BinaryOperator<T> op;
+
+    /**
+     * Describe a case.
+     *
+     * @param name
+     *   The name of the case.
+     * @param maker
+     *   Makes the matrices.
+     * @param width
+     *   The width of the matrices at first.
+     * @param height
+     *   The height of the matrices at first.
+     * @param def
+     *   The default value.
+     * @param values
+     *   Makes the values to store.
+     * @param identity
+     *   The identity of op.
+     * @param op
+     *   An associative operation on the values.
+     */
+    Case(String name, Maker<T> maker, int width, int height, T def,
+        Function<Random, T> values, T identity, BinaryOperator<T> op) {
+      this.name = name;
+      this.maker = maker;
+      this.width = width;
+      this.height = height;
+      this.def = def;
+      this.values = values;
+      this.identity = identity;
+      this.op = op;
+    } // Case(String, Maker<T>, int, int, T, Function<Random, T>, T, BinaryOperator<T>)
+
+    /**
+     * Describe a case of matrices of integers.
+     *
+     * @param name
+     *   The name of the case.
+     * @param maker
+     *   Makes the matrices.
+     *
+     * @return the case.
+     */
+    static Case<Integer> ofIntegers(String name, Maker<Integer> maker) {
+      return new Case<Integer>(name, maker, 8, 6, 0, (r) -> r.nextInt(1000), 0, Integer::sum);
+    } // ofIntegers(String, Maker<Integer>)
+  } // class Case<T>
+
+  /**
+   * List the implementations to test.
+   *
+   * @return the cases.
+   */
+  static Stream<Case<?>> cases() {
+    return Stream.of(
+        Case.ofIntegers("MatrixV0 with a pool", (w, h, d) -> {
+          MatrixV0<Integer> matrix = new MatrixV0<Integer>(w, h, d);
+          matrix.setPool(new ArrayPool(200));
+          return matrix;
+        }),
+        Case.ofIntegers("ColumnMajorMatrix", ColumnMajorMatrix::new),
+        Case.ofIntegers("AdaptiveMatrix", AdaptiveMatrix::new),
+        Case.ofIntegers("AdaptiveMatrix by columns", (w, h, d) -> {
+          AdaptiveMatrix<Integer> matrix = new AdaptiveMatrix<Integer>(w, h, d);
+          matrix.setLayout(AdaptiveMatrix.Layout.COLUMN_MAJOR);
+          return matrix;
+        }),
+        Case.ofIntegers("TiledMatrix", (w, h, d) -> new TiledMatrix<Integer>(w, h, d, 4)),
+        Case.ofIntegers("RopeMatrix", RopeMatrix::new),
+        Case.ofIntegers("DictionaryMatrix", DictionaryMatrix::new),
+        Case.ofIntegers("TombstoneMatrix", TombstoneMatrix::new),
+        Case.ofIntegers("MigratingMatrix", (w, h, d) -> Matrices.builder(Integer.class)
+            .size(w, h).defaultValue(d).density(0).migrating(true).build()),
+        Case.ofIntegers("JournaledMatrix",
+            (w, h, d) -> new JournaledMatrix<Integer>(new MatrixV0<Integer>(w, h, d))),
+        Case.ofIntegers("ObservableMatrix",
+            (w, h, d) -> new ObservableMatrix<Integer>(new MatrixV0<Integer>(w, h, d))),
+        Case.ofIntegers("MetricsMatrix",
+            (w, h, d) -> new MetricsMatrix<Integer>(new MatrixV0<Integer>(w, h, d))),
+        new Case<Double>("DoubleMatrix", DoubleMatrix::new, 8, 6, 0.0,
+            (r) -> (double) r.nextInt(1000), 0.0, Double::sum),
+        new Case<Boolean>("BooleanMatrix", BooleanMatrix::new, 130, 3, true,
+            Random::nextBoolean, false, Boolean::logicalXor));
+  } // cases()
+
+  // +-------+-------------------------------------------------------
+  // | Tests |
+  // +-------+
+
+  /**
+   * Make sure each implementation behaves like a MatrixV0 under random
+   * changes, and compares, hashes, reduces, transposes and clones alike.
+   *
+   * @return a test for each implementation.
+   */
+  @TestFactory
+  public Stream<DynamicTest> testAgainstMatrixV0() {
+    return cases().map((c) -> DynamicTest.dynamicTest(c.name, () -> againstMatrixV0(c)));
+  } // testAgainstMatrixV0()
+
+  /**
+   * Make sure each implementation fails, or does nothing, where MatrixV0
+   * does, for empty and inverted ranges, lines that leave the matrix and
+   * positions out of bounds.
+   *
+   * @return a test for each implementation.
+   */
+  @TestFactory
+  public Stream<DynamicTest> testEdgeCases() {
+    return cases().map((c) -> DynamicTest.dynamicTest(c.name, () -> edgeCases(c)));
+  } // testEdgeCases()
+
+  // +---------+-----------------------------------------------------
+  // | Helpers |
+  // +---------+
+
+  /**
+   * Compare an implementation with MatrixV0 under random changes.
+   *
+   * @param c
+   *   The case.
+   */
+  static <T> void againstMatrixV0(Case<T> c) throws ArraySizeException {
+    Random expectedRandom = new Random(SEED);
+    Random actualRandom = new Random(SEED);
+    Matrix<T> expected = new MatrixV0<T>(c.width, c.height, c.def);
+    Matrix<T> actual = c.maker.make(c.width, c.height, c.def);
+    for (int i = 0; i < STEPS; i++) {
+      change(expectedRandom, expected, c.values);
+      change(actualRandom, actual, c.values);
+      assertMatrixEquals(expected, actual, "step " + i);
+    } // for
+    assertTrue(actual.equals(expected), "equals a MatrixV0");
+    assertTrue(expected.equals(actual), "equality is symmetric");
+    assertEquals(expected.hashCode(), actual.hashCode(), "same hash code");
+    assertEquals(expected.count((x) -> Objects.equals(x, c.def)),
+        actual.count((x) -> Objects.equals(x, c.def)), "count");
+    assertEquals(expected.reduce(c.identity, c.op), actual.reduce(c.identity, c.op), "reduce");
+    assertArrayEquals(expected.reduceRows(c.identity, c.op, (n) -> newArray(c.def, n)),
+        actual.reduceRows(c.identity, c.op, (n) -> newArray(c.def, n)), "reduce rows");
+    assertArrayEquals(expected.reduceCols(c.identity, c.op, (n) -> newArray(c.def, n)),
+        actual.reduceCols(c.identity, c.op, (n) -> newArray(c.def, n)), "reduce columns");
+    assertMatrixEquals(expected.transpose(), actual.transpose(), "transpose");
+    assertMatrixEquals(expected, actual.clone(), "clone");
+  } // againstMatrixV0(Case<T>)
+
+  /**
+   * Compare an implementation with MatrixV0 at the edges. Each edit is
+   * applied to a new pair of matrices; if it fails on the MatrixV0, it
+   * must fail in the same way on the other.
+   *
+   * @param c
+   *   The case.
+   */
+  static <T> void edgeCases(Case<T> c) throws ArraySizeException {
+    Random random = new Random(SEED);
+    for (Map.Entry<String, Edit<T>> entry : edits(c.values.apply(random)).entrySet()) {
+      String name = entry.getKey();
+      Edit<T> edit = entry.getValue();
+      Matrix<T> expected = filled(new MatrixV0<T>(4, 3, c.def), c.values);
+      Matrix<T> actual = filled(c.maker.make(4, 3, c.def), c.values);
+      Exception failure = null;
+      try {
+        edit.apply(expected);
+      } catch (IndexOutOfBoundsException | ArraySizeException e) {
+        failure = e;
+      } // try/catch
+      if (failure == null) {
+        edit.apply(actual);
+        assertMatrixEquals(expected, actual, name);
+      } else {
+        Class<? extends Exception> kind = (failure instanceof IndexOutOfBoundsException)
+            ? IndexOutOfBoundsException.class
+            : failure.getClass();
+        assertThrows(kind, () -> edit.apply(actual), name);
+      } // if/else
+    } // for
+  } // edgeCases(Case<T>)
+
+  /**
+   * Fill a matrix with random values, the same each time.
+   *
+   * @param matrix
+   *   The matrix.
+   * @param values
+   *   Makes the values.
+   *
+   * @return the matrix.
+   */
+  static <T> Matrix<T> filled(Matrix<T> matrix, Function<Random, T> values) {
+    Random random = new Random(SEED);
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < matrix.width(); col++) {
+        matrix.set(row, col, values.apply(random));
+      } // for col
+    } // for row
+    return matrix;
+  } // filled(Matrix<T>, Function<Random, T>)
+
+  /**
+   * List the edits to try on a matrix of height 3 and width 4.
+   *
+   * @param val
+   *   The value to store.
+   *
+   * @return the edits, by name.
+   */
+  static <T> Map<String, Edit<T>> edits(T val) {
+    Map<String, Edit<T>> edits = new LinkedHashMap<String, Edit<T>>();
+    edits.put("whole region", (m) -> m.fillRegion(0, 0, 3, 4, val));
+    edits.put("empty region", (m) -> m.fillRegion(1, 1, 1, 3, val));
+    edits.put("inverted rows", (m) -> m.fillRegion(2, 0, 1, 3, val));
+    edits.put("inverted columns", (m) -> m.fillRegion(0, 3, 2, 1, val));
+    edits.put("region past the edge", (m) -> m.fillRegion(0, 0, 4, 4, val));
+    edits.put("horizontal line", (m) -> m.fillLine(1, 0, 0, 1, 2, 4, val));
+    edits.put("spaced horizontal line", (m) -> m.fillLine(1, 1, 0, 2, 2, 4, val));
+    edits.put("empty horizontal line", (m) -> m.fillLine(2, 0, 0, 1, 1, 3, val));
+    edits.put("vertical line", (m) -> m.fillLine(0, 3, 1, 0, 3, 4, val));
+    edits.put("diagonal line", (m) -> m.fillLine(0, 0, 1, 1, 3, 4, val));
+    edits.put("wrapping line", (m) -> m.fillLine(0, 1, 1, -1, 3, 4, val));
+    edits.put("line past the edge", (m) -> m.fillLine(0, 0, 1, 1, 4, 5, val));
+    edits.put("set below", (m) -> m.set(3, 0, val));
+    edits.put("set left", (m) -> m.set(0, -1, val));
+    edits.put("get right", (m) -> m.get(0, 4));
+    edits.put("insert last row", (m) -> m.insertRow(3));
+    edits.put("insert row past the end", (m) -> m.insertRow(4));
+    edits.put("insert short row", (m) -> m.insertRow(0, filledArray(val, 3)));
+    edits.put("insert long column", (m) -> m.insertCol(0, filledArray(val, 4)));
+    edits.put("delete last column", (m) -> m.deleteCol(3));
+    edits.put("delete column past the end", (m) -> m.deleteCol(4));
+    edits.put("delete negative row", (m) -> m.deleteRow(-1));
+    return edits;
+  } // edits(T)
+
+  /**
+   * Make an array holding one value.
+   *
+   * @param val
+   *   The value.
+   * @param length
+   *   The length of the array.
+   *
+   * @return the array.
+   */
+  static <T> T[] filledArray(T val, int length) {
+    T[] vals = newArray(val, length);
+    Arrays.fill(vals, val);
+    return vals;
+  } // filledArray(T, int)
+} // class TestMatrixConformance
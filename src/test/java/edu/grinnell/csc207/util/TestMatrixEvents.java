@@ -0,0 +1,88 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the flight recorder events emitted by matrices.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestMatrixEvents {
+  /**
+   * Record some operations and read back the events.
+   *
+   * @param work
+   *   The operations to perform while recording.
+   *
+   * @return the matrix events recorded.
+   */
+  static List<RecordedEvent> record(Runnable work) throws Exception {
+    Path file = Files.createTempFile("matrix-events", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(MatrixStructuralEvent.NAME);
+      recording.enable(MatrixFillEvent.NAME);
+      recording.start();
+      work.run();
+      recording.stop();
+      recording.dump(file);
+      List<RecordedEvent> events = new ArrayList<RecordedEvent>();
+      for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+        if (event.getEventType().getName().startsWith("edu.grinnell.csc207.")) {
+          events.add(event);
+        } // if
+      } // for
+      return events;
+    } finally {
+      Files.deleteIfExists(file);
+    } // try/finally
+  } // record(Runnable)
+
+  /**
+   * Make sure that structural operations are recorded.
+   */
+  @Test
+  public void testStructuralEvents() throws Exception {
+    Matrix<Integer> matrix = new MatrixV0<Integer>(5, 2, 0);
+    List<RecordedEvent> events = record(() -> {
+      matrix.insertRow(1);
+      matrix.deleteCol(2);
+      matrix.clone();
+    });
+    assertEquals(3, events.size(), "one event per operation");
+    assertEquals("INSERT_ROW", events.get(0).getString("operation"), "insertRow");
+    assertEquals(1, events.get(0).getInt("index"), "insertRow index");
+    assertEquals(3, events.get(0).getInt("height"), "height after insertRow");
+    assertEquals("DELETE_COL", events.get(1).getString("operation"), "deleteCol");
+    assertEquals(4, events.get(1).getInt("width"), "width after deleteCol");
+    assertEquals("CLONE", events.get(2).getString("operation"), "clone");
+    assertEquals(12, events.get(2).getLong("cellsTouched"), "clone touches every cell");
+  } // testStructuralEvents()
+
+  /**
+   * Make sure that only large fills are recorded.
+   */
+  @Test
+  public void testFillEvents() throws Exception {
+    Matrix<Integer> matrix = new MatrixV0<Integer>(64, 64, 0);
+    List<RecordedEvent> events = record(() -> {
+      matrix.fillRegion(0, 0, 2, 2, 1);
+      matrix.fillRegion(0, 0, 64, 32, 1);
+      matrix.fillLine(0, 0, 1, 1, 64, 64, 2);
+    });
+    assertEquals(1, events.size(), "small fills are not recorded");
+    assertEquals("FILL_REGION", events.get(0).getString("operation"), "fillRegion");
+    assertEquals(2048, events.get(0).getLong("cellsTouched"), "cells filled");
+    assertTrue(events.get(0).getDuration().toNanos() >= 0, "fills are timed");
+  } // testFillEvents()
+} // class TestMatrixEvents
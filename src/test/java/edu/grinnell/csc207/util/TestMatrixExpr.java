@@ -0,0 +1,111 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of lazy matrix expressions.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestMatrixExpr {
+  /**
+   * Build a matrix whose cells count up from 1, row by row.
+   *
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @return the matrix.
+   */
+  static Matrix<Integer> counting(int width, int height) {
+    Matrix<Integer> matrix = new MatrixV0<Integer>(width, height, 0);
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        matrix.set(row, col, row * width + col + 1);
+      } // for col
+    } // for row
+    return matrix;
+  } // counting(int, int)
+
+  /**
+   * Evaluate a small chain and check the result.
+   */
+  @Test
+  public void testChain() throws ArraySizeException {
+    Matrix<Integer> a = counting(3, 2);
+    Matrix<Integer> b = new MatrixV0<Integer>(3, 2, 10);
+    MatrixExpr<String> expr = MatrixExpr.of(a)
+        .map((x) -> x * 2)
+        .zip(b, (x, y) -> x + y)
+        .filter((x) -> x % 4 == 0, -1)
+        .map((x) -> "<" + x + ">");
+    assertEquals(3, expr.width(), "width");
+    assertEquals(2, expr.height(), "height");
+    assertMatrixEquals(new String[][] {{"<12>", "<-1>", "<16>"}, {"<-1>", "<20>", "<-1>"}},
+        expr.materialize(), "map, zip, filter, map");
+    assertEquals(Integer.valueOf(21), MatrixExpr.of(a).reduce(0, Integer::sum), "sum");
+    assertEquals(Integer.valueOf(6), MatrixExpr.of(a).<Integer>reduce(0,
+        (count, x) -> count + 1, Integer::sum), "count");
+  } // testChain()
+
+  /**
+   * Make sure that nothing is computed until a terminal operation, and
+   * that each cell of each step is computed once.
+   */
+  @Test
+  public void testLazyAndFused() throws ArraySizeException {
+    Matrix<Integer> a = counting(4, 5);
+    AtomicInteger calls = new AtomicInteger();
+    MatrixExpr<Integer> expr = MatrixExpr.of(a)
+        .map((x) -> {
+          calls.incrementAndGet();
+          return x + 1;
+        })
+        .zip(new DoubleMatrix(4, 5, 0.5), (x, y) -> (int) (x * y * 2));
+    assertEquals(0, calls.get(), "building computes nothing");
+    a.set(0, 0, 100);
+    Matrix<Integer> result = expr.materialize();
+    assertEquals(20, calls.get(), "one call per cell");
+    assertEquals(Integer.valueOf(101), result.get(0, 0), "sources are read late");
+  } // testLazyAndFused()
+
+  /**
+   * Make sure that parallel evaluation gives the sequential answer.
+   */
+  @Test
+  public void testParallel() throws ArraySizeException {
+    Matrix<Integer> a = counting(300, 200);
+    MatrixExpr<Long> expr = MatrixExpr.of(a).map((x) -> (long) x * x);
+    MatrixExpr<Long> parallel = expr.parallel();
+    assertFalse(expr.isParallel(), "expressions start sequential");
+    assertTrue(parallel.map((x) -> x).isParallel(), "parallel expressions stay parallel");
+    assertTrue(expr.zip(parallel, (x, y) -> x).isParallel(), "zip with a parallel one");
+    assertEquals(expr.materialize(), parallel.materialize(), "materialize");
+    long n = 300L * 200;
+    assertEquals(Long.valueOf(n * (n + 1) * (2 * n + 1) / 6), parallel.reduce(0L, Long::sum),
+        "sum of squares");
+    assertEquals(Integer.valueOf((int) n), parallel.<Integer>reduce(0,
+        (count, x) -> count + 1, Integer::sum), "count");
+    assertFalse(parallel.sequential().isParallel(), "sequential");
+  } // testParallel()
+
+  /**
+   * Make sure that mismatched shapes are rejected.
+   */
+  @Test
+  public void testShapes() {
+    MatrixExpr<Integer> expr = MatrixExpr.of(counting(3, 2));
+    assertThrows(ArraySizeException.class,
+        () -> expr.zip(counting(2, 3), (x, y) -> x), "transposed shape");
+  } // testShapes()
+} // class TestMatrixExpr
@@ -0,0 +1,156 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the arithmetic in MatrixMath.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestMatrixMath {
+  /**
+   * Build a matrix of random small doubles.
+   *
+   * @param random
+   *   The source of randomness.
+   * @param width
+   *   The width of the matrix.
+   * @param height
+   *   The height of the matrix.
+   *
+   * @return the matrix.
+   */
+  static Matrix<Double> randomDoubles(Random random, int width, int height) {
+    Matrix<Double> matrix = new MatrixV0<Double>(width, height, 0.0);
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        matrix.set(row, col, (double) (random.nextInt(21) - 10));
+      } // for col
+    } // for row
+    return matrix;
+  } // randomDoubles(Random, int, int)
+
+  /**
+   * Multiply two matrices the slow way.
+   *
+   * @param a
+   *   The left-hand matrix.
+   * @param b
+   *   The right-hand matrix.
+   *
+   * @return the product.
+   */
+  static Matrix<Double> naive(Matrix<Double> a, Matrix<Double> b) {
+    Matrix<Double> c = new MatrixV0<Double>(b.width(), a.height(), 0.0);
+    for (int i = 0; i < a.height(); i++) {
+      for (int j = 0; j < b.width(); j++) {
+        double sum = 0;
+        for (int k = 0; k < a.width(); k++) {
+          sum += a.get(i, k) * b.get(k, j);
+        } // for k
+        c.set(i, j, sum);
+      } // for j
+    } // for i
+    return c;
+  } // naive(Matrix<Double>, Matrix<Double>)
+
+  /**
+   * Multiply small matrices whose products we know.
+   */
+  @Test
+  public void testSmall() throws ArraySizeException {
+    Matrix<Integer> a = new MatrixV0<Integer>(3, 2, 0);
+    Matrix<Integer> b = new MatrixV0<Integer>(2, 3, 0);
+    int val = 1;
+    for (int row = 0; row < 2; row++) {
+      for (int col = 0; col < 3; col++) {
+        a.set(row, col, val);
+        b.set(col, row, val);
+        val++;
+      } // for col
+    } // for row
+    assertMatrixEquals(new Integer[][] {{14, 32}, {32, 77}}, MatrixMath.multiplyInts(a, b),
+        "2x3 times 3x2");
+
+    Matrix<Long> big = new MatrixV0<Long>(1, 1, Long.MAX_VALUE);
+    Matrix<Long> two = new MatrixV0<Long>(1, 1, 2L);
+    assertMatrixEquals(new Long[][] {{-2L}}, MatrixMath.multiplyLongs(big, two),
+        "overflow wraps");
+  } // testSmall()
+
+  /**
+   * Compare blocked multiplication to the naive algorithm, with block
+   * sizes that do and do not divide the dimensions.
+   */
+  @Test
+  public void testBlocked() throws ArraySizeException {
+    Random random = new Random(207);
+    int[][] shapes = {{1, 1, 1}, {7, 5, 3}, {64, 64, 64}, {70, 33, 129}};
+    for (int[] shape : shapes) {
+      Matrix<Double> a = randomDoubles(random, shape[1], shape[0]);
+      Matrix<Double> b = randomDoubles(random, shape[2], shape[1]);
+      Matrix<Double> expected = naive(a, b);
+      for (int block : new int[] {1, 3, 16, 64, 1000}) {
+        assertEquals(expected, MatrixMath.multiply(a, b, block),
+            String.format("%dx%d times %dx%d with block %d", shape[0], shape[1],
+                shape[1], shape[2], block));
+      } // for
+    } // for
+  } // testBlocked()
+
+  /**
+   * Compare parallel multiplication to blocked multiplication, with
+   * cutoffs small enough to split several times and with and without
+   * Strassen's algorithm. The elements are small integers, so every
+   * order of summation gives the same answer.
+   */
+  @Test
+  public void testParallel() throws ArraySizeException {
+    Random random = new Random(207);
+    int[][] shapes = {{1, 1, 1}, {64, 64, 64}, {100, 37, 53}, {48, 48, 48}, {9, 130, 2}};
+    ForkJoinPool pool = new ForkJoinPool(3);
+    try {
+      for (int[] shape : shapes) {
+        Matrix<Double> a = randomDoubles(random, shape[1], shape[0]);
+        Matrix<Double> b = randomDoubles(random, shape[2], shape[1]);
+        Matrix<Double> expected = MatrixMath.multiply(a, b);
+        String dims = String.format("%dx%d times %dx%d", shape[0], shape[1], shape[1],
+            shape[2]);
+        assertEquals(expected, MatrixMath.parallelMultiply(a, b), dims);
+        assertEquals(expected, MatrixMath.parallelMultiply(a, b, pool, 8,
+            MatrixMath.NO_STRASSEN), dims + " split");
+        assertEquals(expected, MatrixMath.parallelMultiply(a, b, pool, 5, 16),
+            dims + " with Strassen");
+      } // for
+    } finally {
+      pool.shutdown();
+    } // try/finally
+    Matrix<Double> a = new MatrixV0<Double>(3, 2, 1.0);
+    assertThrows(IllegalArgumentException.class,
+        () -> MatrixMath.parallelMultiply(a, a.clone(), ForkJoinPool.commonPool(), 0, 1),
+        "zero cutoff");
+  } // testParallel()
+
+  /**
+   * Make sure that bad arguments are rejected.
+   */
+  @Test
+  public void testErrors() {
+    Matrix<Double> a = new MatrixV0<Double>(3, 2, 1.0);
+    assertThrows(ArraySizeException.class, () -> MatrixMath.multiply(a, a),
+        "mismatched dimensions");
+    assertThrows(IllegalArgumentException.class,
+        () -> MatrixMath.multiply(a, a.clone(), 0), "zero block size");
+    Matrix<Double> holey = new MatrixV0<Double>(2, 3);
+    assertThrows(NullPointerException.class, () -> MatrixMath.multiply(a, holey),
+        "nulls are not numbers");
+  } // testErrors()
+} // class TestMatrixMath
@@ -0,0 +1,149 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of memory footprint estimates, against the bytes that the JVM
+ * reports allocating while copying a matrix. A copy allocates the same
+ * structure as the original, without any garbage from its history.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestMemoryFootprint {
+  /** The thread bean, which can count the bytes a thread allocates. */
+  private static final com.sun.management.ThreadMXBean THREADS =
+      (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+  /** The last matrix made, so that it cannot be optimized away. */
+  private Matrix<?> kept;
+
+  /**
+   * Measure the bytes allocated to make a matrix, taking the least of
+   * several tries after warming up.
+   *
+   * @param make
+   *   Makes the matrix.
+   *
+   * @return the bytes allocated.
+   */
+  private long allocated(Supplier<Matrix<?>> make) {
+    long least = Long.MAX_VALUE;
+    for (int i = 0; i < 5; i++) {
+      long before = THREADS.getCurrentThreadAllocatedBytes();
+      this.kept = make.get();
+      long after = THREADS.getCurrentThreadAllocatedBytes();
+      least = Math.min(least, after - before);
+    } // for
+    return least;
+  } // allocated(Supplier<Matrix<?>>)
+
+  /**
+   * Make sure that a copy of a matrix allocates about as many bytes as
+   * the copy is estimated to keep alive.
+   *
+   * @param matrix
+   *   The matrix to copy.
+   */
+  private void assertCopyMatches(Matrix<?> matrix) {
+    long measured = this.allocated(matrix::clone);
+    long estimated = this.kept.estimatedBytes();
+    assertTrue(Math.abs(measured - estimated) <= measured / 100 + 256,
+        matrix.getClass().getSimpleName() + " measured " + measured + ", estimated "
+            + this.kept.footprint());
+  } // assertCopyMatches(Matrix<?>)
+
+  /**
+   * Fill a matrix with small numbers, which are boxed to shared objects.
+   *
+   * @param matrix
+   *   The matrix.
+   * @param random
+   *   Where the numbers come from.
+   * @param range
+   *   The number of distinct numbers.
+   *
+   * @return the matrix.
+   */
+  private static Matrix<Integer> fill(Matrix<Integer> matrix, Random random, int range) {
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < matrix.width(); col++) {
+        matrix.set(row, col, random.nextInt(range));
+      } // for col
+    } // for row
+    return matrix;
+  } // fill(Matrix<Integer>, Random, int)
+
+  /**
+   * Compare estimates with measurements for each implementation.
+   */
+  @Test
+  public void testAgainstAllocation() throws ArraySizeException {
+    Random random = new Random(48);
+    this.assertCopyMatches(fill(new MatrixV0<Integer>(150, 200, 0), random, 100));
+    this.assertCopyMatches(fill(new ColumnMajorMatrix<Integer>(150, 200, 0), random, 100));
+    this.assertCopyMatches(fill(new AdaptiveMatrix<Integer>(150, 200, 0), random, 100));
+    this.assertCopyMatches(fill(new DictionaryMatrix<Integer>(150, 200, 0), random, 100));
+    this.assertCopyMatches(fill(new DictionaryMatrix<Integer>(150, 200, 0), random, 3));
+
+    RopeMatrix<Integer> rope = new RopeMatrix<Integer>(150, 200, 0);
+    for (int i = 0; i < 100; i++) {
+      rope.insertRow(random.nextInt(rope.height() + 1));
+    } // for
+    this.assertCopyMatches(fill(rope, random, 100));
+
+    TiledMatrix<Integer> tiled = new TiledMatrix<Integer>(500, 400, 0, 32);
+    tiled.fillRegion(10, 10, 100, 300, 7);
+    tiled.insertCol(40);
+    this.assertCopyMatches(tiled);
+
+    BooleanMatrix booleans = new BooleanMatrix(130, 200);
+    booleans.fillRegion(3, 5, 150, 99, true);
+    this.assertCopyMatches(booleans);
+
+    DoubleMatrix doubles = new DoubleMatrix(150, 200, 0.0);
+    doubles.fillRegion(0, 0, 100, 100, 2.5);
+    this.assertCopyMatches(doubles);
+  } // testAgainstAllocation()
+
+  /**
+   * Make sure the estimates are broken down sensibly.
+   */
+  @Test
+  public void testBreakdown() {
+    TiledMatrix<Integer> tiled = new TiledMatrix<Integer>(1000, 1000, 0);
+    assertEquals(0, tiled.footprint().cells(), "no tiles allocated");
+    tiled.set(500, 500, 1);
+    assertEquals(MemoryFootprint.referenceArray(64 * 64), tiled.footprint().cells(), "one tile");
+
+    RopeMatrix<Integer> rope = new RopeMatrix<Integer>(4, 10, 0);
+    assertEquals((RopeMatrix.CHUNK - 10) * MemoryFootprint.REFERENCE, rope.footprint().slack(),
+        "unused chunk slots");
+
+    BooleanMatrix booleans = new BooleanMatrix(65, 8);
+    assertEquals(8 * 63 / 8, booleans.footprint().slack(), "padding bits");
+
+    MatrixV0<Integer> plain = new MatrixV0<Integer>(10, 20, 0);
+    MemoryFootprint inner = plain.footprint();
+    assertEquals(0, inner.slack() + inner.overlay(), "no slack or overlay");
+    JournaledMatrix<Integer> journaled = new JournaledMatrix<Integer>(plain);
+    long before = journaled.footprint().overlay();
+    journaled.fillRegion(0, 0, 20, 10, 5);
+    MemoryFootprint outer = journaled.footprint();
+    assertTrue(outer.overlay() > before + 200 * MemoryFootprint.REFERENCE, "journal counted");
+    assertEquals(inner.cells(), outer.cells(), "same cells");
+    assertEquals(outer.total(), journaled.estimatedBytes(), "total");
+
+    DoubleMatrix doubles = new DoubleMatrix(40, 30, 1.0);
+    long bare = doubles.footprint().index();
+    SummedAreaTable sums = new SummedAreaTable(doubles);
+    sums.sum(0, 0, 30, 40);
+    assertTrue(doubles.footprint().index() - bare > 40 * 30 * Double.BYTES, "table counted");
+  } // testBreakdown()
+} // class TestMemoryFootprint
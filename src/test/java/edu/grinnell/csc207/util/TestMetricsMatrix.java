@@ -0,0 +1,115 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import javax.management.ObjectName;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of the metrics recorded by MetricsMatrix.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestMetricsMatrix {
+  /**
+   * Make sure that operations are counted and passed through.
+   */
+  @Test
+  public void testCounts() throws ArraySizeException {
+    MetricsMatrix<Integer> matrix =
+        new MetricsMatrix<Integer>(new MatrixV0<Integer>(3, 2, 0));
+    matrix.set(0, 0, 1);
+    matrix.get(0, 0);
+    matrix.get(1, 2);
+    matrix.insertRow(1);
+    matrix.insertCol(0, new Integer[] {7, 8, 9});
+    matrix.deleteRow(2);
+    matrix.fillRegion(0, 1, 2, 3, 5);
+    matrix.fillLine(0, 0, 1, 1, 2, 4, 6);
+
+    MetricsMatrix.Snapshot snapshot = matrix.snapshot();
+    assertEquals(1, snapshot.count(MatrixOperation.SET), "set count");
+    assertEquals(2, snapshot.count(MatrixOperation.GET), "get count");
+    assertEquals(1, snapshot.count(MatrixOperation.INSERT_ROW), "insertRow count");
+    assertEquals(1, snapshot.count(MatrixOperation.INSERT_COL), "insertCol count");
+    assertEquals(3, snapshot.cellsTouched(MatrixOperation.INSERT_COL),
+        "insertCol touches a column");
+    assertEquals(4, snapshot.cellsTouched(MatrixOperation.FILL_REGION),
+        "fillRegion touches the region");
+    assertEquals(2, snapshot.cellsTouched(MatrixOperation.FILL_LINE),
+        "fillLine touches the line");
+    assertTrue(snapshot.estimatedBytesAllocated() > 0, "structural edits allocate");
+    assertTrue(snapshot.latency(MatrixOperation.DELETE_ROW, 100) > 0,
+        "deleteRow is timed");
+    assertEquals(0, snapshot.latency(MatrixOperation.GET, 50), "get is not timed");
+    assertEquals(2, snapshot.cellsTouched(MatrixOperation.GET), "get touches a cell");
+    assertEquals(snapshot.cellsTouched(MatrixOperation.GET),
+        matrix.getCellsTouched().get("GET"), "JMX agrees with snapshots");
+
+    assertMatrixEquals(new Integer[][] {{6, 5, 5, 0}, {8, 6, 5, 0}}, matrix,
+        "operations are passed through");
+
+    matrix.reset();
+    assertEquals(0, matrix.snapshot().count(MatrixOperation.GET), "reset");
+  } // testCounts()
+
+  /**
+   * Make sure that wrapping does not change equality or hashing.
+   */
+  @Test
+  public void testEquality() {
+    Matrix<String> plain = new MatrixV0<String>(2, 2, "a");
+    MetricsMatrix<String> wrapped = new MetricsMatrix<String>(plain.clone());
+    assertTrue(wrapped.equals(plain), "wrapped equals plain");
+    assertTrue(plain.equals(wrapped), "plain equals wrapped");
+    assertEquals(plain.hashCode(), wrapped.hashCode(), "same hash code");
+    Matrix<String> copy = wrapped.clone();
+    assertTrue(copy instanceof MetricsMatrix, "clones are measured");
+    assertEquals(0, ((MetricsMatrix<String>) copy).snapshot().count(MatrixOperation.CLONE),
+        "clones start from zero");
+  } // testEquality()
+
+  /**
+   * Make sure that the latency histogram reports sensible percentiles.
+   */
+  @Test
+  public void testHistogram() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 1000; i++) {
+      histogram.record(i * 1000L);
+    } // for
+    assertEquals(1000, histogram.count(), "count");
+    assertEquals(1000000, histogram.max(), "max");
+    long median = histogram.percentile(50);
+    assertTrue(median >= 500000 && median <= 500000 * 9 / 8, "median within a sub-bucket");
+    long p99 = histogram.percentile(99);
+    assertTrue(p99 >= 990000 && p99 <= 1000000, "p99 within a sub-bucket");
+    for (long val = 0; val < 5000; val += 7) {
+      int bucket = LatencyHistogram.bucketOf(val);
+      assertTrue(LatencyHistogram.highestIn(bucket) >= val, "bucket bounds " + val);
+    } // for
+  } // testHistogram()
+
+  /**
+   * Make sure that matrices can be read over JMX.
+   */
+  @Test
+  public void testJmx() throws Exception {
+    MetricsMatrix<Integer> matrix =
+        new MetricsMatrix<Integer>(new MatrixV0<Integer>(2, 2, 0));
+    ObjectName name = matrix.register("testJmx");
+    try {
+      matrix.get(0, 0);
+      Object counts = ManagementFactory.getPlatformMBeanServer()
+          .getAttribute(name, "OperationCounts");
+      assertTrue(counts.toString().contains("GET"), "counts are exposed");
+    } finally {
+      matrix.unregister();
+    } // try/finally
+  } // testJmx()
+} // class TestMetricsMatrix
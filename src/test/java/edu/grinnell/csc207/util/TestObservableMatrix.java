@@ -0,0 +1,170 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of change listeners, dirty-region tracking and printing
+ * regions.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestObservableMatrix {
+  /**
+   * Make a region.
+   *
+   * @param startRow
+   *   The top row (inclusive).
+   * @param startCol
+   *   The left column (inclusive).
+   * @param endRow
+   *   The bottom row (exclusive).
+   * @param endCol
+   *   The right column (exclusive).
+   *
+   * @return the region.
+   */
+  static DirtyRegionTracker.Region region(int startRow, int startCol, int endRow,
+      int endCol) {
+    return new DirtyRegionTracker.Region(startRow, startCol, endRow, endCol);
+  } // region(int, int, int, int)
+
+  /**
+   * Make sure listeners hear about each kind of change.
+   */
+  @Test
+  public void testListeners() throws ArraySizeException {
+    List<String> heard = new ArrayList<String>();
+    MatrixListener<Object> listener = new MatrixListener<Object>() {
+      public void cellChanged(int row, int col, Object oldVal, Object newVal) {
+        heard.add("cell " + row + " " + col + " " + oldVal + "->" + newVal);
+      } // cellChanged(int, int, Object, Object)
+
+      public void regionChanged(int startRow, int startCol, int endRow, int endCol) {
+        heard.add("region " + startRow + " " + startCol + " " + endRow + " " + endCol);
+      } // regionChanged(int, int, int, int)
+
+      public void structureChanged(MatrixOperation op, int index) {
+        heard.add(op + " " + index);
+      } // structureChanged(MatrixOperation, int)
+    };
+    ObservableMatrix<Integer> matrix =
+        new ObservableMatrix<Integer>(new MatrixV0<Integer>(3, 3, 0));
+    matrix.set(0, 0, 5);
+    matrix.addListener(listener);
+    matrix.set(1, 2, 7);
+    matrix.fillRegion(0, 0, 2, 2, 1);
+    matrix.fillRegion(1, 1, 1, 3, 9);
+    matrix.fillLine(0, 0, 1, 1, 2, 2, 4);
+    matrix.insertRow(1, new Integer[] {1, 2, 3});
+    matrix.deleteCol(0);
+    matrix.transposeInPlace();
+    matrix.removeListener(listener);
+    matrix.set(0, 0, 8);
+    assertEquals(List.of("cell 1 2 0->7", "region 0 0 2 2", "cell 0 0 1->4",
+        "cell 1 1 1->4", "INSERT_ROW 1", "DELETE_COL 0", "TRANSPOSE -1"), heard,
+        "changes while listening");
+
+    DoubleMatrix doubles = new DoubleMatrix(2, 2);
+    heard.clear();
+    doubles.addListener(listener);
+    doubles.set(1, 1, 2.5);
+    doubles.insertCol(0);
+    doubles.removeListener(listener);
+    doubles.set(0, 0, 1.0);
+    assertEquals(List.of("cell 1 1 0.0->2.5", "INSERT_COL 0"), heard,
+        "changes to a DoubleMatrix while listening");
+
+    Matrix<Integer> plain = new MatrixV0<Integer>(3, 3, 0);
+    ObservableMatrix<Integer> watched =
+        new ObservableMatrix<Integer>(new MatrixV0<Integer>(3, 3, 0));
+    watched.addListener(listener);
+    heard.clear();
+    assertThrows(IndexOutOfBoundsException.class, () -> plain.fillLine(0, 1, 1, -1, 3, 3, 6),
+        "line leaves the matrix");
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> watched.fillLine(0, 1, 1, -1, 3, 3, 6), "line leaves the matrix when watched");
+    assertEquals(plain, watched, "listening does not change a failed fill");
+    assertEquals(List.of("cell 0 1 0->6", "cell 1 0 0->6"), heard, "cells filled before failing");
+  } // testListeners()
+
+  /**
+   * Make sure that the tracker coalesces changes into few rectangles.
+   */
+  @Test
+  public void testTracker() {
+    ObservableMatrix<Integer> matrix =
+        new ObservableMatrix<Integer>(new MatrixV0<Integer>(10, 10, 0));
+    DirtyRegionTracker tracker = new DirtyRegionTracker(matrix, 3);
+    matrix.addListener(tracker);
+    assertTrue(tracker.isClean(), "clean at first");
+
+    for (int col = 0; col < 3; col++) {
+      matrix.set(0, col, 1);
+    } // for
+    assertEquals(List.of(region(0, 0, 1, 3)), tracker.regions(), "adjacent cells merge");
+    matrix.fillRegion(1, 0, 3, 3, 2);
+    matrix.set(2, 2, 3);
+    assertEquals(List.of(region(0, 0, 3, 3)), tracker.regions(), "adjacent rows merge");
+
+    matrix.set(9, 9, 4);
+    matrix.set(0, 9, 4);
+    assertEquals(List.of(region(0, 0, 3, 3), region(9, 9, 10, 10), region(0, 9, 1, 10)),
+        tracker.regions(), "distant cells stay apart");
+    matrix.set(9, 0, 4);
+    assertEquals(List.of(region(0, 0, 3, 3), region(0, 9, 10, 10), region(9, 0, 10, 1)),
+        tracker.regions(), "at most 3 regions, after the cheapest merge");
+
+    assertEquals(3, tracker.drain().size(), "drained");
+    assertTrue(tracker.isClean(), "clean after drain");
+    matrix.deleteRow(6);
+    matrix.fillLine(7, 7, 1, 1, 9, 9, 5);
+    assertEquals(List.of(region(6, 0, 9, 10)), tracker.regions(),
+        "deletion marks the rest of the matrix, clipped");
+    matrix.transposeInPlace();
+    assertEquals(List.of(region(0, 0, 10, 9)), tracker.drain(), "transpose marks all");
+
+    matrix.fillRegion(0, 0, 2, 2, 6);
+    matrix.fillRegion(1, 1, 3, 3, 6);
+    assertEquals(List.of(region(0, 0, 3, 3)), tracker.regions(), "overlapping regions merge");
+    DirtyRegionTracker pair = new DirtyRegionTracker(matrix, 2);
+    matrix.addListener(pair);
+    matrix.set(0, 0, 7);
+    matrix.set(0, 4, 7);
+    matrix.fillRegion(0, 2, 3, 3, 7);
+    assertEquals(List.of(region(0, 0, 3, 5)), pair.regions(),
+        "a merge absorbs the regions it overlaps");
+  } // testTracker()
+
+  /**
+   * Make sure that printing a region prints only that region, and that
+   * printing a whole matrix is unchanged.
+   */
+  @Test
+  public void testPrintRegion() {
+    Matrix<Integer> matrix = new MatrixV0<Integer>(3, 3, 0);
+    matrix.set(1, 1, 100);
+    matrix.set(2, 2, 5);
+    StringWriter whole = new StringWriter();
+    Matrix.print(new PrintWriter(whole, true), matrix);
+    StringWriter all = new StringWriter();
+    Matrix.printRegion(new PrintWriter(all, true), matrix, 0, 0, 3, 3, false);
+    assertEquals(whole.toString(), all.toString(), "the whole matrix");
+
+    StringWriter part = new StringWriter();
+    Matrix.printRegion(new PrintWriter(part, true), matrix, 2, 1, 3, 3, true);
+    String nl = System.lineSeparator();
+    assertEquals("      1   2 " + nl
+        + "    +---+---+" + nl
+        + "  2 | 0 | 5 |" + nl
+        + "    +---+---+" + nl, part.toString(), "one row, two columns");
+  } // testPrintRegion()
+} // class TestObservableMatrix
@@ -0,0 +1,115 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.function.BinaryOperator;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of whole-matrix, row and column reductions.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestReductions {
+  /**
+   * Fill a matrix with small integers that depend on the position.
+   *
+   * @param matrix
+   *   The matrix to fill.
+   *
+   * @return the matrix.
+   */
+  static <M extends Matrix<Double>> M filled(M matrix) {
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < matrix.width(); col++) {
+        matrix.set(row, col, (double) ((row * 31 + col * 17) % 23 - 11));
+      } // for col
+    } // for row
+    return matrix;
+  } // filled(M)
+
+  /**
+   * A matrix that uses the default reductions from the interface.
+   *
+   * @param <T>
+   *   The type of values in the matrix.
+   */
+  static class Plain<T> extends MetricsMatrix<T> {
+    /**
+     * Wrap a matrix.
+     *
+     * @param matrix
+     *   The matrix to wrap.
+     */
+    Plain(Matrix<T> matrix) {
+      super(matrix);
+    } // Plain(Matrix<T>)
+  } // class Plain<T>
+
+  /**
+   * Compare every implementation's reductions to the interface's, on
+   * matrices small enough to reduce directly and large enough to split.
+   */
+  @Test
+  public void testAgree() {
+    BinaryOperator<Double> plus = Double::sum;
+    for (int[] shape : new int[][] {{0, 0}, {3, 0}, {7, 5}, {1, 70000}, {400, 300}}) {
+      String message = shape[0] + "x" + shape[1];
+      Matrix<Double> boxed = filled(new MatrixV0<Double>(shape[0], shape[1], 0.0));
+      DoubleMatrix primitive = filled(new DoubleMatrix(shape[0], shape[1]));
+      Matrix<Double> reference = new Plain<Double>(boxed);
+
+      double sum = reference.reduce(0.0, plus);
+      assertEquals(sum, boxed.reduce(0.0, plus), message + " sum");
+      assertEquals(sum, primitive.reduce(0.0, plus), message + " boxed sum");
+      assertEquals(sum, primitive.sum(), message + " primitive sum");
+      assertEquals(reference.reduce(Double.NEGATIVE_INFINITY, Math::max),
+          primitive.reduceDoubles(Double.NEGATIVE_INFINITY, Math::max), message + " max");
+
+      long positive = reference.count((x) -> x > 0);
+      assertEquals(positive, boxed.count((x) -> x > 0), message + " count");
+      assertEquals(positive, primitive.countDoubles((x) -> x > 0), message + " countDoubles");
+
+      Double[] rows = reference.reduceRows(0.0, plus, Double[]::new);
+      assertArrayEquals(rows, boxed.reduceRows(0.0, plus, Double[]::new), message + " rows");
+      assertArrayEquals(rows, primitive.reduceRows(0.0, plus, Double[]::new),
+          message + " boxed rows");
+      double[] rowSums = primitive.rowSums();
+      for (int row = 0; row < rows.length; row++) {
+        assertEquals(rows[row], rowSums[row], message + " rowSums " + row);
+      } // for
+
+      Double[] cols = reference.reduceCols(0.0, plus, Double[]::new);
+      assertArrayEquals(cols, boxed.reduceCols(0.0, plus, Double[]::new), message + " cols");
+      double[] colSums = primitive.colSums();
+      double[] colMins = primitive.reduceColDoubles(Double.POSITIVE_INFINITY, Math::min);
+      Double[] refMins = reference.reduceCols(Double.POSITIVE_INFINITY, Math::min,
+          Double[]::new);
+      for (int col = 0; col < cols.length; col++) {
+        assertEquals(cols[col], colSums[col], message + " colSums " + col);
+        assertEquals(refMins[col], colMins[col], message + " column minimum " + col);
+      } // for
+    } // for
+  } // testAgree()
+
+  /**
+   * Make sure that reductions combine in order, so that associative
+   * but not commutative operations work.
+   */
+  @Test
+  public void testOrder() {
+    Matrix<String> matrix = new MatrixV0<String>(300, 200, "");
+    for (int row = 0; row < matrix.height(); row++) {
+      matrix.set(row, 0, Character.toString('a' + row % 26));
+    } // for
+    StringBuilder expected = new StringBuilder();
+    for (int row = 0; row < matrix.height(); row++) {
+      expected.append((char) ('a' + row % 26));
+    } // for
+    assertEquals(expected.toString(), matrix.reduce("", String::concat), "in row order");
+    assertEquals(expected.toString(),
+        matrix.reduceCols("", String::concat, String[]::new)[0], "down a column");
+  } // testOrder()
+} // class TestReductions
@@ -0,0 +1,74 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static edu.grinnell.csc207.util.MatrixAssertions.contents;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of rope matrices.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestRopeMatrix {
+  /**
+   * Make sure many rows inserted and deleted at random across many
+   * chunks land in the right places.
+   */
+  @Test
+  public void testManyRows() throws ArraySizeException {
+    Random random = new Random(46);
+    Matrix<Integer> expected = new MatrixV0<Integer>(2, 0, -1);
+    RopeMatrix<Integer> actual = new RopeMatrix<Integer>(2, 0, -1);
+    for (int i = 0; i < 5000; i++) {
+      int row = random.nextInt(expected.height() + 1);
+      expected.insertRow(row, new Integer[] {i, row});
+      actual.insertRow(row, new Integer[] {i, row});
+    } // for
+    for (int i = 0; i < 3000; i++) {
+      int row = random.nextInt(expected.height());
+      expected.deleteRow(row);
+      actual.deleteRow(row);
+    } // for
+    actual.insertRow(2000);
+    expected.insertRow(2000);
+    assertMatrixEquals(contents(expected), actual, "after edits");
+    actual.fillRegion(100, 1, 1500, 2, 7);
+    expected.fillRegion(100, 1, 1500, 2, 7);
+    assertTrue(actual.equals(expected), "after a fill");
+  } // testManyRows()
+
+  /**
+   * Make sure rows can be split off and appended.
+   */
+  @Test
+  public void testSplitAndAppend() throws ArraySizeException {
+    RopeMatrix<Integer> top = new RopeMatrix<Integer>(3, 0);
+    for (int i = 0; i < 300; i++) {
+      top.insertRow(i, new Integer[] {i, i, i});
+    } // for
+    RopeMatrix<Integer> bottom = top.splitRows(130);
+    assertEquals(130, top.height(), "rows kept");
+    assertEquals(170, bottom.height(), "rows split off");
+    assertEquals(130, bottom.get(0, 0), "first row split off");
+    assertEquals(129, top.get(129, 2), "last row kept");
+
+    bottom.insertRow(0, new Integer[] {-1, -1, -1});
+    top.appendRows(bottom);
+    assertEquals(301, top.height(), "all rows back");
+    assertEquals(0, bottom.height(), "rows taken");
+    assertEquals(-1, top.get(130, 1), "row inserted in the part");
+    assertEquals(299, top.get(300, 0), "last row");
+    assertEquals(0, top.splitRows(0).get(0, 0), "split everything off");
+    assertEquals(0, top.height(), "nothing left");
+    assertThrows(ArraySizeException.class, () -> top.appendRows(new RopeMatrix<Integer>(2, 1)));
+    assertThrows(IllegalArgumentException.class, () -> bottom.appendRows(bottom),
+        "not to itself");
+  } // testSplitAndAppend()
+} // class TestRopeMatrix
@@ -0,0 +1,139 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of two-dimensional segment trees.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestSegmentTree2D {
+  /**
+   * Combine a rectangle the slow way.
+   *
+   * @param matrix
+   *   The matrix.
+   * @param agg
+   *   How to combine the cells.
+   * @param startRow
+   *   The top row (inclusive).
+   * @param startCol
+   *   The left column (inclusive).
+   * @param endRow
+   *   The bottom row (exclusive).
+   * @param endCol
+   *   The right column (exclusive).
+   *
+   * @return the combination.
+   */
+  static double naive(DoubleMatrix matrix, SegmentTree2D.Aggregate agg, int startRow,
+      int startCol, int endRow, int endCol) {
+    double result = agg.identity();
+    for (int row = startRow; row < endRow; row++) {
+      for (int col = startCol; col < endCol; col++) {
+        result = agg.combine(result, matrix.getDouble(row, col));
+      } // for col
+    } // for row
+    return result;
+  } // naive(DoubleMatrix, SegmentTree2D.Aggregate, int, int, int, int)
+
+  /**
+   * Compare many random rectangles to the slow results, for each tree.
+   *
+   * @param random
+   *   The source of randomness.
+   * @param matrix
+   *   The matrix.
+   * @param trees
+   *   The trees over it.
+   * @param message
+   *   The message to provide.
+   */
+  static void assertQueries(Random random, DoubleMatrix matrix, SegmentTree2D[] trees,
+      String message) {
+    for (int i = 0; i < 50; i++) {
+      int r0 = random.nextInt(matrix.height() + 1);
+      int r1 = r0 + random.nextInt(matrix.height() - r0 + 1);
+      int c0 = random.nextInt(matrix.width() + 1);
+      int c1 = c0 + random.nextInt(matrix.width() - c0 + 1);
+      if (i == 0) {
+        r0 = 0;
+        c0 = 0;
+        r1 = matrix.height();
+        c1 = matrix.width();
+      } // if
+      for (SegmentTree2D tree : trees) {
+        assertEquals(naive(matrix, tree.aggregate(), r0, c0, r1, c1),
+            tree.query(r0, c0, r1, c1), message + " " + tree.aggregate()
+            + " [" + r0 + ", " + c0 + ", " + r1 + ", " + c1 + "]");
+      } // for tree
+    } // for
+  } // assertQueries(Random, DoubleMatrix, SegmentTree2D[], String)
+
+  /**
+   * Follow a matrix through point updates, fills and changes of shape.
+   * The values are small integers, so every sum is exact.
+   */
+  @Test
+  public void testFollowsChanges() throws ArraySizeException {
+    Random random = new Random(207);
+    DoubleMatrix matrix = new DoubleMatrix(70, 100);
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < matrix.width(); col++) {
+        matrix.setDouble(row, col, random.nextInt(100) - 50);
+      } // for col
+    } // for row
+    SegmentTree2D[] trees = new SegmentTree2D[] {
+      new SegmentTree2D(matrix, SegmentTree2D.Aggregate.SUM),
+      new SegmentTree2D(matrix, SegmentTree2D.Aggregate.MIN),
+      new SegmentTree2D(matrix, SegmentTree2D.Aggregate.MAX),
+    };
+    assertQueries(random, matrix, trees, "fresh");
+    SegmentTree2D sums = trees[0];
+    assertEquals(128, sums.rowsBuilt(), "computed once, padded to 128 rows");
+
+    for (int i = 0; i < 500; i++) {
+      matrix.setDouble(random.nextInt(100), random.nextInt(70), random.nextInt(1000) - 500);
+    } // for
+    matrix.set(3, 4, -1000.0);
+    matrix.fillLine(0, 0, 1, 1, 70, 70, 999.0);
+    assertQueries(random, matrix, trees, "after sets");
+    assertEquals(128, sums.rowsBuilt(), "point updates recompute no rows");
+
+    matrix.fillRegion(10, 20, 30, 60, 3.0);
+    assertQueries(random, matrix, trees, "after fillRegion");
+    assertEquals(148, sums.rowsBuilt(), "fillRegion recomputes its rows");
+
+    matrix.insertRow(90);
+    assertQueries(random, matrix, trees, "after insertRow");
+    assertEquals(159, sums.rowsBuilt(), "insertRow recomputes the rows below it");
+    matrix.deleteRow(95);
+    assertQueries(random, matrix, trees, "after deleteRow");
+    assertEquals(165, sums.rowsBuilt(), "deleteRow recomputes the rows below it");
+
+    matrix.deleteCol(0);
+    matrix.transposeInPlace();
+    assertQueries(random, matrix, trees, "after deleteCol and transposeInPlace");
+    assertEquals(165 + 128, sums.rowsBuilt(), "rebuilt lazily");
+  } // testFollowsChanges()
+
+  /**
+   * Make sure that bad rectangles and detached trees are rejected.
+   */
+  @Test
+  public void testErrors() {
+    DoubleMatrix matrix = new DoubleMatrix(3, 2, 1.0);
+    SegmentTree2D tree = new SegmentTree2D(matrix, SegmentTree2D.Aggregate.MAX);
+    assertEquals(Double.NEGATIVE_INFINITY, tree.query(1, 1, 1, 3), "empty rectangle");
+    assertThrows(IndexOutOfBoundsException.class, () -> tree.query(0, 0, 3, 2), "too tall");
+    assertThrows(IndexOutOfBoundsException.class, () -> tree.query(1, 2, 1, 1), "backwards");
+    tree.detach();
+    matrix.set(0, 0, 5.0);
+    assertThrows(IllegalStateException.class, () -> tree.query(0, 0, 1, 1), "detached");
+  } // testErrors()
+} // class TestSegmentTree2D
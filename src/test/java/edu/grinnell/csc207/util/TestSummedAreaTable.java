@@ -0,0 +1,125 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of summed-area tables.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestSummedAreaTable {
+  /**
+   * Add up a rectangle the slow way.
+   *
+   * @param matrix
+   *   The matrix.
+   * @param startRow
+   *   The top row (inclusive).
+   * @param startCol
+   *   The left column (inclusive).
+   * @param endRow
+   *   The bottom row (exclusive).
+   * @param endCol
+   *   The right column (exclusive).
+   *
+   * @return the sum.
+   */
+  static double naiveSum(DoubleMatrix matrix, int startRow, int startCol, int endRow,
+      int endCol) {
+    double sum = 0;
+    for (int row = startRow; row < endRow; row++) {
+      for (int col = startCol; col < endCol; col++) {
+        sum += matrix.getDouble(row, col);
+      } // for col
+    } // for row
+    return sum;
+  } // naiveSum(DoubleMatrix, int, int, int, int)
+
+  /**
+   * Compare many random rectangles to the slow sums.
+   *
+   * @param random
+   *   The source of randomness.
+   * @param matrix
+   *   The matrix.
+   * @param table
+   *   The table over it.
+   * @param message
+   *   The message to provide.
+   */
+  static void assertSums(Random random, DoubleMatrix matrix, SummedAreaTable table,
+      String message) {
+    assertEquals(naiveSum(matrix, 0, 0, matrix.height(), matrix.width()),
+        table.sum(0, 0, matrix.height(), matrix.width()), message + " [everything]");
+    for (int i = 0; i < 50; i++) {
+      int r0 = random.nextInt(matrix.height() + 1);
+      int r1 = r0 + random.nextInt(matrix.height() - r0 + 1);
+      int c0 = random.nextInt(matrix.width() + 1);
+      int c1 = c0 + random.nextInt(matrix.width() - c0 + 1);
+      assertEquals(naiveSum(matrix, r0, c0, r1, c1), table.sum(r0, c0, r1, c1),
+          message + " [" + r0 + ", " + c0 + ", " + r1 + ", " + c1 + "]");
+    } // for
+  } // assertSums(Random, DoubleMatrix, SummedAreaTable, String)
+
+  /**
+   * Follow a matrix through point updates, fills and changes of shape.
+   * The values are small integers, so every sum is exact.
+   */
+  @Test
+  public void testFollowsChanges() throws ArraySizeException {
+    Random random = new Random(207);
+    DoubleMatrix matrix = new DoubleMatrix(300, 200);
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < matrix.width(); col++) {
+        matrix.setDouble(row, col, random.nextInt(100) - 50);
+      } // for col
+    } // for row
+    SummedAreaTable table = new SummedAreaTable(matrix);
+    assertSums(random, matrix, table, "fresh");
+    assertEquals(1, table.rebuilds(), "computed once");
+
+    // A few sets near the bottom right are remembered, then patched.
+    for (int i = 0; i < 3 * SummedAreaTable.MAX_PENDING; i++) {
+      matrix.setDouble(190 + random.nextInt(10), 290 + random.nextInt(10), i);
+    } // for
+    assertSums(random, matrix, table, "patched");
+    assertEquals(1, table.rebuilds(), "patching avoids a rebuild");
+
+    // Sets all over are cheaper to handle with a rebuild.
+    for (int i = 0; i < 2 * SummedAreaTable.MAX_PENDING; i++) {
+      matrix.set(random.nextInt(5), random.nextInt(5), (double) i);
+    } // for
+    matrix.fillLine(0, 0, 1, 1, 200, 200, 7.0);
+    assertSums(random, matrix, table, "after many sets");
+    assertEquals(2, table.rebuilds(), "rebuilt once");
+
+    matrix.fillRegion(10, 20, 110, 220, 3.0);
+    assertSums(random, matrix, table, "after fillRegion");
+    matrix.insertRow(50);
+    matrix.deleteCol(0);
+    assertSums(random, matrix, table, "after insertRow and deleteCol");
+    matrix.transposeInPlace();
+    assertSums(random, matrix, table, "after transposeInPlace");
+    assertEquals(5, table.rebuilds(), "rebuilt lazily");
+  } // testFollowsChanges()
+
+  /**
+   * Make sure that bad rectangles and detached tables are rejected.
+   */
+  @Test
+  public void testErrors() {
+    DoubleMatrix matrix = new DoubleMatrix(3, 2, 1.0);
+    SummedAreaTable table = new SummedAreaTable(matrix);
+    assertEquals(0.0, table.sum(1, 1, 1, 3), "empty rectangle");
+    assertThrows(IndexOutOfBoundsException.class, () -> table.sum(0, 0, 3, 2), "too tall");
+    assertThrows(IndexOutOfBoundsException.class, () -> table.sum(1, 2, 1, 1), "backwards");
+    table.detach();
+    matrix.set(0, 0, 5.0);
+    assertThrows(IllegalStateException.class, () -> table.sum(0, 0, 1, 1), "detached");
+  } // testErrors()
+} // class TestSummedAreaTable
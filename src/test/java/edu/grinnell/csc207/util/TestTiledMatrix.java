@@ -0,0 +1,44 @@
+package edu.grinnell.csc207.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of tiled matrices.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestTiledMatrix {
+  /**
+   * Make sure tiles are only allocated when written with something
+   * other than the default value.
+   */
+  @Test
+  public void testLazyTiles() throws ArraySizeException {
+    TiledMatrix<String> matrix = new TiledMatrix<String>(1000, 1000, ".");
+    assertEquals(256, matrix.tiles(), "16 by 16 tiles");
+    assertEquals(0, matrix.allocatedTiles(), "nothing allocated");
+    matrix.set(5, 5, ".");
+    matrix.fillRegion(100, 100, 300, 300, ".");
+    assertEquals(0, matrix.allocatedTiles(), "defaults allocate nothing");
+    matrix.set(999, 999, "x");
+    matrix.fillRegion(0, 0, 10, 200, "y");
+    assertEquals(5, matrix.allocatedTiles(), "one corner and one strip");
+    assertEquals(1000000 - 2001, matrix.count((x) -> ".".equals(x)), "count defaults");
+
+    matrix.insertRow(500);
+    matrix.insertCol(500);
+    assertEquals(5, matrix.allocatedTiles(), "default insertions stay lazy");
+    matrix.insertRow(0);
+    assertEquals(5, matrix.allocatedTiles(), "default halves of split tiles released");
+    assertEquals("y", matrix.get(1, 0), "rows below moved down");
+    assertEquals("x", matrix.get(1001, 1000), "corner moved");
+    matrix.fillRegion(0, 0, 64, 1001, ".");
+    assertEquals(1, matrix.allocatedTiles(), "overwritten tiles released");
+
+    matrix.transposeInPlace();
+    assertEquals("x", matrix.get(1000, 1001), "transposed corner");
+    assertEquals(1, matrix.allocatedTiles(), "transpose keeps tiles lazy");
+  } // testLazyTiles()
+} // class TestTiledMatrix
@@ -0,0 +1,83 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+import static edu.grinnell.csc207.util.MatrixAssertions.change;
+import static edu.grinnell.csc207.util.MatrixAssertions.contents;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of tombstone matrices.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestTombstoneMatrix {
+  /**
+   * Make sure random changes leave tombstones and compact them.
+   */
+  @Test
+  public void testRandomChanges() throws ArraySizeException {
+    Random random = new Random(50);
+    TombstoneMatrix<Integer> matrix = new TombstoneMatrix<Integer>(6, 7, 0);
+    for (int i = 0; i < 2000; i++) {
+      change(random, matrix);
+    } // for
+    assertTrue(matrix.compactions() > 0, "compacted");
+  } // testRandomChanges()
+
+  /**
+   * Make sure scattered deletions leave tombstones until there are
+   * enough to compact.
+   */
+  @Test
+  public void testCompaction() throws ArraySizeException {
+    Random random = new Random(500);
+    Matrix<Integer> expected = new MatrixV0<Integer>(100, 100, 0);
+    TombstoneMatrix<Integer> actual = new TombstoneMatrix<Integer>(100, 100, 0);
+    for (int row = 0; row < 100; row++) {
+      for (int col = 0; col < 100; col++) {
+        expected.set(row, col, row * 100 + col);
+        actual.set(row, col, row * 100 + col);
+      } // for col
+    } // for row
+
+    for (int i = 0; i < 25; i++) {
+      int col = random.nextInt(expected.width());
+      expected.deleteCol(col);
+      actual.deleteCol(col);
+    } // for
+    assertEquals(25, actual.tombstones(), "a quarter of the columns are tombstones");
+    assertEquals(0, actual.compactions(), "not yet compacted");
+    assertMatrixEquals(contents(expected), actual, "after deletions");
+
+    expected.deleteCol(0);
+    actual.deleteCol(0);
+    assertEquals(0, actual.tombstones(), "compacted");
+    assertEquals(1, actual.compactions(), "once");
+    assertMatrixEquals(contents(expected), actual, "after compaction");
+
+    for (int i = 0; i < 20; i++) {
+      int row = random.nextInt(expected.height());
+      expected.deleteRow(row);
+      actual.deleteRow(row);
+      expected.insertCol(i);
+      actual.insertCol(i);
+    } // for
+    assertEquals(20, actual.tombstones(), "rows are tombstones too");
+    actual.compact();
+    assertEquals(0, actual.tombstones(), "compacted on request");
+    assertMatrixEquals(contents(expected), actual, "after more edits");
+
+    actual.deleteRow(0);
+    assertEquals(1, actual.tombstones(), "one tombstone");
+    actual.setCompactionThreshold(0.001);
+    assertEquals(0, actual.tombstones(), "compacted at the new threshold");
+    assertThrows(IllegalArgumentException.class, () -> actual.setCompactionThreshold(1));
+  } // testCompaction()
+} // class TestTombstoneMatrix
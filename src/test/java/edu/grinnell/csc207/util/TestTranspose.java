@@ -0,0 +1,116 @@
+package edu.grinnell.csc207.util;
+
+import static edu.grinnell.csc207.util.MatrixAssertions.assertMatrixEquals;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests of transposition, in place and not.
+ *
+ * @author Andrew N. Fargo
+ */
+class TestTranspose {
+  /** Shapes (width, height) that are small, large, square and not. */
+  static final int[][] SHAPES = {{0, 0}, {0, 3}, {1, 1}, {1, 7}, {7, 1}, {2, 3},
+      {16, 16}, {17, 17}, {37, 53}, {100, 100}, {129, 40}};
+
+  /**
+   * Number the cells of a matrix, row by row.
+   *
+   * @param matrix
+   *   The matrix to fill.
+   *
+   * @return the matrix.
+   */
+  static <M extends Matrix<Double>> M numbered(M matrix) {
+    double val = 0;
+    for (int row = 0; row < matrix.height(); row++) {
+      for (int col = 0; col < matrix.width(); col++) {
+        matrix.set(row, col, val++);
+      } // for col
+    } // for row
+    return matrix;
+  } // numbered(M)
+
+  /**
+   * Check that one matrix is the transpose of another.
+   *
+   * @param original
+   *   The original matrix.
+   * @param transposed
+   *   The supposed transpose.
+   * @param message
+   *   The message to provide.
+   */
+  static void assertTransposed(Matrix<Double> original, Matrix<Double> transposed,
+      String message) {
+    assertEquals(original.width(), transposed.height(), message + " [height]");
+    assertEquals(original.height(), transposed.width(), message + " [width]");
+    for (int row = 0; row < original.height(); row++) {
+      for (int col = 0; col < original.width(); col++) {
+        assertEquals(original.get(row, col), transposed.get(col, row),
+            message + " [" + row + ", " + col + "]");
+      } // for col
+    } // for row
+  } // assertTransposed(Matrix<Double>, Matrix<Double>, String)
+
+  /**
+   * Transpose MatrixV0s of many shapes.
+   */
+  @Test
+  public void testMatrixV0() {
+    for (int[] shape : SHAPES) {
+      String message = shape[0] + "x" + shape[1];
+      Matrix<Double> original = numbered(new MatrixV0<Double>(shape[0], shape[1], 0.0));
+      Matrix<Double> copy = numbered(new MatrixV0<Double>(shape[0], shape[1], 0.0));
+      assertTransposed(original, original.transpose(), message);
+      assertEquals(copy, original, message + " transpose leaves the original alone");
+      copy.transposeInPlace();
+      assertTransposed(original, copy, message + " in place");
+      copy.transposeInPlace();
+      assertEquals(original, copy, message + " twice");
+    } // for
+  } // testMatrixV0()
+
+  /**
+   * Transpose DoubleMatrices of many shapes, including non-square ones
+   * in place.
+   */
+  @Test
+  public void testDoubleMatrix() {
+    for (int[] shape : SHAPES) {
+      String message = shape[0] + "x" + shape[1];
+      DoubleMatrix original = numbered(new DoubleMatrix(shape[0], shape[1]));
+      DoubleMatrix copy = original.clone();
+      assertTransposed(original, original.transpose(), message);
+      copy.transposeInPlace();
+      assertTransposed(original, copy, message + " in place");
+      copy.insertRow(0);
+      assertEquals(shape[1], copy.width(), message + " rows have the new width");
+    } // for
+  } // testDoubleMatrix()
+
+  /**
+   * Make sure that the transpose keeps the default value and that
+   * transposition is counted.
+   */
+  @Test
+  public void testDefaultsAndMetrics() throws ArraySizeException {
+    Matrix<String> matrix = new MatrixV0<String>(3, 2, "x");
+    matrix.set(0, 2, "a");
+    Matrix<String> transposed = matrix.transpose();
+    transposed.insertCol(2);
+    assertMatrixEquals(new String[][] {{"x", "x", "x"}, {"x", "x", "x"}, {"a", "x", "x"}},
+        transposed, "default value survives transposition");
+
+    MetricsMatrix<String> measured = new MetricsMatrix<String>(matrix);
+    measured.transposeInPlace();
+    assertTrue(measured.transpose() instanceof MetricsMatrix, "transposes are measured");
+    assertEquals(2, measured.snapshot().count(MatrixOperation.TRANSPOSE), "transposes");
+    assertMatrixEquals(new String[][] {{"x", "x"}, {"x", "x"}, {"a", "x"}}, measured,
+        "transposed through the wrapper");
+  } // testDefaultsAndMetrics()
+} // class TestTranspose